@@ -0,0 +1,154 @@
+/**
+ * vertigo - simple java starter
+ *
+ * Copyright (C) 2013-2019, KleeGroup, direction.technique@kleegroup.com (http://www.kleegroup.com)
+ * KleeGroup, Centre d'affaire la Boursidiere - BP 159 - 92357 Le Plessis Robinson Cedex - France
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.vertigo.rules.benchmarks;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.vertigo.account.account.Account;
+import io.vertigo.account.account.AccountGroup;
+import io.vertigo.rules.benchmarks.RulesBenchmarkAppConfig.Engine;
+import io.vertigo.rules.benchmarks.RulesBenchmarkAppConfig.Store;
+import io.vertigo.rules.benchmarks.data.BenchmarkIdentities;
+import io.vertigo.rules.benchmarks.data.RuleFixtures;
+import io.vertigo.rules.benchmarks.data.RuleFixtures.OperatorMix;
+import io.vertigo.rules.domain.RuleFilterDefinition;
+import io.vertigo.rules.domain.SelectorDefinition;
+import io.vertigo.rules.services.RuleContext;
+import io.vertigo.rules.services.RuleServices;
+
+/**
+ * Benchmarks of RuleServices.selectAccounts and selectGroups.
+ * Each selector targets its own group and one selector out of two matches the item.
+ *
+ * @author xdurand
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RuleSelectionBenchmark {
+
+	private static final Long ITEM_ID = 1L;
+
+	@Param({ "MEMORY", "SQL" })
+	public Store store;
+
+	@Param({ "SIMPLE", "COMPILED", "CACHED" })
+	public Engine engine;
+
+	@Param({ "1", "10", "50" })
+	public int selectorCount;
+
+	@Param({ "1", "5" })
+	public int filterCount;
+
+	@Param({ "EQUALS", "MIXED" })
+	public OperatorMix operatorMix;
+
+	@Param({ "8", "128" })
+	public int contextSize;
+
+	@Param({ "10" })
+	public int accountsPerGroup;
+
+	private RulesBenchmarkEnvironment environment;
+	private RuleServices ruleServices;
+	private RuleContext ruleContext;
+	private Map<Long, List<SelectorDefinition>> mapSelectors;
+	private Map<Long, List<RuleFilterDefinition>> mapFilters;
+
+	/**
+	 * Start the app and create the selectors.
+	 */
+	@Setup(Level.Trial)
+	public void setUp() {
+		environment = new RulesBenchmarkEnvironment(store, engine, selectorCount, accountsPerGroup);
+		ruleServices = environment.getRuleServices();
+
+		for (int i = 0; i < selectorCount; i++) {
+			final SelectorDefinition selectorDefinition = new SelectorDefinition();
+			selectorDefinition.setItemId(ITEM_ID);
+			selectorDefinition.setGroupId(BenchmarkIdentities.getGroupId(i));
+			ruleServices.addSelector(selectorDefinition);
+
+			for (int j = 0; j < filterCount; j++) {
+				final boolean matching = i % 2 == 0 || j < filterCount - 1;
+				final RuleFilterDefinition ruleFilterDefinition = RuleFixtures.createFilter(j, operatorMix, matching);
+				ruleFilterDefinition.setSelId(selectorDefinition.getId());
+				ruleServices.addFilter(ruleFilterDefinition);
+			}
+		}
+
+		// Preloaded selectors and filters, as used by the workflow
+		final List<SelectorDefinition> selectors = ruleServices.getSelectorsForItemId(ITEM_ID);
+		mapSelectors = Collections.singletonMap(ITEM_ID, selectors);
+		mapFilters = new HashMap<>();
+		for (final SelectorDefinition selectorDefinition : selectors) {
+			mapFilters.put(selectorDefinition.getId(), ruleServices.getFiltersForSelectorId(selectorDefinition.getId()));
+		}
+
+		ruleContext = new RuleContext(RuleFixtures.createItem(ITEM_ID), RuleFixtures.createConstants(contextSize));
+	}
+
+	/**
+	 * Rollback and stop the app.
+	 */
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		environment.close();
+	}
+
+	/**
+	 * @return the selected accounts
+	 */
+	@Benchmark
+	public List<Account> selectAccounts() {
+		return ruleServices.selectAccounts(ITEM_ID, ruleContext);
+	}
+
+	/**
+	 * @return the selected groups
+	 */
+	@Benchmark
+	public List<AccountGroup> selectGroups() {
+		return ruleServices.selectGroups(ITEM_ID, ruleContext, mapSelectors, mapFilters);
+	}
+
+}
@@ -0,0 +1,147 @@
+/**
+ * vertigo - simple java starter
+ *
+ * Copyright (C) 2013-2019, KleeGroup, direction.technique@kleegroup.com (http://www.kleegroup.com)
+ * KleeGroup, Centre d'affaire la Boursidiere - BP 159 - 92357 Le Plessis Robinson Cedex - France
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.vertigo.rules.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.vertigo.rules.benchmarks.RulesBenchmarkAppConfig.Engine;
+import io.vertigo.rules.benchmarks.RulesBenchmarkAppConfig.Store;
+import io.vertigo.rules.benchmarks.data.BenchmarkItem;
+import io.vertigo.rules.benchmarks.data.RuleFixtures;
+import io.vertigo.rules.benchmarks.data.RuleFixtures.OperatorMix;
+import io.vertigo.rules.domain.RuleConditionDefinition;
+import io.vertigo.rules.domain.RuleDefinition;
+import io.vertigo.rules.services.RuleConstants;
+import io.vertigo.rules.services.RuleContext;
+import io.vertigo.rules.services.RuleServices;
+
+/**
+ * Benchmarks of RuleServices.isRuleValid.
+ * Only the last rule of the item matches, and only on its last condition : every rule is evaluated.
+ *
+ * @author xdurand
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RuleValidationBenchmark {
+
+	private static final Long ITEM_ID = 1L;
+
+	@Param({ "MEMORY", "SQL" })
+	public Store store;
+
+	@Param({ "SIMPLE", "COMPILED", "INDEXED", "GENERATED" })
+	public Engine engine;
+
+	@Param({ "1", "10", "100" })
+	public int ruleCount;
+
+	@Param({ "1", "10" })
+	public int conditionCount;
+
+	@Param({ "EQUALS", "MIXED" })
+	public OperatorMix operatorMix;
+
+	@Param({ "8", "128" })
+	public int contextSize;
+
+	private RulesBenchmarkEnvironment environment;
+	private RuleServices ruleServices;
+	private BenchmarkItem item;
+	private RuleConstants ruleConstants;
+	private RuleContext ruleContext;
+
+	/**
+	 * Start the app and create the rules.
+	 */
+	@Setup(Level.Trial)
+	public void setUp() {
+		environment = new RulesBenchmarkEnvironment(store, engine, 1, 1);
+		ruleServices = environment.getRuleServices();
+
+		for (int i = 0; i < ruleCount; i++) {
+			final RuleDefinition ruleDefinition = new RuleDefinition();
+			ruleDefinition.setItemId(ITEM_ID);
+			ruleServices.addRule(ruleDefinition);
+
+			for (int j = 0; j < conditionCount; j++) {
+				final boolean matching = i == ruleCount - 1 || j < conditionCount - 1;
+				final RuleConditionDefinition ruleConditionDefinition = RuleFixtures.createCondition(j, operatorMix, matching);
+				ruleConditionDefinition.setRudId(ruleDefinition.getId());
+				ruleServices.addCondition(ruleConditionDefinition);
+			}
+		}
+
+		item = RuleFixtures.createItem(ITEM_ID);
+		ruleConstants = RuleFixtures.createConstants(contextSize);
+		ruleContext = new RuleContext(item, ruleConstants);
+	}
+
+	/**
+	 * Rollback and stop the app.
+	 */
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		environment.close();
+	}
+
+	/**
+	 * @return the validation result
+	 */
+	@Benchmark
+	public boolean isRuleValid() {
+		return ruleServices.isRuleValid(ITEM_ID, ruleContext);
+	}
+
+	/**
+	 * @return the validation result, including the build of the context
+	 */
+	@Benchmark
+	public boolean isRuleValidWithNewContext() {
+		return ruleServices.isRuleValid(ITEM_ID, new RuleContext(item, ruleConstants));
+	}
+
+	/**
+	 * @return the validation result, including the build of a lazy context
+	 */
+	@Benchmark
+	public boolean isRuleValidWithNewLazyContext() {
+		return ruleServices.isRuleValid(ITEM_ID, RuleContext.lazyOf(item, ruleConstants));
+	}
+
+}
@@ -0,0 +1,194 @@
+/**
+ * vertigo - simple java starter
+ *
+ * Copyright (C) 2013-2019, KleeGroup, direction.technique@kleegroup.com (http://www.kleegroup.com)
+ * KleeGroup, Centre d'affaire la Boursidiere - BP 159 - 92357 Le Plessis Robinson Cedex - France
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.vertigo.rules.benchmarks;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+
+import org.h2.tools.RunScript;
+
+import io.vertigo.account.AccountFeatures;
+import io.vertigo.account.plugins.account.store.loader.LoaderAccountStorePlugin;
+import io.vertigo.app.config.AppConfig;
+import io.vertigo.app.config.ModuleConfig;
+import io.vertigo.commons.impl.CommonsFeatures;
+import io.vertigo.core.param.Param;
+import io.vertigo.core.plugins.resource.classpath.ClassPathResourceResolverPlugin;
+import io.vertigo.database.DatabaseFeatures;
+import io.vertigo.database.impl.sql.vendor.h2.H2DataBase;
+import io.vertigo.database.plugins.sql.connection.c3p0.C3p0ConnectionProviderPlugin;
+import io.vertigo.dynamo.impl.DynamoFeatures;
+import io.vertigo.dynamo.plugins.store.datastore.sql.SqlDataStorePlugin;
+import io.vertigo.lang.WrappedException;
+import io.vertigo.persona.impl.security.PersonaFeatures;
+import io.vertigo.rules.benchmarks.data.BenchmarkIdentities;
+import io.vertigo.rules.benchmarks.data.BenchmarkItemProvider;
+import io.vertigo.rules.benchmarks.data.BenchmarkUserSession;
+import io.vertigo.rules.impl.RulesFeatures;
+import io.vertigo.rules.plugins.memory.MemoryRuleConstantsStorePlugin;
+import io.vertigo.rules.plugins.memory.MemoryRuleStorePlugin;
+import io.vertigo.rules.plugins.selector.CachedRuleSelectorPlugin;
+import io.vertigo.rules.plugins.selector.CompiledRuleSelectorPlugin;
+import io.vertigo.rules.plugins.selector.SimpleRuleSelectorPlugin;
+import io.vertigo.rules.plugins.validator.CompiledRuleValidatorPlugin;
+import io.vertigo.rules.plugins.validator.GeneratedRuleValidatorPlugin;
+import io.vertigo.rules.plugins.validator.IndexedRuleValidatorPlugin;
+import io.vertigo.rules.plugins.validator.SimpleRuleValidatorPlugin;
+
+/**
+ * Config for the rules benchmarks.
+ *
+ * @author xdurand
+ *
+ */
+public final class RulesBenchmarkAppConfig {
+
+	// Rule sets are cached, as in production
+	private static final int RULE_SET_CACHE_SIZE = 10_000;
+	private static final int RULE_SET_CACHE_SECONDS = 3600;
+	private static final String H2_JDBC_URL = "jdbc:h2:mem:rules;DB_CLOSE_DELAY=-1";
+	private static final String H2_SCHEMA = "io/vertigo/rules/h2-rules.sql";
+
+	/**
+	 * Rule store used by a benchmark.
+	 */
+	public enum Store {
+		/** MemoryRuleStorePlugin */
+		MEMORY,
+		/** SQLRuleStorePlugin on an embedded H2 database */
+		SQL
+	}
+
+	/**
+	 * Rule selector and validator used by a benchmark.
+	 */
+	public enum Engine {
+		/** SimpleRuleSelectorPlugin and SimpleRuleValidatorPlugin */
+		SIMPLE,
+		/** CompiledRuleSelectorPlugin and CompiledRuleValidatorPlugin */
+		COMPILED,
+		/** CachedRuleSelectorPlugin and CompiledRuleValidatorPlugin */
+		CACHED,
+		/** CompiledRuleSelectorPlugin and IndexedRuleValidatorPlugin */
+		INDEXED,
+		/** CompiledRuleSelectorPlugin and GeneratedRuleValidatorPlugin */
+		GENERATED
+	}
+
+	private RulesBenchmarkAppConfig() {
+		// Helper
+	}
+
+	/**
+	 * Configure the app for benchmarking.
+	 * The H2 schema is created beforehand when the SQL store is used.
+	 *
+	 * @param store the rule store
+	 * @param engine the rule selector and validator
+	 * @return the application config for benchmarking
+	 */
+	public static AppConfig config(final Store store, final Engine engine) {
+		final RulesFeatures rulesFeatures = new RulesFeatures()
+				.withRuleSetCache(RULE_SET_CACHE_SIZE, RULE_SET_CACHE_SECONDS)
+				.withRuleConstantsStorePlugin(MemoryRuleConstantsStorePlugin.class);
+		if (store == Store.SQL) {
+			createH2Schema();
+			rulesFeatures.withDAOSupportRuleStorePlugin();
+		} else {
+			rulesFeatures.withRuleStorePlugin(MemoryRuleStorePlugin.class);
+		}
+		switch (engine) {
+			case COMPILED:
+				rulesFeatures
+						.withRuleSelectorPlugin(CompiledRuleSelectorPlugin.class)
+						.withRuleValidatorPlugin(CompiledRuleValidatorPlugin.class);
+				break;
+			case CACHED:
+				rulesFeatures
+						.withRuleSelectorPlugin(CachedRuleSelectorPlugin.class)
+						.withRuleValidatorPlugin(CompiledRuleValidatorPlugin.class);
+				break;
+			case INDEXED:
+				rulesFeatures
+						.withRuleSelectorPlugin(CompiledRuleSelectorPlugin.class)
+						.withRuleValidatorPlugin(IndexedRuleValidatorPlugin.class);
+				break;
+			case GENERATED:
+				rulesFeatures
+						.withRuleSelectorPlugin(CompiledRuleSelectorPlugin.class)
+						.withRuleValidatorPlugin(GeneratedRuleValidatorPlugin.class);
+				break;
+			default:
+				rulesFeatures
+						.withRuleSelectorPlugin(SimpleRuleSelectorPlugin.class)
+						.withRuleValidatorPlugin(SimpleRuleValidatorPlugin.class);
+				break;
+		}
+
+		return AppConfig.builder()
+				.beginBoot()
+				.withLocales("fr")
+				.addPlugin(ClassPathResourceResolverPlugin.class)
+				.endBoot()
+				.addModule(new PersonaFeatures()
+						.withUserSession(BenchmarkUserSession.class)
+						.build())
+				.addModule(new CommonsFeatures()
+						.withCache(io.vertigo.commons.plugins.cache.memory.MemoryCachePlugin.class)
+						.withScript()
+						.build())
+				.addModule(new DatabaseFeatures()
+						.withSqlDataBase()
+						.addSqlConnectionProviderPlugin(C3p0ConnectionProviderPlugin.class,
+								Param.of("dataBaseClass", H2DataBase.class.getName()),
+								Param.of("jdbcDriver", org.h2.Driver.class.getName()),
+								Param.of("jdbcUrl", H2_JDBC_URL))
+						.build())
+				.addModule(new DynamoFeatures()
+						.withStore()
+						.addDataStorePlugin(SqlDataStorePlugin.class)
+						.build())
+				.addModule(new AccountFeatures()
+						.withAccountStorePlugin(LoaderAccountStorePlugin.class,
+								Param.of("accountLoaderName", "BenchmarkIdentities"),
+								Param.of("groupLoaderName", "BenchmarkIdentities"))
+						.build())
+				.addModule(ModuleConfig.builder("benchmark")
+						.addDefinitionProvider(BenchmarkItemProvider.class)
+						.addComponent(BenchmarkIdentities.class)
+						.build())
+				.addModule(rulesFeatures.build())
+				.build();
+	}
+
+	private static void createH2Schema() {
+		try (final Connection connection = DriverManager.getConnection(H2_JDBC_URL);
+				final Reader schema = new InputStreamReader(
+						RulesBenchmarkAppConfig.class.getClassLoader().getResourceAsStream(H2_SCHEMA), StandardCharsets.UTF_8)) {
+			RunScript.execute(connection, schema);
+		} catch (final SQLException | IOException e) {
+			throw WrappedException.wrap(e);
+		}
+	}
+}
@@ -0,0 +1,78 @@
+/**
+ * vertigo - simple java starter
+ *
+ * Copyright (C) 2013-2019, KleeGroup, direction.technique@kleegroup.com (http://www.kleegroup.com)
+ * KleeGroup, Centre d'affaire la Boursidiere - BP 159 - 92357 Le Plessis Robinson Cedex - France
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.vertigo.rules.benchmarks;
+
+import javax.inject.Inject;
+
+import io.vertigo.app.AutoCloseableApp;
+import io.vertigo.commons.transaction.VTransactionManager;
+import io.vertigo.commons.transaction.VTransactionWritable;
+import io.vertigo.core.component.di.injector.DIInjector;
+import io.vertigo.rules.benchmarks.RulesBenchmarkAppConfig.Engine;
+import io.vertigo.rules.benchmarks.RulesBenchmarkAppConfig.Store;
+import io.vertigo.rules.benchmarks.data.BenchmarkIdentities;
+import io.vertigo.rules.services.RuleServices;
+
+/**
+ * Running app for one benchmark trial.
+ * A transaction stays open during the trial (the SQL store needs it) and is rolled back at the end.
+ *
+ * @author xdurand
+ *
+ */
+final class RulesBenchmarkEnvironment implements AutoCloseable {
+
+	private final AutoCloseableApp app;
+	private final VTransactionWritable transaction;
+
+	@Inject
+	private VTransactionManager transactionManager;
+
+	@Inject
+	private BenchmarkIdentities identities;
+
+	@Inject
+	private RuleServices ruleServices;
+
+	/**
+	 * @param store the rule store
+	 * @param engine the rule selector and validator
+	 * @param groupCount number of groups
+	 * @param accountsPerGroup number of accounts in each group
+	 */
+	RulesBenchmarkEnvironment(final Store store, final Engine engine, final int groupCount, final int accountsPerGroup) {
+		app = new AutoCloseableApp(RulesBenchmarkAppConfig.config(store, engine));
+		DIInjector.injectMembers(this, app.getComponentSpace());
+		identities.initData(groupCount, accountsPerGroup);
+		transaction = transactionManager.createCurrentTransaction();
+	}
+
+	/**
+	 * @return the rule services
+	 */
+	RuleServices getRuleServices() {
+		return ruleServices;
+	}
+
+	@Override
+	public void close() {
+		transaction.rollback();
+		app.close();
+	}
+}
@@ -0,0 +1,58 @@
+/**
+ * vertigo - simple java starter
+ *
+ * Copyright (C) 2013-2019, KleeGroup, direction.technique@kleegroup.com (http://www.kleegroup.com)
+ * KleeGroup, Centre d'affaire la Boursidiere - BP 159 - 92357 Le Plessis Robinson Cedex - France
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.vertigo.rules.benchmarks.data;
+
+import java.util.List;
+
+import io.vertigo.core.definition.Definition;
+import io.vertigo.core.definition.DefinitionSpace;
+import io.vertigo.core.definition.SimpleDefinitionProvider;
+import io.vertigo.dynamo.domain.metamodel.DataType;
+import io.vertigo.dynamo.domain.metamodel.Domain;
+import io.vertigo.dynamo.domain.metamodel.DtDefinition;
+import io.vertigo.util.ListBuilder;
+
+/**
+ * Provides the definitions for the BenchmarkItem.
+ * @author xdurand
+ */
+public final class BenchmarkItemProvider implements SimpleDefinitionProvider {
+
+	@Override
+	public List<Definition> provideDefinitions(final DefinitionSpace definitionSpace) {
+		final Domain domainBenchmarkId = Domain.builder("DO_X_BENCHMARK_ID", DataType.Long).build();
+		final Domain domainBenchmarkCode = Domain.builder("DO_X_BENCHMARK_CODE", DataType.String).build();
+		final Domain domainBenchmarkAmount = Domain.builder("DO_X_BENCHMARK_AMOUNT", DataType.Long).build();
+
+		final DtDefinition benchmarkItemDtDefinition = DtDefinition.builder("DT_BENCHMARK_ITEM")
+				.addIdField("ID", "id", domainBenchmarkId)
+				.addDataField("ENTITY", "entity", domainBenchmarkCode, true, true)
+				.addDataField("DIVISION", "division", domainBenchmarkCode, true, true)
+				.addDataField("AMOUNT", "amount", domainBenchmarkAmount, true, true)
+				.build();
+
+		return new ListBuilder<Definition>()
+				.add(domainBenchmarkId)
+				.add(domainBenchmarkCode)
+				.add(domainBenchmarkAmount)
+				.add(benchmarkItemDtDefinition)
+				.build();
+	}
+
+}
@@ -0,0 +1,38 @@
+/**
+ * vertigo - simple java starter
+ *
+ * Copyright (C) 2013-2019, KleeGroup, direction.technique@kleegroup.com (http://www.kleegroup.com)
+ * KleeGroup, Centre d'affaire la Boursidiere - BP 159 - 92357 Le Plessis Robinson Cedex - France
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.vertigo.rules.benchmarks.data;
+
+import java.util.Locale;
+
+import io.vertigo.persona.security.UserSession;
+
+/**
+ * User session for the benchmarks
+ * @author xdurand
+ *
+ */
+public final class BenchmarkUserSession extends UserSession {
+	private static final long serialVersionUID = 1L;
+
+	@Override
+	public Locale getLocale() {
+		return Locale.FRENCH;
+	}
+
+}
@@ -0,0 +1,123 @@
+/**
+ * vertigo - simple java starter
+ *
+ * Copyright (C) 2013-2019, KleeGroup, direction.technique@kleegroup.com (http://www.kleegroup.com)
+ * KleeGroup, Centre d'affaire la Boursidiere - BP 159 - 92357 Le Plessis Robinson Cedex - France
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.vertigo.rules.benchmarks.data;
+
+import io.vertigo.rules.domain.RuleConditionDefinition;
+import io.vertigo.rules.domain.RuleFilterDefinition;
+import io.vertigo.rules.services.RuleConstants;
+
+/**
+ * Builds the items, constants, conditions and filters used by the benchmarks.
+ * The item has DIVISION = DIV, ENTITY = ENT and AMOUNT = 500.
+ *
+ * @author xdurand
+ *
+ */
+public final class RuleFixtures {
+
+	/**
+	 * Operators used by the conditions and filters.
+	 */
+	public enum OperatorMix {
+		/** Only = */
+		EQUALS,
+		/** =, IN, &lt; and &gt; in turn */
+		MIXED
+	}
+
+	private static final String[] MIXED_OPERATORS = { "=", "IN", "<", ">" };
+
+	private RuleFixtures() {
+		// Helper
+	}
+
+	/**
+	 * @param id the id of the item
+	 * @return a new item
+	 */
+	public static BenchmarkItem createItem(final Long id) {
+		final BenchmarkItem item = new BenchmarkItem();
+		item.setId(id);
+		item.setDivision("DIV");
+		item.setEntity("ENT");
+		item.setAmount(500L);
+		return item;
+	}
+
+	/**
+	 * @param constantCount number of constants
+	 * @return constants CST_0=V_0 ... CST_n=V_n
+	 */
+	public static RuleConstants createConstants(final int constantCount) {
+		final RuleConstants ruleConstants = new RuleConstants();
+		for (int i = 0; i < constantCount; i++) {
+			ruleConstants.addConstant("CST_" + i, "V_" + i);
+		}
+		return ruleConstants;
+	}
+
+	/**
+	 * @param index index of the condition in its rule
+	 * @param operatorMix operators to use
+	 * @param matching true if the condition must match the item
+	 * @return a new condition, not attached to a rule
+	 */
+	public static RuleConditionDefinition createCondition(final int index, final OperatorMix operatorMix, final boolean matching) {
+		final String[] condition = describe(index, operatorMix, matching);
+		final RuleConditionDefinition ruleConditionDefinition = new RuleConditionDefinition();
+		ruleConditionDefinition.setField(condition[0]);
+		ruleConditionDefinition.setOperator(condition[1]);
+		ruleConditionDefinition.setExpression(condition[2]);
+		return ruleConditionDefinition;
+	}
+
+	/**
+	 * @param index index of the filter in its selector
+	 * @param operatorMix operators to use
+	 * @param matching true if the filter must match the item
+	 * @return a new filter, not attached to a selector
+	 */
+	public static RuleFilterDefinition createFilter(final int index, final OperatorMix operatorMix, final boolean matching) {
+		final String[] filter = describe(index, operatorMix, matching);
+		final RuleFilterDefinition ruleFilterDefinition = new RuleFilterDefinition();
+		ruleFilterDefinition.setField(filter[0]);
+		ruleFilterDefinition.setOperator(filter[1]);
+		ruleFilterDefinition.setExpression(filter[2]);
+		return ruleFilterDefinition;
+	}
+
+	// field, operator, expression
+	private static String[] describe(final int index, final OperatorMix operatorMix, final boolean matching) {
+		final String operator = operatorMix == OperatorMix.EQUALS ? "=" : MIXED_OPERATORS[index % MIXED_OPERATORS.length];
+		switch (operator) {
+			case "IN":
+				return new String[] { "ENTITY", operator, matching ? "ABC,ENT,XYZ" : "ABC,XYZ" };
+			case "<":
+				return new String[] { "AMOUNT", operator, matching ? "1000" : "100" };
+			case ">":
+				return new String[] { "AMOUNT", operator, matching ? "100" : "1000" };
+			default:
+				// Equals conditions alternate between the item and the constants
+				if (index % 2 == 0) {
+					return new String[] { "DIVISION", operator, matching ? "DIV" : "XXX" };
+				}
+				return new String[] { "CST_0", operator, matching ? "V_0" : "XXX" };
+		}
+	}
+}
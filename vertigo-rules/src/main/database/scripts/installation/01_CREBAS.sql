@@ -33,6 +33,30 @@ comment on column RULE_CONDITION_DEFINITION.EXPRESSION is
 comment on column RULE_CONDITION_DEFINITION.RUD_ID is
 'RuleDefinition';
 
+-- ============================================================
+--   Table : RULE_CONSTANT_DEFINITION                                        
+-- ============================================================
+create table RULE_CONSTANT_DEFINITION
+(
+    ID          	 NUMERIC     	identity,
+    ITEM_ID     	 NUMERIC     	,
+    FIELD       	 VARCHAR(100)	,
+    EXPRESSION  	 VARCHAR(100)	,
+    constraint PK_RULE_CONSTANT_DEFINITION primary key nonclustered (ID)
+);
+
+comment on column RULE_CONSTANT_DEFINITION.ID is
+'id';
+
+comment on column RULE_CONSTANT_DEFINITION.ITEM_ID is
+'itemId';
+
+comment on column RULE_CONSTANT_DEFINITION.FIELD is
+'field';
+
+comment on column RULE_CONSTANT_DEFINITION.EXPRESSION is
+'expression';
+
 -- ============================================================
 --   Table : RULE_DEFINITION                                        
 -- ============================================================
@@ -116,10 +140,20 @@ alter table RULE_CONDITION_DEFINITION
 
 create index RUD_COD_RULE_DEFINITION_FK on RULE_CONDITION_DEFINITION (RUD_ID asc);
 
+create index RCD_FIELD_EXPRESSION on RULE_CONDITION_DEFINITION (FIELD asc, EXPRESSION asc, RUD_ID asc);
+
+create index RUD_ITEM_ID on RULE_DEFINITION (ITEM_ID asc, ID asc);
+
 alter table RULE_FILTER_DEFINITION
 	add constraint FK_SEL_FID_SELECTOR_DEFINITION foreign key (SEL_ID)
 	references SELECTOR_DEFINITION (ID);
 
 create index SEL_FID_SELECTOR_DEFINITION_FK on RULE_FILTER_DEFINITION (SEL_ID asc);
 
+-- Ids of the constants inserted in batch (see TK_INSERT_CONSTANTS)
+create sequence SEQ_RULE_CONSTANT_DEFINITION
+	start with 1000 cache 20;
+
+create index RCO_ITEM_ID on RULE_CONSTANT_DEFINITION (ITEM_ID asc);
+
 
@@ -0,0 +1,136 @@
+/**
+ * vertigo - simple java starter
+ *
+ * Copyright (C) 2013-2019, KleeGroup, direction.technique@kleegroup.com (http://www.kleegroup.com)
+ * KleeGroup, Centre d'affaire la Boursidiere - BP 159 - 92357 Le Plessis Robinson Cedex - France
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.vertigo.rules.impl;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import io.vertigo.commons.transaction.VTransactionManager;
+import io.vertigo.lang.Assertion;
+
+/**
+ * Cache of the compiled forms (predicates, indexes) of the definitions of the rule store.
+ * The definitions read from the store are compiled once per key in a TransactionalCache :
+ * only committed definitions are cached, and a key invalidated by a transaction is dropped again once it is completed.
+ * The definitions preloaded by a caller (a rule set) are compiled once per instance of these definitions, never per key :
+ * the compiled form of a preloaded snapshot never hides the definitions read by another caller.
+ *
+ * @author xdurand
+ *
+ * @param <K> the type of the keys of the definitions read from the store
+ * @param <C> the type of the compiled forms
+ */
+public final class CompiledDefinitionCache<K, C> {
+
+	private final TransactionalCache<K, C> compiledByKey;
+	private final TransactionalCache<Sources, C> compiledBySources;
+
+	/**
+	 * Constructor.
+	 * @param transactionManager the transaction manager
+	 * @param maxSize max number of compiled forms in cache, for each kind of definitions (read from the store or preloaded)
+	 * @param ttlSeconds time to live of a compiled form in cache
+	 */
+	public CompiledDefinitionCache(final VTransactionManager transactionManager, final int maxSize, final int ttlSeconds) {
+		compiledByKey = new TransactionalCache<>(transactionManager, maxSize, ttlSeconds);
+		compiledBySources = new TransactionalCache<>(transactionManager, maxSize, ttlSeconds);
+	}
+
+	/**
+	 * Compiled form of definitions read from the store.
+	 *
+	 * @param key the key of the definitions
+	 * @param compiler the reader and compiler of the definitions of a missing or expired key
+	 * @return the compiled form
+	 */
+	public C get(final K key, final Function<K, C> compiler) {
+		return compiledByKey.get(key, compiler);
+	}
+
+	/**
+	 * Compiled form of preloaded definitions.
+	 *
+	 * @param sources the preloaded definitions (compared by identity, a null element stands for missing definitions)
+	 * @param compiler the compiler of these definitions
+	 * @return the compiled form
+	 */
+	public C get(final List<?> sources, final Supplier<C> compiler) {
+		Assertion.checkNotNull(sources);
+		Assertion.checkNotNull(compiler);
+		//---
+		return compiledBySources.get(new Sources(sources), key -> compiler.get());
+	}
+
+	/**
+	 * Called after a change of the definitions of a key.
+	 *
+	 * @param key the key
+	 */
+	public void invalidate(final K key) {
+		compiledByKey.invalidate(key);
+	}
+
+	/**
+	 * Called after a change of definitions whose keys are unknown.
+	 */
+	public void invalidateAll() {
+		compiledByKey.invalidateAll();
+	}
+
+	/**
+	 * Identity of preloaded definitions : the cached form is never stale, preloaded definitions are immutable.
+	 */
+	private static final class Sources {
+		private final Object[] sources;
+		private final int hashCode;
+
+		Sources(final List<?> sources) {
+			this.sources = sources.toArray();
+			int hash = 1;
+			for (final Object source : this.sources) {
+				hash = 31 * hash + System.identityHashCode(source);
+			}
+			hashCode = hash;
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+
+		@Override
+		public boolean equals(final Object obj) {
+			if (!(obj instanceof Sources)) {
+				return false;
+			}
+			final Object[] otherSources = ((Sources) obj).sources;
+			if (otherSources.length != sources.length) {
+				return false;
+			}
+			for (int i = 0; i < sources.length; i++) {
+				if (otherSources[i] != sources[i]) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+
+}
@@ -0,0 +1,184 @@
+/**
+ * vertigo - simple java starter
+ *
+ * Copyright (C) 2013-2019, KleeGroup, direction.technique@kleegroup.com (http://www.kleegroup.com)
+ * KleeGroup, Centre d'affaire la Boursidiere - BP 159 - 92357 Le Plessis Robinson Cedex - France
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.vertigo.rules.impl;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BooleanSupplier;
+
+import io.vertigo.lang.Assertion;
+import io.vertigo.rules.domain.RuleConditionDefinition;
+import io.vertigo.rules.domain.RuleDefinition;
+import io.vertigo.rules.services.RuleContext;
+import io.vertigo.rules.services.RuleSet;
+
+/**
+ * Outcomes of the validation of the rules of an item, by version of the rule sets and values of the fields the rules reference.
+ * An item whose referenced fields (and constants) are unchanged is not evaluated again.
+ * At most maxSize outcomes are kept, least recently used outcomes are dropped first.
+ *
+ * @author xdurand
+ */
+final class RuleOutcomeCache {
+
+	private final Map<OutcomeKey, Boolean> outcomes;
+	// Fields referenced by the rules of each item, for the current version of the rule sets
+	private final Map<Long, ReferencedFields> referencedFieldsByItemId = new ConcurrentHashMap<>();
+
+	/**
+	 * Constructor.
+	 * @param maxSize max number of outcomes in cache
+	 */
+	RuleOutcomeCache(final int maxSize) {
+		Assertion.checkArgument(maxSize > 0, "maxSize must be positive");
+		//---
+		outcomes = Collections.synchronizedMap(new LinkedHashMap<OutcomeKey, Boolean>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(final Map.Entry<OutcomeKey, Boolean> eldest) {
+				return size() > maxSize;
+			}
+		});
+	}
+
+	/**
+	 * Read the outcome of the rules of an item, or evaluate and keep it.
+	 *
+	 * @param generation version of the rule set
+	 * @param itemId the item id
+	 * @param ruleSet the rule set, of this version
+	 * @param context the context
+	 * @param evaluation evaluation of the rules when the outcome is unknown
+	 * @return true if a rule is valid
+	 */
+	boolean getOrEvaluate(final long generation, final Long itemId, final RuleSet ruleSet, final RuleContext context, final BooleanSupplier evaluation) {
+		ReferencedFields referencedFields = referencedFieldsByItemId.get(itemId);
+		if (referencedFields == null || referencedFields.generation != generation) {
+			referencedFields = ReferencedFields.of(generation, ruleSet.getRules(itemId), ruleSet.getConditionsByRuleId());
+			referencedFieldsByItemId.put(itemId, referencedFields);
+		}
+		final OutcomeKey key = new OutcomeKey(generation, itemId, referencedFields.readValues(context));
+		final Boolean outcome = outcomes.get(key);
+		if (outcome != null) {
+			return outcome;
+		}
+		final boolean evaluated = evaluation.getAsBoolean();
+		outcomes.put(key, evaluated);
+		return evaluated;
+	}
+
+	/**
+	 * Drop all the outcomes : the rule sets have changed.
+	 */
+	void clear() {
+		referencedFieldsByItemId.clear();
+		outcomes.clear();
+	}
+
+	private static final class ReferencedFields {
+		private final long generation;
+		private final String[] fields;
+		// Fields compared with < or > are read typed
+		private final boolean[] typed;
+
+		private ReferencedFields(final long generation, final String[] fields, final boolean[] typed) {
+			this.generation = generation;
+			this.fields = fields;
+			this.typed = typed;
+		}
+
+		static ReferencedFields of(final long generation, final List<RuleDefinition> rules, final Map<Long, List<RuleConditionDefinition>> conditionsByRuleId) {
+			final Set<String> valueFields = new LinkedHashSet<>();
+			final Set<String> typedFields = new LinkedHashSet<>();
+			for (final RuleDefinition rule : rules) {
+				for (final RuleConditionDefinition condition : conditionsByRuleId.getOrDefault(rule.getId(), Collections.emptyList())) {
+					if ("<".equals(condition.getOperator()) || ">".equals(condition.getOperator())) {
+						typedFields.add(condition.getField());
+					} else {
+						valueFields.add(condition.getField());
+					}
+				}
+			}
+			final String[] fields = new String[valueFields.size() + typedFields.size()];
+			final boolean[] typed = new boolean[fields.length];
+			int i = 0;
+			for (final String field : valueFields) {
+				fields[i++] = field;
+			}
+			for (final String field : typedFields) {
+				typed[i] = true;
+				fields[i++] = field;
+			}
+			return new ReferencedFields(generation, fields, typed);
+		}
+
+		Object[] readValues(final RuleContext context) {
+			final Object[] values = new Object[fields.length];
+			for (int i = 0; i < fields.length; i++) {
+				if (typed[i]) {
+					final Object value = context.getTypedValue(fields[i]);
+					// A date is mutable : the key keeps a copy
+					values[i] = value instanceof Date ? new Date(((Date) value).getTime()) : value;
+				} else {
+					values[i] = context.getValue(fields[i]);
+				}
+			}
+			return values;
+		}
+	}
+
+	private static final class OutcomeKey {
+		private final long generation;
+		private final Long itemId;
+		private final Object[] values;
+		private final int hashCode;
+
+		OutcomeKey(final long generation, final Long itemId, final Object[] values) {
+			this.generation = generation;
+			this.itemId = itemId;
+			this.values = values;
+			hashCode = 31 * (31 * Long.hashCode(generation) + itemId.hashCode()) + Arrays.hashCode(values);
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+
+		@Override
+		public boolean equals(final Object obj) {
+			if (!(obj instanceof OutcomeKey)) {
+				return false;
+			}
+			final OutcomeKey other = (OutcomeKey) obj;
+			return generation == other.generation
+					&& itemId.equals(other.itemId)
+					&& Arrays.equals(values, other.values);
+		}
+	}
+
+}
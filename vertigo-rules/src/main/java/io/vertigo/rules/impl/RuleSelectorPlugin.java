@@ -18,7 +18,13 @@
  */
 package io.vertigo.rules.impl;
 
+import java.util.List;
+import java.util.Map;
+
 import io.vertigo.core.component.Plugin;
+import io.vertigo.rules.domain.RuleFilterDefinition;
+import io.vertigo.rules.domain.SelectorDefinition;
+import io.vertigo.rules.services.RuleContext;
 import io.vertigo.rules.services.RuleSelector;
 
 /**
@@ -27,5 +33,28 @@ import io.vertigo.rules.services.RuleSelector;
  *
  */
 public interface RuleSelectorPlugin extends RuleSelector, Plugin {
-	// Plugin interface for Rules
+
+	/**
+	 * Find the selectors whose filters match the context, without resolving their groups.
+	 * Only the given filters are read : neither the rule store nor the AccountManager is used.
+	 *
+	 * @param selectors
+	 *            selectors
+	 * @param mapFilters
+	 *            filters linked to the selectors
+	 * @param ruleContext
+	 *            ruleContext
+	 * @return the matching selectors, in the order of the selectors
+	 */
+	List<SelectorDefinition> findMatchingSelectors(List<SelectorDefinition> selectors,
+			Map<Long, List<RuleFilterDefinition>> mapFilters, RuleContext ruleContext);
+
+	/**
+	 * Notify the plugin that a selector or its filters have changed.
+	 * Plugins keeping compiled selectors must drop the given selector.
+	 * Only RuleServices calls it : the rule store does not notify the plugin.
+	 *
+	 * @param selectorId the selector id
+	 */
+	void invalidateSelector(Long selectorId);
 }
@@ -19,14 +19,25 @@
 package io.vertigo.rules.impl;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 import javax.inject.Inject;
+import javax.inject.Named;
 
 import io.vertigo.account.account.Account;
 import io.vertigo.account.account.AccountGroup;
+import io.vertigo.commons.transaction.VTransactionManager;
+import io.vertigo.lang.Assertion;
+import io.vertigo.rules.RuleConditionCriteria;
 import io.vertigo.rules.RuleCriteria;
 import io.vertigo.rules.domain.RuleConditionDefinition;
 import io.vertigo.rules.domain.RuleDefinition;
@@ -35,6 +46,7 @@ import io.vertigo.rules.domain.SelectorDefinition;
 import io.vertigo.rules.services.RuleConstants;
 import io.vertigo.rules.services.RuleContext;
 import io.vertigo.rules.services.RuleServices;
+import io.vertigo.rules.services.RuleSet;
 
 /**
  * @author xdurand
@@ -47,6 +59,12 @@ public final class RuleServicesImpl implements RuleServices {
 	private final RuleSelectorPlugin ruleSelectorPlugin;
 	private final RuleValidatorPlugin ruleValidatorPlugin;
 
+	// Committed rule sets by item id, absent when the rule sets are not cached
+	private final Optional<TransactionalCache<Long, CachedRuleSet>> ruleSetCache;
+	private final AtomicLong ruleSetVersionSequence = new AtomicLong();
+	// Outcomes of isRuleValid for the cached rule sets, absent when the outcomes are not cached
+	private final Optional<RuleOutcomeCache> outcomeCache;
+
 	/**
 	 * Construct a new Rule manager
 	 *
@@ -54,23 +72,45 @@ public final class RuleServicesImpl implements RuleServices {
 	 * @param ruleSelectorPlugin
 	 * @param ruleValidatorPlugin
 	 * @param ruleConstantsStorePlugin
+	 * @param transactionManager
+	 * @param ruleSetCacheSize max number of rule sets kept in cache (no cache by default)
+	 * @param ruleSetCacheSeconds time to live of a rule set in cache
+	 * @param outcomeCacheSize max number of validation outcomes kept in cache (no cache by default, needs the rule set cache)
 	 */
 	@Inject
 	public RuleServicesImpl(final RuleStorePlugin ruleStorePlugin, final RuleSelectorPlugin ruleSelectorPlugin,
-			final RuleValidatorPlugin ruleValidatorPlugin, final RuleConstantsStorePlugin ruleConstantsStorePlugin) {
+			final RuleValidatorPlugin ruleValidatorPlugin, final RuleConstantsStorePlugin ruleConstantsStorePlugin,
+			final VTransactionManager transactionManager,
+			@Named("ruleSetCacheSize") final Optional<Integer> ruleSetCacheSize,
+			@Named("ruleSetCacheSeconds") final Optional<Integer> ruleSetCacheSeconds,
+			@Named("outcomeCacheSize") final Optional<Integer> outcomeCacheSize) {
+		Assertion.checkNotNull(transactionManager);
+		Assertion.checkNotNull(ruleSetCacheSize);
+		Assertion.checkNotNull(ruleSetCacheSeconds);
+		Assertion.checkNotNull(outcomeCacheSize);
+		Assertion.checkArgument(ruleSetCacheSize.isPresent() == ruleSetCacheSeconds.isPresent(), "ruleSetCacheSize and ruleSetCacheSeconds go together");
+		Assertion.checkArgument(!outcomeCacheSize.isPresent() || ruleSetCacheSize.isPresent(), "The outcome cache needs the rule set cache");
+		// ---
 		this.ruleStorePlugin = ruleStorePlugin;
 		this.ruleSelectorPlugin = ruleSelectorPlugin;
 		this.ruleValidatorPlugin = ruleValidatorPlugin;
 		this.ruleConstantsStorePlugin = ruleConstantsStorePlugin;
+		ruleSetCache = ruleSetCacheSize.map(size -> new TransactionalCache<>(transactionManager, size, ruleSetCacheSeconds.get()));
+		outcomeCache = outcomeCacheSize.map(RuleOutcomeCache::new);
 	}
 
 	/** {@inheritDoc} */
 	@Override
 	public List<Account> selectAccounts(final Long idActivityDefinition, final RuleContext context) {
+		return selectAccounts(idActivityDefinition, context, getRuleSet(Collections.singletonList(idActivityDefinition)));
+	}
 
-		final List<SelectorDefinition> selectors = ruleStorePlugin.findSelectorsByItemId(idActivityDefinition);
+	/** {@inheritDoc} */
+	@Override
+	public List<Account> selectAccounts(final Long idActivityDefinition, final RuleContext context, final RuleSet ruleSet) {
+		final List<SelectorDefinition> selectors = ruleSet.getSelectors(idActivityDefinition);
 
-		return ruleSelectorPlugin.selectAccounts(selectors, context);
+		return ruleSelectorPlugin.selectAccounts(selectors, ruleSet.getFiltersBySelectorId(), context);
 	}
 
 	/** {@inheritDoc} */
@@ -85,11 +125,24 @@ public final class RuleServicesImpl implements RuleServices {
 
 	/** {@inheritDoc} */
 	@Override
-	public boolean isRuleValid(final Long idActivityDefinition, final RuleContext context) {
+	public List<AccountGroup> selectGroups(final Long idActivityDefinition, final RuleContext context, final RuleSet ruleSet) {
+		final List<SelectorDefinition> selectors = ruleSet.getSelectors(idActivityDefinition);
 
-		final List<RuleDefinition> rules = ruleStorePlugin.findRulesByItemId(idActivityDefinition);
+		return ruleSelectorPlugin.selectGroups(selectors, ruleSet.getFiltersBySelectorId(), context);
+	}
 
-		return ruleValidatorPlugin.isRuleValid(rules, context);
+	/** {@inheritDoc} */
+	@Override
+	public List<SelectorDefinition> findMatchingSelectors(final Long idActivityDefinition, final RuleContext context, final RuleSet ruleSet) {
+		final List<SelectorDefinition> selectors = ruleSet.getSelectors(idActivityDefinition);
+
+		return ruleSelectorPlugin.findMatchingSelectors(selectors, ruleSet.getFiltersBySelectorId(), context);
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public boolean isRuleValid(final Long idActivityDefinition, final RuleContext context) {
+		return isRuleValid(idActivityDefinition, context, getRuleSet(Collections.singletonList(idActivityDefinition)));
 	}
 
 	/** {@inheritDoc} */
@@ -101,10 +154,69 @@ public final class RuleServicesImpl implements RuleServices {
 		return ruleValidatorPlugin.isRuleValid(rules, mapConditions, context);
 	}
 
+	/** {@inheritDoc} */
+	@Override
+	public boolean isRuleValid(final Long idActivityDefinition, final RuleContext context, final RuleSet ruleSet) {
+		final List<RuleDefinition> rules = ruleSet.getRules(idActivityDefinition);
+
+		if (outcomeCache.isPresent()) {
+			final CachedRuleSet currentRuleSet = ruleSetCache.get().getIfPresent(idActivityDefinition);
+			// Only the outcomes of the current committed rules are cached : the given rule set may be an older one
+			if (currentRuleSet != null && currentRuleSet.ruleSet.getRules(idActivityDefinition) == rules) {
+				return outcomeCache.get().getOrEvaluate(currentRuleSet.version, idActivityDefinition, ruleSet, context,
+						() -> ruleValidatorPlugin.isRuleValid(rules, ruleSet.getConditionsByRuleId(), context));
+			}
+		}
+		return ruleValidatorPlugin.isRuleValid(rules, ruleSet.getConditionsByRuleId(), context);
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public RuleSet getRuleSet(final List<Long> itemIds) {
+		Assertion.checkNotNull(itemIds);
+		// ---
+		final Map<Long, CachedRuleSet> cachedRuleSets = ruleSetCache.isPresent()
+				? ruleSetCache.get().getAll(itemIds, this::loadRuleSets)
+				: loadRuleSets(itemIds);
+		final List<RuleSet> ruleSets = cachedRuleSets.values()
+				.stream()
+				.map(cachedRuleSet -> cachedRuleSet.ruleSet)
+				.collect(Collectors.toList());
+		if (ruleSets.size() == 1) {
+			return ruleSets.get(0);
+		}
+		return RuleSet.merge(ruleSets);
+	}
+
+	private Map<Long, CachedRuleSet> loadRuleSets(final List<Long> itemIds) {
+		// One query per kind of definition, whatever the number of items
+		final RuleSet loadedRuleSet = RuleSet.of(
+				ruleStorePlugin.findRulesByItemIds(itemIds),
+				ruleStorePlugin.findConditionsByItemIds(itemIds),
+				ruleStorePlugin.findSelectorsByItemIds(itemIds),
+				ruleStorePlugin.findFiltersByItemIds(itemIds));
+
+		final long version = ruleSetVersionSequence.incrementAndGet();
+		final Map<Long, CachedRuleSet> ruleSets = new HashMap<>();
+		for (final Long itemId : itemIds) {
+			ruleSets.put(itemId, new CachedRuleSet(loadedRuleSet.subSet(itemId), version));
+		}
+		return ruleSets;
+	}
+
+	/**
+	 * Called after a change of the definitions : the rule sets are dropped now, and once again when the transaction is completed.
+	 */
+	private void invalidateRuleSets() {
+		ruleSetCache.ifPresent(TransactionalCache::invalidateAll);
+		outcomeCache.ifPresent(RuleOutcomeCache::clear);
+	}
+
 	/** {@inheritDoc} */
 	@Override
 	public void addRule(final RuleDefinition ruleDefinition) {
 		ruleStorePlugin.addRule(ruleDefinition);
+		invalidateRuleSets();
 	}
 
 	/** {@inheritDoc} */
@@ -117,14 +229,48 @@ public final class RuleServicesImpl implements RuleServices {
 	@Override
 	public void addCondition(final RuleConditionDefinition ruleConditionDefinition) {
 		ruleStorePlugin.addCondition(ruleConditionDefinition);
+		ruleValidatorPlugin.invalidateRule(ruleConditionDefinition.getRudId());
+		invalidateRuleSets();
 	}
 
 	/** {@inheritDoc} */
 	@Override
 	public List<Long> findItemsByCriteria(final RuleCriteria criteria, final List<Long> items) {
-		final List<RuleDefinition> rules = ruleStorePlugin.findRulesByCriteria(criteria, items);
+		Assertion.checkNotNull(criteria);
+		Assertion.checkNotNull(criteria.getConditionCriteria1());
+		// ---
+		final List<RuleConditionCriteria> conditionCriteria = new ArrayList<>(2);
+		conditionCriteria.add(criteria.getConditionCriteria1());
+		if (criteria.getConditionCriteria2() != null) {
+			conditionCriteria.add(criteria.getConditionCriteria2());
+		}
+		return findItemsByCriteria(conditionCriteria, items);
+	}
 
-		return rules.stream().map(RuleDefinition::getItemId).distinct().collect(Collectors.toList());
+	/** {@inheritDoc} */
+	@Override
+	public List<Long> findItemsByCriteria(final List<RuleConditionCriteria> criteria, final List<Long> items) {
+		Assertion.checkNotNull(criteria);
+		Assertion.checkArgument(!criteria.isEmpty(), "At least one criteria is needed");
+		Assertion.checkNotNull(items);
+		// ---
+		if (items.isEmpty()) {
+			return Collections.emptyList();
+		}
+		// The stores count the matching criteria of each rule : a criteria given twice is searched once
+		final Map<List<String>, RuleConditionCriteria> distinctCriteria = new LinkedHashMap<>();
+		for (final RuleConditionCriteria conditionCriteria : criteria) {
+			distinctCriteria.putIfAbsent(Arrays.asList(conditionCriteria.getField(), conditionCriteria.getValue()), conditionCriteria);
+		}
+		final Set<Long> matchingItemIds = ruleStorePlugin.findRulesByCriteria(new ArrayList<>(distinctCriteria.values()), items)
+				.stream()
+				.map(RuleDefinition::getItemId)
+				.collect(Collectors.toSet());
+
+		return items.stream()
+				.filter(matchingItemIds::contains)
+				.distinct()
+				.collect(Collectors.toList());
 	}
 
 	/** {@inheritDoc} */
@@ -137,6 +283,8 @@ public final class RuleServicesImpl implements RuleServices {
 	@Override
 	public void addSelector(final SelectorDefinition selectorDefinition) {
 		ruleStorePlugin.addSelector(selectorDefinition);
+		ruleSelectorPlugin.invalidateSelector(selectorDefinition.getId());
+		invalidateRuleSets();
 	}
 
 	/** {@inheritDoc} */
@@ -149,6 +297,8 @@ public final class RuleServicesImpl implements RuleServices {
 	@Override
 	public void addFilter(final RuleFilterDefinition ruleFilterDefinition) {
 		ruleStorePlugin.addFilter(ruleFilterDefinition);
+		ruleSelectorPlugin.invalidateSelector(ruleFilterDefinition.getSelId());
+		invalidateRuleSets();
 	}
 
 	/** {@inheritDoc} */
@@ -168,4 +318,15 @@ public final class RuleServicesImpl implements RuleServices {
 		return ruleConstantsStorePlugin.readConstants(key);
 	}
 
+	// A rule set, with the version of its load : the outcomes of a version are never used for another one
+	private static final class CachedRuleSet {
+		private final RuleSet ruleSet;
+		private final long version;
+
+		CachedRuleSet(final RuleSet ruleSet, final long version) {
+			this.ruleSet = ruleSet;
+			this.version = version;
+		}
+	}
+
 }
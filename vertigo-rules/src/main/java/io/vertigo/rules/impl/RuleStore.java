@@ -20,7 +20,7 @@ package io.vertigo.rules.impl;
 
 import java.util.List;
 
-import io.vertigo.rules.RuleCriteria;
+import io.vertigo.rules.RuleConditionCriteria;
 import io.vertigo.rules.domain.RuleConditionDefinition;
 import io.vertigo.rules.domain.RuleDefinition;
 import io.vertigo.rules.domain.RuleFilterDefinition;
@@ -95,12 +95,44 @@ public interface RuleStore {
 	List<RuleFilterDefinition> findFiltersBySelectorId(Long selectorId);
 
 	/**
-	 * Find rules by criteria
+	 * Find the rules of several items at once
 	 * 
-	 * @param criteria
+	 * @param itemIds
+	 * @return a list of all the rules defined for these itemIds
+	 */
+	List<RuleDefinition> findRulesByItemIds(List<Long> itemIds);
+
+	/**
+	 * Find the conditions of all the rules of several items at once
+	 * 
+	 * @param itemIds
+	 * @return a list of all the conditions of the rules defined for these itemIds
+	 */
+	List<RuleConditionDefinition> findConditionsByItemIds(List<Long> itemIds);
+
+	/**
+	 * Find the selectors of several items at once
+	 * 
+	 * @param itemIds
+	 * @return a list of all the selectors defined for these itemIds
+	 */
+	List<SelectorDefinition> findSelectorsByItemIds(List<Long> itemIds);
+
+	/**
+	 * Find the filters of all the selectors of several items at once
+	 * 
+	 * @param itemIds
+	 * @return a list of all the filters of the selectors defined for these itemIds
+	 */
+	List<RuleFilterDefinition> findFiltersByItemIds(List<Long> itemIds);
+
+	/**
+	 * Find rules by criteria : a rule matches when it has a condition on the field and the value of each criteria
+	 * 
+	 * @param criteria the distinct condition criteria (at least one)
 	 * @param items
 	 * @return a list of Rule Definition
 	 */
-	List<RuleDefinition> findRulesByCriteria(RuleCriteria criteria, List<Long> items);
+	List<RuleDefinition> findRulesByCriteria(List<RuleConditionCriteria> criteria, List<Long> items);
 
 }
@@ -27,5 +27,13 @@ import io.vertigo.rules.services.RuleValidator;
  *
  */
 public interface RuleValidatorPlugin extends RuleValidator, Plugin {
-	// Plugin interface for Rules
+
+	/**
+	 * Notify the plugin that the conditions of a rule have changed.
+	 * Plugins keeping compiled rules must drop the given rule.
+	 * Only RuleServices calls it : the rule store does not notify the plugin.
+	 *
+	 * @param ruleId the rule id
+	 */
+	void invalidateRule(Long ruleId);
 }
@@ -18,15 +18,21 @@
  */
 package io.vertigo.rules.impl;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import io.vertigo.app.config.DefinitionProviderConfig;
 import io.vertigo.app.config.Features;
 import io.vertigo.core.param.Param;
 import io.vertigo.dynamo.plugins.environment.DynamoDefinitionProvider;
+import io.vertigo.lang.Assertion;
 import io.vertigo.rules.dao.RuleConditionDefinitionDAO;
+import io.vertigo.rules.dao.RuleConstantDefinitionDAO;
 import io.vertigo.rules.dao.RuleDefinitionDAO;
 import io.vertigo.rules.dao.RuleFilterDefinitionDAO;
 import io.vertigo.rules.dao.SelectorDefinitionDAO;
 import io.vertigo.rules.domain.DtDefinitions;
+import io.vertigo.rules.plugins.sql.SQLRuleConstantsStorePlugin;
 import io.vertigo.rules.plugins.sql.SQLRuleStorePlugin;
 import io.vertigo.rules.services.RuleServices;
 
@@ -37,6 +43,10 @@ import io.vertigo.rules.services.RuleServices;
  */
 public final class RulesFeatures extends Features {
 
+	private int ruleSetCacheSize;
+	private int ruleSetCacheSeconds;
+	private int outcomeCacheSize;
+
 	/**
 	 * Constructor.
 	 */
@@ -89,6 +99,21 @@ public final class RulesFeatures extends Features {
 		return this;
 	}
 
+	/**
+	 * Specifies the ruleConstantsStorePlugin : constants are stored in database and cached locally.
+	 *
+	 * @param params
+	 *            the params (refreshSeconds : interval between two reads of the constants of a key, 60 by default ;
+	 *            cacheSize : max number of keys in cache, 10000 by default)
+	 * @return these features
+	 */
+	public RulesFeatures withDAOSupportRuleConstantsStorePlugin(final Param... params) {
+		getModuleConfigBuilder()
+				.addComponent(RuleConstantDefinitionDAO.class)//
+				.addPlugin(SQLRuleConstantsStorePlugin.class, params);
+		return this;
+	}
+
 	/**
 	 * Specifies the ruleSelectorPlugin.
 	 *
@@ -119,6 +144,42 @@ public final class RulesFeatures extends Features {
 		return this;
 	}
 
+	/**
+	 * Keeps the rule sets (rules, conditions, selectors and filters of an item) read from the rule store.
+	 * Only committed rule sets are cached : they are dropped as soon as a definition is added through the RuleServices,
+	 * and once again when its transaction is completed. Definitions added by another node are seen after the time to live.
+	 *
+	 * @param size
+	 *            the max number of rule sets in cache (least recently used rule sets are dropped first)
+	 * @param seconds
+	 *            the time to live of a rule set in cache
+	 * @return these features
+	 */
+	public RulesFeatures withRuleSetCache(final int size, final int seconds) {
+		Assertion.checkArgument(size > 0, "size must be positive");
+		Assertion.checkArgument(seconds > 0, "seconds must be positive");
+		//---
+		ruleSetCacheSize = size;
+		ruleSetCacheSeconds = seconds;
+		return this;
+	}
+
+	/**
+	 * Keeps the outcomes of the rule validations : an item whose fields referenced by the rules are unchanged is not evaluated again.
+	 * Only the outcomes of the cached rule sets are kept : needs withRuleSetCache.
+	 * Outcomes are dropped as soon as a definition is added through the RuleServices.
+	 *
+	 * @param size
+	 *            the max number of outcomes in cache (least recently used outcomes are dropped first)
+	 * @return these features
+	 */
+	public RulesFeatures withOutcomeCache(final int size) {
+		Assertion.checkArgument(size > 0, "size must be positive");
+		//---
+		outcomeCacheSize = size;
+		return this;
+	}
+
 	/** {@inheritDoc} */
 	@Override
 	protected void buildFeatures() {
@@ -127,7 +188,21 @@ public final class RulesFeatures extends Features {
 						.addDefinitionResource("kpr", "io/vertigo/rules/definitions/application-rules.kpr")
 						.addDefinitionResource("classes", DtDefinitions.class.getName())
 						.build())
-				.addComponent(RuleServices.class, RuleServicesImpl.class);
+				.addComponent(RuleServices.class, RuleServicesImpl.class, getServicesParams());
+	}
+
+	private Param[] getServicesParams() {
+		Assertion.checkState(outcomeCacheSize == 0 || ruleSetCacheSize > 0, "The outcome cache needs the rule set cache");
+		//---
+		final List<Param> params = new ArrayList<>();
+		if (ruleSetCacheSize > 0) {
+			params.add(Param.of("ruleSetCacheSize", String.valueOf(ruleSetCacheSize)));
+			params.add(Param.of("ruleSetCacheSeconds", String.valueOf(ruleSetCacheSeconds)));
+		}
+		if (outcomeCacheSize > 0) {
+			params.add(Param.of("outcomeCacheSize", String.valueOf(outcomeCacheSize)));
+		}
+		return params.toArray(new Param[params.size()]);
 	}
 
 }
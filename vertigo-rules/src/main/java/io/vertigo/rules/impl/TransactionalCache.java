@@ -0,0 +1,250 @@
+/**
+ * vertigo - simple java starter
+ *
+ * Copyright (C) 2013-2019, KleeGroup, direction.technique@kleegroup.com (http://www.kleegroup.com)
+ * KleeGroup, Centre d'affaire la Boursidiere - BP 159 - 92357 Le Plessis Robinson Cedex - France
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.vertigo.rules.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import io.vertigo.commons.transaction.VTransaction;
+import io.vertigo.commons.transaction.VTransactionManager;
+import io.vertigo.lang.Assertion;
+
+/**
+ * Local read-through cache of values read from a transactional store.
+ * Only committed values are cached : a transaction having invalidated the cache reads the store directly until it is completed,
+ * and the invalidated values are dropped again once it is committed or rolled back.
+ * A value loaded before an invalidation is not cached.
+ * At most maxSize values are kept, least recently used values are dropped first, and a value is read again after ttlSeconds.
+ * The cache is local to this node : changes made by another node are seen after ttlSeconds.
+ *
+ * @author xdurand
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the values (a null value is never cached)
+ */
+public final class TransactionalCache<K, V> {
+
+	private final VTransactionManager transactionManager;
+	private final long ttlMillis;
+	// Access ordered, guarded by this
+	private final Map<K, CachedValue<V>> cachedValues;
+	// Incremented by each invalidation, guarded by this
+	private long generation;
+	// Transactions having invalidated the cache, reading the store until they are completed
+	private final Set<VTransaction> writingTransactions = Collections.newSetFromMap(new ConcurrentHashMap<>());
+
+	/**
+	 * Constructor.
+	 * @param transactionManager the transaction manager
+	 * @param maxSize max number of values in cache
+	 * @param ttlSeconds time to live of a value in cache
+	 */
+	public TransactionalCache(final VTransactionManager transactionManager, final int maxSize, final int ttlSeconds) {
+		Assertion.checkNotNull(transactionManager);
+		Assertion.checkArgument(maxSize > 0, "maxSize must be positive");
+		Assertion.checkArgument(ttlSeconds > 0, "ttlSeconds must be positive");
+		//---
+		this.transactionManager = transactionManager;
+		ttlMillis = ttlSeconds * 1000L;
+		cachedValues = new LinkedHashMap<K, CachedValue<V>>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(final Map.Entry<K, CachedValue<V>> eldest) {
+				return size() > maxSize;
+			}
+		};
+	}
+
+	/**
+	 * Read a value through the cache.
+	 *
+	 * @param key the key
+	 * @param loader the loader of a missing or expired value
+	 * @return the value
+	 */
+	public V get(final K key, final Function<K, V> loader) {
+		Assertion.checkNotNull(key);
+		Assertion.checkNotNull(loader);
+		//---
+		if (isWriting()) {
+			// The cache doesn't contain the uncommitted changes of this transaction
+			return loader.apply(key);
+		}
+		final long loadGeneration;
+		synchronized (this) {
+			final V cachedValue = doGetIfPresent(key);
+			if (cachedValue != null) {
+				return cachedValue;
+			}
+			loadGeneration = generation;
+		}
+		final V value = loader.apply(key);
+		if (value != null) {
+			put(Collections.singletonMap(key, value), loadGeneration);
+		}
+		return value;
+	}
+
+	/**
+	 * Read values through the cache : the missing or expired values are loaded at once.
+	 *
+	 * @param keys the keys
+	 * @param loader the loader of the missing or expired values, by key
+	 * @return the values by key
+	 */
+	public Map<K, V> getAll(final List<K> keys, final Function<List<K>, Map<K, V>> loader) {
+		Assertion.checkNotNull(keys);
+		Assertion.checkNotNull(loader);
+		//---
+		if (isWriting()) {
+			// The cache doesn't contain the uncommitted changes of this transaction
+			return loader.apply(keys);
+		}
+		final Map<K, V> values = new HashMap<>();
+		final List<K> missingKeys = new ArrayList<>();
+		final long loadGeneration;
+		synchronized (this) {
+			for (final K key : keys) {
+				final V cachedValue = doGetIfPresent(key);
+				if (cachedValue != null) {
+					values.put(key, cachedValue);
+				} else {
+					missingKeys.add(key);
+				}
+			}
+			loadGeneration = generation;
+		}
+		if (!missingKeys.isEmpty()) {
+			final Map<K, V> loadedValues = loader.apply(missingKeys);
+			put(loadedValues, loadGeneration);
+			values.putAll(loadedValues);
+		}
+		return values;
+	}
+
+	/**
+	 * @param key the key
+	 * @return the cached value, null if it is missing or expired, or if this transaction has invalidated the cache
+	 */
+	public V getIfPresent(final K key) {
+		Assertion.checkNotNull(key);
+		//---
+		if (isWriting()) {
+			return null;
+		}
+		synchronized (this) {
+			return doGetIfPresent(key);
+		}
+	}
+
+	private V doGetIfPresent(final K key) {
+		final CachedValue<V> cachedValue = cachedValues.get(key);
+		if (cachedValue == null) {
+			return null;
+		} else if (cachedValue.isOlderThan(ttlMillis)) {
+			cachedValues.remove(key);
+			return null;
+		}
+		return cachedValue.value;
+	}
+
+	/**
+	 * Called after a change of the value of a key.
+	 * The value is dropped now, and once again when the transaction is completed (committed or rolled back).
+	 *
+	 * @param key the key
+	 */
+	public void invalidate(final K key) {
+		Assertion.checkNotNull(key);
+		//---
+		remove(key);
+		onCompletion(() -> remove(key));
+	}
+
+	/**
+	 * Called after a change of all the values.
+	 * The cache is cleared now, and once again when the transaction is completed (committed or rolled back).
+	 */
+	public void invalidateAll() {
+		clear();
+		onCompletion(this::clear);
+	}
+
+	private void onCompletion(final Runnable invalidation) {
+		if (transactionManager.hasCurrentTransaction()) {
+			final VTransaction transaction = transactionManager.getCurrentTransaction();
+			final boolean firstInvalidation = writingTransactions.add(transaction);
+			transaction.addAfterCompletion(txCommitted -> {
+				invalidation.run();
+				if (firstInvalidation) {
+					writingTransactions.remove(transaction);
+				}
+			});
+		}
+	}
+
+	private boolean isWriting() {
+		return !writingTransactions.isEmpty()
+				&& transactionManager.hasCurrentTransaction()
+				&& writingTransactions.contains(transactionManager.getCurrentTransaction());
+	}
+
+	private synchronized void put(final Map<K, V> values, final long loadGeneration) {
+		// A value loaded before an invalidation may be stale
+		if (loadGeneration == generation) {
+			for (final Map.Entry<K, V> entry : values.entrySet()) {
+				if (entry.getValue() != null) {
+					cachedValues.put(entry.getKey(), new CachedValue<>(entry.getValue()));
+				}
+			}
+		}
+	}
+
+	private synchronized void remove(final K key) {
+		generation++;
+		cachedValues.remove(key);
+	}
+
+	private synchronized void clear() {
+		generation++;
+		cachedValues.clear();
+	}
+
+	private static final class CachedValue<V> {
+		private final V value;
+		private final long loadTime = System.currentTimeMillis();
+
+		CachedValue(final V value) {
+			this.value = value;
+		}
+
+		boolean isOlderThan(final long millis) {
+			return System.currentTimeMillis() - loadTime > millis;
+		}
+	}
+
+}
@@ -0,0 +1,196 @@
+/**
+ * vertigo - simple java starter
+ *
+ * Copyright (C) 2013-2019, KleeGroup, direction.technique@kleegroup.com (http://www.kleegroup.com)
+ * KleeGroup, Centre d'affaire la Boursidiere - BP 159 - 92357 Le Plessis Robinson Cedex - France
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.vertigo.rules.impl.predicate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.vertigo.lang.Assertion;
+import io.vertigo.rules.domain.RuleConditionDefinition;
+import io.vertigo.rules.domain.RuleDefinition;
+import io.vertigo.rules.services.RuleContext;
+
+/**
+ * Discrimination index of the rules of an item, matching when at least one rule matches.
+ * Each rule having an equality (=) or IN condition is indexed by the value(s) of this condition :
+ * the value of the field in the context leads directly to the candidate rules, whose other conditions are then tested.
+ * Rules without such a condition are tested one by one.
+ *
+ * @author xdurand
+ *
+ */
+public final class RuleIndex {
+
+	private static final String IN_SEPARATOR = ",";
+	private static final int[] NO_RULES = new int[0];
+
+	// field => value => indexes of the rules having this value for this field, for the = and the IN conditions
+	private final Map<String, Map<String, int[]>> equalsIndex;
+	private final Map<String, Map<String, int[]>> inIndex;
+	// Conditions left to test once a rule is reached through the index
+	private final RulePredicate[] residuals;
+	private final int[] unindexedRules;
+
+	private RuleIndex(final Map<String, Map<String, int[]>> equalsIndex, final Map<String, Map<String, int[]>> inIndex,
+			final RulePredicate[] residuals, final int[] unindexedRules) {
+		this.equalsIndex = equalsIndex;
+		this.inIndex = inIndex;
+		this.residuals = residuals;
+		this.unindexedRules = unindexedRules;
+	}
+
+	/**
+	 * Build the index of rules.
+	 *
+	 * @param rules the rules
+	 * @param conditionsByRuleId the conditions of these rules, by rule id (a rule without condition always matches)
+	 * @return the index
+	 */
+	public static RuleIndex of(final List<RuleDefinition> rules, final Map<Long, List<RuleConditionDefinition>> conditionsByRuleId) {
+		Assertion.checkNotNull(rules);
+		Assertion.checkNotNull(conditionsByRuleId);
+		//---
+		final Map<String, Map<String, List<Integer>>> equalsEntries = new HashMap<>();
+		final Map<String, Map<String, List<Integer>>> inEntries = new HashMap<>();
+		final RulePredicate[] residuals = new RulePredicate[rules.size()];
+		final List<Integer> unindexedRules = new ArrayList<>();
+
+		for (int i = 0; i < rules.size(); i++) {
+			final List<RuleConditionDefinition> conditions = conditionsByRuleId.getOrDefault(rules.get(i).getId(), new ArrayList<>());
+			final int keyIndex = findKeyCondition(conditions);
+			final List<RuleConditionDefinition> residualConditions = new ArrayList<>(conditions);
+			if (keyIndex < 0) {
+				unindexedRules.add(i);
+			} else {
+				final RuleConditionDefinition key = residualConditions.remove(keyIndex);
+				if ("=".equals(key.getOperator())) {
+					addEntry(equalsEntries, key.getField(), key.getExpression(), i);
+				} else {
+					for (final String expression : key.getExpression().split(IN_SEPARATOR)) {
+						addEntry(inEntries, key.getField(), expression, i);
+					}
+				}
+			}
+			residuals[i] = RulePredicates.compileConditions(residualConditions);
+		}
+		return new RuleIndex(toArrays(equalsEntries), toArrays(inEntries), residuals, toArray(unindexedRules));
+	}
+
+	// The condition discriminating a rule is an equality, or else the IN condition with the fewest values
+	private static int findKeyCondition(final List<RuleConditionDefinition> conditions) {
+		int keyIndex = -1;
+		int keyValues = Integer.MAX_VALUE;
+		for (int i = 0; i < conditions.size(); i++) {
+			final RuleConditionDefinition condition = conditions.get(i);
+			if (condition.getField() == null || condition.getExpression() == null) {
+				continue;
+			}
+			final int values;
+			if ("=".equals(condition.getOperator())) {
+				values = 1;
+			} else if ("IN".equals(condition.getOperator())) {
+				values = condition.getExpression().split(IN_SEPARATOR).length;
+			} else {
+				continue;
+			}
+			if (values < keyValues) {
+				keyIndex = i;
+				keyValues = values;
+			}
+		}
+		return keyIndex;
+	}
+
+	private static void addEntry(final Map<String, Map<String, List<Integer>>> entries, final String field, final String value, final int ruleIndex) {
+		final List<Integer> ruleIndexes = entries
+				.computeIfAbsent(field.intern(), k -> new HashMap<>())
+				.computeIfAbsent(value, k -> new ArrayList<>());
+		// An IN expression may repeat a value
+		if (ruleIndexes.isEmpty() || ruleIndexes.get(ruleIndexes.size() - 1) != ruleIndex) {
+			ruleIndexes.add(ruleIndex);
+		}
+	}
+
+	private static Map<String, Map<String, int[]>> toArrays(final Map<String, Map<String, List<Integer>>> entries) {
+		final Map<String, Map<String, int[]>> index = new HashMap<>();
+		for (final Map.Entry<String, Map<String, List<Integer>>> fieldEntry : entries.entrySet()) {
+			final Map<String, int[]> valueIndex = new HashMap<>();
+			for (final Map.Entry<String, List<Integer>> valueEntry : fieldEntry.getValue().entrySet()) {
+				valueIndex.put(valueEntry.getKey(), toArray(valueEntry.getValue()));
+			}
+			index.put(fieldEntry.getKey(), valueIndex);
+		}
+		return index;
+	}
+
+	private static int[] toArray(final List<Integer> values) {
+		if (values.isEmpty()) {
+			return NO_RULES;
+		}
+		final int[] array = new int[values.size()];
+		for (int i = 0; i < array.length; i++) {
+			array[i] = values.get(i);
+		}
+		return array;
+	}
+
+	/**
+	 * Evaluate the indexed rules against a rule context.
+	 *
+	 * @param ruleContext the rule context
+	 * @return true if at least one rule matches
+	 */
+	public boolean anyMatch(final RuleContext ruleContext) {
+		for (final Map.Entry<String, Map<String, int[]>> fieldEntry : equalsIndex.entrySet()) {
+			final Object value = ruleContext.getValue(fieldEntry.getKey());
+			// An equality never matches a list of values
+			if (value instanceof String && testCandidates(fieldEntry.getValue().get(value), ruleContext)) {
+				return true;
+			}
+		}
+		for (final Map.Entry<String, Map<String, int[]>> fieldEntry : inIndex.entrySet()) {
+			final Object value = ruleContext.getValue(fieldEntry.getKey());
+			if (value instanceof List) {
+				for (final Object element : (List<?>) value) {
+					if (testCandidates(fieldEntry.getValue().get(element), ruleContext)) {
+						return true;
+					}
+				}
+			} else if (value != null && testCandidates(fieldEntry.getValue().get(value), ruleContext)) {
+				return true;
+			}
+		}
+		return testCandidates(unindexedRules, ruleContext);
+	}
+
+	private boolean testCandidates(final int[] candidates, final RuleContext ruleContext) {
+		if (candidates == null) {
+			return false;
+		}
+		for (final int candidate : candidates) {
+			if (residuals[candidate].test(ruleContext)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+}
@@ -0,0 +1,206 @@
+/**
+ * vertigo - simple java starter
+ *
+ * Copyright (C) 2013-2019, KleeGroup, direction.technique@kleegroup.com (http://www.kleegroup.com)
+ * KleeGroup, Centre d'affaire la Boursidiere - BP 159 - 92357 Le Plessis Robinson Cedex - France
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.vertigo.rules.impl.predicate;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import io.vertigo.lang.Assertion;
+import io.vertigo.lang.WrappedException;
+import io.vertigo.rules.domain.RuleConditionDefinition;
+import io.vertigo.rules.domain.RuleDefinition;
+import io.vertigo.rules.services.RuleContext;
+
+/**
+ * Compiles the rules of an item into one method handle tree (RuleContext)boolean.
+ * Field names, expressions and thresholds are bound as constants, conditions and rules are chained with
+ * guardWithTest so evaluation short-circuits : the JVM spins the tree into bytecode the JIT can inline.
+ * As with SimpleRuleValidatorPlugin, a condition with an unsupported operator never matches,
+ * and a missing expression only fails when the field is present.
+ *
+ * @author xdurand
+ *
+ */
+public final class RuleMethodHandles {
+
+	private static final String IN_SEPARATOR = ",";
+
+	private static final MethodHandle GET_VALUE;
+	private static final MethodHandle GET_TYPED_VALUE;
+	private static final MethodHandle EQUALS_EXPRESSION;
+	private static final MethodHandle IN_EXPRESSIONS;
+	private static final MethodHandle LESS_THAN;
+	private static final MethodHandle GREATER_THAN;
+	private static final MethodHandle TEST_PREDICATE;
+	private static final MethodHandle ALWAYS_TRUE = MethodHandles.dropArguments(MethodHandles.constant(boolean.class, true), 0, RuleContext.class);
+	private static final MethodHandle ALWAYS_FALSE = MethodHandles.dropArguments(MethodHandles.constant(boolean.class, false), 0, RuleContext.class);
+
+	static {
+		final MethodHandles.Lookup lookup = MethodHandles.lookup();
+		try {
+			GET_VALUE = lookup.findVirtual(RuleContext.class, "getValue", MethodType.methodType(Object.class, String.class));
+			GET_TYPED_VALUE = lookup.findVirtual(RuleContext.class, "getTypedValue", MethodType.methodType(Object.class, String.class));
+			EQUALS_EXPRESSION = lookup.findStatic(RuleMethodHandles.class, "equalsExpression", MethodType.methodType(boolean.class, String.class, Object.class));
+			IN_EXPRESSIONS = lookup.findStatic(RuleMethodHandles.class, "inExpressions", MethodType.methodType(boolean.class, Set.class, Object.class));
+			LESS_THAN = lookup.findStatic(RuleMethodHandles.class, "lessThan", MethodType.methodType(boolean.class, RuleThreshold.class, Object.class));
+			GREATER_THAN = lookup.findStatic(RuleMethodHandles.class, "greaterThan", MethodType.methodType(boolean.class, RuleThreshold.class, Object.class));
+			TEST_PREDICATE = lookup.findVirtual(RulePredicate.class, "test", MethodType.methodType(boolean.class, RuleContext.class));
+		} catch (final NoSuchMethodException | IllegalAccessException e) {
+			throw WrappedException.wrap(e);
+		}
+	}
+
+	private RuleMethodHandles() {
+		// Helper
+	}
+
+	/**
+	 * Compile rules : at least one rule must match, all the conditions of a rule must match.
+	 *
+	 * @param rules the rules
+	 * @param conditionsByRuleId the conditions of these rules, by rule id (a rule without condition always matches)
+	 * @return the compiled rules
+	 */
+	public static RulePredicate compileRules(final List<RuleDefinition> rules, final Map<Long, List<RuleConditionDefinition>> conditionsByRuleId) {
+		Assertion.checkNotNull(rules);
+		Assertion.checkNotNull(conditionsByRuleId);
+		//---
+		final List<MethodHandle> ruleHandles = new ArrayList<>(rules.size());
+		for (final RuleDefinition rule : rules) {
+			final List<RuleConditionDefinition> conditions = conditionsByRuleId.getOrDefault(rule.getId(), new ArrayList<>());
+			final List<MethodHandle> conditionHandles = new ArrayList<>(conditions.size());
+			for (final RuleConditionDefinition condition : conditions) {
+				conditionHandles.add(compile(condition.getField(), condition.getOperator(), condition.getExpression()));
+			}
+			ruleHandles.add(and(conditionHandles));
+		}
+		return new MethodHandlePredicate(or(ruleHandles));
+	}
+
+	private static MethodHandle compile(final String field, final String operator, final String expression) {
+		Assertion.checkNotNull(field);
+		Assertion.checkNotNull(operator);
+		//---
+		switch (operator) {
+			case "=":
+				return MethodHandles.filterReturnValue(MethodHandles.insertArguments(GET_VALUE, 1, field),
+						MethodHandles.insertArguments(EQUALS_EXPRESSION, 0, expression));
+			case "IN":
+				if (expression == null) {
+					return missingExpression(field, operator);
+				}
+				return MethodHandles.filterReturnValue(MethodHandles.insertArguments(GET_VALUE, 1, field),
+						MethodHandles.insertArguments(IN_EXPRESSIONS, 0, new HashSet<>(Arrays.asList(expression.split(IN_SEPARATOR)))));
+			case "<":
+				if (expression == null) {
+					return missingExpression(field, operator);
+				}
+				return MethodHandles.filterReturnValue(MethodHandles.insertArguments(GET_TYPED_VALUE, 1, field),
+						MethodHandles.insertArguments(LESS_THAN, 0, RuleThreshold.of(expression)));
+			case ">":
+				if (expression == null) {
+					return missingExpression(field, operator);
+				}
+				return MethodHandles.filterReturnValue(MethodHandles.insertArguments(GET_TYPED_VALUE, 1, field),
+						MethodHandles.insertArguments(GREATER_THAN, 0, RuleThreshold.of(expression)));
+			default:
+				// Unsupported operator : the condition never matches, whatever the value of the field
+				return ALWAYS_FALSE;
+		}
+	}
+
+	private static MethodHandle missingExpression(final String field, final String operator) {
+		// Evaluated by the interpreted predicate, failing on a present field only
+		return TEST_PREDICATE.bindTo(RulePredicates.compile(field, operator, null));
+	}
+
+	private static MethodHandle and(final List<MethodHandle> handles) {
+		if (handles.isEmpty()) {
+			return ALWAYS_TRUE;
+		}
+		MethodHandle and = handles.get(handles.size() - 1);
+		for (int i = handles.size() - 2; i >= 0; i--) {
+			and = MethodHandles.guardWithTest(handles.get(i), and, ALWAYS_FALSE);
+		}
+		return and;
+	}
+
+	private static MethodHandle or(final List<MethodHandle> handles) {
+		if (handles.isEmpty()) {
+			return ALWAYS_FALSE;
+		}
+		MethodHandle or = handles.get(handles.size() - 1);
+		for (int i = handles.size() - 2; i >= 0; i--) {
+			or = MethodHandles.guardWithTest(handles.get(i), ALWAYS_TRUE, or);
+		}
+		return or;
+	}
+
+	private static boolean equalsExpression(final String expression, final Object value) {
+		return value != null && value.equals(expression);
+	}
+
+	private static boolean inExpressions(final Set<String> expressions, final Object value) {
+		if (value instanceof List) {
+			final List<?> values = (List<?>) value;
+			for (int i = 0; i < values.size(); i++) {
+				if (expressions.contains(values.get(i))) {
+					return true;
+				}
+			}
+			return false;
+		}
+		return value != null && expressions.contains(value);
+	}
+
+	private static boolean lessThan(final RuleThreshold threshold, final Object value) {
+		return value != null && threshold.isLessThan(value);
+	}
+
+	private static boolean greaterThan(final RuleThreshold threshold, final Object value) {
+		return value != null && threshold.isGreaterThan(value);
+	}
+
+	private static final class MethodHandlePredicate implements RulePredicate {
+		private final MethodHandle handle;
+
+		MethodHandlePredicate(final MethodHandle handle) {
+			this.handle = handle;
+		}
+
+		@Override
+		public boolean test(final RuleContext ruleContext) {
+			try {
+				return (boolean) handle.invokeExact(ruleContext);
+			} catch (final RuntimeException | Error e) {
+				throw e;
+			} catch (final Throwable t) {
+				throw WrappedException.wrap(t);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,39 @@
+/**
+ * vertigo - simple java starter
+ *
+ * Copyright (C) 2013-2019, KleeGroup, direction.technique@kleegroup.com (http://www.kleegroup.com)
+ * KleeGroup, Centre d'affaire la Boursidiere - BP 159 - 92357 Le Plessis Robinson Cedex - France
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.vertigo.rules.impl.predicate;
+
+import io.vertigo.rules.services.RuleContext;
+
+/**
+ * Immutable predicate compiled from rule conditions or selector filters.
+ *
+ * @author xdurand
+ *
+ */
+@FunctionalInterface
+public interface RulePredicate {
+
+	/**
+	 * Evaluate this predicate against a rule context.
+	 *
+	 * @param ruleContext the rule context
+	 * @return true if the context matches
+	 */
+	boolean test(RuleContext ruleContext);
+}
@@ -0,0 +1,288 @@
+/**
+ * vertigo - simple java starter
+ *
+ * Copyright (C) 2013-2019, KleeGroup, direction.technique@kleegroup.com (http://www.kleegroup.com)
+ * KleeGroup, Centre d'affaire la Boursidiere - BP 159 - 92357 Le Plessis Robinson Cedex - France
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.vertigo.rules.impl.predicate;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import io.vertigo.lang.Assertion;
+import io.vertigo.rules.domain.RuleConditionDefinition;
+import io.vertigo.rules.domain.RuleFilterDefinition;
+import io.vertigo.rules.services.RuleContext;
+
+/**
+ * Compiles rule conditions and selector filters into immutable predicates.
+ * Operators, IN expressions and numeric thresholds are parsed once, at compile time.
+ * Compiling never fails on a bad expression : as with the simple plugins, a missing or unparsable
+ * expression only fails when the condition is evaluated with a present field.
+ * Unlike the simple plugins, the conditions of a rule are evaluated in order and stop at the first
+ * failing one, so an invalid expression after a failing condition is not reported.
+ *
+ * @author xdurand
+ *
+ */
+public final class RulePredicates {
+
+	/** Predicate always true (no condition). */
+	public static final RulePredicate ALWAYS_TRUE = ruleContext -> true;
+	/** Predicate always false (unknown operator). */
+	public static final RulePredicate ALWAYS_FALSE = ruleContext -> false;
+
+	private static final String IN_SEPARATOR = ",";
+
+	private RulePredicates() {
+		// Helper
+	}
+
+	/**
+	 * Compile the conditions of a rule : all conditions must match.
+	 *
+	 * @param conditions the conditions of the rule
+	 * @return the compiled rule
+	 */
+	public static RulePredicate compileConditions(final List<RuleConditionDefinition> conditions) {
+		Assertion.checkNotNull(conditions);
+		//---
+		final RulePredicate[] predicates = new RulePredicate[conditions.size()];
+		for (int i = 0; i < predicates.length; i++) {
+			final RuleConditionDefinition condition = conditions.get(i);
+			predicates[i] = compile(condition.getField(), condition.getOperator(), condition.getExpression());
+		}
+		return and(predicates);
+	}
+
+	/**
+	 * Compile the filters of a selector : all filters must match.
+	 *
+	 * @param filters the filters of the selector
+	 * @return the compiled selector
+	 */
+	public static RulePredicate compileFilters(final List<RuleFilterDefinition> filters) {
+		Assertion.checkNotNull(filters);
+		//---
+		final RulePredicate[] predicates = new RulePredicate[filters.size()];
+		for (int i = 0; i < predicates.length; i++) {
+			final RuleFilterDefinition filter = filters.get(i);
+			predicates[i] = compile(filter.getField(), filter.getOperator(), filter.getExpression());
+		}
+		return and(predicates);
+	}
+
+	/**
+	 * Compile one condition.
+	 *
+	 * @param field the field of the context to test
+	 * @param operator the operator (=, IN, &lt;, &gt;)
+	 * @param expression the expression to compare with
+	 * @return the compiled condition
+	 */
+	public static RulePredicate compile(final String field, final String operator, final String expression) {
+		Assertion.checkNotNull(field);
+		Assertion.checkNotNull(operator);
+		//---
+		final String key = field.intern();
+		switch (operator) {
+			case "=":
+				return new EqualsPredicate(key, expression);
+			case "IN":
+				if (expression == null) {
+					return new MissingExpressionPredicate(key);
+				}
+				return new InPredicate(key, new HashSet<>(Arrays.asList(expression.split(IN_SEPARATOR))));
+			case "<":
+				if (expression == null) {
+					return new MissingExpressionPredicate(key);
+				}
+				return new LessThanPredicate(key, RuleThreshold.of(expression));
+			case ">":
+				if (expression == null) {
+					return new MissingExpressionPredicate(key);
+				}
+				return new GreaterThanPredicate(key, RuleThreshold.of(expression));
+			default:
+				return ALWAYS_FALSE;
+		}
+	}
+
+	/**
+	 * Conjunction of predicates.
+	 *
+	 * @param predicates the predicates
+	 * @return a predicate matching when all predicates match
+	 */
+	public static RulePredicate and(final RulePredicate[] predicates) {
+		Assertion.checkNotNull(predicates);
+		//---
+		switch (predicates.length) {
+			case 0:
+				return ALWAYS_TRUE;
+			case 1:
+				return predicates[0];
+			default:
+				return new AndPredicate(predicates.clone());
+		}
+	}
+
+	/**
+	 * Disjunction of predicates.
+	 *
+	 * @param predicates the predicates
+	 * @return a predicate matching when at least one predicate matches
+	 */
+	public static RulePredicate or(final RulePredicate[] predicates) {
+		Assertion.checkNotNull(predicates);
+		//---
+		switch (predicates.length) {
+			case 0:
+				return ALWAYS_FALSE;
+			case 1:
+				return predicates[0];
+			default:
+				return new OrPredicate(predicates.clone());
+		}
+	}
+
+	private static final class AndPredicate implements RulePredicate {
+		private final RulePredicate[] predicates;
+
+		AndPredicate(final RulePredicate[] predicates) {
+			this.predicates = predicates;
+		}
+
+		@Override
+		public boolean test(final RuleContext ruleContext) {
+			for (final RulePredicate predicate : predicates) {
+				if (!predicate.test(ruleContext)) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+
+	private static final class OrPredicate implements RulePredicate {
+		private final RulePredicate[] predicates;
+
+		OrPredicate(final RulePredicate[] predicates) {
+			this.predicates = predicates;
+		}
+
+		@Override
+		public boolean test(final RuleContext ruleContext) {
+			for (final RulePredicate predicate : predicates) {
+				if (predicate.test(ruleContext)) {
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+
+	private static final class EqualsPredicate implements RulePredicate {
+		private final String field;
+		private final String expression;
+
+		EqualsPredicate(final String field, final String expression) {
+			this.field = field;
+			this.expression = expression;
+		}
+
+		@Override
+		public boolean test(final RuleContext ruleContext) {
+			final Object value = ruleContext.getValue(field);
+			return value != null && value.equals(expression);
+		}
+	}
+
+	private static final class MissingExpressionPredicate implements RulePredicate {
+		private final String field;
+
+		MissingExpressionPredicate(final String field) {
+			this.field = field;
+		}
+
+		@Override
+		public boolean test(final RuleContext ruleContext) {
+			if (ruleContext.getValue(field) == null) {
+				return false;
+			}
+			throw new NullPointerException("The condition on " + field + " has no expression");
+		}
+	}
+
+	private static final class InPredicate implements RulePredicate {
+		private final String field;
+		private final Set<String> expressions;
+
+		InPredicate(final String field, final Set<String> expressions) {
+			this.field = field;
+			this.expressions = expressions;
+		}
+
+		@Override
+		public boolean test(final RuleContext ruleContext) {
+			final Object value = ruleContext.getValue(field);
+			if (value instanceof List) {
+				final List<?> values = (List<?>) value;
+				for (int i = 0; i < values.size(); i++) {
+					if (expressions.contains(values.get(i))) {
+						return true;
+					}
+				}
+				return false;
+			}
+			return value != null && expressions.contains(value);
+		}
+	}
+
+	private static final class LessThanPredicate implements RulePredicate {
+		private final String field;
+		private final RuleThreshold threshold;
+
+		LessThanPredicate(final String field, final RuleThreshold threshold) {
+			this.field = field;
+			this.threshold = threshold;
+		}
+
+		@Override
+		public boolean test(final RuleContext ruleContext) {
+			final Object value = ruleContext.getTypedValue(field);
+			return value != null && threshold.isLessThan(value);
+		}
+	}
+
+	private static final class GreaterThanPredicate implements RulePredicate {
+		private final String field;
+		private final RuleThreshold threshold;
+
+		GreaterThanPredicate(final String field, final RuleThreshold threshold) {
+			this.field = field;
+			this.threshold = threshold;
+		}
+
+		@Override
+		public boolean test(final RuleContext ruleContext) {
+			final Object value = ruleContext.getTypedValue(field);
+			return value != null && threshold.isGreaterThan(value);
+		}
+	}
+
+}
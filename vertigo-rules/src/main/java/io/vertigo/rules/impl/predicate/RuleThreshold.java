@@ -0,0 +1,174 @@
+/**
+ * vertigo - simple java starter
+ *
+ * Copyright (C) 2013-2019, KleeGroup, direction.technique@kleegroup.com (http://www.kleegroup.com)
+ * KleeGroup, Centre d'affaire la Boursidiere - BP 159 - 92357 Le Plessis Robinson Cedex - France
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.vertigo.rules.impl.predicate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.Date;
+
+import io.vertigo.lang.Assertion;
+
+/**
+ * Expression of a &lt; or &gt; condition, parsed once and compared with the typed values of a RuleContext.
+ * Integers are compared as long, decimals as BigDecimal (exact), doubles as primitive doubles (NaN is neither less nor greater,
+ * -0.0 equals 0.0) and dates with an ISO expression (yyyy-MM-dd or yyyy-MM-ddTHH:mm:ss).
+ * java.util.Date values are compared with the expression read in the default zone of the JVM.
+ * Other values (String constants...) are trimmed and read as decimals, or as doubles when they aren't plain decimals :
+ * like Double.parseDouble, a value that isn't a number (a Boolean...) throws a NumberFormatException.
+ *
+ * @author xdurand
+ *
+ */
+public final class RuleThreshold {
+
+	private final String expression;
+	private final BigDecimal decimal;
+	private final boolean integral;
+	private final long longValue;
+	private final double doubleValue;
+	private final LocalDateTime dateTime;
+	private final long dateMillis;
+
+	private RuleThreshold(final String expression) {
+		this.expression = expression;
+		decimal = parseDecimal(expression);
+		if (decimal != null) {
+			final Long exactLong = toExactLong(decimal);
+			integral = exactLong != null;
+			longValue = integral ? exactLong : 0;
+			doubleValue = decimal.doubleValue();
+			dateTime = null;
+		} else {
+			integral = false;
+			longValue = 0;
+			doubleValue = 0;
+			dateTime = parseDateTime(expression);
+		}
+		dateMillis = dateTime != null ? dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : 0;
+	}
+
+	/**
+	 * @param expression the expression of the condition
+	 * @return the threshold
+	 */
+	public static RuleThreshold of(final String expression) {
+		Assertion.checkNotNull(expression);
+		//---
+		return new RuleThreshold(expression);
+	}
+
+	/**
+	 * @param value the typed value of the context (not null)
+	 * @return true if the value is less than the threshold
+	 */
+	public boolean isLessThan(final Object value) {
+		return test(value, true);
+	}
+
+	/**
+	 * @param value the typed value of the context (not null)
+	 * @return true if the value is greater than the threshold
+	 */
+	public boolean isGreaterThan(final Object value) {
+		return test(value, false);
+	}
+
+	private boolean test(final Object value, final boolean lessThan) {
+		Assertion.checkNotNull(value);
+		//---
+		final int comparison;
+		if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+			final long longVal = ((Number) value).longValue();
+			comparison = integral ? Long.compare(longVal, longValue) : BigDecimal.valueOf(longVal).compareTo(getDecimal());
+		} else if (value instanceof BigDecimal) {
+			comparison = ((BigDecimal) value).compareTo(getDecimal());
+		} else if (value instanceof Double || value instanceof Float) {
+			checkNumber();
+			return testDouble(((Number) value).doubleValue(), lessThan);
+		} else if (value instanceof Date) {
+			comparison = Long.compare(((Date) value).getTime(), getDateMillis());
+		} else if (value instanceof LocalDate) {
+			comparison = ((LocalDate) value).atStartOfDay().compareTo(getDateTime());
+		} else {
+			final String stringValue = value.toString().trim();
+			final BigDecimal decimalValue = parseDecimal(stringValue);
+			if (decimalValue == null) {
+				checkNumber();
+				return testDouble(Double.parseDouble(stringValue), lessThan);
+			}
+			comparison = decimalValue.compareTo(getDecimal());
+		}
+		return lessThan ? comparison < 0 : comparison > 0;
+	}
+
+	private boolean testDouble(final double doubleVal, final boolean lessThan) {
+		// Primitive comparison, as the former Double.parseDouble comparison
+		return lessThan ? doubleVal < doubleValue : doubleVal > doubleValue;
+	}
+
+	private BigDecimal getDecimal() {
+		checkNumber();
+		return decimal;
+	}
+
+	private void checkNumber() {
+		Assertion.checkState(decimal != null, "The expression {0} is not a number", expression);
+	}
+
+	private LocalDateTime getDateTime() {
+		Assertion.checkState(dateTime != null, "The expression {0} is not a date", expression);
+		return dateTime;
+	}
+
+	private long getDateMillis() {
+		getDateTime();
+		return dateMillis;
+	}
+
+	private static BigDecimal parseDecimal(final String expression) {
+		try {
+			return new BigDecimal(expression.trim());
+		} catch (final NumberFormatException e) {
+			return null;
+		}
+	}
+
+	private static Long toExactLong(final BigDecimal decimal) {
+		try {
+			return decimal.longValueExact();
+		} catch (final ArithmeticException e) {
+			return null;
+		}
+	}
+
+	private static LocalDateTime parseDateTime(final String expression) {
+		try {
+			return LocalDate.parse(expression.trim()).atStartOfDay();
+		} catch (final DateTimeParseException e) {
+			try {
+				return LocalDateTime.parse(expression.trim());
+			} catch (final DateTimeParseException e2) {
+				return null;
+			}
+		}
+	}
+}
@@ -20,12 +20,16 @@ package io.vertigo.rules.plugins.memory;
 
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import io.vertigo.lang.Assertion;
 import io.vertigo.rules.impl.RuleConstantsStorePlugin;
 import io.vertigo.rules.services.RuleConstants;
 
 /**
+ * Keeps an immutable snapshot of the constants for each key.
+ * Constants are copied when they are stored (with a new version) and shared as is when they are read :
+ * unlike the former store, which kept the given instance, later changes of this instance are not seen.
  *
  * @author xdurand
  *
@@ -33,13 +37,14 @@ import io.vertigo.rules.services.RuleConstants;
 public final class MemoryRuleConstantsStorePlugin implements RuleConstantsStorePlugin {
 
 	private final Map<Long, RuleConstants> inMemoryConstantsStore = new ConcurrentHashMap<>();
+	private final AtomicLong versionSequence = new AtomicLong();
 
 	@Override
 	public void addConstants(final Long key, final RuleConstants ruleConstants) {
 		Assertion.checkNotNull(key);
 		Assertion.checkNotNull(ruleConstants);
 		//---
-		inMemoryConstantsStore.put(key, ruleConstants);
+		inMemoryConstantsStore.put(key, ruleConstants.snapshot(versionSequence.incrementAndGet()));
 	}
 
 	@Override
@@ -55,7 +60,7 @@ public final class MemoryRuleConstantsStorePlugin implements RuleConstantsStoreP
 		Assertion.checkNotNull(ruleConstants);
 		Assertion.checkState(inMemoryConstantsStore.containsKey(key), "Cannot update this RuleConstant : Its id is unknown in the store");
 		//---
-		inMemoryConstantsStore.put(key, ruleConstants);
+		inMemoryConstantsStore.put(key, ruleConstants.snapshot(versionSequence.incrementAndGet()));
 	}
 
 	@Override
@@ -19,15 +19,24 @@
 package io.vertigo.rules.plugins.memory;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicLong;
-import java.util.function.Function;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import io.vertigo.lang.Assertion;
-import io.vertigo.rules.RuleCriteria;
+import io.vertigo.rules.RuleConditionCriteria;
 import io.vertigo.rules.domain.RuleConditionDefinition;
 import io.vertigo.rules.domain.RuleDefinition;
 import io.vertigo.rules.domain.RuleFilterDefinition;
@@ -35,6 +44,11 @@ import io.vertigo.rules.domain.SelectorDefinition;
 import io.vertigo.rules.impl.RuleStorePlugin;
 
 /**
+ * In memory rule store.
+ * Rules, conditions, selectors and filters are indexed by their parent id so lookups only visit the results.
+ * Conditions are also indexed by field and expression, so a search by criteria intersects the matching rules.
+ * A definition and its index entries are published together under the write lock of the store,
+ * so readers never see a definition missing from the indexes (or the opposite).
  *
  * @author xdurand
  *
@@ -53,6 +67,52 @@ public final class MemoryRuleStorePlugin implements RuleStorePlugin {
 	private final Map<Long, RuleFilterDefinition> inMemoryFilterStore = new ConcurrentHashMap<>();
 	private final AtomicLong memoryFilterSequenceGenerator = new AtomicLong(0);
 
+	// Secondary indexes
+	private final Map<Long, List<RuleDefinition>> rulesByItemId = new ConcurrentHashMap<>();
+	private final Map<Long, List<RuleConditionDefinition>> conditionsByRuleId = new ConcurrentHashMap<>();
+	private final Map<Long, List<SelectorDefinition>> selectorsByItemId = new ConcurrentHashMap<>();
+	private final Map<Long, List<RuleFilterDefinition>> filtersBySelectorId = new ConcurrentHashMap<>();
+	// Inverted index of the conditions : field => expression => rule ids, for the searches by criteria
+	private final Map<String, Map<String, Set<Long>>> conditionIndex = new ConcurrentHashMap<>();
+
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+	private void write(final Runnable update) {
+		lock.writeLock().lock();
+		try {
+			update.run();
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	private <T> T read(final Supplier<T> query) {
+		lock.readLock().lock();
+		try {
+			return query.get();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	private static <T> void index(final Map<Long, List<T>> index, final Long key, final T value) {
+		if (key != null) {
+			index.computeIfAbsent(key, k -> new CopyOnWriteArrayList<>()).add(value);
+		}
+	}
+
+	private static <T> List<T> lookup(final Map<Long, List<T>> index, final Long key) {
+		return new ArrayList<>(index.getOrDefault(key, Collections.emptyList()));
+	}
+
+	private static <T> List<T> lookupAll(final Map<Long, List<T>> index, final List<Long> keys) {
+		final List<T> ret = new ArrayList<>();
+		for (final Long key : keys) {
+			ret.addAll(index.getOrDefault(key, Collections.emptyList()));
+		}
+		return ret;
+	}
+
 	/**
 	 *
 	 * @param ruleDefinition
@@ -65,7 +125,10 @@ public final class MemoryRuleStorePlugin implements RuleStorePlugin {
 		// ---
 		final Long generatedId = memoryRuleSequenceGenerator.addAndGet(1);
 		ruleDefinition.setId(generatedId);
-		inMemoryRuleStore.put(generatedId, ruleDefinition);
+		write(() -> {
+			inMemoryRuleStore.put(generatedId, ruleDefinition);
+			index(rulesByItemId, ruleDefinition.getItemId(), ruleDefinition);
+		});
 	}
 
 	@Override
@@ -75,23 +138,23 @@ public final class MemoryRuleStorePlugin implements RuleStorePlugin {
 		// ---
 		final Long generatedId = memoryConditionSequenceGenerator.addAndGet(1);
 		ruleConditionDefinition.setId(generatedId);
-		inMemoryConditionStore.put(generatedId, ruleConditionDefinition);
+		write(() -> {
+			inMemoryConditionStore.put(generatedId, ruleConditionDefinition);
+			index(conditionsByRuleId, ruleConditionDefinition.getRudId(), ruleConditionDefinition);
+			if (ruleConditionDefinition.getRudId() != null && ruleConditionDefinition.getField() != null && ruleConditionDefinition.getExpression() != null) {
+				conditionIndex
+						.computeIfAbsent(ruleConditionDefinition.getField(), k -> new ConcurrentHashMap<>())
+						.computeIfAbsent(ruleConditionDefinition.getExpression(), k -> new ConcurrentSkipListSet<>())
+						.add(ruleConditionDefinition.getRudId());
+			}
+		});
 	}
 
 	@Override
 	public List<RuleConditionDefinition> findConditionByRuleId(final Long ruleId) {
 		Assertion.checkNotNull(ruleId);
 		// ---
-		final List<RuleConditionDefinition> ret = new ArrayList<>();
-
-		for (final RuleConditionDefinition ruleDefinition : inMemoryConditionStore.values()) {
-			if (ruleId.equals(ruleDefinition.getRudId())) {
-				// Collect
-				ret.add(ruleDefinition);
-			}
-		}
-
-		return ret;
+		return read(() -> lookup(conditionsByRuleId, ruleId));
 	}
 
 	/**
@@ -106,23 +169,17 @@ public final class MemoryRuleStorePlugin implements RuleStorePlugin {
 		// ---
 		final Long generatedId = memorySelectorSequenceGenerator.addAndGet(1);
 		selectorDefinition.setId(generatedId);
-		inMemorySelectorStore.put(generatedId, selectorDefinition);
+		write(() -> {
+			inMemorySelectorStore.put(generatedId, selectorDefinition);
+			index(selectorsByItemId, selectorDefinition.getItemId(), selectorDefinition);
+		});
 	}
 
 	@Override
 	public List<SelectorDefinition> findSelectorsByItemId(final Long itemId) {
 		Assertion.checkNotNull(itemId);
 		// ---
-		final List<SelectorDefinition> ret = new ArrayList<>();
-
-		for (final SelectorDefinition selectorDefinition : inMemorySelectorStore.values()) {
-			if (itemId.equals(selectorDefinition.getItemId())) {
-				// Collect
-				ret.add(selectorDefinition);
-			}
-		}
-
-		return ret;
+		return read(() -> lookup(selectorsByItemId, itemId));
 	}
 
 	@Override
@@ -133,68 +190,68 @@ public final class MemoryRuleStorePlugin implements RuleStorePlugin {
 		// ---
 		final Long generatedId = memoryFilterSequenceGenerator.addAndGet(1);
 		ruleFilterDefinition.setId(generatedId);
-		inMemoryFilterStore.put(generatedId, ruleFilterDefinition);
-
+		write(() -> {
+			inMemoryFilterStore.put(generatedId, ruleFilterDefinition);
+			index(filtersBySelectorId, ruleFilterDefinition.getSelId(), ruleFilterDefinition);
+		});
 	}
 
 	@Override
 	public List<RuleFilterDefinition> findFiltersBySelectorId(final Long selectorId) {
 		Assertion.checkNotNull(selectorId);
 		// ---
-		final List<RuleFilterDefinition> ret = new ArrayList<>();
-
-		for (final RuleFilterDefinition ruleFilterDefinition : inMemoryFilterStore.values()) {
-			if (selectorId.equals(ruleFilterDefinition.getSelId())) {
-				// Collect
-				ret.add(ruleFilterDefinition);
-			}
-		}
-
-		return ret;
+		return read(() -> lookup(filtersBySelectorId, selectorId));
 	}
 
 	@Override
-	public List<RuleDefinition> findRulesByCriteria(RuleCriteria criteria, List<Long> items) {
+	public List<RuleDefinition> findRulesByCriteria(final List<RuleConditionCriteria> criteria, final List<Long> items) {
 		Assertion.checkNotNull(criteria);
+		Assertion.checkArgument(!criteria.isEmpty(), "At least one criteria is needed");
+		Assertion.checkNotNull(items);
 		// ---
-		List<RuleDefinition> ret = new ArrayList<>();
-		for (Long itemId : items) {
-
-			List<RuleDefinition> rules = inMemoryRuleStore.entrySet().stream()
-					.filter(r -> r.getValue().getItemId().equals(itemId)).map(es -> es.getValue())
-					.collect(Collectors.toList());
-			for (RuleDefinition rule : rules) {
-
-				Map<String, RuleConditionDefinition> mapConditions = inMemoryConditionStore.entrySet().stream()
-						.filter(r -> r.getValue().getRudId().equals(rule.getId())).map(es -> es.getValue())
-						.collect(Collectors.toMap(RuleConditionDefinition::getField, Function.identity()));
-
-				int match = 0;
-				RuleConditionDefinition currentRule1 = mapConditions.get(criteria.getConditionCriteria1().getField());
-
-				if (currentRule1 != null
-						&& currentRule1.getExpression().equals(criteria.getConditionCriteria1().getValue())) {
-					match++;
-				}
-
-				if (criteria.getConditionCriteria2() != null) {
-					RuleConditionDefinition currentRule2 = mapConditions
-							.get(criteria.getConditionCriteria2().getField());
-					if (currentRule2 != null
-							&& currentRule2.getExpression().equals(criteria.getConditionCriteria2().getValue())) {
-						match++;
-					}
+		// First matching rule of each item (rule ids are sorted in creation order)
+		final Map<Long, RuleDefinition> matchingRuleByItemId = read(() -> {
+			final Map<Long, RuleDefinition> firstRuleByItemId = new HashMap<>();
+			for (final Long ruleId : findRuleIdsByConditions(criteria)) {
+				final RuleDefinition rule = inMemoryRuleStore.get(ruleId);
+				if (rule != null) {
+					firstRuleByItemId.putIfAbsent(rule.getItemId(), rule);
 				}
+			}
+			return firstRuleByItemId;
+		});
 
-				int expectedMatch = criteria.getConditionCriteria2() != null ? 2 : 1;
+		final List<RuleDefinition> ret = new ArrayList<>();
+		for (final Long itemId : items) {
+			final RuleDefinition rule = matchingRuleByItemId.get(itemId);
+			if (rule != null) {
+				ret.add(rule);
+			}
+		}
+		return ret;
+	}
 
-				if (match == expectedMatch) {
-					ret.add(rule);
-					break;
-				}
+	private Set<Long> findRuleIdsByConditions(final List<RuleConditionCriteria> conditionCriterias) {
+		// Intersection of the rules having each condition, starting from the smallest set
+		final List<Set<Long>> ruleIdSets = new ArrayList<>(conditionCriterias.size());
+		for (final RuleConditionCriteria conditionCriteria : conditionCriterias) {
+			if (conditionCriteria.getField() == null || conditionCriteria.getValue() == null) {
+				return Collections.emptySet();
+			}
+			final Set<Long> ruleIds = conditionIndex
+					.getOrDefault(conditionCriteria.getField(), Collections.emptyMap())
+					.get(conditionCriteria.getValue());
+			if (ruleIds == null) {
+				return Collections.emptySet();
 			}
+			ruleIdSets.add(ruleIds);
 		}
+		ruleIdSets.sort(Comparator.comparingInt(Set::size));
 
+		final Set<Long> ret = new TreeSet<>(ruleIdSets.get(0));
+		for (int i = 1; i < ruleIdSets.size() && !ret.isEmpty(); i++) {
+			ret.retainAll(ruleIdSets.get(i));
+		}
 		return ret;
 	}
 
@@ -202,15 +259,44 @@ public final class MemoryRuleStorePlugin implements RuleStorePlugin {
 	public List<RuleDefinition> findRulesByItemId(final Long itemId) {
 		Assertion.checkNotNull(itemId);
 		// ---
-		final List<RuleDefinition> ret = new ArrayList<>();
+		return read(() -> lookup(rulesByItemId, itemId));
+	}
 
-		for (final RuleDefinition ruleDefinition : inMemoryRuleStore.values()) {
-			if (itemId.equals(ruleDefinition.getItemId())) {
-				// Collect
-				ret.add(ruleDefinition);
-			}
-		}
+	@Override
+	public List<RuleDefinition> findRulesByItemIds(final List<Long> itemIds) {
+		Assertion.checkNotNull(itemIds);
+		// ---
+		return read(() -> lookupAll(rulesByItemId, itemIds));
+	}
 
-		return ret;
+	@Override
+	public List<RuleConditionDefinition> findConditionsByItemIds(final List<Long> itemIds) {
+		Assertion.checkNotNull(itemIds);
+		// ---
+		return read(() -> {
+			final List<Long> ruleIds = lookupAll(rulesByItemId, itemIds).stream()
+					.map(RuleDefinition::getId)
+					.collect(Collectors.toList());
+			return lookupAll(conditionsByRuleId, ruleIds);
+		});
+	}
+
+	@Override
+	public List<SelectorDefinition> findSelectorsByItemIds(final List<Long> itemIds) {
+		Assertion.checkNotNull(itemIds);
+		// ---
+		return read(() -> lookupAll(selectorsByItemId, itemIds));
+	}
+
+	@Override
+	public List<RuleFilterDefinition> findFiltersByItemIds(final List<Long> itemIds) {
+		Assertion.checkNotNull(itemIds);
+		// ---
+		return read(() -> {
+			final List<Long> selectorIds = lookupAll(selectorsByItemId, itemIds).stream()
+					.map(SelectorDefinition::getId)
+					.collect(Collectors.toList());
+			return lookupAll(filtersBySelectorId, selectorIds);
+		});
 	}
 }
@@ -0,0 +1,242 @@
+/**
+ * vertigo - simple java starter
+ *
+ * Copyright (C) 2013-2019, KleeGroup, direction.technique@kleegroup.com (http://www.kleegroup.com)
+ * KleeGroup, Centre d'affaire la Boursidiere - BP 159 - 92357 Le Plessis Robinson Cedex - France
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.vertigo.rules.plugins.selector;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+
+import io.vertigo.account.account.Account;
+import io.vertigo.account.account.AccountGroup;
+import io.vertigo.account.account.AccountManager;
+import io.vertigo.commons.transaction.VTransactionManager;
+import io.vertigo.dynamo.domain.model.URI;
+import io.vertigo.dynamo.domain.util.DtObjectUtil;
+import io.vertigo.lang.Assertion;
+import io.vertigo.rules.domain.RuleFilterDefinition;
+import io.vertigo.rules.domain.SelectorDefinition;
+import io.vertigo.rules.impl.CompiledDefinitionCache;
+import io.vertigo.rules.impl.RuleSelectorPlugin;
+import io.vertigo.rules.impl.RuleStorePlugin;
+import io.vertigo.rules.impl.predicate.RulePredicate;
+import io.vertigo.rules.impl.predicate.RulePredicates;
+import io.vertigo.rules.services.RuleContext;
+
+/**
+ * Rule selector compiling the filters of each selector and caching the accounts of each group.
+ * The accounts of a group are read at most once per cache duration (param cacheSeconds, 60 by default),
+ * for at most cacheSize groups (1000 by default, least recently used groups are dropped first).
+ * The compiled selectors are cached in the same way, and a selector invalidated by RuleServices (addSelector, addFilter)
+ * is compiled again once the transaction is completed.
+ * An account member of several matching groups is read and selected once.
+ *
+ * @author xdurand
+ *
+ */
+public final class CachedRuleSelectorPlugin implements RuleSelectorPlugin {
+
+	private static final int DEFAULT_CACHE_SECONDS = 60;
+	private static final int DEFAULT_CACHE_SIZE = 1000;
+
+	private final RuleStorePlugin ruleStorePlugin;
+	private final AccountManager identityManager;
+	private final long cacheMillis;
+
+	private final CompiledDefinitionCache<Long, RulePredicate> compiledSelectors;
+	private final Map<String, CachedAccounts> accountsByGroupId;
+
+	/**
+	 * Constructor.
+	 * @param ruleStorePlugin the rule store
+	 * @param identityManager the account manager
+	 * @param transactionManager the transaction manager
+	 * @param cacheSeconds duration of the accounts of a group, and of a compiled selector, in cache
+	 * @param cacheSize max number of groups, and of compiled selectors, in cache
+	 */
+	@Inject
+	public CachedRuleSelectorPlugin(
+			final RuleStorePlugin ruleStorePlugin,
+			final AccountManager identityManager,
+			final VTransactionManager transactionManager,
+			@Named("cacheSeconds") final Optional<Integer> cacheSeconds,
+			@Named("cacheSize") final Optional<Integer> cacheSize) {
+		Assertion.checkNotNull(ruleStorePlugin);
+		Assertion.checkNotNull(identityManager);
+		Assertion.checkNotNull(transactionManager);
+		Assertion.checkNotNull(cacheSeconds);
+		Assertion.checkNotNull(cacheSize);
+		//---
+		this.ruleStorePlugin = ruleStorePlugin;
+		this.identityManager = identityManager;
+		cacheMillis = cacheSeconds.orElse(DEFAULT_CACHE_SECONDS) * 1000L;
+		final int maxGroups = cacheSize.orElse(DEFAULT_CACHE_SIZE);
+		compiledSelectors = new CompiledDefinitionCache<>(transactionManager, maxGroups, cacheSeconds.orElse(DEFAULT_CACHE_SECONDS));
+		accountsByGroupId = Collections.synchronizedMap(new LinkedHashMap<String, CachedAccounts>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(final Map.Entry<String, CachedAccounts> eldest) {
+				return size() > maxGroups;
+			}
+		});
+	}
+
+	private static URI<AccountGroup> createGroupURI(final String id) {
+		return DtObjectUtil.createURI(AccountGroup.class, id);
+	}
+
+	@Override
+	public List<SelectorDefinition> findMatchingSelectors(final List<SelectorDefinition> selectors,
+			final Map<Long, List<RuleFilterDefinition>> mapFilters, final RuleContext ruleContext) {
+		final List<SelectorDefinition> collected = new ArrayList<>();
+
+		for (final SelectorDefinition selectorDefinition : selectors) {
+			final RulePredicate compiledSelector;
+			if (mapFilters == null) {
+				// Without filters (selection by RuleSelector only), the filters are read from the store
+				compiledSelector = compiledSelectors.get(selectorDefinition.getId(),
+						id -> RulePredicates.compileFilters(ruleStorePlugin.findFiltersBySelectorId(id)));
+			} else {
+				final List<RuleFilterDefinition> filters = mapFilters.get(selectorDefinition.getId());
+				compiledSelector = compiledSelectors.get(Collections.singletonList(filters),
+						() -> RulePredicates.compileFilters(filters != null ? filters : Collections.emptyList()));
+			}
+
+			if (compiledSelector.test(ruleContext)) {
+				collected.add(selectorDefinition);
+			}
+		}
+
+		return collected;
+	}
+
+	private List<Account> resolveAccounts(final List<SelectorDefinition> matchingSelectors) {
+		final Map<String, List<Account>> groupAccounts = new HashMap<>();
+		final Set<String> missingGroupIds = new LinkedHashSet<>();
+		for (final SelectorDefinition selectorDefinition : matchingSelectors) {
+			final String groupId = selectorDefinition.getGroupId();
+			final CachedAccounts cachedAccounts = accountsByGroupId.get(groupId);
+			if (cachedAccounts == null || cachedAccounts.isOlderThan(cacheMillis)) {
+				missingGroupIds.add(groupId);
+			} else {
+				groupAccounts.put(groupId, cachedAccounts.accounts);
+			}
+		}
+		if (!missingGroupIds.isEmpty()) {
+			groupAccounts.putAll(loadAccounts(missingGroupIds));
+		}
+
+		// An account member of several groups is selected once
+		final Map<String, Account> collected = new LinkedHashMap<>();
+		for (final SelectorDefinition selectorDefinition : matchingSelectors) {
+			for (final Account account : groupAccounts.get(selectorDefinition.getGroupId())) {
+				collected.putIfAbsent(account.getId(), account);
+			}
+		}
+		return new ArrayList<>(collected.values());
+	}
+
+	private Map<String, List<Account>> loadAccounts(final Set<String> groupIds) {
+		final Map<String, Set<URI<Account>>> accountURIsByGroupId = new HashMap<>();
+		final Set<URI<Account>> accountURIs = new LinkedHashSet<>();
+		for (final String groupId : groupIds) {
+			final Set<URI<Account>> groupAccountURIs = identityManager.getAccountURIs(createGroupURI(groupId));
+			accountURIsByGroupId.put(groupId, groupAccountURIs);
+			accountURIs.addAll(groupAccountURIs);
+		}
+
+		// Each account is read once, whatever the number of groups it belongs to
+		final Map<URI<Account>, Account> accounts = new HashMap<>();
+		for (final URI<Account> accountURI : accountURIs) {
+			accounts.put(accountURI, identityManager.getAccount(accountURI));
+		}
+
+		final Map<String, List<Account>> groupAccounts = new HashMap<>();
+		for (final Map.Entry<String, Set<URI<Account>>> entry : accountURIsByGroupId.entrySet()) {
+			final List<Account> loadedAccounts = new ArrayList<>(entry.getValue().size());
+			for (final URI<Account> accountURI : entry.getValue()) {
+				loadedAccounts.add(accounts.get(accountURI));
+			}
+			final CachedAccounts cachedAccounts = new CachedAccounts(Collections.unmodifiableList(loadedAccounts));
+			accountsByGroupId.put(entry.getKey(), cachedAccounts);
+			groupAccounts.put(entry.getKey(), cachedAccounts.accounts);
+		}
+		return groupAccounts;
+	}
+
+	private List<AccountGroup> resolveGroups(final List<SelectorDefinition> matchingSelectors) {
+		final List<AccountGroup> collected = new ArrayList<>(matchingSelectors.size());
+
+		for (final SelectorDefinition selectorDefinition : matchingSelectors) {
+			collected.add(identityManager.getGroup(createGroupURI(selectorDefinition.getGroupId())));
+		}
+
+		return collected;
+	}
+
+	@Override
+	public List<Account> selectAccounts(final List<SelectorDefinition> selectors, final RuleContext ruleContext) {
+		return resolveAccounts(findMatchingSelectors(selectors, null, ruleContext));
+	}
+
+	@Override
+	public List<Account> selectAccounts(final List<SelectorDefinition> selectors,
+			final Map<Long, List<RuleFilterDefinition>> mapFilters, final RuleContext ruleContext) {
+		return resolveAccounts(findMatchingSelectors(selectors, mapFilters, ruleContext));
+	}
+
+	@Override
+	public List<AccountGroup> selectGroups(final List<SelectorDefinition> selectors, final RuleContext ruleContext) {
+		return resolveGroups(findMatchingSelectors(selectors, null, ruleContext));
+	}
+
+	@Override
+	public List<AccountGroup> selectGroups(final List<SelectorDefinition> selectors,
+			final Map<Long, List<RuleFilterDefinition>> mapFilters, final RuleContext ruleContext) {
+		return resolveGroups(findMatchingSelectors(selectors, mapFilters, ruleContext));
+	}
+
+	@Override
+	public void invalidateSelector(final Long selectorId) {
+		compiledSelectors.invalidate(selectorId);
+	}
+
+	private static final class CachedAccounts {
+		private final List<Account> accounts;
+		private final long loadTime = System.currentTimeMillis();
+
+		CachedAccounts(final List<Account> accounts) {
+			this.accounts = accounts;
+		}
+
+		boolean isOlderThan(final long millis) {
+			return System.currentTimeMillis() - loadTime > millis;
+		}
+	}
+
+}
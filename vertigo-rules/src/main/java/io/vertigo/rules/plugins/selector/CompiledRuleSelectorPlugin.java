@@ -0,0 +1,175 @@
+/**
+ * vertigo - simple java starter
+ *
+ * Copyright (C) 2013-2019, KleeGroup, direction.technique@kleegroup.com (http://www.kleegroup.com)
+ * KleeGroup, Centre d'affaire la Boursidiere - BP 159 - 92357 Le Plessis Robinson Cedex - France
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.vertigo.rules.plugins.selector;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+
+import io.vertigo.account.account.Account;
+import io.vertigo.account.account.AccountGroup;
+import io.vertigo.account.account.AccountManager;
+import io.vertigo.commons.transaction.VTransactionManager;
+import io.vertigo.dynamo.domain.model.URI;
+import io.vertigo.dynamo.domain.util.DtObjectUtil;
+import io.vertigo.rules.domain.RuleFilterDefinition;
+import io.vertigo.rules.domain.SelectorDefinition;
+import io.vertigo.rules.impl.CompiledDefinitionCache;
+import io.vertigo.rules.impl.RuleSelectorPlugin;
+import io.vertigo.rules.impl.RuleStorePlugin;
+import io.vertigo.rules.impl.predicate.RulePredicate;
+import io.vertigo.rules.impl.predicate.RulePredicates;
+import io.vertigo.rules.services.RuleContext;
+
+/**
+ * Rule selector compiling the filters of each selector once into a short-circuiting predicate.
+ * The selectors read from the store are cached by selector id, the selectors of a preloaded rule set by instance of their filters,
+ * for at most cacheSeconds (3600 by default) and at most cacheSize selectors (1000 by default, least recently used selectors are dropped first).
+ * A selector invalidated by RuleServices (addSelector, addFilter) is compiled again once the transaction is completed :
+ * filters written directly through the RuleStorePlugin, or by another node, are seen after cacheSeconds.
+ *
+ * @author xdurand
+ *
+ */
+public final class CompiledRuleSelectorPlugin implements RuleSelectorPlugin {
+
+	private static final int DEFAULT_CACHE_SECONDS = 3600;
+	private static final int DEFAULT_CACHE_SIZE = 1000;
+
+	private final RuleStorePlugin ruleStorePlugin;
+	private final AccountManager identityManager;
+
+	private final CompiledDefinitionCache<Long, RulePredicate> compiledSelectors;
+
+	/**
+	 * Constructor.
+	 * @param ruleStorePlugin the rule store
+	 * @param identityManager the account manager
+	 * @param transactionManager the transaction manager
+	 * @param cacheSeconds duration of a compiled selector in cache
+	 * @param cacheSize max number of compiled selectors in cache
+	 */
+	@Inject
+	public CompiledRuleSelectorPlugin(
+			final RuleStorePlugin ruleStorePlugin,
+			final AccountManager identityManager,
+			final VTransactionManager transactionManager,
+			@Named("cacheSeconds") final Optional<Integer> cacheSeconds,
+			@Named("cacheSize") final Optional<Integer> cacheSize) {
+		this.ruleStorePlugin = ruleStorePlugin;
+		this.identityManager = identityManager;
+		compiledSelectors = new CompiledDefinitionCache<>(transactionManager,
+				cacheSize.orElse(DEFAULT_CACHE_SIZE), cacheSeconds.orElse(DEFAULT_CACHE_SECONDS));
+	}
+
+	private static URI<AccountGroup> createGroupURI(final String id) {
+		return DtObjectUtil.createURI(AccountGroup.class, id);
+	}
+
+	private List<SelectorDefinition> findMatchingSelectors(final List<SelectorDefinition> selectors,
+			final RuleContext ruleContext) {
+		final List<SelectorDefinition> collected = new ArrayList<>();
+
+		for (final SelectorDefinition selectorDefinition : selectors) {
+			final RulePredicate compiledSelector = compiledSelectors.get(selectorDefinition.getId(),
+					id -> RulePredicates.compileFilters(ruleStorePlugin.findFiltersBySelectorId(id)));
+
+			if (compiledSelector.test(ruleContext)) {
+				collected.add(selectorDefinition);
+			}
+		}
+
+		return collected;
+	}
+
+	@Override
+	public List<SelectorDefinition> findMatchingSelectors(final List<SelectorDefinition> selectors,
+			final Map<Long, List<RuleFilterDefinition>> mapFilters, final RuleContext ruleContext) {
+		final List<SelectorDefinition> collected = new ArrayList<>();
+
+		for (final SelectorDefinition selectorDefinition : selectors) {
+			final List<RuleFilterDefinition> filters = mapFilters.get(selectorDefinition.getId());
+			final RulePredicate compiledSelector = compiledSelectors.get(Collections.singletonList(filters),
+					() -> RulePredicates.compileFilters(filters != null ? filters : Collections.emptyList()));
+
+			if (compiledSelector.test(ruleContext)) {
+				collected.add(selectorDefinition);
+			}
+		}
+
+		return collected;
+	}
+
+	private List<Account> resolveAccounts(final List<SelectorDefinition> matchingSelectors) {
+		final List<Account> collected = new ArrayList<>();
+
+		for (final SelectorDefinition selectorDefinition : matchingSelectors) {
+			final Set<URI<Account>> accounts = identityManager.getAccountURIs(createGroupURI(selectorDefinition.getGroupId()));
+			for (final URI<Account> accountUri : accounts) {
+				collected.add(identityManager.getAccount(accountUri));
+			}
+		}
+
+		return collected;
+	}
+
+	private List<AccountGroup> resolveGroups(final List<SelectorDefinition> matchingSelectors) {
+		final List<AccountGroup> collected = new ArrayList<>(matchingSelectors.size());
+
+		for (final SelectorDefinition selectorDefinition : matchingSelectors) {
+			collected.add(identityManager.getGroup(createGroupURI(selectorDefinition.getGroupId())));
+		}
+
+		return collected;
+	}
+
+	@Override
+	public List<Account> selectAccounts(final List<SelectorDefinition> selectors, final RuleContext ruleContext) {
+		return resolveAccounts(findMatchingSelectors(selectors, ruleContext));
+	}
+
+	@Override
+	public List<Account> selectAccounts(final List<SelectorDefinition> selectors,
+			final Map<Long, List<RuleFilterDefinition>> mapFilters, final RuleContext ruleContext) {
+		return resolveAccounts(findMatchingSelectors(selectors, mapFilters, ruleContext));
+	}
+
+	@Override
+	public List<AccountGroup> selectGroups(final List<SelectorDefinition> selectors, final RuleContext ruleContext) {
+		return resolveGroups(findMatchingSelectors(selectors, ruleContext));
+	}
+
+	@Override
+	public List<AccountGroup> selectGroups(final List<SelectorDefinition> selectors,
+			final Map<Long, List<RuleFilterDefinition>> mapFilters, final RuleContext ruleContext) {
+		return resolveGroups(findMatchingSelectors(selectors, mapFilters, ruleContext));
+	}
+
+	@Override
+	public void invalidateSelector(final Long selectorId) {
+		compiledSelectors.invalidate(selectorId);
+	}
+
+}
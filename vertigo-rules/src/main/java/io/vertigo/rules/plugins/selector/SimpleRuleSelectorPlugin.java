@@ -23,6 +23,7 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.inject.Inject;
 
@@ -35,6 +36,7 @@ import io.vertigo.rules.domain.RuleFilterDefinition;
 import io.vertigo.rules.domain.SelectorDefinition;
 import io.vertigo.rules.impl.RuleSelectorPlugin;
 import io.vertigo.rules.impl.RuleStorePlugin;
+import io.vertigo.rules.impl.predicate.RuleThreshold;
 import io.vertigo.rules.services.RuleContext;
 
 /**
@@ -46,6 +48,8 @@ public final class SimpleRuleSelectorPlugin implements RuleSelectorPlugin {
 
 	private final RuleStorePlugin ruleStorePlugin;
 	private final AccountManager identityManager;
+	/** Parsed thresholds of the &lt; and &gt; filters, by expression (an expression is parsed once). */
+	private final Map<String, RuleThreshold> thresholdsByExpression = new ConcurrentHashMap<>();
 
 	/**
 	 *
@@ -79,7 +83,8 @@ public final class SimpleRuleSelectorPlugin implements RuleSelectorPlugin {
 		return collected;
 	}
 
-	private List<SelectorDefinition> findMatchingSelectors(final List<SelectorDefinition> selectors,
+	@Override
+	public List<SelectorDefinition> findMatchingSelectors(final List<SelectorDefinition> selectors,
 			final Map<Long, List<RuleFilterDefinition>> mapFilters, final RuleContext ruleContext) {
 		final List<SelectorDefinition> collected = new ArrayList<>();
 
@@ -168,7 +173,7 @@ public final class SimpleRuleSelectorPlugin implements RuleSelectorPlugin {
 			final String expression = ruleFilterDefinition.getExpression();
 
 			final boolean result;
-			final Object fieldToTest = ruleContext.getContext().get(field);
+			final Object fieldToTest = ruleContext.getValue(field);
 			if (fieldToTest != null) {
 				switch (operat) {
 					case "=":
@@ -185,14 +190,10 @@ public final class SimpleRuleSelectorPlugin implements RuleSelectorPlugin {
 						}
 						break;
 					case "<":
-						final double doubleExpressionInf = Double.parseDouble(expression);
-						final double doubleFieldInf = Double.parseDouble((String) fieldToTest);
-						result = doubleFieldInf < doubleExpressionInf;
+						result = getThreshold(expression).isLessThan(ruleContext.getTypedValue(field));
 						break;
 					case ">":
-						final double doubleExpressionSup = Double.parseDouble(expression);
-						final double doubleFieldSup = Double.parseDouble((String) fieldToTest);
-						result = doubleFieldSup > doubleExpressionSup;
+						result = getThreshold(expression).isGreaterThan(ruleContext.getTypedValue(field));
 						break;
 					default:
 						result = false;
@@ -209,4 +210,13 @@ public final class SimpleRuleSelectorPlugin implements RuleSelectorPlugin {
 		return selectorMatch;
 	}
 
+	private RuleThreshold getThreshold(final String expression) {
+		return thresholdsByExpression.computeIfAbsent(expression, RuleThreshold::of);
+	}
+
+	@Override
+	public void invalidateSelector(final Long selectorId) {
+		// Nothing to do : filters are read on each selection
+	}
+
 }
@@ -0,0 +1,150 @@
+/**
+ * vertigo - simple java starter
+ *
+ * Copyright (C) 2013-2019, KleeGroup, direction.technique@kleegroup.com (http://www.kleegroup.com)
+ * KleeGroup, Centre d'affaire la Boursidiere - BP 159 - 92357 Le Plessis Robinson Cedex - France
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.vertigo.rules.plugins.sql;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+
+import io.vertigo.commons.transaction.VTransactionManager;
+import io.vertigo.dynamo.domain.model.DtList;
+import io.vertigo.dynamo.domain.util.VCollectors;
+import io.vertigo.lang.Assertion;
+import io.vertigo.rules.dao.RuleConstantDefinitionDAO;
+import io.vertigo.rules.domain.DtDefinitions.RuleConstantDefinitionFields;
+import io.vertigo.rules.domain.RuleConstantDefinition;
+import io.vertigo.rules.impl.RuleConstantsStorePlugin;
+import io.vertigo.rules.impl.TransactionalCache;
+import io.vertigo.rules.services.RuleConstants;
+
+/**
+ * SQL store for the rule constants, fronted by a local cache.
+ * The constants of a key are read from the database at most once per refresh interval (param refreshSeconds, 60 by default),
+ * and shared as an immutable snapshot in the meantime. At most cacheSize keys are cached (10000 by default).
+ * The constants written by a transaction are read from the database again once it is committed.
+ * Constants written by another node are seen after the refresh interval.
+ * Empty constants are stored as a single row without field, so that their key is known as in the memory store.
+ *
+ * @author xdurand
+ *
+ */
+public final class SQLRuleConstantsStorePlugin implements RuleConstantsStorePlugin {
+
+	private static final int DEFAULT_REFRESH_SECONDS = 60;
+	private static final int DEFAULT_CACHE_SIZE = 10_000;
+
+	private final RuleConstantDefinitionDAO ruleConstantDefinitionDAO;
+	// A key without constants is cached as empty
+	private final TransactionalCache<Long, Optional<RuleConstants>> cache;
+	private final AtomicLong versionSequence = new AtomicLong();
+
+	/**
+	 * Constructor.
+	 * @param ruleConstantDefinitionDAO the DAO of the constants
+	 * @param transactionManager the transaction manager
+	 * @param refreshSeconds interval between two reads of the constants of a key
+	 * @param cacheSize max number of keys in cache
+	 */
+	@Inject
+	public SQLRuleConstantsStorePlugin(
+			final RuleConstantDefinitionDAO ruleConstantDefinitionDAO,
+			final VTransactionManager transactionManager,
+			@Named("refreshSeconds") final Optional<Integer> refreshSeconds,
+			@Named("cacheSize") final Optional<Integer> cacheSize) {
+		Assertion.checkNotNull(ruleConstantDefinitionDAO);
+		Assertion.checkNotNull(transactionManager);
+		Assertion.checkNotNull(refreshSeconds);
+		Assertion.checkNotNull(cacheSize);
+		//---
+		this.ruleConstantDefinitionDAO = ruleConstantDefinitionDAO;
+		cache = new TransactionalCache<>(transactionManager, cacheSize.orElse(DEFAULT_CACHE_SIZE), refreshSeconds.orElse(DEFAULT_REFRESH_SECONDS));
+	}
+
+	@Override
+	public void addConstants(final Long key, final RuleConstants ruleConstants) {
+		Assertion.checkNotNull(key);
+		Assertion.checkNotNull(ruleConstants);
+		//---
+		saveConstants(key, ruleConstants);
+	}
+
+	@Override
+	public void removeConstants(final Long key) {
+		Assertion.checkNotNull(key);
+		//---
+		ruleConstantDefinitionDAO.deleteConstantsByItemId(key);
+		cache.invalidate(key);
+	}
+
+	@Override
+	public void updateConstants(final Long key, final RuleConstants ruleConstants) {
+		Assertion.checkNotNull(key);
+		Assertion.checkNotNull(ruleConstants);
+		Assertion.checkState(readConstants(key) != null, "Cannot update this RuleConstant : Its id is unknown in the store");
+		//---
+		saveConstants(key, ruleConstants);
+	}
+
+	@Override
+	public RuleConstants readConstants(final Long key) {
+		Assertion.checkNotNull(key);
+		//---
+		return cache.get(key, this::loadConstants).orElse(null);
+	}
+
+	private void saveConstants(final Long key, final RuleConstants ruleConstants) {
+		ruleConstantDefinitionDAO.deleteConstantsByItemId(key);
+		final DtList<RuleConstantDefinition> ruleConstantDefinitions = ruleConstants.asMap().entrySet().stream()
+				.map(entry -> {
+					final RuleConstantDefinition ruleConstantDefinition = new RuleConstantDefinition();
+					ruleConstantDefinition.setItemId(key);
+					ruleConstantDefinition.setField(entry.getKey());
+					ruleConstantDefinition.setExpression(entry.getValue());
+					return ruleConstantDefinition;
+				})
+				.collect(VCollectors.toDtList(RuleConstantDefinition.class));
+		if (ruleConstantDefinitions.isEmpty()) {
+			// Marks the key as known
+			final RuleConstantDefinition emptyConstantDefinition = new RuleConstantDefinition();
+			emptyConstantDefinition.setItemId(key);
+			ruleConstantDefinitions.add(emptyConstantDefinition);
+		}
+		ruleConstantDefinitionDAO.insertConstants(ruleConstantDefinitions);
+		cache.invalidate(key);
+	}
+
+	private Optional<RuleConstants> loadConstants(final Long key) {
+		final DtList<RuleConstantDefinition> ruleConstantDefinitions = ruleConstantDefinitionDAO
+				.getListByDtFieldName(RuleConstantDefinitionFields.ITEM_ID, key, Integer.MAX_VALUE);
+		if (ruleConstantDefinitions.isEmpty()) {
+			return Optional.empty();
+		}
+		final RuleConstants ruleConstants = new RuleConstants();
+		for (final RuleConstantDefinition ruleConstantDefinition : ruleConstantDefinitions) {
+			if (ruleConstantDefinition.getField() == null) {
+				continue; // the row of empty constants
+			}
+			ruleConstants.addConstant(ruleConstantDefinition.getField(), ruleConstantDefinition.getExpression());
+		}
+		return Optional.of(ruleConstants.snapshot(versionSequence.incrementAndGet()));
+	}
+
+}
@@ -25,7 +25,7 @@ import javax.inject.Inject;
 import io.vertigo.dynamo.domain.model.DtList;
 import io.vertigo.dynamo.domain.util.VCollectors;
 import io.vertigo.rules.ItemId;
-import io.vertigo.rules.RuleCriteria;
+import io.vertigo.rules.RuleConditionCriteria;
 import io.vertigo.rules.dao.RuleConditionDefinitionDAO;
 import io.vertigo.rules.dao.RuleDefinitionDAO;
 import io.vertigo.rules.dao.RuleFilterDefinitionDAO;
@@ -107,6 +107,32 @@ public class SQLRuleStorePlugin implements RuleStorePlugin {
 		return ruleFilterDefinitionDAO.getListByDtFieldName(RuleFilterDefinitionFields.SEL_ID, selectorId, Integer.MAX_VALUE);
 	}
 
+	@Override
+	public List<RuleDefinition> findRulesByItemIds(final List<Long> itemIds) {
+		return ruleDefinitionDAO.findRulesByItemIds(toItemIds(itemIds));
+	}
+
+	@Override
+	public List<RuleConditionDefinition> findConditionsByItemIds(final List<Long> itemIds) {
+		return ruleConditionDefinitionDAO.findConditionsByItemIds(toItemIds(itemIds));
+	}
+
+	@Override
+	public List<SelectorDefinition> findSelectorsByItemIds(final List<Long> itemIds) {
+		return selectorDefinitionDAO.findSelectorsByItemIds(toItemIds(itemIds));
+	}
+
+	@Override
+	public List<RuleFilterDefinition> findFiltersByItemIds(final List<Long> itemIds) {
+		return ruleFilterDefinitionDAO.findFiltersByItemIds(toItemIds(itemIds));
+	}
+
+	private static DtList<ItemId> toItemIds(final List<Long> items) {
+		return items.stream()
+				.map(SQLRuleStorePlugin::getItemId)
+				.collect(VCollectors.toDtList(ItemId.class));
+	}
+
 	private static ItemId getItemId(final long i) {
 		final ItemId itemId = new ItemId();
 		itemId.setItemId(i);
@@ -114,11 +140,9 @@ public class SQLRuleStorePlugin implements RuleStorePlugin {
 	}
 
 	@Override
-	public List<RuleDefinition> findRulesByCriteria(final RuleCriteria criteria, final List<Long> items) {
-		final DtList<ItemId> itemsIds = items.stream()
-				.map(SQLRuleStorePlugin::getItemId)
-				.collect(VCollectors.toDtList(ItemId.class));
-		return ruleDefinitionDAO.findItemsByCriteria(criteria.getConditionCriteria1(), criteria.getConditionCriteria1(), itemsIds);
+	public List<RuleDefinition> findRulesByCriteria(final List<RuleConditionCriteria> criteria, final List<Long> items) {
+		// One grouped query : the rules of the items having a condition for each criteria
+		return ruleDefinitionDAO.findItemsByCriteria(criteria.stream().collect(VCollectors.toDtList(RuleConditionCriteria.class)), toItemIds(items));
 	}
 
 }
@@ -0,0 +1,110 @@
+/**
+ * vertigo - simple java starter
+ *
+ * Copyright (C) 2013-2019, KleeGroup, direction.technique@kleegroup.com (http://www.kleegroup.com)
+ * KleeGroup, Centre d'affaire la Boursidiere - BP 159 - 92357 Le Plessis Robinson Cedex - France
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.vertigo.rules.plugins.validator;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
+
+import io.vertigo.commons.transaction.VTransactionManager;
+import io.vertigo.lang.Assertion;
+import io.vertigo.rules.domain.RuleConditionDefinition;
+import io.vertigo.rules.domain.RuleDefinition;
+import io.vertigo.rules.impl.CompiledDefinitionCache;
+import io.vertigo.rules.impl.RuleStorePlugin;
+
+/**
+ * Compiled form of all the rules of an item, shared by the validators compiling the rules of an item as a whole.
+ * The rules whose conditions are read from the store are cached by rule ids, and compiled again once a transaction
+ * having invalidated one of their conditions is completed.
+ * The rules of a preloaded rule set are cached by instance of the rules and of their conditions.
+ *
+ * @author xdurand
+ *
+ * @param <C> the type of the compiled rules
+ */
+final class CompiledItemRules<C> {
+
+	private final RuleStorePlugin ruleStorePlugin;
+	private final BiFunction<List<RuleDefinition>, Map<Long, List<RuleConditionDefinition>>, C> compiler;
+	private final CompiledDefinitionCache<List<Long>, C> compiledRules;
+
+	/**
+	 * Constructor.
+	 * @param ruleStorePlugin the rule store
+	 * @param transactionManager the transaction manager
+	 * @param maxSize max number of compiled items in cache
+	 * @param ttlSeconds duration of a compiled item in cache
+	 * @param compiler the compiler of the rules of an item, from the rules and their conditions by rule id
+	 */
+	CompiledItemRules(final RuleStorePlugin ruleStorePlugin, final VTransactionManager transactionManager,
+			final int maxSize, final int ttlSeconds,
+			final BiFunction<List<RuleDefinition>, Map<Long, List<RuleConditionDefinition>>, C> compiler) {
+		Assertion.checkNotNull(ruleStorePlugin);
+		Assertion.checkNotNull(compiler);
+		//---
+		this.ruleStorePlugin = ruleStorePlugin;
+		this.compiler = compiler;
+		compiledRules = new CompiledDefinitionCache<>(transactionManager, maxSize, ttlSeconds);
+	}
+
+	/**
+	 * @param rules the rules of an item, whose conditions are read from the store
+	 * @return the compiled rules
+	 */
+	C get(final List<RuleDefinition> rules) {
+		final List<Long> ruleIds = rules.stream()
+				.map(RuleDefinition::getId)
+				.collect(Collectors.toList());
+		return compiledRules.get(ruleIds, ids -> compiler.apply(rules, readConditions(rules)));
+	}
+
+	/**
+	 * @param rules the rules of an item
+	 * @param mapConditions the preloaded conditions by rule id
+	 * @return the compiled rules
+	 */
+	C get(final List<RuleDefinition> rules, final Map<Long, List<RuleConditionDefinition>> mapConditions) {
+		final List<Object> sources = new ArrayList<>(rules.size() + 1);
+		sources.add(rules);
+		for (final RuleDefinition ruleDefinition : rules) {
+			sources.add(mapConditions.get(ruleDefinition.getId()));
+		}
+		return compiledRules.get(sources, () -> compiler.apply(rules, mapConditions));
+	}
+
+	/**
+	 * Called after a change of the conditions of a rule : the items of the rule are unknown, all the items are compiled again.
+	 */
+	void invalidateAll() {
+		compiledRules.invalidateAll();
+	}
+
+	private Map<Long, List<RuleConditionDefinition>> readConditions(final List<RuleDefinition> rules) {
+		final Map<Long, List<RuleConditionDefinition>> conditionsByRuleId = new HashMap<>();
+		for (final RuleDefinition ruleDefinition : rules) {
+			conditionsByRuleId.put(ruleDefinition.getId(), ruleStorePlugin.findConditionByRuleId(ruleDefinition.getId()));
+		}
+		return conditionsByRuleId;
+	}
+
+}
@@ -0,0 +1,111 @@
+/**
+ * vertigo - simple java starter
+ *
+ * Copyright (C) 2013-2019, KleeGroup, direction.technique@kleegroup.com (http://www.kleegroup.com)
+ * KleeGroup, Centre d'affaire la Boursidiere - BP 159 - 92357 Le Plessis Robinson Cedex - France
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.vertigo.rules.plugins.validator;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+
+import io.vertigo.commons.transaction.VTransactionManager;
+import io.vertigo.rules.domain.RuleConditionDefinition;
+import io.vertigo.rules.domain.RuleDefinition;
+import io.vertigo.rules.impl.CompiledDefinitionCache;
+import io.vertigo.rules.impl.RuleStorePlugin;
+import io.vertigo.rules.impl.RuleValidatorPlugin;
+import io.vertigo.rules.impl.predicate.RulePredicate;
+import io.vertigo.rules.impl.predicate.RulePredicates;
+import io.vertigo.rules.services.RuleContext;
+
+/**
+ * Rule validator compiling each rule once into an immutable predicate.
+ * The rules read from the store are cached by rule id, the rules of a preloaded rule set by instance of their conditions,
+ * for at most cacheSeconds (3600 by default) and at most cacheSize rules (1000 by default, least recently used rules are dropped first).
+ * A rule invalidated by RuleServices (addCondition) is compiled again once the transaction is completed :
+ * conditions written directly through the RuleStorePlugin, or by another node, are seen after cacheSeconds.
+ *
+ * @author xdurand
+ *
+ */
+public final class CompiledRuleValidatorPlugin implements RuleValidatorPlugin {
+
+	private static final int DEFAULT_CACHE_SECONDS = 3600;
+	private static final int DEFAULT_CACHE_SIZE = 1000;
+
+	private final RuleStorePlugin ruleStorePlugin;
+
+	private final CompiledDefinitionCache<Long, RulePredicate> compiledRules;
+
+	/**
+	 * Constructor.
+	 * @param ruleStorePlugin the rule store
+	 * @param transactionManager the transaction manager
+	 * @param cacheSeconds duration of a compiled rule in cache
+	 * @param cacheSize max number of compiled rules in cache
+	 */
+	@Inject
+	public CompiledRuleValidatorPlugin(
+			final RuleStorePlugin ruleStorePlugin,
+			final VTransactionManager transactionManager,
+			@Named("cacheSeconds") final Optional<Integer> cacheSeconds,
+			@Named("cacheSize") final Optional<Integer> cacheSize) {
+		this.ruleStorePlugin = ruleStorePlugin;
+		compiledRules = new CompiledDefinitionCache<>(transactionManager,
+				cacheSize.orElse(DEFAULT_CACHE_SIZE), cacheSeconds.orElse(DEFAULT_CACHE_SECONDS));
+	}
+
+	@Override
+	public boolean isRuleValid(final List<RuleDefinition> rules, final RuleContext ruleContext) {
+		for (final RuleDefinition ruleDefinition : rules) {
+			final RulePredicate compiledRule = compiledRules.get(ruleDefinition.getId(),
+					id -> RulePredicates.compileConditions(ruleStorePlugin.findConditionByRuleId(id)));
+
+			if (compiledRule.test(ruleContext)) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	@Override
+	public boolean isRuleValid(final List<RuleDefinition> rules,
+			final Map<Long, List<RuleConditionDefinition>> mapConditions, final RuleContext ruleContext) {
+		for (final RuleDefinition ruleDefinition : rules) {
+			final List<RuleConditionDefinition> conditions = mapConditions.get(ruleDefinition.getId());
+			final RulePredicate compiledRule = compiledRules.get(Collections.singletonList(conditions),
+					() -> RulePredicates.compileConditions(conditions != null ? conditions : Collections.emptyList()));
+
+			if (compiledRule.test(ruleContext)) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	@Override
+	public void invalidateRule(final Long ruleId) {
+		compiledRules.invalidate(ruleId);
+	}
+
+}
@@ -0,0 +1,95 @@
+/**
+ * vertigo - simple java starter
+ *
+ * Copyright (C) 2013-2019, KleeGroup, direction.technique@kleegroup.com (http://www.kleegroup.com)
+ * KleeGroup, Centre d'affaire la Boursidiere - BP 159 - 92357 Le Plessis Robinson Cedex - France
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.vertigo.rules.plugins.validator;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+
+import io.vertigo.commons.transaction.VTransactionManager;
+import io.vertigo.lang.Assertion;
+import io.vertigo.rules.domain.RuleConditionDefinition;
+import io.vertigo.rules.domain.RuleDefinition;
+import io.vertigo.rules.impl.RuleStorePlugin;
+import io.vertigo.rules.impl.RuleValidatorPlugin;
+import io.vertigo.rules.impl.predicate.RuleMethodHandles;
+import io.vertigo.rules.impl.predicate.RulePredicate;
+import io.vertigo.rules.services.RuleContext;
+
+/**
+ * Rule validator generating, for the rules of each item, one method handle tree evaluated as a whole.
+ * Generated rules are cached for at most cacheSeconds (3600 by default) and at most cacheSize items (1000 by default,
+ * least recently used items are dropped first), and generated again when the rules of the item or their conditions change.
+ *
+ * @author xdurand
+ *
+ */
+public final class GeneratedRuleValidatorPlugin implements RuleValidatorPlugin {
+
+	private static final int DEFAULT_CACHE_SECONDS = 3600;
+	private static final int DEFAULT_CACHE_SIZE = 1000;
+
+	private final CompiledItemRules<RulePredicate> generatedRules;
+
+	/**
+	 * Constructor.
+	 * @param ruleStorePlugin the rule store
+	 * @param transactionManager the transaction manager
+	 * @param cacheSeconds duration of the generated rules of an item in cache
+	 * @param cacheSize max number of items whose generated rules are kept
+	 */
+	@Inject
+	public GeneratedRuleValidatorPlugin(
+			final RuleStorePlugin ruleStorePlugin,
+			final VTransactionManager transactionManager,
+			@Named("cacheSeconds") final Optional<Integer> cacheSeconds,
+			@Named("cacheSize") final Optional<Integer> cacheSize) {
+		Assertion.checkNotNull(cacheSeconds);
+		Assertion.checkNotNull(cacheSize);
+		//---
+		generatedRules = new CompiledItemRules<>(ruleStorePlugin, transactionManager,
+				cacheSize.orElse(DEFAULT_CACHE_SIZE), cacheSeconds.orElse(DEFAULT_CACHE_SECONDS), RuleMethodHandles::compileRules);
+	}
+
+	@Override
+	public boolean isRuleValid(final List<RuleDefinition> rules, final RuleContext ruleContext) {
+		if (rules.isEmpty()) {
+			return false;
+		}
+		return generatedRules.get(rules).test(ruleContext);
+	}
+
+	@Override
+	public boolean isRuleValid(final List<RuleDefinition> rules,
+			final Map<Long, List<RuleConditionDefinition>> mapConditions, final RuleContext ruleContext) {
+		if (rules.isEmpty()) {
+			return false;
+		}
+		return generatedRules.get(rules, mapConditions).test(ruleContext);
+	}
+
+	@Override
+	public void invalidateRule(final Long ruleId) {
+		generatedRules.invalidateAll();
+	}
+
+}
@@ -22,6 +22,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.inject.Inject;
 
@@ -29,6 +30,7 @@ import io.vertigo.rules.domain.RuleConditionDefinition;
 import io.vertigo.rules.domain.RuleDefinition;
 import io.vertigo.rules.impl.RuleStorePlugin;
 import io.vertigo.rules.impl.RuleValidatorPlugin;
+import io.vertigo.rules.impl.predicate.RuleThreshold;
 import io.vertigo.rules.services.RuleContext;
 
 /**
@@ -39,6 +41,8 @@ import io.vertigo.rules.services.RuleContext;
 public final class SimpleRuleValidatorPlugin implements RuleValidatorPlugin {
 
 	private final RuleStorePlugin ruleStorePlugin;
+	/** Parsed thresholds of the &lt; and &gt; conditions, by expression (an expression is parsed once). */
+	private final Map<String, RuleThreshold> thresholdsByExpression = new ConcurrentHashMap<>();
 
 	/**
 	 *
@@ -92,7 +96,7 @@ public final class SimpleRuleValidatorPlugin implements RuleValidatorPlugin {
 			final String expression = ruleConditionDefinition.getExpression();
 
 			boolean result = false;
-			final Object fieldToTest = ruleContext.getContext().get(field);
+			final Object fieldToTest = ruleContext.getValue(field);
 			if (fieldToTest != null) {
 				switch (operat) {
 					case "=":
@@ -109,14 +113,10 @@ public final class SimpleRuleValidatorPlugin implements RuleValidatorPlugin {
 						}
 						break;
 					case "<":
-						final double doubleExpressionInf = Double.parseDouble(expression);
-						final double doubleFieldInf = Double.parseDouble((String) fieldToTest);
-						result = doubleFieldInf < doubleExpressionInf;
+						result = getThreshold(expression).isLessThan(ruleContext.getTypedValue(field));
 						break;
 					case ">":
-						final double doubleExpressionSup = Double.parseDouble(expression);
-						final double doubleFieldSup = Double.parseDouble((String) fieldToTest);
-						result = doubleFieldSup > doubleExpressionSup;
+						result = getThreshold(expression).isGreaterThan(ruleContext.getTypedValue(field));
 						break;
 					default:
 						break;
@@ -134,4 +134,13 @@ public final class SimpleRuleValidatorPlugin implements RuleValidatorPlugin {
 		return ruleValid;
 	}
 
+	private RuleThreshold getThreshold(final String expression) {
+		return thresholdsByExpression.computeIfAbsent(expression, RuleThreshold::of);
+	}
+
+	@Override
+	public void invalidateRule(final Long ruleId) {
+		// Nothing to do : conditions are read on each validation
+	}
+
 }
@@ -19,23 +19,46 @@
 package io.vertigo.rules.services;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
+import io.vertigo.lang.Assertion;
+
 /**
+ * Constants available to the rules.
+ * A snapshot is an immutable copy, identified by a version, which can be shared without copy.
  *
  * @author xdurand
  *
  */
 public final class RuleConstants {
 
-	private final Map<String, String> constants = new ConcurrentHashMap<>();
-
 	/**
 	 * Empty rule constants
 	 */
-	public static final RuleConstants EMPTY_RULE_CONSTANTS = new RuleConstants();
+	public static final RuleConstants EMPTY_RULE_CONSTANTS = new RuleConstants(Collections.emptyMap(), 0);
+
+	private final Map<String, String> constants;
+	private final boolean snapshot;
+	private final long version;
+
+	/**
+	 * Constructor of modifiable constants.
+	 */
+	public RuleConstants() {
+		constants = new ConcurrentHashMap<>();
+		snapshot = false;
+		version = 0;
+	}
+
+	private RuleConstants(final Map<String, String> constants, final long version) {
+		this.constants = Collections.unmodifiableMap(constants);
+		snapshot = true;
+		this.version = version;
+	}
 
 	/**
 	 *
@@ -43,9 +66,20 @@ public final class RuleConstants {
 	 * @param value
 	 */
 	public void addConstant(final String key, final String value) {
+		Assertion.checkState(!snapshot, "A snapshot of rule constants can't be modified");
+		//---
 		constants.put(key, value);
 	}
 
+	/**
+	 *
+	 * @param key
+	 * @return the value of the constant, null if not defined
+	 */
+	public String getValue(final String key) {
+		return constants.get(key);
+	}
+
 	/**
 	 *
 	 * @return list of constants
@@ -54,4 +88,33 @@ public final class RuleConstants {
 		return new ArrayList<>(constants.entrySet());
 	}
 
+	/**
+	 * @return an unmodifiable view of the constants
+	 */
+	public Map<String, String> asMap() {
+		return snapshot ? constants : Collections.unmodifiableMap(constants);
+	}
+
+	/**
+	 * @param snapshotVersion the version of the snapshot
+	 * @return an immutable copy of these constants
+	 */
+	public RuleConstants snapshot(final long snapshotVersion) {
+		return new RuleConstants(new HashMap<>(constants), snapshotVersion);
+	}
+
+	/**
+	 * @return true if these constants are an immutable snapshot
+	 */
+	public boolean isSnapshot() {
+		return snapshot;
+	}
+
+	/**
+	 * @return the version of the snapshot (0 for modifiable constants)
+	 */
+	public long getVersion() {
+		return version;
+	}
+
 }
@@ -20,6 +20,8 @@ package io.vertigo.rules.services;
 
 /**
  * This class defines the storage of rules constants.
+ * The stored constants are an immutable snapshot : modifying the RuleConstants given to addConstants or updateConstants
+ * afterwards has no effect, and the constants read from the store can't be modified (store new ones instead).
  * @author xdurand
  */
 public interface RuleConstantsStore {
@@ -22,21 +22,43 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import io.vertigo.dynamo.domain.metamodel.DtDefinition;
 import io.vertigo.dynamo.domain.metamodel.DtField;
 import io.vertigo.dynamo.domain.model.DtObject;
 import io.vertigo.dynamo.domain.util.DtObjectUtil;
+import io.vertigo.lang.Assertion;
 
 /**
+ * Values (item fields and constants) the rules are evaluated against.
+ * Constants take precedence over the fields of the item. They are read by reference, not copied.
+ *
+ * Values are available typed (as read from the item : Long, BigDecimal, Date, Boolean...) for the comparisons,
+ * and as String (or List of String) for the equality tests : the String form of a value is derived on first access.
+ *
+ * A lazy context (see lazyOf) reads and converts a field only when a rule accesses it :
+ * the item must not be modified while the context is used (nor the constants, unless they are a snapshot).
+ * Both kinds of context can be shared by several threads : lazily read values are cached in concurrent maps.
  *
  * @author xdurand
  *
  */
 public final class RuleContext {
 
-	private final Map<String, Object> context;
+	/** Fields by name, for each DtDefinition. */
+	private static final Map<DtDefinition, Map<String, DtField>> FIELDS_BY_DEFINITION = new ConcurrentHashMap<>();
+	/** Cached null value of a lazy context (a concurrent map can't hold null). */
+	private static final Object NULL_VALUE = new Object();
+
+	private final DtObject dtObject;
+	private final Map<String, DtField> fields;
+	private final RuleConstants constants;
+	private final Map<String, Object> typedValues;
+	private final Map<String, Object> fieldValues;
+	private volatile Map<String, Object> context;
 
 	/**
 	 *
@@ -44,46 +66,126 @@ public final class RuleContext {
 	 * @param constants
 	 */
 	public RuleContext(final DtObject dtObject, final RuleConstants constants) {
-		// Merging Object fields with constants
+		this.dtObject = null;
+		fields = null;
+		this.constants = constants != null ? constants : RuleConstants.EMPTY_RULE_CONSTANTS;
+		typedValues = new HashMap<>();
+		fieldValues = new ConcurrentHashMap<>();
 
-		final Map<String, Object> mapMerge = new HashMap<>();
-
-		//Merge of data fields
 		final DtDefinition definition = DtObjectUtil.findDtDefinition(dtObject);
-		final List<DtField> fields = definition.getFields();
-
-		for (final DtField dtField : fields) {
-
+		for (final DtField dtField : definition.getFields()) {
 			final Object val = dtField.getDataAccessor().getValue(dtObject);
 			if (val != null) {
-				if (val instanceof List) {
-					final List<Object> valList = (List<Object>) val;
-					final List<String> valListString = valList
-							.stream()
-							.map(Object::toString)
-							.collect(Collectors.toList());
-					mapMerge.put(dtField.getName(), valListString);
-				} else {
-					mapMerge.put(dtField.getName(), val.toString());
-				}
+				typedValues.put(dtField.getName(), val);
 			}
+		}
+	}
 
+	private RuleContext(final DtObject dtObject, final Map<String, DtField> fields, final RuleConstants constants) {
+		this.dtObject = dtObject;
+		this.fields = fields;
+		this.constants = constants != null ? constants : RuleConstants.EMPTY_RULE_CONSTANTS;
+		typedValues = new ConcurrentHashMap<>();
+		fieldValues = new ConcurrentHashMap<>();
+	}
+
+	/**
+	 * Create a context reading the fields of the item on first access.
+	 *
+	 * @param dtObject the item
+	 * @param constants the constants (nullable)
+	 * @return the lazy context
+	 */
+	public static RuleContext lazyOf(final DtObject dtObject, final RuleConstants constants) {
+		Assertion.checkNotNull(dtObject);
+		// ---
+		final DtDefinition definition = DtObjectUtil.findDtDefinition(dtObject);
+		final Map<String, DtField> fields = FIELDS_BY_DEFINITION.computeIfAbsent(definition,
+				dtDefinition -> dtDefinition.getFields()
+						.stream()
+						.collect(Collectors.toMap(DtField::getName, Function.identity())));
+		return new RuleContext(dtObject, fields, constants);
+	}
+
+	/**
+	 * @param field the name of a field or a constant
+	 * @return the value as a String (or a List of String), null if not defined
+	 */
+	public Object getValue(final String field) {
+		final String constant = constants.getValue(field);
+		if (constant != null) {
+			return constant;
 		}
+		Object value = fieldValues.get(field);
+		if (value == null) {
+			value = fieldValues.computeIfAbsent(field, key -> maskNull(convert(getFieldValue(key))));
+		}
+		return unmaskNull(value);
+	}
 
-		//Merge of constants
-		if (constants != null) {
-			for (final Map.Entry<String, String> entry : constants.getValues()) {
-				mapMerge.put(entry.getKey(), entry.getValue());
-			}
+	/**
+	 * @param field the name of a field or a constant
+	 * @return the value as read from the item (constants are String), null if not defined
+	 */
+	public Object getTypedValue(final String field) {
+		final String constant = constants.getValue(field);
+		if (constant != null) {
+			return constant;
+		}
+		return getFieldValue(field);
+	}
+
+	private Object getFieldValue(final String field) {
+		if (fields == null) {
+			return typedValues.get(field);
+		}
+		Object value = typedValues.get(field);
+		if (value == null) {
+			value = typedValues.computeIfAbsent(field, key -> {
+				final DtField dtField = fields.get(key);
+				return maskNull(dtField != null ? dtField.getDataAccessor().getValue(dtObject) : null);
+			});
 		}
+		return unmaskNull(value);
+	}
+
+	private static Object maskNull(final Object value) {
+		return value != null ? value : NULL_VALUE;
+	}
 
-		context = Collections.unmodifiableMap(mapMerge);
+	private static Object unmaskNull(final Object value) {
+		return value != NULL_VALUE ? value : null;
+	}
+
+	private static Object convert(final Object val) {
+		if (val instanceof List) {
+			final List<Object> valList = (List<Object>) val;
+			return valList
+					.stream()
+					.map(Object::toString)
+					.collect(Collectors.toList());
+		}
+		return val != null ? val.toString() : null;
 	}
 
 	/**
 	 * @return the context
 	 */
 	public Map<String, Object> getContext() {
+		if (context == null) {
+			final Map<String, Object> mapMerge = new HashMap<>();
+			//Merge of data fields
+			final Iterable<String> fieldNames = fields != null ? fields.keySet() : typedValues.keySet();
+			for (final String field : fieldNames) {
+				final Object val = getValue(field);
+				if (val != null) {
+					mapMerge.put(field, val);
+				}
+			}
+			//Merge of constants
+			mapMerge.putAll(constants.asMap());
+			context = Collections.unmodifiableMap(mapMerge);
+		}
 		return context;
 	}
 
@@ -24,6 +24,7 @@ import java.util.Map;
 import io.vertigo.account.account.Account;
 import io.vertigo.account.account.AccountGroup;
 import io.vertigo.core.component.Manager;
+import io.vertigo.rules.RuleConditionCriteria;
 import io.vertigo.rules.RuleCriteria;
 import io.vertigo.rules.domain.RuleConditionDefinition;
 import io.vertigo.rules.domain.RuleDefinition;
@@ -94,6 +95,69 @@ public interface RuleServices extends Manager {
 	boolean isRuleValid(Long idActivityDefinition, RuleContext context,
 			Map<Long, List<RuleDefinition>> mapRules, Map<Long, List<RuleConditionDefinition>> mapConditions);
 
+	/**
+	 * Load the rules, conditions, selectors and filters of several items at once.
+	 * The definitions are cached and reused until one of them changes.
+	 *
+	 * @param itemIds
+	 *            the items to load
+	 * @return the rule set of these items
+	 */
+	RuleSet getRuleSet(List<Long> itemIds);
+
+	/**
+	 * Validate a rule for an activity using a preloaded rule set
+	 *
+	 * @param idActivityDefinition
+	 *            Activity definition id
+	 * @param context
+	 *            Context : Business Object + Constants
+	 * @param ruleSet
+	 *            Rule set containing the activity
+	 * @return true is a rule match, false otherwise
+	 */
+	boolean isRuleValid(Long idActivityDefinition, RuleContext context, RuleSet ruleSet);
+
+	/**
+	 * Select accounts matching the selector for an activity using a preloaded rule set
+	 *
+	 * @param idActivityDefinition
+	 *            Activity definition id
+	 * @param context
+	 *            Context : Business Object + Constants
+	 * @param ruleSet
+	 *            Rule set containing the activity
+	 * @return a list of account
+	 */
+	List<Account> selectAccounts(Long idActivityDefinition, RuleContext context, RuleSet ruleSet);
+
+	/**
+	 * Select groups matching the selector for an activity using a preloaded rule set
+	 *
+	 * @param idActivityDefinition
+	 *            Activity definition id
+	 * @param context
+	 *            Context : Business Object + Constants
+	 * @param ruleSet
+	 *            Rule set containing the activity
+	 * @return a list of groups
+	 */
+	List<AccountGroup> selectGroups(Long idActivityDefinition, RuleContext context, RuleSet ruleSet);
+
+	/**
+	 * Find the selectors matching the context for an activity using a preloaded rule set.
+	 * Neither the stores nor the AccountManager are read : the groups of the selectors are resolved by the caller.
+	 *
+	 * @param idActivityDefinition
+	 *            Activity definition id
+	 * @param context
+	 *            Context : Business Object + Constants
+	 * @param ruleSet
+	 *            Rule set containing the activity
+	 * @return the matching selectors
+	 */
+	List<SelectorDefinition> findMatchingSelectors(Long idActivityDefinition, RuleContext context, RuleSet ruleSet);
+
 	/**
 	 * Add a new rule
 	 *
@@ -162,7 +226,8 @@ public interface RuleServices extends Manager {
 	List<RuleFilterDefinition> getFiltersForSelectorId(Long selectorId);
 
 	/**
-	 * Define the constants for this key
+	 * Define the constants for this key.
+	 * The constants are copied : modifying them afterwards has no effect on the stored ones.
 	 *
 	 * @param key
 	 *            the key
@@ -176,7 +241,7 @@ public interface RuleServices extends Manager {
 	 *
 	 * @param key
 	 *            the key
-	 * @return the constants defined for this key
+	 * @return the constants defined for this key, as an immutable snapshot
 	 */
 	RuleConstants getConstants(Long key);
 
@@ -192,4 +257,15 @@ public interface RuleServices extends Manager {
 	 */
 	List<Long> findItemsByCriteria(RuleCriteria criteria, List<Long> items);
 
+	/**
+	 * Find itemIds having a rule with a condition matching each criteria, in the specified sublist itemsIds
+	 *
+	 * @param criteria
+	 *            condition criteria (at least one)
+	 * @param items
+	 *            sublist of itemsId
+	 * @return list of itemIds, in the order of the sublist
+	 */
+	List<Long> findItemsByCriteria(List<RuleConditionCriteria> criteria, List<Long> items);
+
 }
@@ -0,0 +1,184 @@
+/**
+ * vertigo - simple java starter
+ *
+ * Copyright (C) 2013-2019, KleeGroup, direction.technique@kleegroup.com (http://www.kleegroup.com)
+ * KleeGroup, Centre d'affaire la Boursidiere - BP 159 - 92357 Le Plessis Robinson Cedex - France
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.vertigo.rules.services;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import io.vertigo.lang.Assertion;
+import io.vertigo.rules.domain.RuleConditionDefinition;
+import io.vertigo.rules.domain.RuleDefinition;
+import io.vertigo.rules.domain.RuleFilterDefinition;
+import io.vertigo.rules.domain.SelectorDefinition;
+
+/**
+ * Rules, conditions, selectors and filters of a set of items, loaded at once.
+ * A rule set is immutable and can be reused across evaluations.
+ *
+ * @author xdurand
+ *
+ */
+public final class RuleSet {
+
+	/**
+	 * Empty rule set
+	 */
+	public static final RuleSet EMPTY_RULE_SET = new RuleSet(Collections.emptyMap(), Collections.emptyMap(),
+			Collections.emptyMap(), Collections.emptyMap());
+
+	private final Map<Long, List<RuleDefinition>> rulesByItemId;
+	private final Map<Long, List<RuleConditionDefinition>> conditionsByRuleId;
+	private final Map<Long, List<SelectorDefinition>> selectorsByItemId;
+	private final Map<Long, List<RuleFilterDefinition>> filtersBySelectorId;
+
+	private RuleSet(final Map<Long, List<RuleDefinition>> rulesByItemId,
+			final Map<Long, List<RuleConditionDefinition>> conditionsByRuleId,
+			final Map<Long, List<SelectorDefinition>> selectorsByItemId,
+			final Map<Long, List<RuleFilterDefinition>> filtersBySelectorId) {
+		this.rulesByItemId = Collections.unmodifiableMap(rulesByItemId);
+		this.conditionsByRuleId = Collections.unmodifiableMap(conditionsByRuleId);
+		this.selectorsByItemId = Collections.unmodifiableMap(selectorsByItemId);
+		this.filtersBySelectorId = Collections.unmodifiableMap(filtersBySelectorId);
+	}
+
+	/**
+	 * Build a rule set from the definitions of its items.
+	 *
+	 * @param rules
+	 *            rules of the items
+	 * @param conditions
+	 *            conditions of these rules
+	 * @param selectors
+	 *            selectors of the items
+	 * @param filters
+	 *            filters of these selectors
+	 * @return the rule set
+	 */
+	public static RuleSet of(final List<RuleDefinition> rules, final List<RuleConditionDefinition> conditions,
+			final List<SelectorDefinition> selectors, final List<RuleFilterDefinition> filters) {
+		Assertion.checkNotNull(rules);
+		Assertion.checkNotNull(conditions);
+		Assertion.checkNotNull(selectors);
+		Assertion.checkNotNull(filters);
+		// ---
+		return new RuleSet(
+				rules.stream().collect(Collectors.groupingBy(RuleDefinition::getItemId)),
+				conditions.stream().collect(Collectors.groupingBy(RuleConditionDefinition::getRudId)),
+				selectors.stream().collect(Collectors.groupingBy(SelectorDefinition::getItemId)),
+				filters.stream().collect(Collectors.groupingBy(RuleFilterDefinition::getSelId)));
+	}
+
+	/**
+	 * Merge several rule sets defined on distinct items.
+	 *
+	 * @param ruleSets
+	 *            the rule sets to merge
+	 * @return a rule set containing all the definitions
+	 */
+	public static RuleSet merge(final Collection<RuleSet> ruleSets) {
+		Assertion.checkNotNull(ruleSets);
+		// ---
+		final Map<Long, List<RuleDefinition>> rules = new HashMap<>();
+		final Map<Long, List<RuleConditionDefinition>> conditions = new HashMap<>();
+		final Map<Long, List<SelectorDefinition>> selectors = new HashMap<>();
+		final Map<Long, List<RuleFilterDefinition>> filters = new HashMap<>();
+		for (final RuleSet ruleSet : ruleSets) {
+			rules.putAll(ruleSet.rulesByItemId);
+			conditions.putAll(ruleSet.conditionsByRuleId);
+			selectors.putAll(ruleSet.selectorsByItemId);
+			filters.putAll(ruleSet.filtersBySelectorId);
+		}
+		return new RuleSet(rules, conditions, selectors, filters);
+	}
+
+	/**
+	 * Extract the definitions of one item.
+	 *
+	 * @param itemId
+	 *            the item id
+	 * @return a rule set containing only the definitions of this item
+	 */
+	public RuleSet subSet(final Long itemId) {
+		Assertion.checkNotNull(itemId);
+		// ---
+		final List<RuleDefinition> rules = getRules(itemId);
+		final List<SelectorDefinition> selectors = getSelectors(itemId);
+		return of(rules,
+				rules.stream().flatMap(rule -> getConditions(rule.getId()).stream()).collect(Collectors.toList()),
+				selectors,
+				selectors.stream().flatMap(selector -> getFilters(selector.getId()).stream()).collect(Collectors.toList()));
+	}
+
+	/**
+	 *
+	 * @param itemId
+	 * @return the rules defined for this item
+	 */
+	public List<RuleDefinition> getRules(final Long itemId) {
+		return rulesByItemId.getOrDefault(itemId, Collections.emptyList());
+	}
+
+	/**
+	 *
+	 * @param ruleId
+	 * @return the conditions of this rule
+	 */
+	public List<RuleConditionDefinition> getConditions(final Long ruleId) {
+		return conditionsByRuleId.getOrDefault(ruleId, Collections.emptyList());
+	}
+
+	/**
+	 *
+	 * @param itemId
+	 * @return the selectors defined for this item
+	 */
+	public List<SelectorDefinition> getSelectors(final Long itemId) {
+		return selectorsByItemId.getOrDefault(itemId, Collections.emptyList());
+	}
+
+	/**
+	 *
+	 * @param selectorId
+	 * @return the filters of this selector
+	 */
+	public List<RuleFilterDefinition> getFilters(final Long selectorId) {
+		return filtersBySelectorId.getOrDefault(selectorId, Collections.emptyList());
+	}
+
+	/**
+	 *
+	 * @return the conditions of the rule set by rule id
+	 */
+	public Map<Long, List<RuleConditionDefinition>> getConditionsByRuleId() {
+		return conditionsByRuleId;
+	}
+
+	/**
+	 *
+	 * @return the filters of the rule set by selector id
+	 */
+	public Map<Long, List<RuleFilterDefinition>> getFiltersBySelectorId() {
+		return filtersBySelectorId;
+	}
+
+}
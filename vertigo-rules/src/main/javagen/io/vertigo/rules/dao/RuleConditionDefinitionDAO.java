@@ -73,4 +73,18 @@ public final class RuleConditionDefinitionDAO extends DAO<RuleConditionDefinitio
 				.getResult();
 	}
 
+	/**
+	 * Execute la tache TK_FIND_CONDITIONS_BY_ITEM_IDS.
+	 * @param itemsId io.vertigo.dynamo.domain.model.DtList<io.vertigo.rules.ItemId> 
+	 * @return io.vertigo.dynamo.domain.model.DtList<io.vertigo.rules.domain.RuleConditionDefinition> ruleConditionDefinitionList
+	*/
+	public io.vertigo.dynamo.domain.model.DtList<io.vertigo.rules.domain.RuleConditionDefinition> findConditionsByItemIds(final io.vertigo.dynamo.domain.model.DtList<io.vertigo.rules.ItemId> itemsId) {
+		final Task task = createTaskBuilder("TK_FIND_CONDITIONS_BY_ITEM_IDS")
+				.addValue("ITEMS_ID", itemsId)
+				.build();
+		return getTaskManager()
+				.execute(task)
+				.getResult();
+	}
+
 }
@@ -0,0 +1,84 @@
+/**
+ * vertigo - simple java starter
+ *
+ * Copyright (C) 2013-2019, KleeGroup, direction.technique@kleegroup.com (http://www.kleegroup.com)
+ * KleeGroup, Centre d'affaire la Boursidiere - BP 159 - 92357 Le Plessis Robinson Cedex - France
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.vertigo.rules.dao;
+
+import javax.inject.Inject;
+
+import io.vertigo.app.Home;
+import io.vertigo.dynamo.task.metamodel.TaskDefinition;
+import io.vertigo.dynamo.task.model.Task;
+import io.vertigo.dynamo.task.model.TaskBuilder;
+import io.vertigo.dynamo.impl.store.util.DAO;
+import io.vertigo.dynamo.store.StoreManager;
+import io.vertigo.dynamo.store.StoreServices;
+import io.vertigo.dynamo.task.TaskManager;
+import io.vertigo.rules.domain.RuleConstantDefinition;
+import io.vertigo.lang.Generated;
+
+/**
+ * This class is automatically generated.
+ * DO NOT EDIT THIS FILE DIRECTLY.
+ */
+ @Generated
+public final class RuleConstantDefinitionDAO extends DAO<RuleConstantDefinition, java.lang.Long> implements StoreServices {
+
+	/**
+	 * Contructeur.
+	 * @param storeManager Manager de persistance
+	 * @param taskManager Manager de Task
+	 */
+	@Inject
+	public RuleConstantDefinitionDAO(final StoreManager storeManager, final TaskManager taskManager) {
+		super(RuleConstantDefinition.class, storeManager, taskManager);
+	}
+
+
+	/**
+	 * Creates a taskBuilder.
+	 * @param name  the name of the task
+	 * @return the builder 
+	 */
+	private static TaskBuilder createTaskBuilder(final String name) {
+		final TaskDefinition taskDefinition = Home.getApp().getDefinitionSpace().resolve(name, TaskDefinition.class);
+		return Task.builder(taskDefinition);
+	}
+
+	/**
+	 * Execute la tache TK_DELETE_CONSTANTS_BY_ITEM_ID.
+	 * @param itemId Long 
+	*/
+	public void deleteConstantsByItemId(final Long itemId) {
+		final Task task = createTaskBuilder("TK_DELETE_CONSTANTS_BY_ITEM_ID")
+				.addValue("ITEM_ID", itemId)
+				.build();
+		getTaskManager().execute(task);
+	}
+
+	/**
+	 * Execute la tache TK_INSERT_CONSTANTS.
+	 * @param ruleConstantDefinitionList io.vertigo.dynamo.domain.model.DtList<io.vertigo.rules.domain.RuleConstantDefinition> 
+	*/
+	public void insertConstants(final io.vertigo.dynamo.domain.model.DtList<io.vertigo.rules.domain.RuleConstantDefinition> ruleConstantDefinitionList) {
+		final Task task = createTaskBuilder("TK_INSERT_CONSTANTS")
+				.addValue("RULE_CONSTANT_DEFINITION_LIST", ruleConstantDefinitionList)
+				.build();
+		getTaskManager().execute(task);
+	}
+
+}
@@ -75,15 +75,27 @@ public final class RuleDefinitionDAO extends DAO<RuleDefinition, java.lang.Long>
 
 	/**
 	 * Execute la tache TK_FIND_ITEMS_BY_CRITERIA.
-	 * @param ruleConditionCriteria1 io.vertigo.rules.RuleConditionCriteria 
-	 * @param ruleConditionCriteria2 io.vertigo.rules.RuleConditionCriteria 
+	 * @param ruleConditionCriteriaList io.vertigo.dynamo.domain.model.DtList<io.vertigo.rules.RuleConditionCriteria> 
 	 * @param itemsId io.vertigo.dynamo.domain.model.DtList<io.vertigo.rules.ItemId> 
 	 * @return io.vertigo.dynamo.domain.model.DtList<io.vertigo.rules.domain.RuleDefinition> ruleDefinition
 	*/
-	public io.vertigo.dynamo.domain.model.DtList<io.vertigo.rules.domain.RuleDefinition> findItemsByCriteria(final io.vertigo.rules.RuleConditionCriteria ruleConditionCriteria1, final io.vertigo.rules.RuleConditionCriteria ruleConditionCriteria2, final io.vertigo.dynamo.domain.model.DtList<io.vertigo.rules.ItemId> itemsId) {
+	public io.vertigo.dynamo.domain.model.DtList<io.vertigo.rules.domain.RuleDefinition> findItemsByCriteria(final io.vertigo.dynamo.domain.model.DtList<io.vertigo.rules.RuleConditionCriteria> ruleConditionCriteriaList, final io.vertigo.dynamo.domain.model.DtList<io.vertigo.rules.ItemId> itemsId) {
 		final Task task = createTaskBuilder("TK_FIND_ITEMS_BY_CRITERIA")
-				.addValue("RULE_CONDITION_CRITERIA_1", ruleConditionCriteria1)
-				.addValue("RULE_CONDITION_CRITERIA_2", ruleConditionCriteria2)
+				.addValue("RULE_CONDITION_CRITERIA_LIST", ruleConditionCriteriaList)
+				.addValue("ITEMS_ID", itemsId)
+				.build();
+		return getTaskManager()
+				.execute(task)
+				.getResult();
+	}
+
+	/**
+	 * Execute la tache TK_FIND_RULES_BY_ITEM_IDS.
+	 * @param itemsId io.vertigo.dynamo.domain.model.DtList<io.vertigo.rules.ItemId> 
+	 * @return io.vertigo.dynamo.domain.model.DtList<io.vertigo.rules.domain.RuleDefinition> ruleDefinitionList
+	*/
+	public io.vertigo.dynamo.domain.model.DtList<io.vertigo.rules.domain.RuleDefinition> findRulesByItemIds(final io.vertigo.dynamo.domain.model.DtList<io.vertigo.rules.ItemId> itemsId) {
+		final Task task = createTaskBuilder("TK_FIND_RULES_BY_ITEM_IDS")
 				.addValue("ITEMS_ID", itemsId)
 				.build();
 		return getTaskManager()
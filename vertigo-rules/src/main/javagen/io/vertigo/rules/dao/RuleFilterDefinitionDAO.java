@@ -73,4 +73,18 @@ public final class RuleFilterDefinitionDAO extends DAO<RuleFilterDefinition, jav
 				.getResult();
 	}
 
+	/**
+	 * Execute la tache TK_FIND_FILTERS_BY_ITEM_IDS.
+	 * @param itemsId io.vertigo.dynamo.domain.model.DtList<io.vertigo.rules.ItemId> 
+	 * @return io.vertigo.dynamo.domain.model.DtList<io.vertigo.rules.domain.RuleFilterDefinition> ruleFilterDefinitionList
+	*/
+	public io.vertigo.dynamo.domain.model.DtList<io.vertigo.rules.domain.RuleFilterDefinition> findFiltersByItemIds(final io.vertigo.dynamo.domain.model.DtList<io.vertigo.rules.ItemId> itemsId) {
+		final Task task = createTaskBuilder("TK_FIND_FILTERS_BY_ITEM_IDS")
+				.addValue("ITEMS_ID", itemsId)
+				.build();
+		return getTaskManager()
+				.execute(task)
+				.getResult();
+	}
+
 }
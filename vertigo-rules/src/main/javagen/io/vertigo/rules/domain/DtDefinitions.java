@@ -41,6 +41,8 @@ public final class DtDefinitions implements Iterable<Class<?>> {
 		RuleConditionCriteria(io.vertigo.rules.RuleConditionCriteria.class),
 		/** Objet de données RuleConditionDefinition. */
 		RuleConditionDefinition(io.vertigo.rules.domain.RuleConditionDefinition.class),
+		/** Objet de données RuleConstantDefinition. */
+		RuleConstantDefinition(io.vertigo.rules.domain.RuleConstantDefinition.class),
 		/** Objet de données RuleCriteria. */
 		RuleCriteria(io.vertigo.rules.RuleCriteria.class),
 		/** Objet de données RuleDefinition. */
@@ -96,6 +98,19 @@ public final class DtDefinitions implements Iterable<Class<?>> {
 		/** Propriété 'RuleDefinition'. */
 		RUD_ID	}
 
+	/**
+	 * Enumération des champs de RuleConstantDefinition.
+	 */
+	public enum RuleConstantDefinitionFields implements DtFieldName<io.vertigo.rules.domain.RuleConstantDefinition> {
+		/** Propriété 'id'. */
+		ID,
+		/** Propriété 'itemId'. */
+		ITEM_ID,
+		/** Propriété 'field'. */
+		FIELD,
+		/** Propriété 'expression'. */
+		EXPRESSION	}
+
 	/**
 	 * Enumération des champs de RuleCriteria.
 	 */
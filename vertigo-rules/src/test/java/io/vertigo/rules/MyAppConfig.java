@@ -18,6 +18,16 @@
  */
 package io.vertigo.rules;
 
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+
+import org.h2.tools.RunScript;
+
 import io.vertigo.account.AccountFeatures;
 import io.vertigo.account.plugins.account.store.loader.LoaderAccountStorePlugin;
 import io.vertigo.app.config.AppConfig;
@@ -26,14 +36,18 @@ import io.vertigo.commons.impl.CommonsFeatures;
 import io.vertigo.core.param.Param;
 import io.vertigo.core.plugins.resource.classpath.ClassPathResourceResolverPlugin;
 import io.vertigo.database.DatabaseFeatures;
+import io.vertigo.database.impl.sql.vendor.h2.H2DataBase;
 import io.vertigo.database.impl.sql.vendor.postgresql.PostgreSqlDataBase;
 import io.vertigo.database.plugins.sql.connection.c3p0.C3p0ConnectionProviderPlugin;
 import io.vertigo.dynamo.impl.DynamoFeatures;
 import io.vertigo.dynamo.plugins.store.datastore.sql.SqlDataStorePlugin;
+import io.vertigo.lang.WrappedException;
 import io.vertigo.persona.impl.security.PersonaFeatures;
 import io.vertigo.rules.data.MockIdentities;
 import io.vertigo.rules.data.MyDummyDtObjectProvider;
 import io.vertigo.rules.data.TestUserSession;
+import io.vertigo.rules.impl.RuleSelectorPlugin;
+import io.vertigo.rules.impl.RuleValidatorPlugin;
 import io.vertigo.rules.impl.RulesFeatures;
 import io.vertigo.rules.plugins.memory.MemoryRuleConstantsStorePlugin;
 import io.vertigo.rules.plugins.memory.MemoryRuleStorePlugin;
@@ -47,11 +61,108 @@ import io.vertigo.rules.plugins.validator.SimpleRuleValidatorPlugin;
  */
 public class MyAppConfig {
 
+	private static final String H2_JDBC_URL = "jdbc:h2:mem:rules;DB_CLOSE_DELAY=-1";
+	private static final String H2_SCHEMA = "io/vertigo/rules/h2-rules.sql";
+	private static final int RULE_SET_CACHE_SIZE = 1000;
+	private static final int RULE_SET_CACHE_SECONDS = 3600;
+
 	/**
 	 * Configure the app for testing
 	 * @return the application config for testing
 	 */
 	public static AppConfig config() {
+		return config(SimpleRuleSelectorPlugin.class, SimpleRuleValidatorPlugin.class);
+	}
+
+	/**
+	 * Configure the app for testing with the given rule selector and validator
+	 * @param ruleSelectorPluginClass the rule selector plugin to test
+	 * @param ruleValidatorPluginClass the rule validator plugin to test
+	 * @return the application config for testing
+	 */
+	public static AppConfig config(final Class<? extends RuleSelectorPlugin> ruleSelectorPluginClass,
+			final Class<? extends RuleValidatorPlugin> ruleValidatorPluginClass) {
+		return config(ruleSelectorPluginClass, ruleValidatorPluginClass, 0);
+	}
+
+	/**
+	 * Configure the app for testing with the given rule selector and validator
+	 * @param ruleSelectorPluginClass the rule selector plugin to test
+	 * @param ruleValidatorPluginClass the rule validator plugin to test
+	 * @param outcomeCacheSize max number of validation outcomes in cache (with the rule set cache), 0 for no cache
+	 * @param ruleSelectorParams the params of the rule selector plugin
+	 * @return the application config for testing
+	 */
+	public static AppConfig config(final Class<? extends RuleSelectorPlugin> ruleSelectorPluginClass,
+			final Class<? extends RuleValidatorPlugin> ruleValidatorPluginClass, final int outcomeCacheSize,
+			final Param... ruleSelectorParams) {
+		return config(ruleSelectorPluginClass, ruleValidatorPluginClass, outcomeCacheSize, ruleSelectorParams, new Param[0]);
+	}
+
+	/**
+	 * Configure the app for testing with the given rule selector and the given rule validator and its params
+	 * @param ruleSelectorPluginClass the rule selector plugin to test
+	 * @param ruleValidatorPluginClass the rule validator plugin to test
+	 * @param ruleValidatorParams the params of the rule validator plugin
+	 * @return the application config for testing
+	 */
+	public static AppConfig configWithValidatorParams(final Class<? extends RuleSelectorPlugin> ruleSelectorPluginClass,
+			final Class<? extends RuleValidatorPlugin> ruleValidatorPluginClass, final Param... ruleValidatorParams) {
+		return config(ruleSelectorPluginClass, ruleValidatorPluginClass, 0, new Param[0], ruleValidatorParams);
+	}
+
+	private static AppConfig config(final Class<? extends RuleSelectorPlugin> ruleSelectorPluginClass,
+			final Class<? extends RuleValidatorPlugin> ruleValidatorPluginClass, final int outcomeCacheSize,
+			final Param[] ruleSelectorParams, final Param[] ruleValidatorParams) {
+		final RulesFeatures rulesFeatures = new RulesFeatures()
+				.withRuleConstantsStorePlugin(MemoryRuleConstantsStorePlugin.class)
+				.withRuleStorePlugin(MemoryRuleStorePlugin.class)
+				//.withDAOSupportRuleStorePlugin()//
+				.withRuleSelectorPlugin(ruleSelectorPluginClass, ruleSelectorParams)
+				.withRuleValidatorPlugin(ruleValidatorPluginClass, ruleValidatorParams);
+		if (outcomeCacheSize > 0) {
+			rulesFeatures
+					.withRuleSetCache(RULE_SET_CACHE_SIZE, RULE_SET_CACHE_SECONDS)
+					.withOutcomeCache(outcomeCacheSize);
+		}
+		return config(rulesFeatures,
+				Param.of("dataBaseClass", PostgreSqlDataBase.class.getName()),
+				Param.of("jdbcDriver", org.postgresql.Driver.class.getName()),
+				Param.of("jdbcUrl",
+						"jdbc:postgresql://laura.dev.klee.lan.net:5432/dgac_blanche?user=blanche&password=blanche"));
+	}
+
+	/**
+	 * Configure the app for testing with the SQL stores on an embedded H2 database
+	 * @return the application config for testing
+	 */
+	public static AppConfig configWithSqlStores() {
+		return configWithSqlStores(0, 0);
+	}
+
+	/**
+	 * Configure the app for testing with the SQL stores on an embedded H2 database
+	 * @param ruleSetCacheSize max number of rule sets in cache, 0 for no cache
+	 * @param ruleSetCacheSeconds time to live of a rule set in cache
+	 * @return the application config for testing
+	 */
+	public static AppConfig configWithSqlStores(final int ruleSetCacheSize, final int ruleSetCacheSeconds) {
+		createH2Schema();
+		final RulesFeatures rulesFeatures = new RulesFeatures()
+				.withDAOSupportRuleConstantsStorePlugin()
+				.withDAOSupportRuleStorePlugin()
+				.withRuleSelectorPlugin(SimpleRuleSelectorPlugin.class)
+				.withRuleValidatorPlugin(SimpleRuleValidatorPlugin.class);
+		if (ruleSetCacheSize > 0) {
+			rulesFeatures.withRuleSetCache(ruleSetCacheSize, ruleSetCacheSeconds);
+		}
+		return config(rulesFeatures,
+				Param.of("dataBaseClass", H2DataBase.class.getName()),
+				Param.of("jdbcDriver", org.h2.Driver.class.getName()),
+				Param.of("jdbcUrl", H2_JDBC_URL));
+	}
+
+	private static AppConfig config(final RulesFeatures rulesFeatures, final Param... connectionParams) {
 		return AppConfig.builder()
 				.beginBoot()
 				.withLocales("fr")
@@ -66,11 +177,7 @@ public class MyAppConfig {
 						.build())
 				.addModule(new DatabaseFeatures()
 						.withSqlDataBase()//
-						.addSqlConnectionProviderPlugin(C3p0ConnectionProviderPlugin.class,
-								Param.of("dataBaseClass", PostgreSqlDataBase.class.getName()),
-								Param.of("jdbcDriver", org.postgresql.Driver.class.getName()),
-								Param.of("jdbcUrl",
-										"jdbc:postgresql://laura.dev.klee.lan.net:5432/dgac_blanche?user=blanche&password=blanche"))
+						.addSqlConnectionProviderPlugin(C3p0ConnectionProviderPlugin.class, connectionParams)
 						.build())
 				.addModule(new DynamoFeatures()//
 						.withStore()//
@@ -85,14 +192,17 @@ public class MyAppConfig {
 						.addDefinitionProvider(MyDummyDtObjectProvider.class)
 						.addComponent(MockIdentities.class)
 						.build())
-				.addModule(new RulesFeatures()
-						.withRuleConstantsStorePlugin(MemoryRuleConstantsStorePlugin.class)
-						.withRuleStorePlugin(MemoryRuleStorePlugin.class)
-						//.withDAOSupportRuleStorePlugin()//
-						.withRuleSelectorPlugin(SimpleRuleSelectorPlugin.class)
-						.withRuleValidatorPlugin(SimpleRuleValidatorPlugin.class)
-						.build())
+				.addModule(rulesFeatures.build())
 				.build();
+	}
 
+	private static void createH2Schema() {
+		try (final Connection connection = DriverManager.getConnection(H2_JDBC_URL);
+				final Reader schema = new InputStreamReader(
+						MyAppConfig.class.getClassLoader().getResourceAsStream(H2_SCHEMA), StandardCharsets.UTF_8)) {
+			RunScript.execute(connection, schema);
+		} catch (final SQLException | IOException e) {
+			throw WrappedException.wrap(e);
+		}
 	}
 }
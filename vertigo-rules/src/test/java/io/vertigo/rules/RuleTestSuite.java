@@ -22,8 +22,17 @@ import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
 import org.junit.runners.Suite.SuiteClasses;
 
+import io.vertigo.rules.services.CachedRuleServicesSelectorTest;
+import io.vertigo.rules.services.CompiledRuleServicesSelectorTest;
+import io.vertigo.rules.services.CompiledRuleServicesValidatorTest;
+import io.vertigo.rules.services.GeneratedRuleServicesValidatorTest;
+import io.vertigo.rules.services.IndexedRuleServicesValidatorTest;
+import io.vertigo.rules.services.OutcomeCacheRuleServicesValidatorTest;
 import io.vertigo.rules.services.RuleServicesSelectorTest;
 import io.vertigo.rules.services.RuleServicesValidatorTest;
+import io.vertigo.rules.services.RuleSetCacheRuleServicesTest;
+import io.vertigo.rules.services.SQLRuleConstantsStorePluginTest;
+import io.vertigo.rules.services.SQLRuleStorePluginTest;
 
 /**
  *
@@ -32,7 +41,16 @@ import io.vertigo.rules.services.RuleServicesValidatorTest;
 @RunWith(Suite.class)
 @SuiteClasses({
 		RuleServicesSelectorTest.class,
-		RuleServicesValidatorTest.class
+		RuleServicesValidatorTest.class,
+		CompiledRuleServicesSelectorTest.class,
+		CompiledRuleServicesValidatorTest.class,
+		CachedRuleServicesSelectorTest.class,
+		IndexedRuleServicesValidatorTest.class,
+		GeneratedRuleServicesValidatorTest.class,
+		OutcomeCacheRuleServicesValidatorTest.class,
+		SQLRuleConstantsStorePluginTest.class,
+		SQLRuleStorePluginTest.class,
+		RuleSetCacheRuleServicesTest.class
 })
 public final class RuleTestSuite {
 	//
@@ -18,6 +18,8 @@
  */
 package io.vertigo.rules.data;
 
+import java.math.BigDecimal;
+
 import io.vertigo.dynamo.domain.model.DtObject;
 
 /**
@@ -31,6 +33,7 @@ public class MyDummyDtObject implements DtObject {
 	private String entity;
 	private String division;
 	private String nom;
+	private BigDecimal price;
 
 	/**
 	 * @return the id
@@ -88,4 +91,18 @@ public class MyDummyDtObject implements DtObject {
 		this.nom = nom;
 	}
 
+	/**
+	 * @return the price
+	 */
+	public BigDecimal getPrice() {
+		return price;
+	}
+
+	/**
+	 * @param price the price to set
+	 */
+	public void setPrice(final BigDecimal price) {
+		this.price = price;
+	}
+
 }
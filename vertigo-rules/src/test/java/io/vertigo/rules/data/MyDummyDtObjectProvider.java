@@ -39,18 +39,21 @@ public class MyDummyDtObjectProvider implements SimpleDefinitionProvider {
 		final Domain domainDummyId = Domain.builder("DO_X_DUMMY_ID", DataType.Long).build();
 		final Domain domainDummyCode = Domain.builder("DO_X_DUMMY_CODE", DataType.String).build();
 		final Domain domainDummyLabel = Domain.builder("DO_X_DUMMY_LABEL", DataType.String).build();
+		final Domain domainDummyPrice = Domain.builder("DO_X_DUMMY_PRICE", DataType.BigDecimal).build();
 
 		final DtDefinition wfDummyObjectDtDefinition = DtDefinition.builder("DT_MY_DUMMY_DT_OBJECT")
 				.addIdField("ID", "id", domainDummyId)
 				.addDataField("ENTITY", "entity", domainDummyCode, true, true)
 				.addDataField("DIVISION", "division", domainDummyCode, true, true)
 				.addDataField("NOM", "nom", domainDummyLabel, true, true)
+				.addDataField("PRICE", "price", domainDummyPrice, true, true)
 				.build();
 
 		return new ListBuilder<Definition>()
 				.add(domainDummyId)
 				.add(domainDummyCode)
 				.add(domainDummyLabel)
+				.add(domainDummyPrice)
 				.add(wfDummyObjectDtDefinition)
 				.build();
 	}
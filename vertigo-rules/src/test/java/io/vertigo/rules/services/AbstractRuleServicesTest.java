@@ -0,0 +1,148 @@
+/**
+ * vertigo - simple java starter
+ *
+ * Copyright (C) 2013-2019, KleeGroup, direction.technique@kleegroup.com (http://www.kleegroup.com)
+ * KleeGroup, Centre d'affaire la Boursidiere - BP 159 - 92357 Le Plessis Robinson Cedex - France
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.vertigo.rules.services;
+
+import java.util.Arrays;
+
+import javax.inject.Inject;
+
+import org.junit.After;
+import org.junit.Before;
+
+import io.vertigo.account.account.Account;
+import io.vertigo.account.account.AccountGroup;
+import io.vertigo.app.AutoCloseableApp;
+import io.vertigo.app.config.AppConfig;
+import io.vertigo.core.component.di.injector.DIInjector;
+import io.vertigo.dynamo.domain.model.URI;
+import io.vertigo.dynamo.domain.util.DtObjectUtil;
+import io.vertigo.rules.RuleConditionCriteria;
+import io.vertigo.rules.data.MockIdentities;
+import io.vertigo.rules.domain.RuleConditionDefinition;
+import io.vertigo.rules.domain.RuleDefinition;
+import io.vertigo.rules.domain.RuleFilterDefinition;
+import io.vertigo.rules.domain.SelectorDefinition;
+
+/**
+ * Base of the rule services tests : starts the app of the test in a rolled back transaction and creates the rules, selectors and accounts.
+ *
+ * @author xdurand
+ *
+ */
+public abstract class AbstractRuleServicesTest extends DbTest {
+
+	private AutoCloseableApp app;
+
+	@Inject
+	protected RuleServices ruleServices;
+
+	@Inject
+	private MockIdentities identities;
+
+	/**
+	 * @return the config of the app to test
+	 */
+	protected abstract AppConfig buildAppConfig();
+
+	/**
+	 * Setup
+	 */
+	@Before
+	public void setUp() {
+		app = new AutoCloseableApp(buildAppConfig());
+		DIInjector.injectMembers(this, app.getComponentSpace());
+		doSetUp();
+	}
+
+	/**
+	 * Teardown
+	 */
+	@After
+	public void tearDown() {
+		doTearDown();
+		if (app != null) {
+			app.close();
+		}
+	}
+
+	protected final RuleDefinition addRule(final Long itemId) {
+		final RuleDefinition rule = new RuleDefinition();
+		rule.setItemId(itemId);
+		ruleServices.addRule(rule);
+		return rule;
+	}
+
+	protected final void addCondition(final Long ruleId, final String field, final String operator, final String expression) {
+		ruleServices.addCondition(createCondition(ruleId, field, operator, expression));
+	}
+
+	protected static RuleConditionDefinition createCondition(final Long ruleId, final String field, final String operator, final String expression) {
+		final RuleConditionDefinition condition = new RuleConditionDefinition();
+		condition.setField(field);
+		condition.setOperator(operator);
+		condition.setExpression(expression);
+		condition.setRudId(ruleId);
+		return condition;
+	}
+
+	protected static RuleConditionCriteria createConditionCriteria(final String field, final String value) {
+		final RuleConditionCriteria conditionCriteria = new RuleConditionCriteria();
+		conditionCriteria.setField(field);
+		conditionCriteria.setValue(value);
+		return conditionCriteria;
+	}
+
+	protected final SelectorDefinition addSelector(final Long itemId, final String groupId) {
+		final SelectorDefinition selector = new SelectorDefinition();
+		selector.setItemId(itemId);
+		selector.setGroupId(groupId);
+		ruleServices.addSelector(selector);
+		return selector;
+	}
+
+	protected final void addFilter(final Long selectorId, final String field, final String operator, final String expression) {
+		final RuleFilterDefinition filterDefinition = new RuleFilterDefinition();
+		filterDefinition.setField(field);
+		filterDefinition.setOperator(operator);
+		filterDefinition.setExpression(expression);
+		filterDefinition.setSelId(selectorId);
+		ruleServices.addFilter(filterDefinition);
+	}
+
+	protected final Account createAccount(final String accountId) {
+		final Account account = Account.builder(accountId).withDisplayName("User " + accountId)
+				.withEmail("user" + accountId + "@account.vertigo.io").build();
+		identities.saveAccounts(Arrays.asList(account));
+		return account;
+	}
+
+	protected final void attach(final Account account, final String groupId) {
+		identities.saveGroup(new AccountGroup(groupId, "Group activity " + groupId));
+		identities.attach(createAccountURI(account.getId()), createGroupURI(groupId));
+	}
+
+	private static URI<Account> createAccountURI(final String id) {
+		return DtObjectUtil.createURI(Account.class, id);
+	}
+
+	private static URI<AccountGroup> createGroupURI(final String id) {
+		return DtObjectUtil.createURI(AccountGroup.class, id);
+	}
+
+}
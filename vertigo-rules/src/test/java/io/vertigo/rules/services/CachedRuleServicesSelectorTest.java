@@ -0,0 +1,118 @@
+/**
+ * vertigo - simple java starter
+ *
+ * Copyright (C) 2013-2019, KleeGroup, direction.technique@kleegroup.com (http://www.kleegroup.com)
+ * KleeGroup, Centre d'affaire la Boursidiere - BP 159 - 92357 Le Plessis Robinson Cedex - France
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.vertigo.rules.services;
+
+import static org.hamcrest.CoreMatchers.hasItems;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import io.vertigo.account.account.Account;
+import io.vertigo.app.config.AppConfig;
+import io.vertigo.core.param.Param;
+import io.vertigo.rules.MyAppConfig;
+import io.vertigo.rules.data.MyDummyDtObject;
+import io.vertigo.rules.plugins.selector.CachedRuleSelectorPlugin;
+import io.vertigo.rules.plugins.validator.CompiledRuleValidatorPlugin;
+
+/**
+ * Junit for the cached rule selector : accounts selected once, eviction at cacheSize and expiry after cacheSeconds
+ *
+ * @author xdurand
+ *
+ */
+public final class CachedRuleServicesSelectorTest extends AbstractRuleServicesTest {
+
+	private static final int CACHE_SIZE = 1;
+	private static final int CACHE_SECONDS = 1;
+
+	@Override
+	protected AppConfig buildAppConfig() {
+		return MyAppConfig.config(CachedRuleSelectorPlugin.class, CompiledRuleValidatorPlugin.class, 0,
+				Param.of("cacheSize", String.valueOf(CACHE_SIZE)),
+				Param.of("cacheSeconds", String.valueOf(CACHE_SECONDS)));
+	}
+
+	/**
+	 * An account member of several selected groups is selected once
+	 */
+	@Test
+	public void testSelectAccountsInSeveralGroups() {
+		final Account account_1 = createAccount("0");
+		final Account account_1_2 = createAccount("1");
+		final Account account_2 = createAccount("2");
+		attach(account_1, "1");
+		attach(account_1_2, "1");
+		attach(account_1_2, "2");
+		attach(account_2, "2");
+
+		// Selectors without filters created to Item 1
+		addSelector(1L, "1");
+		addSelector(1L, "2");
+
+		final List<Account> selectedAccounts = selectAccounts(1L);
+		assertThat(selectedAccounts.size(), is(3));
+		assertThat(selectedAccounts, hasItems(account_1, account_1_2, account_2));
+	}
+
+	/**
+	 * The accounts of the least recently used group are read again once cacheSize groups are cached
+	 */
+	@Test
+	public void testEvictionAtCacheSize() {
+		attach(createAccount("0"), "1");
+		attach(createAccount("1"), "2");
+		addSelector(1L, "1");
+		addSelector(2L, "2");
+		assertThat(selectAccounts(1L).size(), is(1));
+
+		// The accounts of group 1 are cached
+		attach(createAccount("2"), "1");
+		assertThat(selectAccounts(1L).size(), is(1));
+
+		// Group 2 takes the only place in cache
+		assertThat(selectAccounts(2L).size(), is(1));
+		assertThat(selectAccounts(1L).size(), is(2));
+	}
+
+	/**
+	 * The accounts of a group are read again after cacheSeconds
+	 * @throws InterruptedException if interrupted while waiting
+	 */
+	@Test
+	public void testExpiryAfterCacheSeconds() throws InterruptedException {
+		attach(createAccount("0"), "1");
+		addSelector(1L, "1");
+		assertThat(selectAccounts(1L).size(), is(1));
+
+		attach(createAccount("1"), "1");
+		assertThat(selectAccounts(1L).size(), is(1));
+
+		Thread.sleep(CACHE_SECONDS * 1000L + 100);
+		assertThat(selectAccounts(1L).size(), is(2));
+	}
+
+	private List<Account> selectAccounts(final Long itemId) {
+		return ruleServices.selectAccounts(itemId, new RuleContext(new MyDummyDtObject(), RuleConstants.EMPTY_RULE_CONSTANTS));
+	}
+
+}
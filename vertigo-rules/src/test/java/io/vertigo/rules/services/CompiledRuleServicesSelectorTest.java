@@ -0,0 +1,88 @@
+/**
+ * vertigo - simple java starter
+ *
+ * Copyright (C) 2013-2019, KleeGroup, direction.technique@kleegroup.com (http://www.kleegroup.com)
+ * KleeGroup, Centre d'affaire la Boursidiere - BP 159 - 92357 Le Plessis Robinson Cedex - France
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.vertigo.rules.services;
+
+import static org.hamcrest.CoreMatchers.hasItem;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import io.vertigo.account.account.Account;
+import io.vertigo.app.config.AppConfig;
+import io.vertigo.rules.MyAppConfig;
+import io.vertigo.rules.data.MyDummyDtObject;
+import io.vertigo.rules.domain.SelectorDefinition;
+import io.vertigo.rules.plugins.selector.CompiledRuleSelectorPlugin;
+import io.vertigo.rules.plugins.validator.SimpleRuleValidatorPlugin;
+
+/**
+ * Junit for the compiled rule selector : invalidation of the compiled selectors
+ *
+ * @author xdurand
+ *
+ */
+public final class CompiledRuleServicesSelectorTest extends AbstractRuleServicesTest {
+
+	@Override
+	protected AppConfig buildAppConfig() {
+		return MyAppConfig.config(CompiledRuleSelectorPlugin.class, SimpleRuleValidatorPlugin.class);
+	}
+
+	/**
+	 * A filter added to an already compiled selector is taken into account
+	 */
+	@Test
+	public void testInvalidationAfterAddFilter() {
+		final Account account = createAccount("0");
+		attach(account, "1");
+		final SelectorDefinition selector = addSelector(1L, "1");
+		addFilter(selector.getId(), "DIVISION", "=", "BTL");
+
+		final MyDummyDtObject myDummyDtObject = new MyDummyDtObject();
+		myDummyDtObject.setDivision("BTL");
+		myDummyDtObject.setEntity("ABC");
+		// The selector is compiled with its only filter
+		final List<Account> selectedAccounts = ruleServices.selectAccounts(1L, new RuleContext(myDummyDtObject, RuleConstants.EMPTY_RULE_CONSTANTS));
+		assertThat(selectedAccounts.size(), is(1));
+		assertThat(selectedAccounts, hasItem(account));
+
+		addFilter(selector.getId(), "ENTITY", "IN", "ENT,MAR");
+		assertThat(ruleServices.selectAccounts(1L, new RuleContext(myDummyDtObject, RuleConstants.EMPTY_RULE_CONSTANTS)).size(), is(0));
+
+		myDummyDtObject.setEntity("MAR");
+		assertThat(ruleServices.selectAccounts(1L, new RuleContext(myDummyDtObject, RuleConstants.EMPTY_RULE_CONSTANTS)).size(), is(1));
+	}
+
+	/**
+	 * A filter without expression only fails when its field is present
+	 */
+	@Test
+	public void testMissingExpressionOnAbsentField() {
+		attach(createAccount("0"), "1");
+		final SelectorDefinition selector = addSelector(1L, "1");
+		addFilter(selector.getId(), "DIVISION", ">", null);
+
+		final MyDummyDtObject myDummyDtObject = new MyDummyDtObject();
+		assertThat(ruleServices.selectAccounts(1L, new RuleContext(myDummyDtObject, RuleConstants.EMPTY_RULE_CONSTANTS)).size(), is(0));
+	}
+
+}
@@ -0,0 +1,92 @@
+/**
+ * vertigo - simple java starter
+ *
+ * Copyright (C) 2013-2019, KleeGroup, direction.technique@kleegroup.com (http://www.kleegroup.com)
+ * KleeGroup, Centre d'affaire la Boursidiere - BP 159 - 92357 Le Plessis Robinson Cedex - France
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.vertigo.rules.services;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Test;
+
+import io.vertigo.app.config.AppConfig;
+import io.vertigo.rules.MyAppConfig;
+import io.vertigo.rules.data.MyDummyDtObject;
+import io.vertigo.rules.domain.RuleDefinition;
+import io.vertigo.rules.plugins.selector.SimpleRuleSelectorPlugin;
+import io.vertigo.rules.plugins.validator.CompiledRuleValidatorPlugin;
+
+/**
+ * Junit for the compiled rule validator : invalidation of the compiled rules and deferred expression errors
+ *
+ * @author xdurand
+ *
+ */
+public final class CompiledRuleServicesValidatorTest extends AbstractRuleServicesTest {
+
+	@Override
+	protected AppConfig buildAppConfig() {
+		return MyAppConfig.config(SimpleRuleSelectorPlugin.class, CompiledRuleValidatorPlugin.class);
+	}
+
+	/**
+	 * A condition added to an already compiled rule is taken into account
+	 */
+	@Test
+	public void testInvalidationAfterAddCondition() {
+		final RuleDefinition rule = addRule(1L);
+		addCondition(rule.getId(), "DIVISION", "=", "BTL");
+
+		final MyDummyDtObject myDummyDtObject = new MyDummyDtObject();
+		myDummyDtObject.setDivision("BTL");
+		myDummyDtObject.setEntity("ABC");
+		// The rule is compiled with its only condition
+		assertThat(ruleServices.isRuleValid(1L, new RuleContext(myDummyDtObject, RuleConstants.EMPTY_RULE_CONSTANTS)), is(true));
+
+		addCondition(rule.getId(), "ENTITY", "=", "ENT");
+		assertThat(ruleServices.isRuleValid(1L, new RuleContext(myDummyDtObject, RuleConstants.EMPTY_RULE_CONSTANTS)), is(false));
+
+		myDummyDtObject.setEntity("ENT");
+		assertThat(ruleServices.isRuleValid(1L, new RuleContext(myDummyDtObject, RuleConstants.EMPTY_RULE_CONSTANTS)), is(true));
+	}
+
+	/**
+	 * A condition without expression only fails when its field is present
+	 */
+	@Test
+	public void testMissingExpressionOnAbsentField() {
+		final RuleDefinition rule = addRule(1L);
+		addCondition(rule.getId(), "DIVISION", "IN", null);
+
+		final MyDummyDtObject myDummyDtObject = new MyDummyDtObject();
+		assertThat(ruleServices.isRuleValid(1L, new RuleContext(myDummyDtObject, RuleConstants.EMPTY_RULE_CONSTANTS)), is(false));
+	}
+
+	/**
+	 * A condition without expression fails when its field is present
+	 */
+	@Test(expected = NullPointerException.class)
+	public void testMissingExpressionOnPresentField() {
+		final RuleDefinition rule = addRule(1L);
+		addCondition(rule.getId(), "DIVISION", "<", null);
+
+		final MyDummyDtObject myDummyDtObject = new MyDummyDtObject();
+		myDummyDtObject.setDivision("BTL");
+		ruleServices.isRuleValid(1L, new RuleContext(myDummyDtObject, RuleConstants.EMPTY_RULE_CONSTANTS));
+	}
+
+}
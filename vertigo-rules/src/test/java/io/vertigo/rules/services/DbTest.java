@@ -18,6 +18,8 @@
  */
 package io.vertigo.rules.services;
 
+import java.util.concurrent.CompletableFuture;
+
 import javax.inject.Inject;
 
 import org.junit.Assert;
@@ -50,4 +52,22 @@ public class DbTest {
 		transaction.rollback();
 	}
 
+	/**
+	 * Run in a new transaction, on another thread, and wait for its completion.
+	 * @param commit true to commit the transaction, false to roll it back
+	 * @param runnable the work of the transaction
+	 */
+	protected void inNewTransaction(final boolean commit, final Runnable runnable) {
+		CompletableFuture.runAsync(() -> {
+			try (final VTransactionWritable newTransaction = transactionManager.createCurrentTransaction()) {
+				runnable.run();
+				if (commit) {
+					newTransaction.commit();
+				} else {
+					newTransaction.rollback();
+				}
+			}
+		}).join();
+	}
+
 }
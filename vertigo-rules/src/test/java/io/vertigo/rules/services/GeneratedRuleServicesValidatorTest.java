@@ -0,0 +1,156 @@
+/**
+ * vertigo - simple java starter
+ *
+ * Copyright (C) 2013-2019, KleeGroup, direction.technique@kleegroup.com (http://www.kleegroup.com)
+ * KleeGroup, Centre d'affaire la Boursidiere - BP 159 - 92357 Le Plessis Robinson Cedex - France
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.vertigo.rules.services;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.Collections;
+
+import javax.inject.Inject;
+
+import org.junit.Test;
+
+import io.vertigo.app.config.AppConfig;
+import io.vertigo.core.param.Param;
+import io.vertigo.rules.MyAppConfig;
+import io.vertigo.rules.data.MyDummyDtObject;
+import io.vertigo.rules.domain.RuleDefinition;
+import io.vertigo.rules.impl.RuleStorePlugin;
+import io.vertigo.rules.impl.RuleValidatorPlugin;
+import io.vertigo.rules.plugins.selector.SimpleRuleSelectorPlugin;
+import io.vertigo.rules.plugins.validator.GeneratedRuleValidatorPlugin;
+
+/**
+ * Junit for the generated rule validator : operators evaluated as by the simple validator and bounded cache of generated rules
+ *
+ * @author xdurand
+ *
+ */
+public final class GeneratedRuleServicesValidatorTest extends AbstractRuleServicesTest {
+
+	private static final int CACHE_SIZE = 1;
+
+	@Inject
+	private RuleStorePlugin ruleStorePlugin;
+	@Inject
+	private RuleValidatorPlugin ruleValidatorPlugin;
+
+	@Override
+	protected AppConfig buildAppConfig() {
+		return MyAppConfig.configWithValidatorParams(SimpleRuleSelectorPlugin.class, GeneratedRuleValidatorPlugin.class,
+				Param.of("cacheSize", String.valueOf(CACHE_SIZE)));
+	}
+
+	/**
+	 * A condition with an unsupported operator never matches
+	 */
+	@Test
+	public void testUnsupportedOperator() {
+		final RuleDefinition rule = addRule(1L);
+		addCondition(rule.getId(), "DIVISION", "LIKE", "BTL");
+
+		final MyDummyDtObject myDummyDtObject = new MyDummyDtObject();
+		assertThat(isRuleValid(1L, myDummyDtObject), is(false));
+		myDummyDtObject.setDivision("BTL");
+		assertThat(isRuleValid(1L, myDummyDtObject), is(false));
+	}
+
+	/**
+	 * A condition without expression only fails when its field is present
+	 */
+	@Test
+	public void testMissingExpressionOnAbsentField() {
+		final RuleDefinition rule = addRule(1L);
+		addCondition(rule.getId(), "DIVISION", "IN", null);
+
+		assertThat(isRuleValid(1L, new MyDummyDtObject()), is(false));
+	}
+
+	/**
+	 * A condition without expression fails when its field is present
+	 */
+	@Test(expected = NullPointerException.class)
+	public void testMissingExpressionOnPresentField() {
+		final RuleDefinition rule = addRule(1L);
+		addCondition(rule.getId(), "DIVISION", "<", null);
+
+		final MyDummyDtObject myDummyDtObject = new MyDummyDtObject();
+		myDummyDtObject.setDivision("BTL");
+		isRuleValid(1L, myDummyDtObject);
+	}
+
+	/**
+	 * A condition added to already generated rules is taken into account
+	 */
+	@Test
+	public void testGeneratedAgainAfterAddCondition() {
+		final RuleDefinition rule = addRule(1L);
+		addCondition(rule.getId(), "DIVISION", "=", "BTL");
+
+		final MyDummyDtObject myDummyDtObject = new MyDummyDtObject();
+		myDummyDtObject.setDivision("BTL");
+		myDummyDtObject.setEntity("ABC");
+		assertThat(isRuleValid(1L, myDummyDtObject), is(true));
+
+		addCondition(rule.getId(), "ENTITY", "=", "ENT");
+		assertThat(isRuleValid(1L, myDummyDtObject), is(false));
+
+		myDummyDtObject.setEntity("ENT");
+		assertThat(isRuleValid(1L, myDummyDtObject), is(true));
+	}
+
+	/**
+	 * The generated rules of the least recently used item are dropped when the cache is full
+	 */
+	@Test
+	public void testEvictionAtCacheSize() {
+		// Conditions written to the store without notifying the validator, read by the validator from the store
+		final RuleDefinition rule = addRule(1L);
+		storeCondition(rule.getId(), "DIVISION", "=", "BTL");
+		final RuleDefinition otherRule = addRule(2L);
+		storeCondition(otherRule.getId(), "DIVISION", "=", "BTL");
+
+		final MyDummyDtObject myDummyDtObject = new MyDummyDtObject();
+		myDummyDtObject.setDivision("BTL");
+		myDummyDtObject.setEntity("ABC");
+		assertThat(isRuleValid(rule, myDummyDtObject), is(true));
+
+		// The generated rules of item 1 are kept
+		storeCondition(rule.getId(), "ENTITY", "=", "ENT");
+		assertThat(isRuleValid(rule, myDummyDtObject), is(true));
+
+		// Item 2 takes the only place in cache : the rules of item 1 are generated again, with the new condition
+		assertThat(isRuleValid(otherRule, myDummyDtObject), is(true));
+		assertThat(isRuleValid(rule, myDummyDtObject), is(false));
+	}
+
+	private boolean isRuleValid(final RuleDefinition rule, final MyDummyDtObject myDummyDtObject) {
+		return ruleValidatorPlugin.isRuleValid(Collections.singletonList(rule), new RuleContext(myDummyDtObject, RuleConstants.EMPTY_RULE_CONSTANTS));
+	}
+
+	private boolean isRuleValid(final Long itemId, final MyDummyDtObject myDummyDtObject) {
+		return ruleServices.isRuleValid(itemId, new RuleContext(myDummyDtObject, RuleConstants.EMPTY_RULE_CONSTANTS));
+	}
+
+	private void storeCondition(final Long ruleId, final String field, final String operator, final String expression) {
+		ruleStorePlugin.addCondition(createCondition(ruleId, field, operator, expression));
+	}
+
+}
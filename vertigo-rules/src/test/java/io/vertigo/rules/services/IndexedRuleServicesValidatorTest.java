@@ -0,0 +1,115 @@
+/**
+ * vertigo - simple java starter
+ *
+ * Copyright (C) 2013-2019, KleeGroup, direction.technique@kleegroup.com (http://www.kleegroup.com)
+ * KleeGroup, Centre d'affaire la Boursidiere - BP 159 - 92357 Le Plessis Robinson Cedex - France
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.vertigo.rules.services;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.Collections;
+
+import org.junit.Test;
+
+import io.vertigo.app.config.AppConfig;
+import io.vertigo.rules.MyAppConfig;
+import io.vertigo.rules.data.MyDummyDtObject;
+import io.vertigo.rules.domain.RuleDefinition;
+import io.vertigo.rules.plugins.selector.SimpleRuleSelectorPlugin;
+import io.vertigo.rules.plugins.validator.IndexedRuleValidatorPlugin;
+
+/**
+ * Junit for the indexed rule validator : rebuild of the index of an item when its rules change
+ *
+ * @author xdurand
+ *
+ */
+public final class IndexedRuleServicesValidatorTest extends AbstractRuleServicesTest {
+
+	@Override
+	protected AppConfig buildAppConfig() {
+		return MyAppConfig.config(SimpleRuleSelectorPlugin.class, IndexedRuleValidatorPlugin.class);
+	}
+
+	/**
+	 * A rule added to an already indexed item is taken into account
+	 */
+	@Test
+	public void testIndexRebuiltAfterAddRule() {
+		final RuleDefinition rule1 = addRule(1L);
+		addCondition(rule1.getId(), "DIVISION", "=", "BTL");
+
+		final MyDummyDtObject myDummyDtObject = new MyDummyDtObject();
+		myDummyDtObject.setDivision("ABC");
+		// The item is indexed with its only rule
+		assertThat(ruleServices.isRuleValid(1L, new RuleContext(myDummyDtObject, RuleConstants.EMPTY_RULE_CONSTANTS)), is(false));
+
+		final RuleDefinition rule2 = addRule(1L);
+		addCondition(rule2.getId(), "DIVISION", "IN", "ABC,DEF");
+		assertThat(ruleServices.isRuleValid(1L, new RuleContext(myDummyDtObject, RuleConstants.EMPTY_RULE_CONSTANTS)), is(true));
+
+		myDummyDtObject.setDivision("BTL");
+		assertThat(ruleServices.isRuleValid(1L, new RuleContext(myDummyDtObject, RuleConstants.EMPTY_RULE_CONSTANTS)), is(true));
+		myDummyDtObject.setDivision("XYZ");
+		assertThat(ruleServices.isRuleValid(1L, new RuleContext(myDummyDtObject, RuleConstants.EMPTY_RULE_CONSTANTS)), is(false));
+	}
+
+	/**
+	 * A condition added to a rule of an already indexed item is taken into account
+	 */
+	@Test
+	public void testIndexRebuiltAfterAddCondition() {
+		final RuleDefinition rule = addRule(1L);
+		addCondition(rule.getId(), "DIVISION", "=", "BTL");
+
+		final MyDummyDtObject myDummyDtObject = new MyDummyDtObject();
+		myDummyDtObject.setDivision("BTL");
+		myDummyDtObject.setEntity("ABC");
+		// The item is indexed with the only condition of its rule
+		assertThat(ruleServices.isRuleValid(1L, new RuleContext(myDummyDtObject, RuleConstants.EMPTY_RULE_CONSTANTS)), is(true));
+
+		addCondition(rule.getId(), "ENTITY", "=", "ENT");
+		assertThat(ruleServices.isRuleValid(1L, new RuleContext(myDummyDtObject, RuleConstants.EMPTY_RULE_CONSTANTS)), is(false));
+
+		myDummyDtObject.setEntity("ENT");
+		assertThat(ruleServices.isRuleValid(1L, new RuleContext(myDummyDtObject, RuleConstants.EMPTY_RULE_CONSTANTS)), is(true));
+	}
+
+	/**
+	 * The index built from a preloaded rule set is rebuilt from the next rule set after a change
+	 */
+	@Test
+	public void testIndexRebuiltWithRuleSet() {
+		final RuleDefinition rule = addRule(1L);
+		addCondition(rule.getId(), "DIVISION", "=", "BTL");
+		// An index on another item is kept
+		final RuleDefinition otherRule = addRule(2L);
+		addCondition(otherRule.getId(), "ENTITY", "=", "ENT");
+
+		final MyDummyDtObject myDummyDtObject = new MyDummyDtObject();
+		myDummyDtObject.setDivision("BTL");
+		myDummyDtObject.setEntity("ENT");
+		final RuleContext ruleContext = new RuleContext(myDummyDtObject, RuleConstants.EMPTY_RULE_CONSTANTS);
+		assertThat(ruleServices.isRuleValid(1L, ruleContext, ruleServices.getRuleSet(Collections.singletonList(1L))), is(true));
+		assertThat(ruleServices.isRuleValid(2L, ruleContext, ruleServices.getRuleSet(Collections.singletonList(2L))), is(true));
+
+		addCondition(rule.getId(), "DIVISION", "=", "ABC");
+		assertThat(ruleServices.isRuleValid(1L, ruleContext, ruleServices.getRuleSet(Collections.singletonList(1L))), is(false));
+		assertThat(ruleServices.isRuleValid(2L, ruleContext, ruleServices.getRuleSet(Collections.singletonList(2L))), is(true));
+	}
+
+}
@@ -0,0 +1,190 @@
+/**
+ * vertigo - simple java starter
+ *
+ * Copyright (C) 2013-2019, KleeGroup, direction.technique@kleegroup.com (http://www.kleegroup.com)
+ * KleeGroup, Centre d'affaire la Boursidiere - BP 159 - 92357 Le Plessis Robinson Cedex - France
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.vertigo.rules.services;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.inject.Inject;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import io.vertigo.app.config.AppConfig;
+import io.vertigo.rules.MyAppConfig;
+import io.vertigo.rules.data.MyDummyDtObject;
+import io.vertigo.rules.domain.RuleConditionDefinition;
+import io.vertigo.rules.domain.RuleDefinition;
+import io.vertigo.rules.impl.RuleStorePlugin;
+import io.vertigo.rules.impl.RuleValidatorPlugin;
+import io.vertigo.rules.plugins.selector.SimpleRuleSelectorPlugin;
+import io.vertigo.rules.plugins.validator.SimpleRuleValidatorPlugin;
+
+/**
+ * Junit for the outcome cache of the rule manager : outcomes reused, bypassed by the transaction changing the rules, bounded size
+ *
+ * @author xdurand
+ *
+ */
+public final class OutcomeCacheRuleServicesValidatorTest extends AbstractRuleServicesTest {
+
+	private static final int OUTCOME_CACHE_SIZE = 2;
+	private static final AtomicInteger EVALUATIONS = new AtomicInteger();
+
+	@Override
+	protected AppConfig buildAppConfig() {
+		return MyAppConfig.config(SimpleRuleSelectorPlugin.class, CountingRuleValidatorPlugin.class, OUTCOME_CACHE_SIZE);
+	}
+
+	/**
+	 * Counts the evaluations of each test
+	 */
+	@Before
+	public void resetEvaluations() {
+		EVALUATIONS.set(0);
+	}
+
+	/**
+	 * An item whose referenced fields are unchanged is not evaluated again
+	 */
+	@Test
+	public void testOutcomeCached() {
+		inNewTransaction(true, () -> addRuleWithCondition(1L, "DIVISION", "BTL"));
+
+		final MyDummyDtObject myDummyDtObject = new MyDummyDtObject();
+		myDummyDtObject.setDivision("BTL");
+		myDummyDtObject.setEntity("ENT");
+		assertThat(isRuleValid(1L, myDummyDtObject), is(true));
+		assertThat(isRuleValid(1L, myDummyDtObject), is(true));
+		assertThat(EVALUATIONS.get(), is(1));
+
+		// The entity is not referenced by the rules
+		myDummyDtObject.setEntity("ABC");
+		assertThat(isRuleValid(1L, myDummyDtObject), is(true));
+		assertThat(EVALUATIONS.get(), is(1));
+
+		myDummyDtObject.setDivision("ABC");
+		assertThat(isRuleValid(1L, myDummyDtObject), is(false));
+		assertThat(EVALUATIONS.get(), is(2));
+	}
+
+	/**
+	 * The transaction changing the rules evaluates them each time, the others cache the outcomes of the new rules
+	 */
+	@Test
+	public void testBypassedAfterRuleChange() {
+		inNewTransaction(true, () -> addRuleWithCondition(1L, "DIVISION", "BTL"));
+
+		final MyDummyDtObject myDummyDtObject = new MyDummyDtObject();
+		myDummyDtObject.setDivision("BTL");
+		myDummyDtObject.setEntity("ABC");
+		assertThat(isRuleValid(1L, myDummyDtObject), is(true));
+		assertThat(EVALUATIONS.get(), is(1));
+
+		// The transaction of the test invalidates the rule sets and the outcomes
+		addCondition(ruleServices.getRulesForItemId(1L).get(0).getId(), "ENTITY", "=", "ENT");
+		assertThat(isRuleValid(1L, myDummyDtObject), is(false));
+		assertThat(isRuleValid(1L, myDummyDtObject), is(false));
+		assertThat(EVALUATIONS.get(), is(3));
+
+		inNewTransaction(false, () -> {
+			assertThat(isRuleValid(1L, myDummyDtObject), is(false));
+			assertThat(isRuleValid(1L, myDummyDtObject), is(false));
+		});
+		assertThat(EVALUATIONS.get(), is(4));
+	}
+
+	/**
+	 * The least recently used outcome is dropped when the cache is full
+	 */
+	@Test
+	public void testEvictionAtCacheSize() {
+		inNewTransaction(true, () -> addRuleWithCondition(1L, "DIVISION", "BTL"));
+
+		final MyDummyDtObject btlObject = createDummyDtObject("BTL");
+		final MyDummyDtObject abcObject = createDummyDtObject("ABC");
+		final MyDummyDtObject defObject = createDummyDtObject("DEF");
+		isRuleValid(1L, btlObject);
+		isRuleValid(1L, abcObject);
+		isRuleValid(1L, btlObject);
+		assertThat(EVALUATIONS.get(), is(2));
+
+		// ABC is the least recently used
+		isRuleValid(1L, defObject);
+		assertThat(EVALUATIONS.get(), is(3));
+		assertThat(isRuleValid(1L, btlObject), is(true));
+		assertThat(EVALUATIONS.get(), is(3));
+		assertThat(isRuleValid(1L, abcObject), is(false));
+		assertThat(EVALUATIONS.get(), is(4));
+	}
+
+	private boolean isRuleValid(final Long itemId, final MyDummyDtObject myDummyDtObject) {
+		return ruleServices.isRuleValid(itemId, RuleContext.lazyOf(myDummyDtObject, RuleConstants.EMPTY_RULE_CONSTANTS));
+	}
+
+	private static MyDummyDtObject createDummyDtObject(final String division) {
+		final MyDummyDtObject myDummyDtObject = new MyDummyDtObject();
+		myDummyDtObject.setDivision(division);
+		return myDummyDtObject;
+	}
+
+	private void addRuleWithCondition(final Long itemId, final String field, final String expression) {
+		addCondition(addRule(itemId).getId(), field, "=", expression);
+	}
+
+	/**
+	 * Simple rule validator counting its evaluations
+	 */
+	public static final class CountingRuleValidatorPlugin implements RuleValidatorPlugin {
+
+		private final RuleValidatorPlugin ruleValidatorPlugin;
+
+		/**
+		 * Constructor.
+		 * @param ruleStorePlugin the rule store
+		 */
+		@Inject
+		public CountingRuleValidatorPlugin(final RuleStorePlugin ruleStorePlugin) {
+			ruleValidatorPlugin = new SimpleRuleValidatorPlugin(ruleStorePlugin);
+		}
+
+		@Override
+		public boolean isRuleValid(final List<RuleDefinition> rules, final RuleContext ruleContext) {
+			EVALUATIONS.incrementAndGet();
+			return ruleValidatorPlugin.isRuleValid(rules, ruleContext);
+		}
+
+		@Override
+		public boolean isRuleValid(final List<RuleDefinition> rules,
+				final Map<Long, List<RuleConditionDefinition>> mapConditions, final RuleContext ruleContext) {
+			EVALUATIONS.incrementAndGet();
+			return ruleValidatorPlugin.isRuleValid(rules, mapConditions, ruleContext);
+		}
+
+		@Override
+		public void invalidateRule(final Long ruleId) {
+			ruleValidatorPlugin.invalidateRule(ruleId);
+		}
+	}
+
+}
@@ -345,4 +345,53 @@ public class RuleServicesSelectorTest extends DbTest {
 
 	}
 
+	/**
+	 * Filters added after a first selection must be taken into account
+	 */
+	@Test
+	public void testValidationFilterAddedAfterSelection() {
+
+		final AccountGroup accountGroup = new AccountGroup("1", "Group activity 1");
+
+		final Account account = Account.builder("0").withDisplayName("User 1").withEmail("user1@account.vertigo.io")
+				.build();
+
+		identities.saveAccounts(Arrays.asList(account));
+
+		identities.saveGroup(accountGroup);
+		identities.attach(createAccountURI(account.getId()), createGroupURI(accountGroup.getId()));
+
+		// Selector created to Item 1
+		final SelectorDefinition selector = new SelectorDefinition();
+		selector.setItemId(1L);
+		selector.setGroupId(accountGroup.getId());
+		ruleServices.addSelector(selector);
+		final RuleFilterDefinition filterDefinition_1 = new RuleFilterDefinition();
+		filterDefinition_1.setField("DIVISION");
+		filterDefinition_1.setOperator("=");
+		filterDefinition_1.setExpression("BTL");
+		filterDefinition_1.setSelId(selector.getId());
+		ruleServices.addFilter(filterDefinition_1);
+
+		final MyDummyDtObject myDummyDtObject = new MyDummyDtObject();
+		myDummyDtObject.setDivision("BTL");
+		final RuleContext ruleContext = new RuleContext(myDummyDtObject, RuleConstants.EMPTY_RULE_CONSTANTS);
+		final List<Account> selectedAccounts_1 = ruleServices.selectAccounts(1L, ruleContext);
+
+		assertThat(selectedAccounts_1.size(), is(1));
+
+		final RuleFilterDefinition filterDefinition_2 = new RuleFilterDefinition();
+		filterDefinition_2.setField("ENTITY");
+		filterDefinition_2.setOperator("IN");
+		filterDefinition_2.setExpression("ENT,MAR");
+		filterDefinition_2.setSelId(selector.getId());
+		ruleServices.addFilter(filterDefinition_2);
+
+		// The entity is not set : the selector should not match anymore
+		final List<Account> selectedAccounts_2 = ruleServices.selectAccounts(1L, ruleContext);
+
+		assertThat(selectedAccounts_2, is(not(nullValue())));
+		assertThat(selectedAccounts_2.size(), is(0));
+	}
+
 }
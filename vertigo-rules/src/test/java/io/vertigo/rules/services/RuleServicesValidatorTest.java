@@ -19,9 +19,12 @@
 package io.vertigo.rules.services;
 
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertThat;
 
+import java.math.BigDecimal;
+import java.util.Arrays;
 import java.util.List;
 
 import javax.inject.Inject;
@@ -33,6 +36,8 @@ import org.junit.Test;
 import io.vertigo.app.AutoCloseableApp;
 import io.vertigo.core.component.di.injector.DIInjector;
 import io.vertigo.rules.MyAppConfig;
+import io.vertigo.rules.RuleConditionCriteria;
+import io.vertigo.rules.RuleCriteria;
 import io.vertigo.rules.data.MyDummyDtObject;
 import io.vertigo.rules.domain.RuleConditionDefinition;
 import io.vertigo.rules.domain.RuleDefinition;
@@ -353,4 +358,375 @@ public class RuleServicesValidatorTest extends DbTest {
 		assertThat(isValid, is(false));
 	}
 
+	/**
+	 * Operators IN, < and > for RulesManager
+	 */
+	@Test
+	public void testValidationOperators() {
+		// Rule created to Item 1
+		final RuleDefinition rule = new RuleDefinition();
+		rule.setItemId(1L);
+		ruleServices.addRule(rule);
+		final RuleConditionDefinition condition1 = new RuleConditionDefinition();
+		condition1.setField("DIVISION");
+		condition1.setOperator("IN");
+		condition1.setExpression("BTL,ABC");
+		condition1.setRudId(rule.getId());
+		ruleServices.addCondition(condition1);
+		final RuleConditionDefinition condition2 = new RuleConditionDefinition();
+		condition2.setField("AMOUNT");
+		condition2.setOperator(">");
+		condition2.setExpression("100");
+		condition2.setRudId(rule.getId());
+		ruleServices.addCondition(condition2);
+		final RuleConditionDefinition condition3 = new RuleConditionDefinition();
+		condition3.setField("AMOUNT");
+		condition3.setOperator("<");
+		condition3.setExpression("1000.5");
+		condition3.setRudId(rule.getId());
+		ruleServices.addCondition(condition3);
+
+		final MyDummyDtObject myDummyDtObject = new MyDummyDtObject();
+		myDummyDtObject.setDivision("ABC");
+		final RuleConstants ruleConstants = new RuleConstants();
+		ruleConstants.addConstant("AMOUNT", "150");
+		// Division in the list and amount in range
+		boolean isValid = ruleServices.isRuleValid(1L, new RuleContext(myDummyDtObject, ruleConstants));
+		assertThat(isValid, is(true));
+
+		// Amount out of range
+		ruleConstants.addConstant("AMOUNT", "2000");
+		isValid = ruleServices.isRuleValid(1L, new RuleContext(myDummyDtObject, ruleConstants));
+		assertThat(isValid, is(false));
+
+		// Division not in the list
+		ruleConstants.addConstant("AMOUNT", "150");
+		myDummyDtObject.setDivision("AB");
+		isValid = ruleServices.isRuleValid(1L, new RuleContext(myDummyDtObject, ruleConstants));
+		assertThat(isValid, is(false));
+	}
+
+	/**
+	 * Many rules on the same fields : equalities, IN and comparisons mixed
+	 */
+	@Test
+	public void testValidationManyRulesSameFields() {
+		// 50 rules created to Item 1, one per division
+		for (int i = 0; i < 50; i++) {
+			final RuleDefinition rule = new RuleDefinition();
+			rule.setItemId(1L);
+			ruleServices.addRule(rule);
+			addCondition(rule.getId(), "DIVISION", "=", "DIV_" + i);
+			addCondition(rule.getId(), "ENTITY", "=", "ENT");
+		}
+		final RuleDefinition ruleIn = new RuleDefinition();
+		ruleIn.setItemId(1L);
+		ruleServices.addRule(ruleIn);
+		addCondition(ruleIn.getId(), "DIVISION", "IN", "BTL,ABC");
+		final RuleDefinition ruleAmount = new RuleDefinition();
+		ruleAmount.setItemId(1L);
+		ruleServices.addRule(ruleAmount);
+		addCondition(ruleAmount.getId(), "AMOUNT", ">", "100");
+
+		final MyDummyDtObject myDummyDtObject = new MyDummyDtObject();
+		myDummyDtObject.setDivision("DIV_42");
+		myDummyDtObject.setEntity("ENT");
+		final RuleConstants ruleConstants = new RuleConstants();
+		assertThat(ruleServices.isRuleValid(1L, new RuleContext(myDummyDtObject, ruleConstants)), is(true));
+
+		// Division found but not the entity
+		myDummyDtObject.setEntity("OTHER");
+		assertThat(ruleServices.isRuleValid(1L, new RuleContext(myDummyDtObject, ruleConstants)), is(false));
+
+		// Division in the list of the IN rule
+		myDummyDtObject.setDivision("ABC");
+		assertThat(ruleServices.isRuleValid(1L, new RuleContext(myDummyDtObject, ruleConstants)), is(true));
+
+		// No division matching but amount greater
+		myDummyDtObject.setDivision("DIV_50");
+		ruleConstants.addConstant("AMOUNT", "150");
+		assertThat(ruleServices.isRuleValid(1L, new RuleContext(myDummyDtObject, ruleConstants)), is(true));
+		ruleConstants.addConstant("AMOUNT", "50");
+		assertThat(ruleServices.isRuleValid(1L, new RuleContext(myDummyDtObject, ruleConstants)), is(false));
+	}
+
+	/**
+	 * String values are trimmed and read as numbers, like with Double.parseDouble
+	 */
+	@Test
+	public void testValidationConstantsWithSpaces() {
+		final RuleDefinition rule = new RuleDefinition();
+		rule.setItemId(1L);
+		ruleServices.addRule(rule);
+		addCondition(rule.getId(), "AMOUNT", ">", "100");
+
+		final MyDummyDtObject myDummyDtObject = new MyDummyDtObject();
+		final RuleConstants ruleConstants = new RuleConstants();
+		ruleConstants.addConstant("AMOUNT", " 150 ");
+		assertThat(ruleServices.isRuleValid(1L, new RuleContext(myDummyDtObject, ruleConstants)), is(true));
+		ruleConstants.addConstant("AMOUNT", " 50\t");
+		assertThat(ruleServices.isRuleValid(1L, new RuleContext(myDummyDtObject, ruleConstants)), is(false));
+		ruleConstants.addConstant("AMOUNT", "150d");
+		assertThat(ruleServices.isRuleValid(1L, new RuleContext(myDummyDtObject, ruleConstants)), is(true));
+	}
+
+	/**
+	 * Search of the items having a rule with the given conditions
+	 */
+	@Test
+	public void testFindItemsByCriteria() {
+		final RuleDefinition rule1 = new RuleDefinition();
+		rule1.setItemId(1L);
+		ruleServices.addRule(rule1);
+		addCondition(rule1.getId(), "DIVISION", "=", "BTL");
+		addCondition(rule1.getId(), "ENTITY", "=", "ENT_1");
+		final RuleDefinition rule2 = new RuleDefinition();
+		rule2.setItemId(2L);
+		ruleServices.addRule(rule2);
+		addCondition(rule2.getId(), "DIVISION", "=", "BTL");
+		final RuleDefinition rule3 = new RuleDefinition();
+		rule3.setItemId(3L);
+		ruleServices.addRule(rule3);
+		addCondition(rule3.getId(), "DIVISION", "=", "ABC");
+
+		final RuleCriteria criteria = new RuleCriteria();
+		criteria.setConditionCriteria1(createConditionCriteria("DIVISION", "BTL"));
+		final List<Long> items = Arrays.asList(3L, 2L, 1L);
+		// Items in the order of the search
+		assertThat(ruleServices.findItemsByCriteria(criteria, items), is(Arrays.asList(2L, 1L)));
+		assertThat(ruleServices.findItemsByCriteria(criteria, Arrays.asList(3L, 2L)), is(Arrays.asList(2L)));
+
+		// Both conditions on the same rule
+		criteria.setConditionCriteria2(createConditionCriteria("ENTITY", "ENT_1"));
+		assertThat(ruleServices.findItemsByCriteria(criteria, items), is(Arrays.asList(1L)));
+
+		// No rule with this expression
+		criteria.setConditionCriteria2(createConditionCriteria("ENTITY", "ENT_2"));
+		assertThat(ruleServices.findItemsByCriteria(criteria, items).isEmpty(), is(true));
+	}
+
+	private static RuleConditionCriteria createConditionCriteria(final String field, final String value) {
+		final RuleConditionCriteria conditionCriteria = new RuleConditionCriteria();
+		conditionCriteria.setField(field);
+		conditionCriteria.setValue(value);
+		return conditionCriteria;
+	}
+
+	private void addCondition(final Long ruleId, final String field, final String operator, final String expression) {
+		final RuleConditionDefinition condition = new RuleConditionDefinition();
+		condition.setField(field);
+		condition.setOperator(operator);
+		condition.setExpression(expression);
+		condition.setRudId(ruleId);
+		ruleServices.addCondition(condition);
+	}
+
+	/**
+	 * A lazy context gives the same results as the eager one
+	 */
+	@Test
+	public void testValidationLazyContext() {
+		// Rule created to Item 1
+		final RuleDefinition rule = new RuleDefinition();
+		rule.setItemId(1L);
+		ruleServices.addRule(rule);
+		final RuleConditionDefinition condition1 = new RuleConditionDefinition();
+		condition1.setField("DIVISION");
+		condition1.setOperator("IN");
+		condition1.setExpression("BTL,ABC");
+		condition1.setRudId(rule.getId());
+		ruleServices.addCondition(condition1);
+		final RuleConditionDefinition condition2 = new RuleConditionDefinition();
+		condition2.setField("AMOUNT");
+		condition2.setOperator(">");
+		condition2.setExpression("100");
+		condition2.setRudId(rule.getId());
+		ruleServices.addCondition(condition2);
+
+		final MyDummyDtObject myDummyDtObject = new MyDummyDtObject();
+		myDummyDtObject.setDivision("ABC");
+		final RuleConstants ruleConstants = new RuleConstants();
+		ruleConstants.addConstant("AMOUNT", "150");
+		RuleContext ruleContext = RuleContext.lazyOf(myDummyDtObject, ruleConstants);
+		assertThat(ruleServices.isRuleValid(1L, ruleContext), is(true));
+		assertThat(ruleContext.getContext(), is(new RuleContext(myDummyDtObject, ruleConstants).getContext()));
+
+		// The constant takes precedence over the field
+		ruleConstants.addConstant("DIVISION", "AB");
+		ruleContext = RuleContext.lazyOf(myDummyDtObject, ruleConstants);
+		assertThat(ruleServices.isRuleValid(1L, ruleContext), is(false));
+		assertThat((String) ruleContext.getValue("DIVISION"), is("AB"));
+
+		// Unknown field
+		assertThat(ruleContext.getValue("UNKNOWN"), is(nullValue()));
+	}
+
+	/**
+	 * Comparisons use the typed values of the item
+	 */
+	@Test
+	public void testValidationTypedValues() {
+		// Rule created to Item 1
+		final RuleDefinition rule = new RuleDefinition();
+		rule.setItemId(1L);
+		ruleServices.addRule(rule);
+		final RuleConditionDefinition condition1 = new RuleConditionDefinition();
+		condition1.setField("PRICE");
+		condition1.setOperator(">");
+		condition1.setExpression("100");
+		condition1.setRudId(rule.getId());
+		ruleServices.addCondition(condition1);
+		final RuleConditionDefinition condition2 = new RuleConditionDefinition();
+		condition2.setField("ID");
+		condition2.setOperator("<");
+		condition2.setExpression("10");
+		condition2.setRudId(rule.getId());
+		ruleServices.addCondition(condition2);
+
+		final MyDummyDtObject myDummyDtObject = new MyDummyDtObject();
+		myDummyDtObject.setId(5L);
+		// Not distinguishable from 100 as a double
+		myDummyDtObject.setPrice(new BigDecimal("100.00000000000000000001"));
+		assertThat(ruleServices.isRuleValid(1L, new RuleContext(myDummyDtObject, RuleConstants.EMPTY_RULE_CONSTANTS)), is(true));
+		assertThat(ruleServices.isRuleValid(1L, RuleContext.lazyOf(myDummyDtObject, RuleConstants.EMPTY_RULE_CONSTANTS)), is(true));
+
+		myDummyDtObject.setPrice(new BigDecimal("100.00"));
+		assertThat(ruleServices.isRuleValid(1L, new RuleContext(myDummyDtObject, RuleConstants.EMPTY_RULE_CONSTANTS)), is(false));
+
+		myDummyDtObject.setPrice(new BigDecimal("150"));
+		myDummyDtObject.setId(10L);
+		assertThat(ruleServices.isRuleValid(1L, RuleContext.lazyOf(myDummyDtObject, RuleConstants.EMPTY_RULE_CONSTANTS)), is(false));
+	}
+
+	/**
+	 * Stored constants are an immutable snapshot
+	 */
+	@Test
+	public void testValidationStoredConstants() {
+		// Rule created to Item 1
+		final RuleDefinition rule = new RuleDefinition();
+		rule.setItemId(1L);
+		ruleServices.addRule(rule);
+		final RuleConditionDefinition condition1 = new RuleConditionDefinition();
+		condition1.setField("AMOUNT");
+		condition1.setOperator(">");
+		condition1.setExpression("100");
+		condition1.setRudId(rule.getId());
+		ruleServices.addCondition(condition1);
+
+		final RuleConstants ruleConstants = new RuleConstants();
+		ruleConstants.addConstant("AMOUNT", "150");
+		ruleServices.addConstants(1L, ruleConstants);
+		// Modifying the constants after they are stored has no effect
+		ruleConstants.addConstant("AMOUNT", "50");
+
+		final RuleConstants storedConstants = ruleServices.getConstants(1L);
+		assertThat(storedConstants.isSnapshot(), is(true));
+		assertThat(storedConstants.getValue("AMOUNT"), is("150"));
+
+		final MyDummyDtObject myDummyDtObject = new MyDummyDtObject();
+		assertThat(ruleServices.isRuleValid(1L, new RuleContext(myDummyDtObject, storedConstants)), is(true));
+
+		// A new version is stored on update
+		ruleServices.addConstants(1L, ruleConstants);
+		assertThat(ruleServices.getConstants(1L).getVersion() > storedConstants.getVersion(), is(true));
+		assertThat(ruleServices.isRuleValid(1L, RuleContext.lazyOf(myDummyDtObject, ruleServices.getConstants(1L))), is(false));
+	}
+
+	/**
+	 * Stored constants can't be modified : new constants must be stored instead
+	 */
+	@Test(expected = IllegalStateException.class)
+	public void testStoredConstantsAreReadOnly() {
+		final RuleConstants ruleConstants = new RuleConstants();
+		ruleConstants.addConstant("AMOUNT", "150");
+		ruleServices.addConstants(1L, ruleConstants);
+
+		ruleServices.getConstants(1L).addConstant("AMOUNT", "50");
+	}
+
+	/**
+	 * Conditions added after a first validation must be taken into account
+	 */
+	@Test
+	public void testValidationConditionAddedAfterValidation() {
+		// Rule created to Item 1
+		final RuleDefinition rule = new RuleDefinition();
+		rule.setItemId(1L);
+		ruleServices.addRule(rule);
+		final RuleConditionDefinition condition1 = new RuleConditionDefinition();
+		condition1.setField("DIVISION");
+		condition1.setOperator("=");
+		condition1.setExpression("BTL");
+		condition1.setRudId(rule.getId());
+		ruleServices.addCondition(condition1);
+
+		final MyDummyDtObject myDummyDtObject = new MyDummyDtObject();
+		myDummyDtObject.setDivision("BTL");
+		boolean isValid = ruleServices.isRuleValid(1L, new RuleContext(myDummyDtObject, RuleConstants.EMPTY_RULE_CONSTANTS));
+		assertThat(isValid, is(true));
+
+		final RuleConditionDefinition condition2 = new RuleConditionDefinition();
+		condition2.setField("ENTITY");
+		condition2.setOperator("=");
+		condition2.setExpression("ENT_1");
+		condition2.setRudId(rule.getId());
+		ruleServices.addCondition(condition2);
+
+		// The entity is not set : the rule should NOT be valid anymore
+		isValid = ruleServices.isRuleValid(1L, new RuleContext(myDummyDtObject, RuleConstants.EMPTY_RULE_CONSTANTS));
+		assertThat(isValid, is(false));
+	}
+
+	/**
+	 * Rules of several items loaded at once in a rule set
+	 */
+	@Test
+	public void testValidationRuleSet() {
+		// Rule created to Item 1
+		final RuleDefinition rule1 = new RuleDefinition();
+		rule1.setItemId(1L);
+		ruleServices.addRule(rule1);
+		final RuleConditionDefinition condition1 = new RuleConditionDefinition();
+		condition1.setField("DIVISION");
+		condition1.setOperator("=");
+		condition1.setExpression("BTL");
+		condition1.setRudId(rule1.getId());
+		ruleServices.addCondition(condition1);
+
+		// Rule created to Item 2
+		final RuleDefinition rule2 = new RuleDefinition();
+		rule2.setItemId(2L);
+		ruleServices.addRule(rule2);
+		final RuleConditionDefinition condition2 = new RuleConditionDefinition();
+		condition2.setField("ENTITY");
+		condition2.setOperator("=");
+		condition2.setExpression("ENT_1");
+		condition2.setRudId(rule2.getId());
+		ruleServices.addCondition(condition2);
+
+		final RuleSet ruleSet = ruleServices.getRuleSet(Arrays.asList(1L, 2L, 3L));
+		assertThat(ruleSet.getRules(1L).size(), is(1));
+		assertThat(ruleSet.getRules(2L).size(), is(1));
+		assertThat(ruleSet.getRules(3L).isEmpty(), is(true));
+		assertThat(ruleSet.getConditions(rule2.getId()).size(), is(1));
+
+		final MyDummyDtObject myDummyDtObject = new MyDummyDtObject();
+		myDummyDtObject.setDivision("BTL");
+		final RuleContext ruleContext = new RuleContext(myDummyDtObject, RuleConstants.EMPTY_RULE_CONSTANTS);
+		assertThat(ruleServices.isRuleValid(1L, ruleContext, ruleSet), is(true));
+		assertThat(ruleServices.isRuleValid(2L, ruleContext, ruleSet), is(false));
+		assertThat(ruleServices.isRuleValid(3L, ruleContext, ruleSet), is(false));
+
+		// A rule set loaded after a change contains the new definitions
+		final RuleConditionDefinition condition3 = new RuleConditionDefinition();
+		condition3.setField("ENTITY");
+		condition3.setOperator("=");
+		condition3.setExpression("ENT_1");
+		condition3.setRudId(rule1.getId());
+		ruleServices.addCondition(condition3);
+		assertThat(ruleServices.getRuleSet(Arrays.asList(1L, 2L)).getConditions(rule1.getId()).size(), is(2));
+		assertThat(ruleServices.isRuleValid(1L, ruleContext), is(false));
+	}
+
 }
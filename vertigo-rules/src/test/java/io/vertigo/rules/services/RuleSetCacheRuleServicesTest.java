@@ -0,0 +1,104 @@
+/**
+ * vertigo - simple java starter
+ *
+ * Copyright (C) 2013-2019, KleeGroup, direction.technique@kleegroup.com (http://www.kleegroup.com)
+ * KleeGroup, Centre d'affaire la Boursidiere - BP 159 - 92357 Le Plessis Robinson Cedex - France
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.vertigo.rules.services;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.util.Collections;
+
+import org.junit.Test;
+
+import io.vertigo.app.config.AppConfig;
+import io.vertigo.rules.MyAppConfig;
+
+/**
+ * Junit for the rule set cache on an embedded H2 database : committed rule sets only, bounded size and time to live
+ *
+ * @author xdurand
+ *
+ */
+public final class RuleSetCacheRuleServicesTest extends AbstractRuleServicesTest {
+
+	private static final int CACHE_SIZE = 2;
+	private static final int CACHE_SECONDS = 1;
+
+	@Override
+	protected AppConfig buildAppConfig() {
+		return MyAppConfig.configWithSqlStores(CACHE_SIZE, CACHE_SECONDS);
+	}
+
+	/**
+	 * A rule added by a transaction is seen by the others once it is committed, never if it is rolled back
+	 */
+	@Test
+	public void testRuleSetCachedAfterCommit() {
+		final Long itemId = 100L;
+		inNewTransaction(true, () -> addRule(itemId));
+		final RuleSet ruleSet = getRuleSet(itemId);
+		assertThat(ruleSet.getRules(itemId).size(), is(1));
+		assertThat(getRuleSet(itemId), is(sameInstance(ruleSet)));
+
+		// Rolled back : the writing transaction reads its rule, the others never cache it
+		inNewTransaction(false, () -> {
+			addRule(itemId);
+			assertThat(getRuleSet(itemId).getRules(itemId).size(), is(2));
+		});
+		assertThat(getRuleSet(itemId).getRules(itemId).size(), is(1));
+
+		// Committed
+		inNewTransaction(true, () -> addRule(itemId));
+		assertThat(getRuleSet(itemId).getRules(itemId).size(), is(2));
+	}
+
+	/**
+	 * The least recently used rule set is dropped when the cache is full
+	 */
+	@Test
+	public void testEvictionAtCacheSize() {
+		final RuleSet ruleSet1 = getRuleSet(101L);
+		final RuleSet ruleSet2 = getRuleSet(102L);
+		assertThat(getRuleSet(101L), is(sameInstance(ruleSet1)));
+
+		// 102 is the least recently used
+		getRuleSet(103L);
+		assertThat(getRuleSet(101L), is(sameInstance(ruleSet1)));
+		assertThat(getRuleSet(102L), is(not(sameInstance(ruleSet2))));
+	}
+
+	/**
+	 * A rule set is read again after its time to live
+	 * @throws InterruptedException if interrupted while waiting
+	 */
+	@Test
+	public void testExpiryAfterTimeToLive() throws InterruptedException {
+		final RuleSet ruleSet = getRuleSet(104L);
+		assertThat(getRuleSet(104L), is(sameInstance(ruleSet)));
+
+		Thread.sleep(CACHE_SECONDS * 1000L + 100);
+		assertThat(getRuleSet(104L), is(not(sameInstance(ruleSet))));
+	}
+
+	private RuleSet getRuleSet(final Long itemId) {
+		return ruleServices.getRuleSet(Collections.singletonList(itemId));
+	}
+
+}
@@ -0,0 +1,125 @@
+/**
+ * vertigo - simple java starter
+ *
+ * Copyright (C) 2013-2019, KleeGroup, direction.technique@kleegroup.com (http://www.kleegroup.com)
+ * KleeGroup, Centre d'affaire la Boursidiere - BP 159 - 92357 Le Plessis Robinson Cedex - France
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.vertigo.rules.services;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import javax.inject.Inject;
+
+import org.junit.Test;
+
+import io.vertigo.app.config.AppConfig;
+import io.vertigo.rules.MyAppConfig;
+import io.vertigo.rules.impl.RuleConstantsStorePlugin;
+
+/**
+ * Junit for the SQL rule constants store on an embedded H2 database : batch inserts and cache updated after commit
+ *
+ * @author xdurand
+ *
+ */
+public final class SQLRuleConstantsStorePluginTest extends AbstractRuleServicesTest {
+
+	@Inject
+	private RuleConstantsStorePlugin ruleConstantsStorePlugin;
+
+	@Override
+	protected AppConfig buildAppConfig() {
+		return MyAppConfig.configWithSqlStores();
+	}
+
+	/**
+	 * Constants are inserted in batch, updated and removed
+	 */
+	@Test
+	public void testSaveConstants() {
+		final RuleConstants ruleConstants = new RuleConstants();
+		ruleConstants.addConstant("AMOUNT", "150");
+		ruleConstants.addConstant("DIVISION", "DIV");
+		ruleConstants.addConstant("ENTITY", "ENT");
+		ruleConstantsStorePlugin.addConstants(1L, ruleConstants);
+
+		RuleConstants readConstants = ruleConstantsStorePlugin.readConstants(1L);
+		assertThat(readConstants.asMap().size(), is(3));
+		assertThat(readConstants.getValue("DIVISION"), is("DIV"));
+
+		final RuleConstants updatedConstants = new RuleConstants();
+		updatedConstants.addConstant("AMOUNT", "50");
+		ruleConstantsStorePlugin.updateConstants(1L, updatedConstants);
+		readConstants = ruleConstantsStorePlugin.readConstants(1L);
+		assertThat(readConstants.asMap().size(), is(1));
+		assertThat(readConstants.getValue("AMOUNT"), is("50"));
+
+		ruleConstantsStorePlugin.removeConstants(1L);
+		assertThat(ruleConstantsStorePlugin.readConstants(1L), is(nullValue()));
+	}
+
+	/**
+	 * Empty constants are read back as empty, and can be updated, as in the memory store
+	 */
+	@Test
+	public void testEmptyConstants() {
+		final Long key = 3L;
+		ruleConstantsStorePlugin.addConstants(key, new RuleConstants());
+		assertThat(ruleConstantsStorePlugin.readConstants(key).asMap().isEmpty(), is(true));
+
+		ruleConstantsStorePlugin.updateConstants(key, constantsOf("150"));
+		assertThat(ruleConstantsStorePlugin.readConstants(key).asMap().size(), is(1));
+		assertThat(ruleConstantsStorePlugin.readConstants(key).getValue("AMOUNT"), is("150"));
+
+		ruleConstantsStorePlugin.updateConstants(key, new RuleConstants());
+		assertThat(ruleConstantsStorePlugin.readConstants(key).asMap().isEmpty(), is(true));
+
+		ruleConstantsStorePlugin.removeConstants(key);
+		assertThat(ruleConstantsStorePlugin.readConstants(key), is(nullValue()));
+	}
+
+	/**
+	 * Other transactions read the cached constants until the change is committed, and never a rolled back change
+	 */
+	@Test
+	public void testCacheUpdatedAfterCommit() {
+		final Long key = 2L;
+		inNewTransaction(true, () -> ruleConstantsStorePlugin.addConstants(key, constantsOf("150")));
+		assertThat(ruleConstantsStorePlugin.readConstants(key).getValue("AMOUNT"), is("150"));
+
+		// Rolled back : the cached constants are still the committed ones
+		inNewTransaction(false, () -> {
+			ruleConstantsStorePlugin.updateConstants(key, constantsOf("50"));
+			assertThat(ruleConstantsStorePlugin.readConstants(key).getValue("AMOUNT"), is("50"));
+		});
+		assertThat(ruleConstantsStorePlugin.readConstants(key).getValue("AMOUNT"), is("150"));
+
+		// Committed : the cached constants are read again
+		inNewTransaction(true, () -> ruleConstantsStorePlugin.updateConstants(key, constantsOf("50")));
+		assertThat(ruleConstantsStorePlugin.readConstants(key).getValue("AMOUNT"), is("50"));
+
+		inNewTransaction(true, () -> ruleConstantsStorePlugin.removeConstants(key));
+		assertThat(ruleConstantsStorePlugin.readConstants(key), is(nullValue()));
+	}
+
+	private static RuleConstants constantsOf(final String amount) {
+		final RuleConstants ruleConstants = new RuleConstants();
+		ruleConstants.addConstant("AMOUNT", amount);
+		return ruleConstants;
+	}
+
+}
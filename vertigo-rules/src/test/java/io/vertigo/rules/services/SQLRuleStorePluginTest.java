@@ -0,0 +1,119 @@
+/**
+ * vertigo - simple java starter
+ *
+ * Copyright (C) 2013-2019, KleeGroup, direction.technique@kleegroup.com (http://www.kleegroup.com)
+ * KleeGroup, Centre d'affaire la Boursidiere - BP 159 - 92357 Le Plessis Robinson Cedex - France
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.vertigo.rules.services;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import io.vertigo.app.config.AppConfig;
+import io.vertigo.rules.MyAppConfig;
+import io.vertigo.rules.domain.RuleDefinition;
+
+/**
+ * Junit for the SQL rule store on an embedded H2 database : search of the items by condition criteria
+ *
+ * @author xdurand
+ *
+ */
+public final class SQLRuleStorePluginTest extends AbstractRuleServicesTest {
+
+	private static final List<Long> ITEMS = Arrays.asList(204L, 203L, 202L, 201L, 200L);
+
+	@Override
+	protected AppConfig buildAppConfig() {
+		return MyAppConfig.configWithSqlStores();
+	}
+
+	/**
+	 * Rules of the items, in the rolled back transaction of the test
+	 */
+	@Before
+	public void createRules() {
+		// 201 : one rule matching both criteria
+		final RuleDefinition rule201 = addRule(201L);
+		addCondition(rule201.getId(), "DIVISION", "=", "BTL");
+		addCondition(rule201.getId(), "ENTITY", "=", "ENT");
+		// 202 : one rule matching the division only
+		final RuleDefinition rule202 = addRule(202L);
+		addCondition(rule202.getId(), "DIVISION", "=", "BTL");
+		addCondition(rule202.getId(), "ENTITY", "=", "ABC");
+		// 203 : each criteria matched by a different rule
+		addCondition(addRule(203L).getId(), "DIVISION", "=", "BTL");
+		addCondition(addRule(203L).getId(), "ENTITY", "=", "ENT");
+		// 204 : the same condition twice in one rule
+		final RuleDefinition rule204 = addRule(204L);
+		addCondition(rule204.getId(), "DIVISION", "=", "BTL");
+		addCondition(rule204.getId(), "DIVISION", "=", "BTL");
+		// 205 : matching both criteria, out of the searched items
+		final RuleDefinition rule205 = addRule(205L);
+		addCondition(rule205.getId(), "DIVISION", "=", "BTL");
+		addCondition(rule205.getId(), "ENTITY", "=", "ENT");
+	}
+
+	/**
+	 * The items having a rule with a condition for each criteria, in the order of the searched items
+	 */
+	@Test
+	public void testFindItemsBySeveralCriteria() {
+		final List<Long> items = ruleServices.findItemsByCriteria(Arrays.asList(
+				createConditionCriteria("DIVISION", "BTL"),
+				createConditionCriteria("ENTITY", "ENT")), ITEMS);
+		assertThat(items, is(Collections.singletonList(201L)));
+	}
+
+	/**
+	 * A single criteria matches every rule having this condition, once per item
+	 */
+	@Test
+	public void testFindItemsByOneCriteria() {
+		final List<Long> items = ruleServices.findItemsByCriteria(Collections.singletonList(
+				createConditionCriteria("DIVISION", "BTL")), ITEMS);
+		assertThat(items, is(Arrays.asList(204L, 203L, 202L, 201L)));
+	}
+
+	/**
+	 * A criteria given twice is counted once
+	 */
+	@Test
+	public void testFindItemsByDuplicatedCriteria() {
+		final List<Long> items = ruleServices.findItemsByCriteria(Arrays.asList(
+				createConditionCriteria("DIVISION", "BTL"),
+				createConditionCriteria("DIVISION", "BTL")), ITEMS);
+		assertThat(items, is(Arrays.asList(204L, 203L, 202L, 201L)));
+	}
+
+	/**
+	 * No item when a criteria matches no condition
+	 */
+	@Test
+	public void testFindItemsByUnknownCriteria() {
+		final List<Long> items = ruleServices.findItemsByCriteria(Arrays.asList(
+				createConditionCriteria("DIVISION", "BTL"),
+				createConditionCriteria("ENTITY", "XYZ")), ITEMS);
+		assertThat(items.isEmpty(), is(true));
+	}
+
+}
@@ -0,0 +1,78 @@
+-- ============================================================
+--   Rules schema for the embedded H2 test database
+--   Ids are generated by the SQL data store from the SEQ_ sequences
+--   The script can be run again in the same JVM (one run per test or benchmark)
+-- ============================================================
+
+create sequence if not exists SEQ_RULE_DEFINITION start with 1000 cache 20;
+create sequence if not exists SEQ_RULE_CONDITION_DEFINITION start with 1000 cache 20;
+create sequence if not exists SEQ_SELECTOR_DEFINITION start with 1000 cache 20;
+create sequence if not exists SEQ_RULE_FILTER_DEFINITION start with 1000 cache 20;
+create sequence if not exists SEQ_RULE_CONSTANT_DEFINITION start with 1000 cache 20;
+
+create table if not exists RULE_DEFINITION
+(
+    ID          	 NUMERIC     	not null,
+    CREATION_DATE	 DATE        	,
+    ITEM_ID     	 NUMERIC     	,
+    LABEL       	 VARCHAR(100)	,
+    constraint PK_RULE_DEFINITION primary key (ID)
+);
+
+create table if not exists RULE_CONDITION_DEFINITION
+(
+    ID          	 NUMERIC     	not null,
+    FIELD       	 VARCHAR(100)	,
+    OPERATOR    	 VARCHAR(120)	,
+    EXPRESSION  	 VARCHAR(100)	,
+    RUD_ID      	 NUMERIC     	,
+    constraint PK_RULE_CONDITION_DEFINITION primary key (ID)
+);
+
+create table if not exists SELECTOR_DEFINITION
+(
+    ID          	 NUMERIC     	not null,
+    CREATION_DATE	 DATE        	,
+    ITEM_ID     	 NUMERIC     	,
+    GROUP_ID    	 VARCHAR(100)	,
+    constraint PK_SELECTOR_DEFINITION primary key (ID)
+);
+
+create table if not exists RULE_FILTER_DEFINITION
+(
+    ID          	 NUMERIC     	not null,
+    FIELD       	 VARCHAR(100)	,
+    OPERATOR    	 VARCHAR(120)	,
+    EXPRESSION  	 VARCHAR(100)	,
+    SEL_ID      	 NUMERIC     	,
+    constraint PK_RULE_FILTER_DEFINITION primary key (ID)
+);
+
+create table if not exists RULE_CONSTANT_DEFINITION
+(
+    ID          	 NUMERIC     	not null,
+    ITEM_ID     	 NUMERIC     	,
+    FIELD       	 VARCHAR(100)	,
+    EXPRESSION  	 VARCHAR(100)	,
+    constraint PK_RULE_CONSTANT_DEFINITION primary key (ID)
+);
+
+alter table RULE_CONDITION_DEFINITION
+	add constraint if not exists FK_RUD_COD_RULE_DEFINITION foreign key (RUD_ID)
+	references RULE_DEFINITION (ID);
+
+create index if not exists RUD_COD_RULE_DEFINITION_FK on RULE_CONDITION_DEFINITION (RUD_ID asc);
+
+create index if not exists RCD_FIELD_EXPRESSION on RULE_CONDITION_DEFINITION (FIELD asc, EXPRESSION asc, RUD_ID asc);
+
+create index if not exists RUD_ITEM_ID on RULE_DEFINITION (ITEM_ID asc, ID asc);
+
+alter table RULE_FILTER_DEFINITION
+	add constraint if not exists FK_SEL_FID_SELECTOR_DEFINITION foreign key (SEL_ID)
+	references SELECTOR_DEFINITION (ID);
+
+create index if not exists SEL_FID_SELECTOR_DEFINITION_FK on RULE_FILTER_DEFINITION (SEL_ID asc);
+
+create index if not exists SEL_ITEM_ID on SELECTOR_DEFINITION (ITEM_ID asc);
+
+create index if not exists RCO_ITEM_ID on RULE_CONSTANT_DEFINITION (ITEM_ID asc);
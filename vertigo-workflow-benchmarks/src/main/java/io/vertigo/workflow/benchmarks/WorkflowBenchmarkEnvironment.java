@@ -0,0 +1,94 @@
+/**
+ * vertigo - simple java starter
+ *
+ * Copyright (C) 2013-2019, KleeGroup, direction.technique@kleegroup.com (http://www.kleegroup.com)
+ * KleeGroup, Centre d'affaire la Boursidiere - BP 159 - 92357 Le Plessis Robinson Cedex - France
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.vertigo.workflow.benchmarks;
+
+import javax.inject.Inject;
+
+import io.vertigo.app.AutoCloseableApp;
+import io.vertigo.commons.transaction.VTransactionManager;
+import io.vertigo.commons.transaction.VTransactionWritable;
+import io.vertigo.core.component.di.injector.DIInjector;
+import io.vertigo.impl.workflow.ItemStorePlugin;
+import io.vertigo.workflow.WorkflowManager;
+import io.vertigo.workflow.benchmarks.WorkflowBenchmarkAppConfig.Store;
+import io.vertigo.workflow.benchmarks.data.BenchmarkIdentities;
+import io.vertigo.workflow.benchmarks.data.WorkflowFixtures;
+
+/**
+ * Running app for one benchmark trial.
+ * A transaction stays open during the trial (the SQL store needs it) and is rolled back at the end.
+ *
+ * @author xdurand
+ *
+ */
+final class WorkflowBenchmarkEnvironment implements AutoCloseable {
+
+	private static final int ACCOUNTS_PER_GROUP = 5;
+
+	private final AutoCloseableApp app;
+	private final VTransactionWritable transaction;
+	private long nextItemId = 1;
+
+	@Inject
+	private VTransactionManager transactionManager;
+
+	@Inject
+	private BenchmarkIdentities identities;
+
+	@Inject
+	private WorkflowManager workflowManager;
+
+	@Inject
+	private ItemStorePlugin itemStorePlugin;
+
+	/**
+	 * @param store the workflow and rule stores
+	 * @param definitionCache true to cache the workflow definitions
+	 */
+	WorkflowBenchmarkEnvironment(final Store store, final boolean definitionCache) {
+		app = new AutoCloseableApp(WorkflowBenchmarkAppConfig.config(store, definitionCache));
+		DIInjector.injectMembers(this, app.getComponentSpace());
+		identities.initData(1, ACCOUNTS_PER_GROUP);
+		transaction = transactionManager.createCurrentTransaction();
+	}
+
+	/**
+	 * @return the workflow manager
+	 */
+	WorkflowManager getWorkflowManager() {
+		return workflowManager;
+	}
+
+	/**
+	 * Register a new item in the item store.
+	 *
+	 * @return the id of the item
+	 */
+	Long createItem() {
+		final Long itemId = nextItemId++;
+		itemStorePlugin.addItem(itemId, WorkflowFixtures.createItem(itemId));
+		return itemId;
+	}
+
+	@Override
+	public void close() {
+		transaction.rollback();
+		app.close();
+	}
+}
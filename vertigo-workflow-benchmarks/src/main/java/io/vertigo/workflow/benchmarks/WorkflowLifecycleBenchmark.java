@@ -0,0 +1,209 @@
+/**
+ * vertigo - simple java starter
+ *
+ * Copyright (C) 2013-2019, KleeGroup, direction.technique@kleegroup.com (http://www.kleegroup.com)
+ * KleeGroup, Centre d'affaire la Boursidiere - BP 159 - 92357 Le Plessis Robinson Cedex - France
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.vertigo.workflow.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.vertigo.workflow.WfCodeTransition;
+import io.vertigo.workflow.WfWorkflowDecision;
+import io.vertigo.workflow.WorkflowManager;
+import io.vertigo.workflow.benchmarks.WorkflowBenchmarkAppConfig.Store;
+import io.vertigo.workflow.benchmarks.data.WorkflowFixtures;
+import io.vertigo.workflow.domain.instance.WfWorkflow;
+import io.vertigo.workflow.domain.model.WfWorkflowDefinition;
+
+/**
+ * Benchmarks of the WorkflowManager lifecycle operations on a linear workflow.
+ * The workflow instances needed by an operation are prepared before each invocation, outside of the measure.
+ *
+ * @author xdurand
+ *
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WorkflowLifecycleBenchmark {
+
+	private static final String USERNAME = "benchmark";
+
+	/**
+	 * Running app and workflow definition of a trial.
+	 */
+	@State(Scope.Thread)
+	public static class DefinitionState {
+
+		@Param({ "MEMORY", "SQL" })
+		public Store store;
+
+		@Param({ "false", "true" })
+		public boolean definitionCache;
+
+		@Param({ "5", "50", "200" })
+		public int activityCount;
+
+		@Param({ "0", "0.5", "0.9" })
+		public double autoValidationRatio;
+
+		WorkflowBenchmarkEnvironment environment;
+		WorkflowManager workflowManager;
+		WfWorkflowDefinition wfWorkflowDefinition;
+		WfWorkflow startedWorkflow;
+
+		/**
+		 * Start the app and create the workflow definition.
+		 */
+		@Setup(Level.Trial)
+		public void setUp() {
+			environment = new WorkflowBenchmarkEnvironment(store, definitionCache);
+			workflowManager = environment.getWorkflowManager();
+			wfWorkflowDefinition = WorkflowFixtures.createDefinition(workflowManager, "Benchmark", activityCount, autoValidationRatio);
+			startedWorkflow = createWorkflow();
+			workflowManager.startInstance(startedWorkflow);
+		}
+
+		/**
+		 * Rollback and stop the app.
+		 */
+		@TearDown(Level.Trial)
+		public void tearDown() {
+			environment.close();
+		}
+
+		WfWorkflow createWorkflow() {
+			return workflowManager.createWorkflowInstance(wfWorkflowDefinition.getWfwdId(), USERNAME, false, environment.createItem());
+		}
+	}
+
+	/**
+	 * A new workflow, not started yet.
+	 */
+	@State(Scope.Thread)
+	public static class CreatedWorkflowState {
+		WfWorkflow wfWorkflow;
+
+		/**
+		 * @param definitionState the trial state
+		 */
+		@Setup(Level.Invocation)
+		public void setUp(final DefinitionState definitionState) {
+			wfWorkflow = definitionState.createWorkflow();
+		}
+	}
+
+	/**
+	 * A new workflow, started and waiting for a decision.
+	 */
+	@State(Scope.Thread)
+	public static class StartedWorkflowState {
+		WfWorkflow wfWorkflow;
+
+		/**
+		 * @param definitionState the trial state
+		 */
+		@Setup(Level.Invocation)
+		public void setUp(final DefinitionState definitionState) {
+			wfWorkflow = definitionState.createWorkflow();
+			definitionState.workflowManager.startInstance(wfWorkflow);
+		}
+	}
+
+	/**
+	 * A new workflow, started and whose current activity is decided.
+	 */
+	@State(Scope.Thread)
+	public static class DecidedWorkflowState {
+		WfWorkflow wfWorkflow;
+
+		/**
+		 * @param definitionState the trial state
+		 */
+		@Setup(Level.Invocation)
+		public void setUp(final DefinitionState definitionState) {
+			wfWorkflow = definitionState.createWorkflow();
+			definitionState.workflowManager.startInstance(wfWorkflow);
+			definitionState.workflowManager.saveDecision(wfWorkflow, WorkflowFixtures.createDecision());
+		}
+	}
+
+	/**
+	 * @param definitionState the trial state
+	 * @return the created workflow
+	 */
+	@Benchmark
+	public WfWorkflow createWorkflowInstance(final DefinitionState definitionState) {
+		return definitionState.createWorkflow();
+	}
+
+	/**
+	 * Start a workflow : the activities are auto-validated up to the first manual one.
+	 *
+	 * @param definitionState the trial state
+	 * @param createdWorkflowState the workflow to start
+	 */
+	@Benchmark
+	public void startInstance(final DefinitionState definitionState, final CreatedWorkflowState createdWorkflowState) {
+		definitionState.workflowManager.startInstance(createdWorkflowState.wfWorkflow);
+	}
+
+	/**
+	 * @param definitionState the trial state
+	 * @param startedWorkflowState the workflow waiting for a decision
+	 */
+	@Benchmark
+	public void saveDecisionAndGoToNextActivity(final DefinitionState definitionState, final StartedWorkflowState startedWorkflowState) {
+		definitionState.workflowManager.saveDecisionAndGoToNextActivity(startedWorkflowState.wfWorkflow,
+				WfCodeTransition.DEFAULT.getTransitionName(), WorkflowFixtures.createDecision());
+	}
+
+	/**
+	 * @param definitionState the trial state
+	 * @param decidedWorkflowState the workflow whose current activity is decided
+	 */
+	@Benchmark
+	public void goToNextActivity(final DefinitionState definitionState, final DecidedWorkflowState decidedWorkflowState) {
+		definitionState.workflowManager.goToNextActivity(decidedWorkflowState.wfWorkflow, WfCodeTransition.DEFAULT.getTransitionName());
+	}
+
+	/**
+	 * @param definitionState the trial state
+	 * @return the activities of the started workflow with their decisions
+	 */
+	@Benchmark
+	public List<WfWorkflowDecision> getWorkflowDecision(final DefinitionState definitionState) {
+		return definitionState.workflowManager.getWorkflowDecision(definitionState.startedWorkflow.getWfwId());
+	}
+
+}
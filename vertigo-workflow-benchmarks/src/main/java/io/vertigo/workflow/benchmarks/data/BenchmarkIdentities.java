@@ -0,0 +1,146 @@
+/**
+ * vertigo - simple java starter
+ *
+ * Copyright (C) 2013-2019, KleeGroup, direction.technique@kleegroup.com (http://www.kleegroup.com)
+ * KleeGroup, Centre d'affaire la Boursidiere - BP 159 - 92357 Le Plessis Robinson Cedex - France
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.vertigo.workflow.benchmarks.data;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import io.vertigo.account.account.Account;
+import io.vertigo.account.account.AccountGroup;
+import io.vertigo.account.plugins.account.store.loader.AccountLoader;
+import io.vertigo.account.plugins.account.store.loader.GroupLoader;
+import io.vertigo.core.component.Component;
+import io.vertigo.dynamo.domain.model.URI;
+import io.vertigo.dynamo.domain.util.DtObjectUtil;
+import io.vertigo.dynamo.file.model.VFile;
+import io.vertigo.lang.Assertion;
+
+/**
+ * In memory accounts and groups for the benchmarks.
+ * Group "G&lt;i&gt;" contains its own accounts "A&lt;i&gt;_&lt;j&gt;".
+ *
+ * @author xdurand
+ *
+ */
+public final class BenchmarkIdentities implements Component, AccountLoader, GroupLoader {
+
+	private final Map<URI<Account>, Account> accountsMap = new HashMap<>();
+	private final Map<String, Account> accountsMapByAuth = new HashMap<>();
+	private final Map<URI<AccountGroup>, AccountGroup> groupsMap = new HashMap<>();
+	private final Map<URI<Account>, Set<URI<AccountGroup>>> groupsPerAccount = new HashMap<>();
+	private final Map<URI<AccountGroup>, Set<URI<Account>>> accountsPerGroup = new HashMap<>();
+
+	/**
+	 * @param index index of the group
+	 * @return the id of the group
+	 */
+	public static String getGroupId(final int index) {
+		return "G" + index;
+	}
+
+	/**
+	 * @param groupIndex index of the group
+	 * @param index index of the account in the group
+	 * @return the id of the account
+	 */
+	public static String getAccountId(final int groupIndex, final int index) {
+		return "A" + groupIndex + "_" + index;
+	}
+
+	/**
+	 * Init the accounts and groups.
+	 *
+	 * @param groupCount number of groups
+	 * @param accountsPerGroup number of accounts in each group
+	 */
+	public void initData(final int groupCount, final int accountsPerGroup) {
+		Assertion.checkState(groupCount > 0, "At least one group is required");
+		//---
+		for (int i = 0; i < groupCount; i++) {
+			final AccountGroup accountGroup = new AccountGroup(getGroupId(i), "Group " + i);
+			final URI<AccountGroup> groupURI = DtObjectUtil.createURI(AccountGroup.class, accountGroup.getId());
+			groupsMap.put(groupURI, accountGroup);
+
+			for (int j = 0; j < accountsPerGroup; j++) {
+				final String accountId = getAccountId(i, j);
+				final Account account = Account.builder(accountId)
+						.withAuthToken(accountId)
+						.withDisplayName("Account " + accountId)
+						.withEmail(accountId + "@yopmail.com")
+						.build();
+				accountsMap.put(account.getURI(), account);
+				accountsMapByAuth.put(account.getAuthToken(), account);
+				groupsPerAccount.computeIfAbsent(account.getURI(), key -> new HashSet<>()).add(groupURI);
+				accountsPerGroup.computeIfAbsent(groupURI, key -> new HashSet<>()).add(account.getURI());
+			}
+		}
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public long getAccountsCount() {
+		return accountsMap.size();
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public Account getAccount(final URI<Account> accountURI) {
+		return accountsMap.get(accountURI);
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public Optional<VFile> getPhoto(final URI<Account> accountURI) {
+		return Optional.empty();
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public Optional<Account> getAccountByAuthToken(final String userAuthToken) {
+		return Optional.ofNullable(accountsMapByAuth.get(userAuthToken));
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public long getGroupsCount() {
+		return groupsMap.size();
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public AccountGroup getGroup(final URI<AccountGroup> groupURI) {
+		return groupsMap.get(groupURI);
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public Set<URI<AccountGroup>> getGroupURIs(final URI<Account> accountURI) {
+		return groupsPerAccount.getOrDefault(accountURI, Collections.emptySet());
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public Set<URI<Account>> getAccountURIs(final URI<AccountGroup> groupURI) {
+		return accountsPerGroup.getOrDefault(groupURI, Collections.emptySet());
+	}
+}
@@ -0,0 +1,120 @@
+/**
+ * vertigo - simple java starter
+ *
+ * Copyright (C) 2013-2019, KleeGroup, direction.technique@kleegroup.com (http://www.kleegroup.com)
+ * KleeGroup, Centre d'affaire la Boursidiere - BP 159 - 92357 Le Plessis Robinson Cedex - France
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.vertigo.workflow.benchmarks.data;
+
+import java.util.Collections;
+
+import io.vertigo.lang.Assertion;
+import io.vertigo.rules.domain.RuleConditionDefinition;
+import io.vertigo.rules.domain.RuleDefinition;
+import io.vertigo.rules.domain.SelectorDefinition;
+import io.vertigo.workflow.WfActivityDefinitionBuilder;
+import io.vertigo.workflow.WfWorkflowDefinitionBuilder;
+import io.vertigo.workflow.WorkflowManager;
+import io.vertigo.workflow.domain.instance.WfDecision;
+import io.vertigo.workflow.domain.model.WfActivityDefinition;
+import io.vertigo.workflow.domain.model.WfWorkflowDefinition;
+
+/**
+ * Builds the workflow definitions, items and decisions used by the benchmarks.
+ * The item has DIVISION = DIV and ENTITY = ENT.
+ *
+ * An activity waits for a decision when its rule (DIVISION = DIV) matches the item,
+ * otherwise it has no rule and is auto-validated.
+ * The manual activities are spread evenly and the last one is always manual.
+ *
+ * @author xdurand
+ *
+ */
+public final class WorkflowFixtures {
+
+	private WorkflowFixtures() {
+		// Helper
+	}
+
+	/**
+	 * Create a linear workflow definition.
+	 *
+	 * @param workflowManager the workflow manager
+	 * @param name the name of the definition
+	 * @param activityCount number of activities
+	 * @param autoValidationRatio share of the activities auto-validated, between 0 and 1
+	 * @return the workflow definition
+	 */
+	public static WfWorkflowDefinition createDefinition(final WorkflowManager workflowManager, final String name,
+			final int activityCount, final double autoValidationRatio) {
+		Assertion.checkState(activityCount > 0, "At least one activity is required");
+		Assertion.checkState(autoValidationRatio >= 0 && autoValidationRatio <= 1, "The ratio must be between 0 and 1");
+		//---
+		final WfWorkflowDefinition wfWorkflowDefinition = new WfWorkflowDefinitionBuilder(name).build();
+		workflowManager.createWorkflowDefinition(wfWorkflowDefinition);
+
+		final double manualRatio = 1 - autoValidationRatio;
+		for (int i = 0; i < activityCount; i++) {
+			final WfActivityDefinition wfActivityDefinition = new WfActivityDefinitionBuilder("Step " + i,
+					wfWorkflowDefinition.getWfwdId()).build();
+			workflowManager.addActivity(wfWorkflowDefinition, wfActivityDefinition, i + 1);
+
+			final boolean manual = i == activityCount - 1
+					|| Math.floor((i + 1) * manualRatio) > Math.floor(i * manualRatio);
+			if (manual) {
+				addManualValidation(workflowManager, wfActivityDefinition);
+			}
+		}
+		return wfWorkflowDefinition;
+	}
+
+	private static void addManualValidation(final WorkflowManager workflowManager, final WfActivityDefinition wfActivityDefinition) {
+		final RuleDefinition rule = new RuleDefinition();
+		rule.setItemId(wfActivityDefinition.getWfadId());
+
+		final RuleConditionDefinition condition = new RuleConditionDefinition();
+		condition.setField("DIVISION");
+		condition.setOperator("=");
+		condition.setExpression("DIV");
+		workflowManager.addRule(wfActivityDefinition, rule, Collections.singletonList(condition));
+
+		final SelectorDefinition selector = new SelectorDefinition();
+		selector.setItemId(wfActivityDefinition.getWfadId());
+		selector.setGroupId(BenchmarkIdentities.getGroupId(0));
+		workflowManager.addSelector(wfActivityDefinition, selector, Collections.emptyList());
+	}
+
+	/**
+	 * @param id the id of the item
+	 * @return a new item
+	 */
+	public static BenchmarkItem createItem(final Long id) {
+		final BenchmarkItem item = new BenchmarkItem();
+		item.setId(id);
+		item.setDivision("DIV");
+		item.setEntity("ENT");
+		return item;
+	}
+
+	/**
+	 * @return a new decision
+	 */
+	public static WfDecision createDecision() {
+		final WfDecision wfDecision = new WfDecision();
+		wfDecision.setChoice(1);
+		wfDecision.setUsername(BenchmarkIdentities.getAccountId(0, 0));
+		return wfDecision;
+	}
+}
@@ -5,6 +5,22 @@
 
 
 
+-- ============================================================
+--   Sequences of the ids reserved by the batch inserts of SQLWorkflowStorePlugin
+--   The reservation tasks (nextval, generate_series) are only used on PostgreSQL
+-- ============================================================
+create sequence SEQ_WF_ACTIVITY
+	start with 1000 cache 20;
+
+create sequence SEQ_WF_APPROVER
+	start with 1000 cache 20;
+
+create sequence SEQ_WF_DECISION
+	start with 1000 cache 20;
+
+create sequence SEQ_WF_WORKFLOW
+	start with 1000 cache 20;
+
 -- ============================================================
 --   Table : WF_ACTIVITY                                        
 -- ============================================================
@@ -12,6 +28,8 @@ create table WF_ACTIVITY
 (
     WFA_ID      	 NUMERIC     	identity,
     CREATION_DATE	 DATE        	,
+    EXPECTED_DECISIONS	 NUMERIC     	,
+    RECEIVED_DECISIONS	 NUMERIC     	,
     WFW_ID      	 NUMERIC     	not null,
     WFAD_ID     	 NUMERIC     	not null,
     constraint PK_WF_ACTIVITY primary key nonclustered (WFA_ID)
@@ -23,6 +41,12 @@ comment on column WF_ACTIVITY.WFA_ID is
 comment on column WF_ACTIVITY.CREATION_DATE is
 'creation date';
 
+comment on column WF_ACTIVITY.EXPECTED_DECISIONS is
+'expected decisions';
+
+comment on column WF_ACTIVITY.RECEIVED_DECISIONS is
+'received decisions';
+
 comment on column WF_ACTIVITY.WFW_ID is
 'WfWorkflow';
 
@@ -57,6 +81,30 @@ comment on column WF_ACTIVITY_DEFINITION.WFMD_CODE is
 comment on column WF_ACTIVITY_DEFINITION.WFWD_ID is
 'WfWorkflowDefinition';
 
+-- ============================================================
+--   Table : WF_APPROVER                                        
+-- ============================================================
+create table WF_APPROVER
+(
+    WFAP_ID     	 NUMERIC     	identity,
+    USERNAME    	 VARCHAR(100)	not null,
+    WFE_ID      	 NUMERIC     	,
+    WFA_ID      	 NUMERIC     	not null,
+    constraint PK_WF_APPROVER primary key nonclustered (WFAP_ID)
+);
+
+comment on column WF_APPROVER.WFAP_ID is
+'Id Approver';
+
+comment on column WF_APPROVER.USERNAME is
+'username';
+
+comment on column WF_APPROVER.WFE_ID is
+'decision';
+
+comment on column WF_APPROVER.WFA_ID is
+'WfActivity';
+
 -- ============================================================
 --   Table : WF_DECISION                                        
 -- ============================================================
@@ -226,6 +274,12 @@ alter table WF_ACTIVITY_DEFINITION
 
 create index WFAD_WFMD_WF_MULTIPLICITY_DEFINITION_FK on WF_ACTIVITY_DEFINITION (WFMD_CODE asc);
 
+alter table WF_APPROVER
+	add constraint FK_WFAP_WFA_WF_ACTIVITY foreign key (WFA_ID)
+	references WF_ACTIVITY (WFA_ID);
+
+create index WFAP_WFA_WF_ACTIVITY_FK on WF_APPROVER (WFA_ID asc, USERNAME asc);
+
 alter table WF_DECISION
 	add constraint FK_WFE_WFA_WF_ACTIVITY foreign key (WFA_ID)
 	references WF_ACTIVITY (WFA_ID);
@@ -0,0 +1,55 @@
+-- ============================================================
+--   Upgrade of an existing database : quorum counters of the multiple activities
+--   Same definitions as installation/01_CREBAS.sql
+-- ============================================================
+
+
+
+
+-- ============================================================
+--   Table : WF_ACTIVITY                                        
+-- ============================================================
+alter table WF_ACTIVITY
+	add EXPECTED_DECISIONS	 NUMERIC     	;
+
+alter table WF_ACTIVITY
+	add RECEIVED_DECISIONS	 NUMERIC     	;
+
+comment on column WF_ACTIVITY.EXPECTED_DECISIONS is
+'expected decisions';
+
+comment on column WF_ACTIVITY.RECEIVED_DECISIONS is
+'received decisions';
+
+-- ============================================================
+--   Table : WF_APPROVER                                        
+-- ============================================================
+create table WF_APPROVER
+(
+    WFAP_ID     	 NUMERIC     	identity,
+    USERNAME    	 VARCHAR(100)	not null,
+    WFE_ID      	 NUMERIC     	,
+    WFA_ID      	 NUMERIC     	not null,
+    constraint PK_WF_APPROVER primary key nonclustered (WFAP_ID)
+);
+
+comment on column WF_APPROVER.WFAP_ID is
+'Id Approver';
+
+comment on column WF_APPROVER.USERNAME is
+'username';
+
+comment on column WF_APPROVER.WFE_ID is
+'decision';
+
+comment on column WF_APPROVER.WFA_ID is
+'WfActivity';
+
+alter table WF_APPROVER
+	add constraint FK_WFAP_WFA_WF_ACTIVITY foreign key (WFA_ID)
+	references WF_ACTIVITY (WFA_ID);
+
+create index WFAP_WFA_WF_ACTIVITY_FK on WF_APPROVER (WFA_ID asc, USERNAME asc);
+
+create sequence SEQ_WF_APPROVER
+	start with 1000 cache 20;
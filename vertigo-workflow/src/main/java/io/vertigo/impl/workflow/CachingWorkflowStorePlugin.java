@@ -0,0 +1,534 @@
+/**
+ * vertigo - simple java starter
+ *
+ * Copyright (C) 2013-2019, KleeGroup, direction.technique@kleegroup.com (http://www.kleegroup.com)
+ * KleeGroup, Centre d'affaire la Boursidiere - BP 159 - 92357 Le Plessis Robinson Cedex - France
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.vertigo.impl.workflow;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+
+import io.vertigo.commons.transaction.VTransaction;
+import io.vertigo.commons.transaction.VTransactionManager;
+import io.vertigo.lang.Assertion;
+import io.vertigo.rules.domain.RuleConditionDefinition;
+import io.vertigo.rules.domain.RuleDefinition;
+import io.vertigo.rules.domain.RuleFilterDefinition;
+import io.vertigo.rules.domain.SelectorDefinition;
+import io.vertigo.workflow.WfCodeTransition;
+import io.vertigo.workflow.WfTransitionCriteria;
+import io.vertigo.workflow.domain.instance.WfActivity;
+import io.vertigo.workflow.domain.instance.WfApprover;
+import io.vertigo.workflow.domain.instance.WfDecision;
+import io.vertigo.workflow.domain.instance.WfWorkflow;
+import io.vertigo.workflow.domain.model.WfActivityDefinition;
+import io.vertigo.workflow.domain.model.WfTransitionDefinition;
+import io.vertigo.workflow.domain.model.WfWorkflowDefinition;
+
+/**
+ * Read-through cache around a workflow store.
+ * Workflow definitions, activity definitions, transitions and the navigation graphs are kept in memory.
+ * Any change on definitions or transitions made through this store clears the cache, again once its transaction is completed :
+ * until then the writing transaction reads the store directly and no other transaction can cache its uncommitted changes.
+ * Cached definitions are copied in and out, so callers never share a mutable instance.
+ * Instances (workflows, activities, decisions) are never cached.
+ * The cache is local to this node : changes made by another node, or directly in the database, are never seen
+ * until the application is restarted.
+ *
+ * @author xdurand
+ */
+final class CachingWorkflowStorePlugin implements WorkflowStorePlugin {
+
+	private static final String KEY_SEPARATOR = "|";
+
+	private final WorkflowStorePlugin workflowStorePlugin;
+	private final VTransactionManager transactionManager;
+
+	private final Map<Long, WfWorkflowDefinition> workflowDefinitionsById = new ConcurrentHashMap<>();
+	private final Map<String, WfWorkflowDefinition> workflowDefinitionsByName = new ConcurrentHashMap<>();
+	private final Map<Long, WfActivityDefinition> activityDefinitionsById = new ConcurrentHashMap<>();
+	private final Map<Long, List<WfActivityDefinition>> defaultActivityDefinitionsByWorkflowDefinition = new ConcurrentHashMap<>();
+	private final Map<Long, Integer> defaultTransitionsCountByWorkflowDefinition = new ConcurrentHashMap<>();
+	private final Map<String, Boolean> hasNextActivityByTransition = new ConcurrentHashMap<>();
+	private final Map<String, WfActivityDefinition> nextActivityByTransition = new ConcurrentHashMap<>();
+	private final Map<Long, WfWorkflowGraph> workflowGraphsByWorkflowDefinition = new ConcurrentHashMap<>();
+
+	// Incremented by each invalidation : a value loaded before an invalidation is not cached
+	private long generation;
+	// Transactions having changed definitions or transitions, reading the store until they are completed
+	private final Set<VTransaction> writingTransactions = Collections.newSetFromMap(new ConcurrentHashMap<>());
+
+	/**
+	 * Constructor.
+	 * @param workflowStorePlugin the store to cache
+	 * @param transactionManager the transaction manager
+	 */
+	CachingWorkflowStorePlugin(final WorkflowStorePlugin workflowStorePlugin, final VTransactionManager transactionManager) {
+		Assertion.checkNotNull(workflowStorePlugin);
+		Assertion.checkNotNull(transactionManager);
+		//---
+		this.workflowStorePlugin = workflowStorePlugin;
+		this.transactionManager = transactionManager;
+	}
+
+	private static String transitionKey(final Long wfadIdFrom, final String transitionName) {
+		return wfadIdFrom + KEY_SEPARATOR + transitionName;
+	}
+
+	private synchronized long getGeneration() {
+		return generation;
+	}
+
+	private synchronized <K, V> void put(final Map<K, V> cache, final K key, final V value, final long loadGeneration) {
+		if (loadGeneration == generation) {
+			cache.put(key, value);
+		}
+	}
+
+	private synchronized void clear() {
+		generation++;
+		workflowDefinitionsById.clear();
+		workflowDefinitionsByName.clear();
+		activityDefinitionsById.clear();
+		defaultActivityDefinitionsByWorkflowDefinition.clear();
+		defaultTransitionsCountByWorkflowDefinition.clear();
+		hasNextActivityByTransition.clear();
+		nextActivityByTransition.clear();
+		workflowGraphsByWorkflowDefinition.clear();
+	}
+
+	private boolean isWriting() {
+		return !writingTransactions.isEmpty()
+				&& transactionManager.hasCurrentTransaction()
+				&& writingTransactions.contains(transactionManager.getCurrentTransaction());
+	}
+
+	/**
+	 * Called after a change on definitions or transitions.
+	 * The cache is cleared now, and once again when the transaction is completed (committed or rolled back).
+	 */
+	private void invalidate() {
+		clear();
+		if (transactionManager.hasCurrentTransaction()) {
+			final VTransaction transaction = transactionManager.getCurrentTransaction();
+			if (writingTransactions.add(transaction)) {
+				transaction.addAfterCompletion(txCommitted -> {
+					clear();
+					writingTransactions.remove(transaction);
+				});
+			}
+		}
+	}
+
+	/**
+	 * Read a value through the cache.
+	 *
+	 * @param cache the cache
+	 * @param key the key
+	 * @param loader the loader of a missing value
+	 * @param copier the copy of the value given to the caller
+	 * @return a copy of the value
+	 */
+	private <K, V> V read(final Map<K, V> cache, final K key, final Function<K, V> loader, final UnaryOperator<V> copier) {
+		if (isWriting()) {
+			// The cache may not contain the uncommitted changes of this transaction
+			return loader.apply(key);
+		}
+		final V cached = cache.get(key);
+		if (cached != null) {
+			return copier.apply(cached);
+		}
+		final long loadGeneration = getGeneration();
+		final V loaded = loader.apply(key);
+		if (loaded == null) {
+			return null;
+		}
+		put(cache, key, copier.apply(loaded), loadGeneration);
+		return loaded;
+	}
+
+	private static <V> V same(final V value) {
+		return value;
+	}
+
+	/**
+	 * @param wfWorkflowDefinition a workflow definition
+	 * @return a copy of the workflow definition
+	 */
+	static WfWorkflowDefinition copy(final WfWorkflowDefinition wfWorkflowDefinition) {
+		final WfWorkflowDefinition copy = new WfWorkflowDefinition();
+		copy.setWfwdId(wfWorkflowDefinition.getWfwdId());
+		copy.setName(wfWorkflowDefinition.getName());
+		copy.setDate(wfWorkflowDefinition.getDate() == null ? null : new Date(wfWorkflowDefinition.getDate().getTime()));
+		copy.setWfadId(wfWorkflowDefinition.getWfadId());
+		return copy;
+	}
+
+	/**
+	 * @param wfActivityDefinition an activity definition
+	 * @return a copy of the activity definition
+	 */
+	static WfActivityDefinition copy(final WfActivityDefinition wfActivityDefinition) {
+		final WfActivityDefinition copy = new WfActivityDefinition();
+		copy.setWfadId(wfActivityDefinition.getWfadId());
+		copy.setName(wfActivityDefinition.getName());
+		copy.setLevel(wfActivityDefinition.getLevel());
+		copy.setWfmdCode(wfActivityDefinition.getWfmdCode());
+		copy.setWfwdId(wfActivityDefinition.getWfwdId());
+		return copy;
+	}
+
+	private static List<WfActivityDefinition> copy(final List<WfActivityDefinition> wfActivityDefinitions) {
+		return wfActivityDefinitions.stream()
+				.map(CachingWorkflowStorePlugin::copy)
+				.collect(Collectors.toList());
+	}
+
+	/**
+	 * Read the navigation graph of a workflow definition.
+	 * The graph is immutable and shared : its activity definitions must be copied before being given to a caller.
+	 *
+	 * @param wfwdId the id of the workflow definition
+	 * @return the graph
+	 */
+	WfWorkflowGraph readWorkflowGraph(final Long wfwdId) {
+		return read(workflowGraphsByWorkflowDefinition, wfwdId, id -> WfWorkflowGraph.load(workflowStorePlugin, id), CachingWorkflowStorePlugin::same);
+	}
+
+	// Instance : no cache
+
+	/** {@inheritDoc} */
+	@Override
+	public void createWorkflowInstance(final WfWorkflow workflow) {
+		workflowStorePlugin.createWorkflowInstance(workflow);
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public void createWorkflowInstances(final List<WfWorkflow> workflows) {
+		workflowStorePlugin.createWorkflowInstances(workflows);
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public WfWorkflow readWorkflowInstanceById(final Long wfwId) {
+		return workflowStorePlugin.readWorkflowInstanceById(wfwId);
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public List<WfWorkflow> readWorkflowInstancesByIds(final List<Long> wfwIds) {
+		return workflowStorePlugin.readWorkflowInstancesByIds(wfwIds);
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public WfWorkflow readWorkflowInstanceForUpdateById(final Long wfwId) {
+		return workflowStorePlugin.readWorkflowInstanceForUpdateById(wfwId);
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public WfWorkflow readWorkflowInstanceByItemId(final Long wfwdId, final Long itemId) {
+		return workflowStorePlugin.readWorkflowInstanceByItemId(wfwdId, itemId);
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public void updateWorkflowInstance(final WfWorkflow workflow) {
+		workflowStorePlugin.updateWorkflowInstance(workflow);
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public void updateWorkflowInstances(final List<WfWorkflow> workflows) {
+		workflowStorePlugin.updateWorkflowInstances(workflows);
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public WfActivity readActivity(final Long wfadId) {
+		return workflowStorePlugin.readActivity(wfadId);
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public List<WfDecision> readDecisionsByActivityId(final Long wfaId) {
+		return workflowStorePlugin.readDecisionsByActivityId(wfaId);
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public void createActivity(final WfActivity wfActivity) {
+		workflowStorePlugin.createActivity(wfActivity);
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public void createActivities(final List<WfActivity> wfActivities) {
+		workflowStorePlugin.createActivities(wfActivities);
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public void updateActivity(final WfActivity wfActivity) {
+		workflowStorePlugin.updateActivity(wfActivity);
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public void createDecision(final WfDecision wfDecision) {
+		workflowStorePlugin.createDecision(wfDecision);
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public void createDecisions(final List<WfDecision> wfDecisions) {
+		workflowStorePlugin.createDecisions(wfDecisions);
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public void updateDecision(final WfDecision wfDecision) {
+		workflowStorePlugin.updateDecision(wfDecision);
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public List<WfDecision> findAllDecisionByActivity(final WfActivity wfActivity) {
+		return workflowStorePlugin.findAllDecisionByActivity(wfActivity);
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public void createApprovers(final List<WfApprover> wfApprovers) {
+		workflowStorePlugin.createApprovers(wfApprovers);
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public Optional<WfApprover> readApprover(final Long wfaId, final String username) {
+		return workflowStorePlugin.readApprover(wfaId, username);
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public void updateApprover(final WfApprover wfApprover) {
+		workflowStorePlugin.updateApprover(wfApprover);
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public void deleteApprovers(final Long wfaId) {
+		workflowStorePlugin.deleteApprovers(wfaId);
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public Optional<WfActivity> findActivityByDefinitionWorkflow(final WfWorkflow wfWorkflow,
+			final WfActivityDefinition wfActivityDefinition) {
+		return workflowStorePlugin.findActivityByDefinitionWorkflow(wfWorkflow, wfActivityDefinition);
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public List<WfActivity> findActivitiesByWorkflowId(final WfWorkflow wfWorkflow) {
+		return workflowStorePlugin.findActivitiesByWorkflowId(wfWorkflow);
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public List<WfDecision> findDecisionsByWorkflowId(final WfWorkflow wfWorkflow) {
+		return workflowStorePlugin.findDecisionsByWorkflowId(wfWorkflow);
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public List<WfActivity> findActivitiesByWorkflows(final List<WfWorkflow> wfWorkflows) {
+		return workflowStorePlugin.findActivitiesByWorkflows(wfWorkflows);
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public List<WfDecision> findDecisionsByWorkflows(final List<WfWorkflow> wfWorkflows) {
+		return workflowStorePlugin.findDecisionsByWorkflows(wfWorkflows);
+	}
+
+	// Transitions : cached
+
+	/** {@inheritDoc} */
+	@Override
+	public boolean hasNextActivity(final WfActivity activity) {
+		return hasNextActivity(activity, WfCodeTransition.DEFAULT.getTransitionName());
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public boolean hasNextActivity(final WfActivity activity, final String transitionName) {
+		return read(hasNextActivityByTransition, transitionKey(activity.getWfadId(), transitionName),
+				key -> workflowStorePlugin.hasNextActivity(activity, transitionName), CachingWorkflowStorePlugin::same);
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public WfActivityDefinition findNextActivity(final Long wfadId) {
+		return findNextActivity(wfadId, WfCodeTransition.DEFAULT.getTransitionName());
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public WfActivityDefinition findNextActivity(final Long wfadId, final String transitionName) {
+		return read(nextActivityByTransition, transitionKey(wfadId, transitionName),
+				key -> workflowStorePlugin.findNextActivity(wfadId, transitionName), CachingWorkflowStorePlugin::copy);
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public Optional<WfTransitionDefinition> findTransition(final WfTransitionCriteria wfTransitionCriteria) {
+		return workflowStorePlugin.findTransition(wfTransitionCriteria);
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public void addTransition(final WfTransitionDefinition transition) {
+		workflowStorePlugin.addTransition(transition);
+		invalidate();
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public void updateTransition(final WfTransitionDefinition transition) {
+		workflowStorePlugin.updateTransition(transition);
+		invalidate();
+	}
+
+	// Definitions : cached
+
+	/** {@inheritDoc} */
+	@Override
+	public int countDefaultTransitions(final WfWorkflowDefinition wfWorkflowDefinition) {
+		return read(defaultTransitionsCountByWorkflowDefinition, wfWorkflowDefinition.getWfwdId(),
+				key -> workflowStorePlugin.countDefaultTransitions(wfWorkflowDefinition), CachingWorkflowStorePlugin::same);
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public void createWorkflowDefinition(final WfWorkflowDefinition workflowDefinition) {
+		workflowStorePlugin.createWorkflowDefinition(workflowDefinition);
+		invalidate();
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public WfWorkflowDefinition readWorkflowDefinition(final Long wfwdId) {
+		return read(workflowDefinitionsById, wfwdId, workflowStorePlugin::readWorkflowDefinition, CachingWorkflowStorePlugin::copy);
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public WfWorkflowDefinition readWorkflowDefinition(final String definitionName) {
+		return read(workflowDefinitionsByName, definitionName, workflowStorePlugin::readWorkflowDefinition, CachingWorkflowStorePlugin::copy);
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public void updateWorkflowDefinition(final WfWorkflowDefinition wfWorkflowDefinition) {
+		workflowStorePlugin.updateWorkflowDefinition(wfWorkflowDefinition);
+		invalidate();
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public void createActivityDefinition(final WfWorkflowDefinition wfWorkflowDefinition,
+			final WfActivityDefinition wfActivityDefinition) {
+		workflowStorePlugin.createActivityDefinition(wfWorkflowDefinition, wfActivityDefinition);
+		invalidate();
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public WfActivityDefinition readActivityDefinition(final Long wfadId) {
+		return read(activityDefinitionsById, wfadId, workflowStorePlugin::readActivityDefinition, CachingWorkflowStorePlugin::copy);
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public void incrementActivityDefinitionPositionsAfter(final Long wfwdId, final int position) {
+		workflowStorePlugin.incrementActivityDefinitionPositionsAfter(wfwdId, position);
+		invalidate();
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public Optional<WfActivityDefinition> findActivityDefinitionByPosition(final WfWorkflowDefinition wfWorkflowDefinition,
+			final int position) {
+		return workflowStorePlugin.findActivityDefinitionByPosition(wfWorkflowDefinition, position);
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public List<WfActivityDefinition> findAllDefaultActivityDefinitions(final WfWorkflowDefinition wfWorkflowDefinition) {
+		return read(defaultActivityDefinitionsByWorkflowDefinition, wfWorkflowDefinition.getWfwdId(),
+				key -> workflowStorePlugin.findAllDefaultActivityDefinitions(wfWorkflowDefinition), CachingWorkflowStorePlugin::copy);
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public List<WfActivityDefinition> findAllActivityDefinitionsByWorkflowDefinitionId(final long wfwdId) {
+		return workflowStorePlugin.findAllActivityDefinitionsByWorkflowDefinitionId(wfwdId);
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public List<WfTransitionDefinition> findAllTransitionsByWorkflowDefinitionId(final long wfwdId) {
+		return workflowStorePlugin.findAllTransitionsByWorkflowDefinitionId(wfwdId);
+	}
+
+	// Custom : rules are managed by RuleServices, no cache
+
+	/** {@inheritDoc} */
+	@Override
+	public List<RuleDefinition> findAllRulesByWorkflowDefinitionId(final long wfwdId) {
+		return workflowStorePlugin.findAllRulesByWorkflowDefinitionId(wfwdId);
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public List<RuleConditionDefinition> findAllConditionsByWorkflowDefinitionId(final long wfwdId) {
+		return workflowStorePlugin.findAllConditionsByWorkflowDefinitionId(wfwdId);
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public List<SelectorDefinition> findAllSelectorsByWorkflowDefinitionId(final long wfwdId) {
+		return workflowStorePlugin.findAllSelectorsByWorkflowDefinitionId(wfwdId);
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public List<RuleFilterDefinition> findAllFiltersByWorkflowDefinitionId(final long wfwdId) {
+		return workflowStorePlugin.findAllFiltersByWorkflowDefinitionId(wfwdId);
+	}
+
+}
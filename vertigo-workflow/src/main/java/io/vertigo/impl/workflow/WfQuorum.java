@@ -0,0 +1,115 @@
+/**
+ * vertigo - simple java starter
+ *
+ * Copyright (C) 2013-2019, KleeGroup, direction.technique@kleegroup.com (http://www.kleegroup.com)
+ * KleeGroup, Centre d'affaire la Boursidiere - BP 159 - 92357 Le Plessis Robinson Cedex - France
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.vertigo.impl.workflow;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import io.vertigo.account.account.Account;
+import io.vertigo.lang.Assertion;
+import io.vertigo.workflow.domain.instance.WfDecision;
+
+/**
+ * Completion state of a multiple decision activity : the accounts expected to decide and the ones who already did.
+ * Decisions are matched on the account ids through a hash set, and can be counted one at a time as they arrive.
+ *
+ * @author xdurand
+ */
+final class WfQuorum {
+
+	private final Set<String> expectedAccountIds;
+	private final Set<String> decidedAccountIds = new HashSet<>();
+
+	private WfQuorum(final Set<String> expectedAccountIds) {
+		this.expectedAccountIds = expectedAccountIds;
+	}
+
+	/**
+	 * Build the quorum of the accounts expected to decide.
+	 *
+	 * @param expectedAccounts the accounts selected for the activity
+	 * @return the quorum, with no decision counted
+	 */
+	static WfQuorum of(final List<Account> expectedAccounts) {
+		Assertion.checkNotNull(expectedAccounts);
+		//---
+		final Set<String> expectedAccountIds = new HashSet<>(expectedAccounts.size() * 2);
+		for (final Account account : expectedAccounts) {
+			expectedAccountIds.add(account.getId());
+		}
+		return new WfQuorum(expectedAccountIds);
+	}
+
+	/**
+	 * Count a decision.
+	 *
+	 * @param wfDecision the decision
+	 * @return true if the decision comes from an expected account which had not decided yet
+	 */
+	boolean addDecision(final WfDecision wfDecision) {
+		Assertion.checkNotNull(wfDecision);
+		//---
+		final String username = wfDecision.getUsername();
+		return expectedAccountIds.contains(username) && decidedAccountIds.add(username);
+	}
+
+	/**
+	 * Count several decisions.
+	 *
+	 * @param wfDecisions the decisions
+	 */
+	void addDecisions(final List<WfDecision> wfDecisions) {
+		Assertion.checkNotNull(wfDecisions);
+		//---
+		for (final WfDecision wfDecision : wfDecisions) {
+			addDecision(wfDecision);
+		}
+	}
+
+	/**
+	 * @return the ids of the accounts expected to decide
+	 */
+	Set<String> getExpectedAccountIds() {
+		return Collections.unmodifiableSet(expectedAccountIds);
+	}
+
+	/**
+	 * @return the number of accounts expected to decide
+	 */
+	int getExpectedCount() {
+		return expectedAccountIds.size();
+	}
+
+	/**
+	 * @return the number of expected accounts which have decided
+	 */
+	int getDecidedCount() {
+		return decidedAccountIds.size();
+	}
+
+	/**
+	 * @return true when all the expected accounts have decided
+	 */
+	boolean isReached() {
+		return decidedAccountIds.size() == expectedAccountIds.size();
+	}
+
+}
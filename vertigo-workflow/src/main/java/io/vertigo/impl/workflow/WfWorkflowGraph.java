@@ -0,0 +1,211 @@
+/**
+ * vertigo - simple java starter
+ *
+ * Copyright (C) 2013-2019, KleeGroup, direction.technique@kleegroup.com (http://www.kleegroup.com)
+ * KleeGroup, Centre d'affaire la Boursidiere - BP 159 - 92357 Le Plessis Robinson Cedex - France
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.vertigo.impl.workflow;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.vertigo.lang.Assertion;
+import io.vertigo.workflow.WfCodeTransition;
+import io.vertigo.workflow.domain.model.WfActivityDefinition;
+import io.vertigo.workflow.domain.model.WfTransitionDefinition;
+import io.vertigo.workflow.domain.model.WfWorkflowDefinition;
+
+/**
+ * Immutable navigation graph of a workflow definition.
+ * Activity definitions are nodes addressed by their id, transitions are stored as one target array per transition name.
+ * A new graph must be built when the definition is edited : graphs are only kept by the definition cache, which drops them on each change.
+ *
+ * @author xdurand
+ */
+final class WfWorkflowGraph {
+
+	private static final int NO_NODE = -1;
+
+	private final long wfwdId;
+	// Nodes sorted by id
+	private final long[] wfadIds;
+	private final WfActivityDefinition[] activityDefinitions;
+	// Transitions : transitionName => index in targets
+	private final Map<String, Integer> transitionIndexes;
+	// targets[transitionIndex][nodeFrom] = nodeTo or NO_NODE
+	private final int[][] targets;
+	private final List<WfActivityDefinition> defaultActivityDefinitions;
+
+	private WfWorkflowGraph(final long wfwdId, final long[] wfadIds, final WfActivityDefinition[] activityDefinitions,
+			final Map<String, Integer> transitionIndexes, final int[][] targets, final Long startWfadId) {
+		this.wfwdId = wfwdId;
+		this.wfadIds = wfadIds;
+		this.activityDefinitions = activityDefinitions;
+		this.transitionIndexes = transitionIndexes;
+		this.targets = targets;
+		defaultActivityDefinitions = Collections.unmodifiableList(buildDefaultActivityDefinitions(startWfadId));
+	}
+
+	/**
+	 * Load the graph of a workflow definition from a store.
+	 *
+	 * @param workflowStorePlugin the store
+	 * @param wfwdId the id of the workflow definition
+	 * @return the graph
+	 */
+	static WfWorkflowGraph load(final WorkflowStorePlugin workflowStorePlugin, final Long wfwdId) {
+		final WfWorkflowDefinition wfWorkflowDefinition = workflowStorePlugin.readWorkflowDefinition(wfwdId);
+		Assertion.checkNotNull(wfWorkflowDefinition, "Workflow definition {0} not found", wfwdId);
+		// ---
+		return of(wfWorkflowDefinition,
+				workflowStorePlugin.findAllActivityDefinitionsByWorkflowDefinitionId(wfwdId),
+				workflowStorePlugin.findAllTransitionsByWorkflowDefinitionId(wfwdId));
+	}
+
+	/**
+	 * Build the graph of a workflow definition.
+	 *
+	 * @param wfWorkflowDefinition the workflow definition
+	 * @param wfActivityDefinitions all the activity definitions of the workflow definition
+	 * @param wfTransitionDefinitions all the transitions of the workflow definition
+	 * @return the graph
+	 */
+	static WfWorkflowGraph of(final WfWorkflowDefinition wfWorkflowDefinition, final List<WfActivityDefinition> wfActivityDefinitions,
+			final List<WfTransitionDefinition> wfTransitionDefinitions) {
+		Assertion.checkNotNull(wfWorkflowDefinition);
+		Assertion.checkNotNull(wfActivityDefinitions);
+		Assertion.checkNotNull(wfTransitionDefinitions);
+		//---
+		final WfActivityDefinition[] activityDefinitions = wfActivityDefinitions.toArray(new WfActivityDefinition[wfActivityDefinitions.size()]);
+		Arrays.sort(activityDefinitions, (a1, a2) -> Long.compare(a1.getWfadId(), a2.getWfadId()));
+		final long[] wfadIds = new long[activityDefinitions.length];
+		for (int i = 0; i < activityDefinitions.length; i++) {
+			wfadIds[i] = activityDefinitions[i].getWfadId();
+		}
+
+		final Map<String, Integer> transitionIndexes = new HashMap<>();
+		for (final WfTransitionDefinition wfTransitionDefinition : wfTransitionDefinitions) {
+			transitionIndexes.putIfAbsent(wfTransitionDefinition.getName().intern(), transitionIndexes.size());
+		}
+
+		final int[][] targets = new int[transitionIndexes.size()][activityDefinitions.length];
+		for (final int[] transitionTargets : targets) {
+			Arrays.fill(transitionTargets, NO_NODE);
+		}
+		for (final WfTransitionDefinition wfTransitionDefinition : wfTransitionDefinitions) {
+			final int from = Arrays.binarySearch(wfadIds, wfTransitionDefinition.getWfadIdFrom());
+			final int to = Arrays.binarySearch(wfadIds, wfTransitionDefinition.getWfadIdTo());
+			Assertion.checkState(from >= 0 && to >= 0, "Transition {0} links an activity outside of the workflow definition {1}",
+					wfTransitionDefinition.getWftdId(), wfWorkflowDefinition.getWfwdId());
+			targets[transitionIndexes.get(wfTransitionDefinition.getName())][from] = to;
+		}
+
+		return new WfWorkflowGraph(wfWorkflowDefinition.getWfwdId(), wfadIds, activityDefinitions,
+				Collections.unmodifiableMap(transitionIndexes), targets, wfWorkflowDefinition.getWfadId());
+	}
+
+	private List<WfActivityDefinition> buildDefaultActivityDefinitions(final Long startWfadId) {
+		final List<WfActivityDefinition> defaultPath = new ArrayList<>();
+		if (startWfadId == null) {
+			// The workflow don't have a starting activity
+			return defaultPath;
+		}
+		final Integer defaultTransitionIndex = transitionIndexes.get(WfCodeTransition.DEFAULT.getTransitionName());
+		final boolean[] visited = new boolean[wfadIds.length];
+		int node = indexOf(startWfadId);
+		while (node != NO_NODE && !visited[node]) {
+			visited[node] = true;
+			defaultPath.add(activityDefinitions[node]);
+			node = defaultTransitionIndex == null ? NO_NODE : targets[defaultTransitionIndex][node];
+		}
+		return defaultPath;
+	}
+
+	private int indexOf(final long wfadId) {
+		final int index = Arrays.binarySearch(wfadIds, wfadId);
+		return index < 0 ? NO_NODE : index;
+	}
+
+	private int nextIndexOf(final long wfadId, final String transitionName) {
+		final Integer transitionIndex = transitionIndexes.get(transitionName);
+		final int node = indexOf(wfadId);
+		if (transitionIndex == null || node == NO_NODE) {
+			return NO_NODE;
+		}
+		return targets[transitionIndex][node];
+	}
+
+	/**
+	 * @return the id of the workflow definition
+	 */
+	long getWfwdId() {
+		return wfwdId;
+	}
+
+	/**
+	 * @param wfadId id of an activity definition
+	 * @return the activity definition
+	 */
+	WfActivityDefinition getActivityDefinition(final long wfadId) {
+		final int node = indexOf(wfadId);
+		Assertion.checkState(node != NO_NODE, "Activity definition {0} not found in workflow definition {1}", wfadId, wfwdId);
+		//---
+		return activityDefinitions[node];
+	}
+
+	/**
+	 * @return the ids of all the activity definitions of the workflow definition
+	 */
+	List<Long> getActivityDefinitionIds() {
+		final List<Long> ids = new ArrayList<>(wfadIds.length);
+		for (final long wfadId : wfadIds) {
+			ids.add(wfadId);
+		}
+		return ids;
+	}
+
+	/**
+	 * @param wfadId id of the activity definition
+	 * @param transitionName name of the transition
+	 * @return true if the transition leads to another activity definition
+	 */
+	boolean hasNext(final long wfadId, final String transitionName) {
+		return nextIndexOf(wfadId, transitionName) != NO_NODE;
+	}
+
+	/**
+	 * @param wfadId id of the activity definition
+	 * @param transitionName name of the transition
+	 * @return the activity definition reached by the transition
+	 */
+	WfActivityDefinition getNext(final long wfadId, final String transitionName) {
+		final int next = nextIndexOf(wfadId, transitionName);
+		Assertion.checkState(next != NO_NODE, "No transition {0} from activity definition {1}", transitionName, wfadId);
+		//---
+		return activityDefinitions[next];
+	}
+
+	/**
+	 * @return the activity definitions following the default transitions, from start to end
+	 */
+	List<WfActivityDefinition> getDefaultActivityDefinitions() {
+		return defaultActivityDefinitions;
+	}
+
+}
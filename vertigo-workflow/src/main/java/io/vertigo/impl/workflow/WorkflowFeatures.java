@@ -18,14 +18,19 @@
  */
 package io.vertigo.impl.workflow;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import io.vertigo.app.config.DefinitionProviderConfig;
 import io.vertigo.app.config.Features;
 import io.vertigo.core.param.Param;
 import io.vertigo.dynamo.plugins.environment.DynamoDefinitionProvider;
+import io.vertigo.lang.Assertion;
 import io.vertigo.plugins.workflow.sql.SQLWorkflowStorePlugin;
 import io.vertigo.plugins.workflow.validate.RuleWorkflowPredicateAutoValidatePlugin;
 import io.vertigo.workflow.WorkflowManager;
 import io.vertigo.workflow.dao.instance.WfActivityDAO;
+import io.vertigo.workflow.dao.instance.WfApproverDAO;
 import io.vertigo.workflow.dao.instance.WfDecisionDAO;
 import io.vertigo.workflow.dao.instance.WfStatusDAO;
 import io.vertigo.workflow.dao.instance.WfWorkflowDAO;
@@ -43,6 +48,9 @@ import io.vertigo.workflow.domain.DtDefinitions;
  */
 public final class WorkflowFeatures extends Features {
 
+	private boolean definitionCache;
+	private int parallelism;
+
 	/**
 	 * Constructor.
 	 */
@@ -91,6 +99,7 @@ public final class WorkflowFeatures extends Features {
 				.addComponent(WfWorkflowDAO.class) //
 				.addComponent(WfStatusDAO.class) //
 				.addComponent(WfDecisionDAO.class)//
+				.addComponent(WfApproverDAO.class) //
 				.addComponent(WfActivityDefinitionDAO.class) //
 				.addComponent(WfWorkflowDefinitionDAO.class) //
 				.addComponent(WfMultiplicityDefinitionDAO.class) //
@@ -114,6 +123,35 @@ public final class WorkflowFeatures extends Features {
 		return this;
 	}
 
+	/**
+	 * Keeps workflow definitions, activity definitions, transitions read from the workflowStorePlugin and their navigation graphs in memory.
+	 * Without this cache, the navigation graph of a definition is read from the store on each use.
+	 * Definitions must only be modified through the WorkflowManager : the cache is cleared after the commit of each change
+	 * made on this node, but never by the changes made on another node.
+	 *
+	 * @return these features
+	 */
+	public WorkflowFeatures withDefinitionCache() {
+		definitionCache = true;
+		return this;
+	}
+
+	/**
+	 * Evaluates the rules of the instances of the bulk methods (start of several instances, decisions of several workflows) in parallel.
+	 * The results keep the order of the instances.
+	 * The rules, the constants, the items, the workflow data and the groups of the selectors are loaded on the calling thread
+	 * before the evaluation : the evaluating threads use neither the stores nor the AccountManager.
+	 *
+	 * @param threads the maximum number of threads evaluating the rules
+	 * @return these features
+	 */
+	public WorkflowFeatures withParallelEvaluation(final int threads) {
+		Assertion.checkArgument(threads > 0, "threads must be positive");
+		//---
+		parallelism = threads;
+		return this;
+	}
+
 	/** {@inheritDoc} */
 	@Override
 	protected void buildFeatures() {
@@ -122,7 +160,16 @@ public final class WorkflowFeatures extends Features {
 						.addDefinitionResource("kpr", "io/vertigo/workflow/definitions/application-workflow.kpr")
 						.addDefinitionResource("classes", DtDefinitions.class.getName())
 						.build())
-				.addComponent(WorkflowManager.class, WorkflowManagerImpl.class);
+				.addComponent(WorkflowManager.class, WorkflowManagerImpl.class, getManagerParams());
+	}
+
+	private Param[] getManagerParams() {
+		final List<Param> params = new ArrayList<>();
+		params.add(Param.of("definitionCache", String.valueOf(definitionCache)));
+		if (parallelism > 0) {
+			params.add(Param.of("parallelism", String.valueOf(parallelism)));
+		}
+		return params.toArray(new Param[params.size()]);
 	}
 
 }
@@ -19,20 +19,28 @@
 package io.vertigo.impl.workflow;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Function;
-import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 import javax.inject.Inject;
+import javax.inject.Named;
 
 import io.vertigo.account.account.Account;
 import io.vertigo.account.account.AccountGroup;
+import io.vertigo.account.account.AccountManager;
+import io.vertigo.commons.transaction.VTransactionManager;
+import io.vertigo.core.component.Activeable;
 import io.vertigo.dynamo.domain.model.DtObject;
+import io.vertigo.dynamo.domain.util.DtObjectUtil;
 import io.vertigo.lang.Assertion;
+import io.vertigo.rules.RuleConditionCriteria;
 import io.vertigo.rules.RuleCriteria;
 import io.vertigo.rules.domain.RuleConditionDefinition;
 import io.vertigo.rules.domain.RuleDefinition;
@@ -41,12 +49,16 @@ import io.vertigo.rules.domain.SelectorDefinition;
 import io.vertigo.rules.services.RuleConstants;
 import io.vertigo.rules.services.RuleContext;
 import io.vertigo.rules.services.RuleServices;
+import io.vertigo.rules.services.RuleSet;
+import io.vertigo.workflow.WfActivityCriteria;
 import io.vertigo.workflow.WfCodeTransition;
+import io.vertigo.workflow.WfListWorkflowDecision;
 import io.vertigo.workflow.WfTransitionBuilder;
 import io.vertigo.workflow.WfTransitionCriteria;
 import io.vertigo.workflow.WfWorkflowDecision;
 import io.vertigo.workflow.WorkflowManager;
 import io.vertigo.workflow.domain.instance.WfActivity;
+import io.vertigo.workflow.domain.instance.WfApprover;
 import io.vertigo.workflow.domain.instance.WfDecision;
 import io.vertigo.workflow.domain.instance.WfStatusEnum;
 import io.vertigo.workflow.domain.instance.WfWorkflow;
@@ -58,12 +70,17 @@ import io.vertigo.workflow.domain.model.WfWorkflowDefinition;
 /**
  * @author xdurand
  */
-public final class WorkflowManagerImpl implements WorkflowManager {
+public final class WorkflowManagerImpl implements WorkflowManager, Activeable {
 
 	private final WorkflowStorePlugin workflowStorePlugin;
 	private final ItemStorePlugin itemStorePlugin;
 	private final RuleServices ruleServices;
 	private final WorkflowPredicateAutoValidatePlugin workflowPredicateAutoValidatePlugin;
+	private final AccountManager accountManager;
+	// Cache of the definitions and of their navigation graphs, when enabled
+	private final Optional<CachingWorkflowStorePlugin> definitionCache;
+	// Pool evaluating the rules of the instances of the bulk methods, absent when they are evaluated sequentially
+	private final Optional<ForkJoinPool> evaluationPool;
 
 	private static final String USER_AUTO = "<AUTO>";
 	private static final String TRANSITION_BACK_NAME = "back";
@@ -75,14 +92,63 @@ public final class WorkflowManagerImpl implements WorkflowManager {
 	 * @param itemStorePlugin
 	 * @param ruleServices
 	 * @param workflowPredicateAutoValidatePlugin
+	 * @param accountManager
+	 * @param transactionManager
+	 * @param definitionCache true to keep definitions and transitions of the store in memory
+	 * @param parallelism number of threads evaluating the rules of the bulk methods (sequential evaluation by default)
 	 */
 	@Inject
 	public WorkflowManagerImpl(final WorkflowStorePlugin workflowStorePlugin, final ItemStorePlugin itemStorePlugin,
-			final RuleServices ruleServices, final WorkflowPredicateAutoValidatePlugin workflowPredicateAutoValidatePlugin) {
-		this.workflowStorePlugin = workflowStorePlugin;
+			final RuleServices ruleServices, final WorkflowPredicateAutoValidatePlugin workflowPredicateAutoValidatePlugin,
+			final AccountManager accountManager, final VTransactionManager transactionManager,
+			@Named("definitionCache") final boolean definitionCache,
+			@Named("parallelism") final Optional<Integer> parallelism) {
+		Assertion.checkNotNull(parallelism);
+		Assertion.checkArgument(parallelism.orElse(1) > 0, "parallelism must be positive");
+		// ---
+		this.definitionCache = definitionCache ? Optional.of(new CachingWorkflowStorePlugin(workflowStorePlugin, transactionManager)) : Optional.empty();
+		this.workflowStorePlugin = this.definitionCache.isPresent() ? this.definitionCache.get() : workflowStorePlugin;
 		this.itemStorePlugin = itemStorePlugin;
 		this.ruleServices = ruleServices;
 		this.workflowPredicateAutoValidatePlugin = workflowPredicateAutoValidatePlugin;
+		this.accountManager = accountManager;
+		evaluationPool = parallelism
+				.filter(threads -> threads > 1)
+				.map(ForkJoinPool::new);
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public void start() {
+		// nothing
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public void stop() {
+		evaluationPool.ifPresent(ForkJoinPool::shutdown);
+	}
+
+	/**
+	 * Apply an evaluation to each element, with the evaluation pool when there is one.
+	 * The evaluation must not use the stores nor the AccountManager : everything it needs is loaded beforehand,
+	 * since the transaction is bound to the calling thread.
+	 *
+	 * @param elements the elements
+	 * @param evaluation the evaluation of one element
+	 * @return the results, in the order of the elements
+	 */
+	private <T, R> List<R> evaluate(final List<T> elements, final Function<T, R> evaluation) {
+		if (!evaluationPool.isPresent() || elements.size() < 2) {
+			return elements.stream()
+					.map(evaluation)
+					.collect(Collectors.toList());
+		}
+		// A parallel stream started from a task of the pool runs in the pool
+		return evaluationPool.get().submit(() -> elements.parallelStream()
+				.map(evaluation)
+				.collect(Collectors.toList()))
+				.join();
 	}
 
 	// Instance
@@ -103,6 +169,32 @@ public final class WorkflowManagerImpl implements WorkflowManager {
 			final Long item) {
 		Assertion.checkNotNull(item);
 		// ---
+		final WfWorkflow wfWorkflow = getNewWorkflow(wfwdId, username, userLogic, item);
+
+		workflowStorePlugin.createWorkflowInstance(wfWorkflow);
+
+		return wfWorkflow;
+	}
+
+	@Override
+	public List<WfWorkflow> createWorkflowInstances(final Long wfwdId, final String username, final boolean userLogic,
+			final List<Long> items) {
+		Assertion.checkNotNull(wfwdId);
+		Assertion.checkNotNull(items);
+		// ---
+		final List<WfWorkflow> wfWorkflows = new ArrayList<>(items.size());
+		for (final Long item : items) {
+			Assertion.checkNotNull(item);
+			wfWorkflows.add(getNewWorkflow(wfwdId, username, userLogic, item));
+		}
+
+		workflowStorePlugin.createWorkflowInstances(wfWorkflows);
+
+		return wfWorkflows;
+	}
+
+	private static WfWorkflow getNewWorkflow(final Long wfwdId, final String username, final boolean userLogic,
+			final Long item) {
 		final WfWorkflow wfWorkflow = new WfWorkflow();
 		wfWorkflow.setCreationDate(new Date());
 		wfWorkflow.setItemId(item);
@@ -110,9 +202,6 @@ public final class WorkflowManagerImpl implements WorkflowManager {
 		wfWorkflow.setWfwdId(wfwdId);
 		wfWorkflow.setUserLogic(userLogic);
 		wfWorkflow.setUsername(username);
-
-		workflowStorePlugin.createWorkflowInstance(wfWorkflow);
-
 		return wfWorkflow;
 	}
 
@@ -145,6 +234,78 @@ public final class WorkflowManagerImpl implements WorkflowManager {
 		autoValidateNextActivities(wfWorkflow, wfActivityCurrent, wfWorkflowDefinition.getWfadId(), WfCodeTransition.DEFAULT.getTransitionName());
 	}
 
+	@Override
+	public void startInstances(final List<WfWorkflow> wfWorkflows) {
+		Assertion.checkNotNull(wfWorkflows);
+		// ---
+		if (wfWorkflows.isEmpty()) {
+			return;
+		}
+		final Long wfwdId = wfWorkflows.get(0).getWfwdId();
+		final List<Long> itemIds = new ArrayList<>(wfWorkflows.size());
+		for (final WfWorkflow wfWorkflow : wfWorkflows) {
+			Assertion.checkState(WfStatusEnum.CRE == wfWorkflow.wfStatus().getEnumValue(),
+					"A workflow must be created before starting");
+			Assertion.checkState(wfwdId.equals(wfWorkflow.getWfwdId()),
+					"All the workflows must share the same definition");
+			itemIds.add(wfWorkflow.getItemId());
+		}
+		// ---
+		// The definition, the rule constants, the rules of all the activities and the items are read once for all the instances
+		final WfWorkflowDefinition wfWorkflowDefinition = workflowStorePlugin.readWorkflowDefinition(wfwdId);
+		final WfWorkflowGraph workflowGraph = getWorkflowGraph(wfwdId);
+		final RuleConstants ruleConstants = ruleServices.getConstants(wfwdId);
+		final RuleSet ruleSet = ruleServices.getRuleSet(workflowGraph.getActivityDefinitionIds());
+		final Map<Long, DtObject> items = itemStorePlugin.readItems(itemIds);
+
+		final WfActivityDefinition startActivityDefinition = workflowGraph.getActivityDefinition(wfWorkflowDefinition.getWfadId());
+		final List<WfActivity> currentActivities = new ArrayList<>(wfWorkflows.size());
+		List<Integer> advancingIndexes = new ArrayList<>(wfWorkflows.size());
+		for (final WfWorkflow wfWorkflow : wfWorkflows) {
+			wfWorkflow.wfStatus().setEnumValue(WfStatusEnum.STA);
+			advancingIndexes.add(currentActivities.size());
+			currentActivities.add(getNewActivity(startActivityDefinition, wfWorkflow));
+		}
+		workflowStorePlugin.createActivities(currentActivities);
+
+		// Auto-validation moves all the instances one step at a time : the decisions and the activities of a step are created together
+		final String defaultTransitionName = WfCodeTransition.DEFAULT.getTransitionName();
+		while (!advancingIndexes.isEmpty()) {
+			final List<Boolean> autoValidations = evaluate(advancingIndexes, index -> workflowPredicateAutoValidatePlugin.canAutoValidateActivity(
+					workflowGraph.getActivityDefinition(currentActivities.get(index).getWfadId()),
+					items.get(wfWorkflows.get(index).getItemId()),
+					ruleConstants,
+					ruleSet));
+
+			final List<WfDecision> decisions = new ArrayList<>();
+			final List<WfActivity> nextActivities = new ArrayList<>();
+			final List<Integer> nextAdvancingIndexes = new ArrayList<>();
+			for (int i = 0; i < advancingIndexes.size(); i++) {
+				final Integer index = advancingIndexes.get(i);
+				final WfWorkflow wfWorkflow = wfWorkflows.get(index);
+				final WfActivity wfActivityCurrent = currentActivities.get(index);
+
+				if (autoValidations.get(i)) {
+					decisions.add(getNewAutoDecision(wfActivityCurrent));
+					if (workflowGraph.hasNext(wfActivityCurrent.getWfadId(), defaultTransitionName)) {
+						final WfActivity nextActivity = getNewActivity(workflowGraph.getNext(wfActivityCurrent.getWfadId(), defaultTransitionName), wfWorkflow);
+						currentActivities.set(index, nextActivity);
+						nextActivities.add(nextActivity);
+						nextAdvancingIndexes.add(index);
+					}
+				}
+			}
+			workflowStorePlugin.createDecisions(decisions);
+			workflowStorePlugin.createActivities(nextActivities);
+			advancingIndexes = nextAdvancingIndexes;
+		}
+
+		for (int i = 0; i < wfWorkflows.size(); i++) {
+			wfWorkflows.get(i).setWfaId2(currentActivities.get(i).getWfaId());
+		}
+		workflowStorePlugin.updateWorkflowInstances(wfWorkflows);
+	}
+
 	@Override
 	public void endInstance(final WfWorkflow wfWorkflow) {
 		Assertion.checkNotNull(wfWorkflow);
@@ -178,14 +339,14 @@ public final class WorkflowManagerImpl implements WorkflowManager {
 	@Override
 	public List<WfActivityDefinition> getActivityDefinitions(final WfWorkflow wfWorkflow) {
 
-		final WfWorkflowDefinition wfDefinition = workflowStorePlugin.readWorkflowDefinition(wfWorkflow.getWfwdId());
-		final List<WfActivityDefinition> activities = workflowStorePlugin.findAllDefaultActivityDefinitions(wfDefinition);
+		final List<WfActivityDefinition> activities = getAllDefaultActivities(wfWorkflow.getWfwdId());
 
 		final DtObject obj = itemStorePlugin.readItem(wfWorkflow.getItemId());
+		final RuleConstants ruleConstants = ruleServices.getConstants(wfWorkflow.getWfwdId());
 
 		final List<WfActivityDefinition> ret = new ArrayList<>();
 		for (final WfActivityDefinition activity : activities) {
-			if (!canAutoValidateActivity(activity, obj)) {
+			if (!canAutoValidateActivity(activity, obj, ruleConstants)) {
 				ret.add(activity);
 			}
 		}
@@ -201,12 +362,6 @@ public final class WorkflowManagerImpl implements WorkflowManager {
 		return wfActivity;
 	}
 
-	private WfActivity createActivity(final WfActivityDefinition activityDefinition, final WfWorkflow wfWorkflow) {
-		final WfActivity wfActivity = getNewActivity(activityDefinition, wfWorkflow);
-		workflowStorePlugin.createActivity(wfActivity);
-		return wfActivity;
-	}
-
 	/**
 	 * Auto-validate all the next activities that can be autovalidated. An
 	 * activity can be autovalidated when no rule is defined AND no user is
@@ -220,60 +375,89 @@ public final class WorkflowManagerImpl implements WorkflowManager {
 	 */
 	public boolean autoValidateNextActivities(final WfWorkflow wfWorkflow, final WfActivity currentActivity,
 			final Long wfActivityDefinitionId, final String transitionName) {
+		return autoValidateNextActivities(wfWorkflow, currentActivity, wfActivityDefinitionId, transitionName,
+				getWorkflowGraph(wfWorkflow.getWfwdId()));
+	}
 
-		WfActivityDefinition activityDefinition = workflowStorePlugin.readActivityDefinition(wfActivityDefinitionId);
+	// The graph is loaded once by the calling operation
+	private boolean autoValidateNextActivities(final WfWorkflow wfWorkflow, final WfActivity currentActivity,
+			final Long wfActivityDefinitionId, final String transitionName, final WfWorkflowGraph workflowGraph) {
+		WfActivityDefinition activityDefinition = workflowGraph.getActivityDefinition(wfActivityDefinitionId);
 
 		final DtObject object = itemStorePlugin.readItem(wfWorkflow.getItemId());
-		Long wfCurrentActivityId = null;
+		final RuleConstants ruleConstants = ruleServices.getConstants(wfWorkflow.getWfwdId());
+		boolean moved = false;
 		boolean endReached = false;
 		WfActivity wfActivityCurrent = currentActivity;
 
-		while (canAutoValidateActivity(activityDefinition, object)) {
+		// The activities and decisions of the chain are created together once the chain is over
+		final List<WfActivity> newActivities = new ArrayList<>();
+		final List<WfDecision> newDecisions = new ArrayList<>();
+		final List<WfActivity> decidedActivities = new ArrayList<>();
 
-			autoValidateDecision(wfActivityCurrent);
+		while (canAutoValidateActivity(activityDefinition, object, ruleConstants)) {
 
-			if (!workflowStorePlugin.hasNextActivity(wfActivityCurrent)) {
+			newDecisions.add(getNewAutoDecision(wfActivityCurrent));
+			decidedActivities.add(wfActivityCurrent);
+
+			if (!workflowGraph.hasNext(wfActivityCurrent.getWfadId(), WfCodeTransition.DEFAULT.getTransitionName())) {
 				endReached = true;
 				break;
 			}
-			activityDefinition = workflowStorePlugin.findNextActivity(wfActivityCurrent.getWfadId(), transitionName);
+			activityDefinition = workflowGraph.getNext(wfActivityCurrent.getWfadId(), transitionName);
 
-			final Optional<WfActivity> nextActivity = workflowStorePlugin.findActivityByDefinitionWorkflow(wfWorkflow,
-					activityDefinition);
+			final Optional<WfActivity> nextActivity = findActivityByDefinitionWorkflow(wfWorkflow, activityDefinition,
+					newActivities);
 			if (!nextActivity.isPresent()) {
-				wfActivityCurrent = createActivity(activityDefinition, wfWorkflow);
+				wfActivityCurrent = getNewActivity(activityDefinition, wfWorkflow);
+				newActivities.add(wfActivityCurrent);
 			} else {
 				wfActivityCurrent = nextActivity.get();
+				if (wfActivityCurrent.getExpectedDecisions() != null) {
+					resetQuorum(wfActivityCurrent);
+					workflowStorePlugin.updateActivity(wfActivityCurrent);
+				}
 			}
 
-			wfCurrentActivityId = wfActivityCurrent.getWfaId();
+			moved = true;
+		}
+
+		// Activities first : the decisions reference their ids
+		workflowStorePlugin.createActivities(newActivities);
+		for (int i = 0; i < newDecisions.size(); i++) {
+			newDecisions.get(i).setWfaId(decidedActivities.get(i).getWfaId());
 		}
+		workflowStorePlugin.createDecisions(newDecisions);
 
 		// Remove this workflow update ?
-		if (wfCurrentActivityId != null) {
-			wfWorkflow.setWfaId2(wfCurrentActivityId);
+		if (moved) {
+			wfWorkflow.setWfaId2(wfActivityCurrent.getWfaId());
 			workflowStorePlugin.updateWorkflowInstance(wfWorkflow);
 		}
 		return endReached;
 	}
 
-	/**
-	 * Autovalidate a decision
-	 *
-	 * @param activityDefinition
-	 * @param object
-	 */
-	private void autoValidateDecision(final WfActivity wfActivityCurrent) {
+	private Optional<WfActivity> findActivityByDefinitionWorkflow(final WfWorkflow wfWorkflow,
+			final WfActivityDefinition activityDefinition, final List<WfActivity> newActivities) {
+		for (final WfActivity newActivity : newActivities) {
+			if (activityDefinition.getWfadId().equals(newActivity.getWfadId())) {
+				return Optional.of(newActivity);
+			}
+		}
+		return workflowStorePlugin.findActivityByDefinitionWorkflow(wfWorkflow, activityDefinition);
+	}
+
+	private static WfDecision getNewAutoDecision(final WfActivity wfActivityCurrent) {
 		final WfDecision decision = new WfDecision();
 		decision.setUsername(USER_AUTO);
 		decision.setDecisionDate(new Date());
 		decision.setWfaId(wfActivityCurrent.getWfaId());
-
-		workflowStorePlugin.createDecision(decision);
+		return decision;
 	}
 
-	private boolean canAutoValidateActivity(final WfActivityDefinition activityDefinition, final DtObject object) {
-		return workflowPredicateAutoValidatePlugin.canAutoValidateActivity(activityDefinition, object);
+	private boolean canAutoValidateActivity(final WfActivityDefinition activityDefinition, final DtObject object,
+			final RuleConstants ruleConstants) {
+		return workflowPredicateAutoValidatePlugin.canAutoValidateActivity(activityDefinition, object, ruleConstants);
 	}
 
 	/**
@@ -283,6 +467,17 @@ public final class WorkflowManagerImpl implements WorkflowManager {
 	 */
 	@Override
 	public void saveDecision(final WfWorkflow wfWorkflow, final WfDecision wfDecision) {
+		saveDecisionOnCurrentActivity(wfWorkflow, wfDecision);
+	}
+
+	/**
+	 * Save a decision on the current activity, counting it in the quorum of a multiple activity.
+	 *
+	 * @param wfWorkflow
+	 * @param wfDecision
+	 * @return the current activity, with its updated counters
+	 */
+	private WfActivity saveDecisionOnCurrentActivity(final WfWorkflow wfWorkflow, final WfDecision wfDecision) {
 		Assertion.checkState(wfWorkflow.wfStatus().getEnumValue() == WfStatusEnum.STA, "A workflow must be started before saving decision");
 		// ---
 		final WfWorkflow wfWorkflowFetch = workflowStorePlugin.readWorkflowInstanceForUpdateById(wfWorkflow.getWfwId());
@@ -296,9 +491,79 @@ public final class WorkflowManagerImpl implements WorkflowManager {
 		wfDecision.setWfaId(currentActivity.getWfaId());
 		if (wfDecision.getWfeId() == null) {
 			workflowStorePlugin.createDecision(wfDecision);
+			if (isMultiple(currentActivity)) {
+				countDecision(wfWorkflow, currentActivity, wfDecision);
+			}
 		} else {
 			workflowStorePlugin.updateDecision(wfDecision);
 		}
+		return currentActivity;
+	}
+
+	private boolean isMultiple(final WfActivity wfActivity) {
+		return workflowStorePlugin.readActivityDefinition(wfActivity.getWfadId())
+				.wfMultiplicityDefinition().getEnumValue() == WfMultiplicityDefinitionEnum.MUL;
+	}
+
+	/**
+	 * Count a new decision in the persisted quorum of a multiple activity.
+	 * The workflow row is locked by the caller, so the counters of its current activity are updated by one decision at a time.
+	 */
+	private void countDecision(final WfWorkflow wfWorkflow, final WfActivity wfActivity, final WfDecision wfDecision) {
+		if (wfActivity.getExpectedDecisions() == null) {
+			// First decision : the expected approvers are resolved once and kept with the activity
+			initQuorum(wfWorkflow, wfActivity);
+			return;
+		}
+		final Optional<WfApprover> approver = workflowStorePlugin.readApprover(wfActivity.getWfaId(), wfDecision.getUsername());
+		if (approver.isPresent() && approver.get().getWfeId() == null) {
+			approver.get().setWfeId(wfDecision.getWfeId());
+			workflowStorePlugin.updateApprover(approver.get());
+			wfActivity.setReceivedDecisions(wfActivity.getReceivedDecisions() + 1);
+			workflowStorePlugin.updateActivity(wfActivity);
+		}
+	}
+
+	private void initQuorum(final WfWorkflow wfWorkflow, final WfActivity wfActivity) {
+		// The approvers of a previous pass on this activity (back transition) are replaced
+		workflowStorePlugin.deleteApprovers(wfActivity.getWfaId());
+		final WfQuorum quorum = newQuorum(wfWorkflow, wfActivity);
+		final Map<String, Long> decisionIdsByUsername = new HashMap<>();
+		for (final WfDecision wfDecision : workflowStorePlugin.findAllDecisionByActivity(wfActivity)) {
+			if (quorum.addDecision(wfDecision)) {
+				decisionIdsByUsername.put(wfDecision.getUsername(), wfDecision.getWfeId());
+			}
+		}
+
+		final List<WfApprover> wfApprovers = new ArrayList<>(quorum.getExpectedCount());
+		for (final String accountId : quorum.getExpectedAccountIds()) {
+			final WfApprover wfApprover = new WfApprover();
+			wfApprover.setUsername(accountId);
+			wfApprover.setWfeId(decisionIdsByUsername.get(accountId));
+			wfApprover.setWfaId(wfActivity.getWfaId());
+			wfApprovers.add(wfApprover);
+		}
+		workflowStorePlugin.createApprovers(wfApprovers);
+
+		wfActivity.setExpectedDecisions(quorum.getExpectedCount());
+		wfActivity.setReceivedDecisions(quorum.getDecidedCount());
+		workflowStorePlugin.updateActivity(wfActivity);
+	}
+
+	/**
+	 * An activity entered again (back transition) expects a new quorum, resolved again by its next decision.
+	 */
+	private static void resetQuorum(final WfActivity wfActivity) {
+		wfActivity.setExpectedDecisions(null);
+		wfActivity.setReceivedDecisions(null);
+	}
+
+	private WfQuorum newQuorum(final WfWorkflow wfWorkflow, final WfActivity wfActivity) {
+		final DtObject obj = itemStorePlugin.readItem(wfWorkflow.getItemId());
+		final RuleConstants ruleConstants = ruleServices.getConstants(wfWorkflow.getWfwdId());
+		final RuleContext ruleContext = RuleContext.lazyOf(obj, ruleConstants);
+		final List<Account> accounts = ruleServices.selectAccounts(wfActivity.getWfadId(), ruleContext);
+		return WfQuorum.of(accounts);
 	}
 
 	@Override
@@ -351,19 +616,15 @@ public final class WorkflowManagerImpl implements WorkflowManager {
 		boolean canGoToNextActivity = false;
 
 		if (currentActivityDefinition.wfMultiplicityDefinition().getEnumValue() == WfMultiplicityDefinitionEnum.MUL) {
-			final List<WfDecision> wfDecisions = workflowStorePlugin.findAllDecisionByActivity(currentActivity);
-			final DtObject obj = itemStorePlugin.readItem(wfWorkflow.getItemId());
-			final RuleConstants ruleConstants = ruleServices.getConstants(wfWorkflow.getWfwdId());
-			final RuleContext ruleContext = new RuleContext(obj, ruleConstants);
-			final List<Account> accounts = ruleServices.selectAccounts(currentActivity.getWfadId(), ruleContext);
-
-			final int match = (int) accounts.stream()
-					.filter(filterAccountEqualsDecisionUsername(wfDecisions))
-					.count();
-			if (match == accounts.size()) {
-				canGoToNextActivity = true;
+			if (currentActivity.getExpectedDecisions() != null) {
+				// The quorum is kept up to date by each saved decision
+				canGoToNextActivity = currentActivity.getReceivedDecisions() >= currentActivity.getExpectedDecisions();
+			} else {
+				// No decision saved yet on this activity : the quorum is computed from the decisions and the selected accounts
+				final WfQuorum quorum = newQuorum(wfWorkflow, currentActivity);
+				quorum.addDecisions(workflowStorePlugin.findAllDecisionByActivity(currentActivity));
+				canGoToNextActivity = quorum.isReached();
 			}
-
 		} else {
 			canGoToNextActivity = true;
 		}
@@ -371,10 +632,6 @@ public final class WorkflowManagerImpl implements WorkflowManager {
 		return canGoToNextActivity;
 	}
 
-	private static Predicate<Account> filterAccountEqualsDecisionUsername(final List<WfDecision> wfDecisions) {
-		return account -> wfDecisions.stream().anyMatch(decision -> account.getId().equals(decision.getUsername()));
-	}
-
 	@Override
 	public void goToNextActivity(final WfWorkflow wfWorkflow, final String transitionName) {
 		final WfActivity currentActivity = workflowStorePlugin.readActivity(wfWorkflow.getWfaId2());
@@ -389,9 +646,9 @@ public final class WorkflowManagerImpl implements WorkflowManager {
 
 	private void goToNextActivity(final WfWorkflow wfWorkflow, final WfActivity currentActivity, final String transitionName) {
 		WfActivity nextActivity;
-		if (workflowStorePlugin.hasNextActivity(currentActivity, transitionName)) {
-			final WfActivityDefinition nextActivityDefinition = workflowStorePlugin
-					.findNextActivity(currentActivity.getWfadId(), transitionName);
+		final WfWorkflowGraph workflowGraph = getWorkflowGraph(wfWorkflow.getWfwdId());
+		if (workflowGraph.hasNext(currentActivity.getWfadId(), transitionName)) {
+			final WfActivityDefinition nextActivityDefinition = workflowGraph.getNext(currentActivity.getWfadId(), transitionName);
 
 			final Optional<WfActivity> nextActivityOpt = workflowStorePlugin.findActivityByDefinitionWorkflow(wfWorkflow,
 					nextActivityDefinition);
@@ -399,6 +656,7 @@ public final class WorkflowManagerImpl implements WorkflowManager {
 				nextActivity = new WfActivity();
 			} else {
 				nextActivity = nextActivityOpt.get();
+				resetQuorum(nextActivity);
 			}
 			// Creating the next activity to validate.
 			nextActivity.setCreationDate(new Date());
@@ -415,7 +673,7 @@ public final class WorkflowManagerImpl implements WorkflowManager {
 
 			// Autovalidating next activities
 			final boolean endReached = autoValidateNextActivities(wfWorkflow, nextActivity,
-					nextActivityDefinition.getWfadId(), transitionName);
+					nextActivityDefinition.getWfadId(), transitionName, workflowGraph);
 
 			if (endReached) {
 				endInstance(wfWorkflow);
@@ -430,10 +688,8 @@ public final class WorkflowManagerImpl implements WorkflowManager {
 	public void saveDecisionAndGoToNextActivity(final WfWorkflow wfWorkflow, final String transitionName, final WfDecision wfDecision) {
 		Assertion.checkState(wfWorkflow.wfStatus().getEnumValue() == WfStatusEnum.STA, "A workflow must be started before saving decision");
 		// ---
-		final WfActivity currentActivity = workflowStorePlugin.readActivity(wfWorkflow.getWfaId2());
-
 		// Updating the decision
-		saveDecision(wfWorkflow, wfDecision);
+		final WfActivity currentActivity = saveDecisionOnCurrentActivity(wfWorkflow, wfDecision);
 
 		final boolean canGoToNextActivity = canGoToNextActivity(wfWorkflow, currentActivity);
 
@@ -472,14 +728,33 @@ public final class WorkflowManagerImpl implements WorkflowManager {
 	 * @return the mathcinf activity definitions
 	 */
 	public List<WfActivityDefinition> findActivitiesByCriteria(final RuleCriteria criteria) {
-		final WfWorkflowDefinition workflow = new WfWorkflowDefinition();
-		workflow.setWfwdId(criteria.getWfwdId());
+		final List<RuleConditionCriteria> conditionCriteria = new ArrayList<>(2);
+		conditionCriteria.add(criteria.getConditionCriteria1());
+		if (criteria.getConditionCriteria2() != null) {
+			conditionCriteria.add(criteria.getConditionCriteria2());
+		}
+		return findActivitiesByCriteria(criteria.getWfwdId(), conditionCriteria);
+	}
+
+	@Override
+	public List<WfActivityDefinition> findActivitiesByCriteria(final WfWorkflowDefinition wfWorkflowDefinition, final WfActivityCriteria criteria) {
+		Assertion.checkNotNull(wfWorkflowDefinition);
+		Assertion.checkNotNull(criteria);
+		Assertion.checkNotNull(criteria.getConditionCriteria());
+		// ---
+		return findActivitiesByCriteria(wfWorkflowDefinition.getWfwdId(), criteria.getConditionCriteria());
+	}
 
-		final List<WfActivityDefinition> activities = getAllDefaultActivities(workflow);
+	private List<WfActivityDefinition> findActivitiesByCriteria(final Long wfwdId, final List<RuleConditionCriteria> conditionCriteria) {
+		final List<WfActivityDefinition> activities = getAllDefaultActivities(wfwdId);
 		final Map<Long, WfActivityDefinition> mapAct = activities.stream()
 				.collect(Collectors.toMap(WfActivityDefinition::getWfadId, Function.identity()));
+		final List<Long> activityIds = activities.stream()
+				.map(WfActivityDefinition::getWfadId)
+				.collect(Collectors.toList());
 
-		final List<Long> matchingActivities = ruleServices.findItemsByCriteria(criteria, new ArrayList<>(mapAct.keySet()));
+		// One search for all the activities, whatever the number of criteria
+		final List<Long> matchingActivities = ruleServices.findItemsByCriteria(conditionCriteria, activityIds);
 
 		return matchingActivities.stream().map(mapAct::get).collect(Collectors.toList());
 	}
@@ -606,8 +881,20 @@ public final class WorkflowManagerImpl implements WorkflowManager {
 		}
 	}
 
-	private List<WfActivityDefinition> getAllDefaultActivities(final WfWorkflowDefinition wfWorkflowDefinition) {
-		return workflowStorePlugin.findAllDefaultActivityDefinitions(wfWorkflowDefinition);
+	private List<WfActivityDefinition> getAllDefaultActivities(final Long wfwdId) {
+		// The activity definitions of a cached graph are not given to the caller
+		return getWorkflowGraph(wfwdId).getDefaultActivityDefinitions().stream()
+				.map(CachingWorkflowStorePlugin::copy)
+				.collect(Collectors.toList());
+	}
+
+	private WfWorkflowGraph getWorkflowGraph(final Long wfwdId) {
+		Assertion.checkNotNull(wfwdId);
+		// ---
+		if (definitionCache.isPresent()) {
+			return definitionCache.get().readWorkflowGraph(wfwdId);
+		}
+		return WfWorkflowGraph.load(workflowStorePlugin, wfwdId);
 	}
 
 	@Override
@@ -615,46 +902,11 @@ public final class WorkflowManagerImpl implements WorkflowManager {
 		return workflowStorePlugin.readActivity(wfaId);
 	}
 
-	private Map<Long, List<RuleDefinition>> constructDicRulesForWorkflowDefinition(final long wfwdId) {
-		final List<RuleDefinition> rules = workflowStorePlugin.findAllRulesByWorkflowDefinitionId(wfwdId);
-		// Build a dictionary from the rules: WfadId => List<RuleDefinition>
-		return rules.stream()
-				.collect(Collectors.groupingBy(RuleDefinition::getItemId));
-	}
-
-	private Map<Long, List<RuleConditionDefinition>> constructDicConditionsForWorkflowDefinition(final long wfwdId) {
-		final List<RuleConditionDefinition> conditions = workflowStorePlugin.findAllConditionsByWorkflowDefinitionId(wfwdId);
-		// Build a dictionary from the conditions: RudId => List<RuleConditionDefinition>
-		return conditions.stream().collect(Collectors.groupingBy(RuleConditionDefinition::getRudId));
-	}
-
-	private Map<Long, List<SelectorDefinition>> constructDicSelectorsForWorkflowDefinition(final long wfwdId) {
-		final List<SelectorDefinition> selectors = workflowStorePlugin.findAllSelectorsByWorkflowDefinitionId(wfwdId);
-		// Build a dictionary from the selectors: WfadId => List<SelectorDefinition>
-		return selectors.stream()
-				.collect(Collectors.groupingBy(SelectorDefinition::getItemId));
-	}
-
-	private Map<Long, List<RuleFilterDefinition>> constructDicFiltersForWorkflowDefinition(final long wfwdId) {
-		final List<RuleFilterDefinition> filters = workflowStorePlugin.findAllFiltersByWorkflowDefinitionId(wfwdId);
-		// Build a dictionary from the filters: SelId => List<RuleFilterDefinition>
-		return filters.stream()
-				.collect(Collectors.groupingBy(RuleFilterDefinition::getSelId));
-	}
-
 	@Override
 	public List<WfWorkflowDecision> getWorkflowDecision(final long wfwId) {
 		// Get the workflow from id
 		final WfWorkflow wfWorkflow = workflowStorePlugin.readWorkflowInstanceById(wfwId);
 
-		final long wfwdId = wfWorkflow.getWfwdId();
-		// Get the definition
-		final WfWorkflowDefinition wfDefinition = workflowStorePlugin.readWorkflowDefinition(wfwdId);
-
-		// Get all the activity definitions for the workflow definition
-		final List<WfActivityDefinition> activityDefinitions = workflowStorePlugin
-				.findAllDefaultActivityDefinitions(wfDefinition);
-
 		// Build a map : WfadId => WfActivity
 		final List<WfActivity> activities = workflowStorePlugin.findActivitiesByWorkflowId(wfWorkflow);
 		final Map<Long, WfActivity> dicActivities = activities.stream()
@@ -666,29 +918,77 @@ public final class WorkflowManagerImpl implements WorkflowManager {
 		final Map<Long, List<WfDecision>> dicDecision = allDecisions.stream()
 				.collect(Collectors.groupingBy(WfDecision::getWfaId));
 
-		final Map<Long, List<RuleDefinition>> dicRules = constructDicRulesForWorkflowDefinition(wfwdId);
-		final Map<Long, List<RuleConditionDefinition>> dicConditions = constructDicConditionsForWorkflowDefinition(wfwdId);
-		final Map<Long, List<SelectorDefinition>> dicSelectors = constructDicSelectorsForWorkflowDefinition(wfwdId);
-		final Map<Long, List<RuleFilterDefinition>> dicFilters = constructDicFiltersForWorkflowDefinition(wfwdId);
-
 		// Fetch the object linked to the workflow instance.
 		final DtObject obj = itemStorePlugin.readItem(wfWorkflow.getItemId());
 
-		final RuleConstants ruleConstants = ruleServices.getConstants(wfwdId);
-		final RuleContext ruleContext = new RuleContext(obj, ruleConstants);
+		return buildWorkflowDecisions(new WfDecisionDefinitions(wfWorkflow.getWfwdId()), obj, dicActivities, dicDecision);
+	}
+
+	@Override
+	public List<WfListWorkflowDecision> getWorkflowDecisions(final List<Long> wfwIds) {
+		Assertion.checkNotNull(wfwIds);
+		// ---
+		final List<WfWorkflow> wfWorkflows = workflowStorePlugin.readWorkflowInstancesByIds(wfwIds.stream()
+				.distinct()
+				.collect(Collectors.toList()));
+		final Map<Long, WfWorkflow> dicWorkflows = wfWorkflows.stream()
+				.collect(Collectors.toMap(WfWorkflow::getWfwId, Function.identity()));
+
+		// Activities and decisions of all the workflows, loaded at once : WfwId => (WfadId => WfActivity), WfaId => List<WfDecision>
+		final Map<Long, Map<Long, WfActivity>> dicActivitiesByWorkflow = workflowStorePlugin.findActivitiesByWorkflows(wfWorkflows)
+				.stream()
+				.collect(Collectors.groupingBy(WfActivity::getWfwId, Collectors.toMap(WfActivity::getWfadId, Function.identity())));
+		final Map<Long, List<WfDecision>> dicDecision = workflowStorePlugin.findDecisionsByWorkflows(wfWorkflows)
+				.stream()
+				.collect(Collectors.groupingBy(WfDecision::getWfaId));
+
+		// Items of all the workflows, loaded at once
+		final Map<Long, DtObject> dicItems = itemStorePlugin.readItems(wfWorkflows.stream()
+				.map(WfWorkflow::getItemId)
+				.distinct()
+				.collect(Collectors.toList()));
+
+		// Activity definitions, rules and constants are shared by the workflows of a same definition
+		final Map<Long, WfDecisionDefinitions> dicDefinitions = new HashMap<>();
+		final List<WfWorkflow> requestedWorkflows = new ArrayList<>(wfwIds.size());
+		for (final Long wfwId : wfwIds) {
+			final WfWorkflow wfWorkflow = dicWorkflows.get(wfwId);
+			Assertion.checkNotNull(wfWorkflow, "Workflow {0} not found", wfwId);
+			// ---
+			dicDefinitions.computeIfAbsent(wfWorkflow.getWfwdId(), WfDecisionDefinitions::new);
+			requestedWorkflows.add(wfWorkflow);
+		}
+
+		// Everything is loaded : the workflows are evaluated independently
+		return evaluate(requestedWorkflows, wfWorkflow -> {
+			final WfListWorkflowDecision listWorkflowDecision = new WfListWorkflowDecision();
+			listWorkflowDecision.setWfWorkflow(wfWorkflow);
+			listWorkflowDecision.setWorkflowDecisions(buildWorkflowDecisions(dicDefinitions.get(wfWorkflow.getWfwdId()),
+					dicItems.get(wfWorkflow.getItemId()),
+					dicActivitiesByWorkflow.getOrDefault(wfWorkflow.getWfwId(), Collections.emptyMap()),
+					dicDecision));
+			return listWorkflowDecision;
+		});
+	}
+
+	private List<WfWorkflowDecision> buildWorkflowDecisions(final WfDecisionDefinitions decisionDefinitions, final DtObject obj,
+			final Map<Long, WfActivity> dicActivities, final Map<Long, List<WfDecision>> dicDecision) {
+		final RuleContext ruleContext = RuleContext.lazyOf(obj, decisionDefinitions.ruleConstants);
 
 		final List<WfWorkflowDecision> workflowDecisions = new ArrayList<>();
 
-		for (final WfActivityDefinition activityDefinition : activityDefinitions) {
+		for (final WfActivityDefinition activityDefinition : decisionDefinitions.activityDefinitions) {
 			final long actDefId = activityDefinition.getWfadId();
-			final boolean ruleValid = ruleServices.isRuleValid(actDefId, ruleContext, dicRules, dicConditions);
+			final boolean ruleValid = ruleServices.isRuleValid(actDefId, ruleContext, decisionDefinitions.ruleSet);
 
 			if (ruleValid) {
-				final List<AccountGroup> groups = ruleServices.selectGroups(actDefId, ruleContext, dicSelectors,
-						dicFilters);
+				final List<AccountGroup> groups = ruleServices.findMatchingSelectors(actDefId, ruleContext, decisionDefinitions.ruleSet)
+						.stream()
+						.map(selector -> decisionDefinitions.groupsById.get(selector.getGroupId()))
+						.collect(Collectors.toList());
 
 				final WfWorkflowDecision wfWorkflowDecision = new WfWorkflowDecision();
-				wfWorkflowDecision.setActivityDefinition(activityDefinition);
+				wfWorkflowDecision.setActivityDefinition(CachingWorkflowStorePlugin.copy(activityDefinition));
 				final WfActivity wfActivity = dicActivities.get(activityDefinition.getWfadId());
 				wfWorkflowDecision.setActivity(wfActivity);
 				wfWorkflowDecision.setGroups(groups);
@@ -704,4 +1004,31 @@ public final class WorkflowManagerImpl implements WorkflowManager {
 		return workflowDecisions;
 	}
 
+	/**
+	 * Definition level data needed to evaluate the decisions of the workflows of a workflow definition.
+	 */
+	private final class WfDecisionDefinitions {
+		// All the activity definitions following the default transitions
+		private final List<WfActivityDefinition> activityDefinitions;
+		// Rules and selectors of all the activities, loaded at once
+		private final RuleSet ruleSet;
+		private final RuleConstants ruleConstants;
+		// Groups of all the selectors, read here so that the evaluations do not use the AccountManager
+		private final Map<String, AccountGroup> groupsById = new HashMap<>();
+
+		WfDecisionDefinitions(final Long wfwdId) {
+			activityDefinitions = getWorkflowGraph(wfwdId).getDefaultActivityDefinitions();
+			ruleSet = ruleServices.getRuleSet(activityDefinitions.stream()
+					.map(WfActivityDefinition::getWfadId)
+					.collect(Collectors.toList()));
+			ruleConstants = ruleServices.getConstants(wfwdId);
+			for (final WfActivityDefinition activityDefinition : activityDefinitions) {
+				for (final SelectorDefinition selector : ruleSet.getSelectors(activityDefinition.getWfadId())) {
+					groupsById.computeIfAbsent(selector.getGroupId(),
+							groupId -> accountManager.getGroup(DtObjectUtil.createURI(AccountGroup.class, groupId)));
+				}
+			}
+		}
+	}
+
 }
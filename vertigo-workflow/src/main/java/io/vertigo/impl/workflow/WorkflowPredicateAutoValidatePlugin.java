@@ -23,6 +23,8 @@ package io.vertigo.impl.workflow;
 
 import io.vertigo.core.component.Plugin;
 import io.vertigo.dynamo.domain.model.DtObject;
+import io.vertigo.rules.services.RuleConstants;
+import io.vertigo.rules.services.RuleSet;
 import io.vertigo.workflow.domain.model.WfActivityDefinition;
 
 /**
@@ -39,4 +41,26 @@ public interface WorkflowPredicateAutoValidatePlugin extends Plugin {
 	 */
 	boolean canAutoValidateActivity(final WfActivityDefinition activityDefinition, final DtObject object);
 
+	/**
+	 * Predicate to determine if the current activityDefinition can be autovalidated for the provided object,
+	 * using rule constants already fetched by the caller
+	 * @param activityDefinition the activityDefinition to test
+	 * @param object the object to test
+	 * @param ruleConstants the rule constants of the workflow definition
+	 * @return true if the current activity can be auto validated, false otherwise
+	 */
+	boolean canAutoValidateActivity(final WfActivityDefinition activityDefinition, final DtObject object, final RuleConstants ruleConstants);
+
+	/**
+	 * Predicate to determine if the current activityDefinition can be autovalidated for the provided object,
+	 * using rule constants and rules already fetched by the caller : no store is read
+	 * @param activityDefinition the activityDefinition to test
+	 * @param object the object to test
+	 * @param ruleConstants the rule constants of the workflow definition
+	 * @param ruleSet the rules of the activity definition
+	 * @return true if the current activity can be auto validated, false otherwise
+	 */
+	boolean canAutoValidateActivity(final WfActivityDefinition activityDefinition, final DtObject object, final RuleConstants ruleConstants,
+			final RuleSet ruleSet);
+
 }
@@ -28,6 +28,7 @@ import io.vertigo.rules.domain.RuleFilterDefinition;
 import io.vertigo.rules.domain.SelectorDefinition;
 import io.vertigo.workflow.WfTransitionCriteria;
 import io.vertigo.workflow.domain.instance.WfActivity;
+import io.vertigo.workflow.domain.instance.WfApprover;
 import io.vertigo.workflow.domain.instance.WfDecision;
 import io.vertigo.workflow.domain.instance.WfWorkflow;
 import io.vertigo.workflow.domain.model.WfActivityDefinition;
@@ -49,6 +50,13 @@ public interface WorkflowStorePlugin extends Plugin {
 	 */
 	void createWorkflowInstance(WfWorkflow workflow);
 
+	/**
+	 * Create new workflows.
+	 *
+	 * @param workflows
+	 */
+	void createWorkflowInstances(List<WfWorkflow> workflows);
+
 	/**
 	 * Get a workflow instance.
 	 *
@@ -58,6 +66,15 @@ public interface WorkflowStorePlugin extends Plugin {
 	 */
 	WfWorkflow readWorkflowInstanceById(Long wfwId);
 
+	/**
+	 * Get several workflow instances.
+	 *
+	 * @param wfwIds
+	 *            ids of the workflow instances
+	 * @return the corresponding workflows, in no particular order
+	 */
+	List<WfWorkflow> readWorkflowInstancesByIds(List<Long> wfwIds);
+
 	/**
 	 * Get and lock a workflow instance.
 	 *
@@ -86,6 +103,14 @@ public interface WorkflowStorePlugin extends Plugin {
 	 */
 	void updateWorkflowInstance(WfWorkflow workflow);
 
+	/**
+	 * Update several workflow instances. /!\ The ids must be set
+	 *
+	 * @param workflows
+	 *            the workflows to update
+	 */
+	void updateWorkflowInstances(List<WfWorkflow> workflows);
+
 	/**
 	 * Fetch an activity by id
 	 *
@@ -110,6 +135,13 @@ public interface WorkflowStorePlugin extends Plugin {
 	 */
 	void createActivity(WfActivity wfActivity);
 
+	/**
+	 * Create new activities
+	 *
+	 * @param wfActivities
+	 */
+	void createActivities(List<WfActivity> wfActivities);
+
 	/**
 	 * Update an existing activity
 	 *
@@ -132,6 +164,13 @@ public interface WorkflowStorePlugin extends Plugin {
 	 */
 	void createDecision(WfDecision wfDecision);
 
+	/**
+	 * Create new decisions
+	 *
+	 * @param wfDecisions
+	 */
+	void createDecisions(List<WfDecision> wfDecisions);
+
 	/**
 	 * Update a decision
 	 *
@@ -148,6 +187,36 @@ public interface WorkflowStorePlugin extends Plugin {
 	 */
 	List<WfDecision> findAllDecisionByActivity(WfActivity wfActivity);
 
+	/**
+	 * Create the expected approvers of a multiple activity
+	 *
+	 * @param wfApprovers
+	 */
+	void createApprovers(List<WfApprover> wfApprovers);
+
+	/**
+	 * Find the expected approver of an activity by its username
+	 *
+	 * @param wfaId
+	 * @param username
+	 * @return the approver if the user is expected to decide on the activity
+	 */
+	Optional<WfApprover> readApprover(Long wfaId, String username);
+
+	/**
+	 * Update an approver
+	 *
+	 * @param wfApprover
+	 */
+	void updateApprover(WfApprover wfApprover);
+
+	/**
+	 * Delete the expected approvers of an activity
+	 *
+	 * @param wfaId
+	 */
+	void deleteApprovers(Long wfaId);
+
 	/**
 	 * Does the provided activity has a next activity using the default
 	 * transition
@@ -246,6 +315,22 @@ public interface WorkflowStorePlugin extends Plugin {
 	 */
 	List<WfActivityDefinition> findAllDefaultActivityDefinitions(WfWorkflowDefinition wfWorkflowDefinition);
 
+	/**
+	 * Find all the activity definitions of a workflow definition, whatever the transitions
+	 *
+	 * @param wfwdId Workflow Definition Id
+	 * @return all the activity definitions linked to the workflow definition
+	 */
+	List<WfActivityDefinition> findAllActivityDefinitionsByWorkflowDefinitionId(long wfwdId);
+
+	/**
+	 * Find all the transitions of a workflow definition
+	 *
+	 * @param wfwdId Workflow Definition Id
+	 * @return all the transitions linked to the workflow definition
+	 */
+	List<WfTransitionDefinition> findAllTransitionsByWorkflowDefinitionId(long wfwdId);
+
 	/**
 	 * Add a transition
 	 *
@@ -316,6 +401,22 @@ public interface WorkflowStorePlugin extends Plugin {
 	 */
 	List<WfDecision> findDecisionsByWorkflowId(WfWorkflow wfWorkflow);
 
+	/**
+	 * Find all activities for several workflows
+	 *
+	 * @param wfWorkflows
+	 * @return all activities of these workflows
+	 */
+	List<WfActivity> findActivitiesByWorkflows(List<WfWorkflow> wfWorkflows);
+
+	/**
+	 * Find all decisions for several workflows
+	 *
+	 * @param wfWorkflows
+	 * @return all decisions of these workflows
+	 */
+	List<WfDecision> findDecisionsByWorkflows(List<WfWorkflow> wfWorkflows);
+
 	// Custom
 	/**
 	 * Find all the rules for a workflow definition
@@ -19,13 +19,15 @@
 package io.vertigo.plugins.workflow.memory;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
 import java.util.concurrent.atomic.AtomicLong;
-import java.util.stream.Collectors;
 
 import javax.inject.Inject;
 
@@ -39,6 +41,7 @@ import io.vertigo.rules.services.RuleServices;
 import io.vertigo.workflow.WfCodeTransition;
 import io.vertigo.workflow.WfTransitionCriteria;
 import io.vertigo.workflow.domain.instance.WfActivity;
+import io.vertigo.workflow.domain.instance.WfApprover;
 import io.vertigo.workflow.domain.instance.WfDecision;
 import io.vertigo.workflow.domain.instance.WfWorkflow;
 import io.vertigo.workflow.domain.model.WfActivityDefinition;
@@ -46,6 +49,8 @@ import io.vertigo.workflow.domain.model.WfTransitionDefinition;
 import io.vertigo.workflow.domain.model.WfWorkflowDefinition;
 
 /**
+ * In memory workflow store.
+ * Activities are indexed by workflow and decisions by activity, so instance lookups only visit their results.
  *
  * @author xdurand
  *
@@ -68,6 +73,17 @@ public final class MemoryWorkflowStorePlugin implements WorkflowStorePlugin {
 	private final Map<Long, WfDecision> inMemoryDecisionStore = new ConcurrentHashMap<>();
 	private final AtomicLong memoryDecisionSequenceGenerator = new AtomicLong(0);
 
+	// Approver (by activity, then by username)
+	private final Map<Long, Map<String, WfApprover>> inMemoryApproverStore = new ConcurrentHashMap<>();
+	private final AtomicLong memoryApproverSequenceGenerator = new AtomicLong(0);
+
+	// Secondary indexes (ordered by id)
+	private final Map<Long, Set<Long>> activityIdsByWorkflowId = new ConcurrentHashMap<>();
+	private final Map<Long, Set<Long>> decisionIdsByActivityId = new ConcurrentHashMap<>();
+	// Key under which each activity and decision is indexed, to drop the stale entry when it moves
+	private final Map<Long, Long> indexedWorkflowIdByActivityId = new ConcurrentHashMap<>();
+	private final Map<Long, Long> indexedActivityIdByDecisionId = new ConcurrentHashMap<>();
+
 	// ActivityDefinition
 	private final Map<Long, WfActivityDefinition> inMemoryActivityDefinitionStore = new ConcurrentHashMap<>();
 	private final AtomicLong memoryActivityDefinitionSequenceGenerator = new AtomicLong(0);
@@ -89,6 +105,13 @@ public final class MemoryWorkflowStorePlugin implements WorkflowStorePlugin {
 		inMemoryWorkflowInstanceStore.put(generatedId, workflow);
 	}
 
+	@Override
+	public void createWorkflowInstances(final List<WfWorkflow> workflows) {
+		Assertion.checkNotNull(workflows);
+		// ---
+		workflows.forEach(this::createWorkflowInstance);
+	}
+
 	@Override
 	public WfWorkflow readWorkflowInstanceById(final Long wfwId) {
 		Assertion.checkNotNull(wfwId);
@@ -96,6 +119,20 @@ public final class MemoryWorkflowStorePlugin implements WorkflowStorePlugin {
 		return inMemoryWorkflowInstanceStore.get(wfwId);
 	}
 
+	@Override
+	public List<WfWorkflow> readWorkflowInstancesByIds(final List<Long> wfwIds) {
+		Assertion.checkNotNull(wfwIds);
+		// ---
+		final List<WfWorkflow> wfWorkflows = new ArrayList<>(wfwIds.size());
+		for (final Long wfwId : wfwIds) {
+			final WfWorkflow wfWorkflow = inMemoryWorkflowInstanceStore.get(wfwId);
+			if (wfWorkflow != null) {
+				wfWorkflows.add(wfWorkflow);
+			}
+		}
+		return wfWorkflows;
+	}
+
 	@Override
 	public void updateWorkflowInstance(final WfWorkflow workflow) {
 		Assertion.checkNotNull(workflow);
@@ -106,37 +143,86 @@ public final class MemoryWorkflowStorePlugin implements WorkflowStorePlugin {
 		inMemoryWorkflowInstanceStore.put(workflow.getWfwId(), workflow);
 	}
 
+	@Override
+	public void updateWorkflowInstances(final List<WfWorkflow> workflows) {
+		Assertion.checkNotNull(workflows);
+		// ---
+		workflows.forEach(this::updateWorkflowInstance);
+	}
+
 	@Override
 	public List<WfActivity> findActivitiesByWorkflowId(final WfWorkflow wfWorkflow) {
 		Assertion.checkNotNull(wfWorkflow);
 		// ---
-		final List<WfActivity> wfActivities = new ArrayList<>();
-		for (final WfActivity wfActivity : inMemoryActivityStore.values()) {
-			if (wfWorkflow.getWfwId().equals(wfActivity.getWfwId())) {
-				wfActivities.add(wfActivity);
-			}
+		final Set<Long> wfaIds = activityIdsByWorkflowId.getOrDefault(wfWorkflow.getWfwId(), Collections.emptySet());
+		final List<WfActivity> wfActivities = new ArrayList<>(wfaIds.size());
+		for (final Long wfaId : wfaIds) {
+			wfActivities.add(inMemoryActivityStore.get(wfaId));
 		}
 
 		return wfActivities;
 	}
 
+	private List<WfDecision> findDecisionsByActivityId(final Long wfaId) {
+		final Set<Long> wfeIds = decisionIdsByActivityId.getOrDefault(wfaId, Collections.emptySet());
+		final List<WfDecision> wfDecisions = new ArrayList<>(wfeIds.size());
+		for (final Long wfeId : wfeIds) {
+			wfDecisions.add(inMemoryDecisionStore.get(wfeId));
+		}
+
+		return wfDecisions;
+	}
+
+	private static void index(final Map<Long, Set<Long>> index, final Map<Long, Long> indexedKeyById, final Long key, final Long id) {
+		// An object without key isn't indexed
+		final Long previousKey;
+		if (key != null) {
+			index.computeIfAbsent(key, k -> new ConcurrentSkipListSet<>()).add(id);
+			previousKey = indexedKeyById.put(id, key);
+		} else {
+			previousKey = indexedKeyById.remove(id);
+		}
+		if (previousKey != null && !previousKey.equals(key)) {
+			final Set<Long> previousIds = index.get(previousKey);
+			if (previousIds != null) {
+				previousIds.remove(id);
+			}
+		}
+	}
+
 	@Override
 	public List<WfDecision> findDecisionsByWorkflowId(final WfWorkflow wfWorkflow) {
 		Assertion.checkNotNull(wfWorkflow);
 		Assertion.checkNotNull(wfWorkflow.getWfwdId());
 		// ---
 
-		final List<WfActivity> wfActivities = findActivitiesByWorkflowId(wfWorkflow);
+		final List<WfDecision> wfDecisions = new ArrayList<>();
+		for (final Long wfaId : activityIdsByWorkflowId.getOrDefault(wfWorkflow.getWfwId(), Collections.emptySet())) {
+			wfDecisions.addAll(findDecisionsByActivityId(wfaId));
+		}
 
-		final List<Long> wfActivitiesId = wfActivities.stream().map(a -> a.getWfaId()).collect(Collectors.toList());
+		return wfDecisions;
+	}
 
-		final List<WfDecision> wfDecisions = new ArrayList<>();
-		for (final WfDecision wfDecision : inMemoryDecisionStore.values()) {
-			if (wfActivitiesId.contains(wfDecision.getWfaId())) {
-				wfDecisions.add(wfDecision);
-			}
+	@Override
+	public List<WfActivity> findActivitiesByWorkflows(final List<WfWorkflow> wfWorkflows) {
+		Assertion.checkNotNull(wfWorkflows);
+		// ---
+		final List<WfActivity> wfActivities = new ArrayList<>();
+		for (final WfWorkflow wfWorkflow : wfWorkflows) {
+			wfActivities.addAll(findActivitiesByWorkflowId(wfWorkflow));
 		}
+		return wfActivities;
+	}
 
+	@Override
+	public List<WfDecision> findDecisionsByWorkflows(final List<WfWorkflow> wfWorkflows) {
+		Assertion.checkNotNull(wfWorkflows);
+		// ---
+		final List<WfDecision> wfDecisions = new ArrayList<>();
+		for (final WfWorkflow wfWorkflow : wfWorkflows) {
+			wfDecisions.addAll(findDecisionsByWorkflowId(wfWorkflow));
+		}
 		return wfDecisions;
 	}
 
@@ -148,25 +234,24 @@ public final class MemoryWorkflowStorePlugin implements WorkflowStorePlugin {
 				"This workflow cannot be updated : It does not exist in the store");
 		// ---
 		inMemoryDecisionStore.put(wfDecision.getWfeId(), wfDecision);
+		index(decisionIdsByActivityId, indexedActivityIdByDecisionId, wfDecision.getWfaId(), wfDecision.getWfeId());
 	}
 
 	@Override
 	public List<WfDecision> readDecisionsByActivityId(final Long wfaId) {
-		final List<WfDecision> collect = new ArrayList<>();
-		for (final WfDecision wfDecision : inMemoryDecisionStore.values()) {
-			if (wfaId.equals(wfDecision.getWfaId())) {
-				collect.add(wfDecision);
-			}
-		}
-
-		return collect;
+		Assertion.checkNotNull(wfaId);
+		// ---
+		return findDecisionsByActivityId(wfaId);
 	}
 
 	@Override
 	public Optional<WfActivity> findActivityByDefinitionWorkflow(final WfWorkflow wfWorkflow,
 			final WfActivityDefinition wfActivityDefinition) {
-
-		for (final WfActivity wfActivity : inMemoryActivityStore.values()) {
+		Assertion.checkNotNull(wfWorkflow);
+		Assertion.checkNotNull(wfActivityDefinition);
+		// ---
+		for (final Long wfaId : activityIdsByWorkflowId.getOrDefault(wfWorkflow.getWfwId(), Collections.emptySet())) {
+			final WfActivity wfActivity = inMemoryActivityStore.get(wfaId);
 			if (wfActivityDefinition.getWfadId().equals(wfActivity.getWfadId())) {
 				return Optional.of(wfActivity);
 			}
@@ -244,6 +329,14 @@ public final class MemoryWorkflowStorePlugin implements WorkflowStorePlugin {
 		final long generatedId = memoryActivitySequenceGenerator.addAndGet(1);
 		wfActivity.setWfaId(generatedId);
 		inMemoryActivityStore.put(generatedId, wfActivity);
+		index(activityIdsByWorkflowId, indexedWorkflowIdByActivityId, wfActivity.getWfwId(), generatedId);
+	}
+
+	@Override
+	public void createActivities(final List<WfActivity> wfActivities) {
+		Assertion.checkNotNull(wfActivities);
+		// ---
+		wfActivities.forEach(this::createActivity);
 	}
 
 	@Override
@@ -254,6 +347,7 @@ public final class MemoryWorkflowStorePlugin implements WorkflowStorePlugin {
 				"This activity cannot be updated : It does not exist in the store");
 		// ---
 		inMemoryActivityStore.put(wfActivity.getWfaId(), wfActivity);
+		index(activityIdsByWorkflowId, indexedWorkflowIdByActivityId, wfActivity.getWfwId(), wfActivity.getWfaId());
 	}
 
 	@Override
@@ -265,6 +359,14 @@ public final class MemoryWorkflowStorePlugin implements WorkflowStorePlugin {
 		final long generatedId = memoryDecisionSequenceGenerator.addAndGet(1);
 		wfDecision.setWfeId(generatedId);
 		inMemoryDecisionStore.put(wfDecision.getWfeId(), wfDecision);
+		index(decisionIdsByActivityId, indexedActivityIdByDecisionId, wfDecision.getWfaId(), generatedId);
+	}
+
+	@Override
+	public void createDecisions(final List<WfDecision> wfDecisions) {
+		Assertion.checkNotNull(wfDecisions);
+		// ---
+		wfDecisions.forEach(this::createDecision);
 	}
 
 	@Override
@@ -272,14 +374,47 @@ public final class MemoryWorkflowStorePlugin implements WorkflowStorePlugin {
 		Assertion.checkNotNull(wfActivity);
 		Assertion.checkNotNull(wfActivity.getWfaId());
 		// ---
-		final List<WfDecision> wfDecisions = new ArrayList<>();
-		for (final WfDecision wfDecision : inMemoryDecisionStore.values()) {
-			if (wfActivity.getWfaId().equals(wfDecision.getWfaId())) {
-				wfDecisions.add(wfDecision);
-			}
+		return findDecisionsByActivityId(wfActivity.getWfaId());
+	}
+
+	@Override
+	public void createApprovers(final List<WfApprover> wfApprovers) {
+		Assertion.checkNotNull(wfApprovers);
+		// ---
+		for (final WfApprover wfApprover : wfApprovers) {
+			Assertion.checkNotNull(wfApprover.getWfaId());
+			Assertion.checkState(wfApprover.getWfapId() == null, "A new approver must not have an id");
+			// ---
+			wfApprover.setWfapId(memoryApproverSequenceGenerator.addAndGet(1));
+			inMemoryApproverStore.computeIfAbsent(wfApprover.getWfaId(), k -> new ConcurrentHashMap<>())
+					.put(wfApprover.getUsername(), wfApprover);
 		}
+	}
 
-		return wfDecisions;
+	@Override
+	public Optional<WfApprover> readApprover(final Long wfaId, final String username) {
+		Assertion.checkNotNull(wfaId);
+		Assertion.checkNotNull(username);
+		// ---
+		final Map<String, WfApprover> approvers = inMemoryApproverStore.get(wfaId);
+		return approvers == null ? Optional.empty() : Optional.ofNullable(approvers.get(username));
+	}
+
+	@Override
+	public void updateApprover(final WfApprover wfApprover) {
+		Assertion.checkNotNull(wfApprover);
+		Assertion.checkNotNull(wfApprover.getWfapId());
+		Assertion.checkState(readApprover(wfApprover.getWfaId(), wfApprover.getUsername()).isPresent(),
+				"This approver cannot be updated : It does not exist in the store");
+		// ---
+		inMemoryApproverStore.get(wfApprover.getWfaId()).put(wfApprover.getUsername(), wfApprover);
+	}
+
+	@Override
+	public void deleteApprovers(final Long wfaId) {
+		Assertion.checkNotNull(wfaId);
+		// ---
+		inMemoryApproverStore.remove(wfaId);
 	}
 
 	// Definition
@@ -356,6 +491,7 @@ public final class MemoryWorkflowStorePlugin implements WorkflowStorePlugin {
 		// ---
 		final long generatedId = memoryActivityDefinitionSequenceGenerator.addAndGet(1);
 		wfActivityDefinition.setWfadId(generatedId);
+		wfActivityDefinition.setWfwdId(wfWorkflowDefinition.getWfwdId());
 
 		inMemoryActivityDefinitionStore.put(generatedId, wfActivityDefinition);
 	}
@@ -430,6 +566,32 @@ public final class MemoryWorkflowStorePlugin implements WorkflowStorePlugin {
 		return retAllDefaultActivities;
 	}
 
+	@Override
+	public List<WfActivityDefinition> findAllActivityDefinitionsByWorkflowDefinitionId(final long wfwdId) {
+		final Long key = wfwdId;
+		final List<WfActivityDefinition> wfActivityDefinitions = new ArrayList<>();
+		for (final WfActivityDefinition wfActivityDefinition : inMemoryActivityDefinitionStore.values()) {
+			if (key.equals(wfActivityDefinition.getWfwdId())) {
+				wfActivityDefinitions.add(wfActivityDefinition);
+			}
+		}
+
+		return wfActivityDefinitions;
+	}
+
+	@Override
+	public List<WfTransitionDefinition> findAllTransitionsByWorkflowDefinitionId(final long wfwdId) {
+		final Long key = wfwdId;
+		final List<WfTransitionDefinition> wfTransitionDefinitions = new ArrayList<>();
+		for (final WfTransitionDefinition wfTransitionDefinition : transitionsNext.values()) {
+			if (key.equals(wfTransitionDefinition.getWfwdId())) {
+				wfTransitionDefinitions.add(wfTransitionDefinition);
+			}
+		}
+
+		return wfTransitionDefinitions;
+	}
+
 	@Override
 	public void addTransition(final WfTransitionDefinition transition) {
 		Assertion.checkNotNull(transition);
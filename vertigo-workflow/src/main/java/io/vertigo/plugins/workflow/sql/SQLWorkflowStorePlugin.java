@@ -21,13 +21,18 @@
  */
 package io.vertigo.plugins.workflow.sql;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
 import javax.inject.Inject;
 
+import io.vertigo.database.impl.sql.vendor.postgresql.PostgreSqlDataBase;
+import io.vertigo.database.sql.SqlDataBaseManager;
 import io.vertigo.dynamo.criteria.Criteria;
 import io.vertigo.dynamo.criteria.Criterions;
+import io.vertigo.dynamo.domain.model.DtList;
+import io.vertigo.dynamo.domain.util.VCollectors;
 import io.vertigo.impl.workflow.WorkflowStorePlugin;
 import io.vertigo.rules.dao.RuleConditionDefinitionDAO;
 import io.vertigo.rules.dao.RuleDefinitionDAO;
@@ -40,16 +45,20 @@ import io.vertigo.rules.domain.SelectorDefinition;
 import io.vertigo.workflow.WfCodeTransition;
 import io.vertigo.workflow.WfTransitionCriteria;
 import io.vertigo.workflow.dao.instance.WfActivityDAO;
+import io.vertigo.workflow.dao.instance.WfApproverDAO;
 import io.vertigo.workflow.dao.instance.WfDecisionDAO;
 import io.vertigo.workflow.dao.instance.WfWorkflowDAO;
 import io.vertigo.workflow.dao.model.WfActivityDefinitionDAO;
 import io.vertigo.workflow.dao.model.WfTransitionDefinitionDAO;
 import io.vertigo.workflow.dao.model.WfWorkflowDefinitionDAO;
 import io.vertigo.workflow.dao.workflow.WorkflowPAO;
+import io.vertigo.workflow.domain.DtDefinitions.WfActivityDefinitionFields;
 import io.vertigo.workflow.domain.DtDefinitions.WfDecisionFields;
+import io.vertigo.workflow.domain.DtDefinitions.WfTransitionDefinitionFields;
 import io.vertigo.workflow.domain.DtDefinitions.WfWorkflowDefinitionFields;
 import io.vertigo.workflow.domain.DtDefinitions.WfWorkflowFields;
 import io.vertigo.workflow.domain.instance.WfActivity;
+import io.vertigo.workflow.domain.instance.WfApprover;
 import io.vertigo.workflow.domain.instance.WfDecision;
 import io.vertigo.workflow.domain.instance.WfWorkflow;
 import io.vertigo.workflow.domain.model.WfActivityDefinition;
@@ -57,6 +66,10 @@ import io.vertigo.workflow.domain.model.WfTransitionDefinition;
 import io.vertigo.workflow.domain.model.WfWorkflowDefinition;
 
 /**
+ * Workflow store on the SQL data store.
+ * On PostgreSQL, the bulk creations reserve their ids in one query on the SEQ_WF_* sequences (nextval with generate_series),
+ * then insert the rows with a single JDBC batch. On the other databases, the rows are created one by one.
+ *
  * @author OHJAJI
  */
 public class SQLWorkflowStorePlugin implements WorkflowStorePlugin {
@@ -82,26 +95,84 @@ public class SQLWorkflowStorePlugin implements WorkflowStorePlugin {
 	@Inject
 	private WfDecisionDAO wfDecisionDAO;
 	@Inject
+	private WfApproverDAO wfApproverDAO;
+	@Inject
 	private WfWorkflowDAO wfWorkflowDAO;
 
+	private final boolean reserveIds;
+
+	/**
+	 * Constructor.
+	 * @param sqlDataBaseManager the database manager
+	 */
+	@Inject
+	public SQLWorkflowStorePlugin(final SqlDataBaseManager sqlDataBaseManager) {
+		// nextval and generate_series are PostgreSQL functions
+		reserveIds = sqlDataBaseManager.getConnectionProvider(SqlDataBaseManager.MAIN_CONNECTION_PROVIDER_NAME)
+				.getDataBase() instanceof PostgreSqlDataBase;
+	}
+
 	/** {@inheritDoc} */
 	@Override
 	public void createWorkflowInstance(final WfWorkflow workflow) {
 		wfWorkflowDAO.save(workflow);
 	}
 
+	/** {@inheritDoc} */
+	@Override
+	public void createWorkflowInstances(final List<WfWorkflow> workflows) {
+		if (!reserveIds) {
+			workflows.forEach(wfWorkflowDAO::save);
+			return;
+		}
+		if (workflows.isEmpty()) {
+			return;
+		}
+		// Ids are reserved in one query so that the rows can be inserted with a single JDBC batch
+		final DtList<WfWorkflow> reservedIds = wfWorkflowDAO.reserveWorkflowIds(workflows.size());
+		for (int i = 0; i < workflows.size(); i++) {
+			workflows.get(i).setWfwId(reservedIds.get(i).getWfwId());
+		}
+		wfWorkflowDAO.insertWorkflows(workflows.stream().collect(VCollectors.toDtList(WfWorkflow.class)));
+	}
+
 	/** {@inheritDoc} */
 	@Override
 	public WfWorkflow readWorkflowInstanceById(final Long wfwId) {
 		return wfWorkflowDAO.get(wfwId);
 	}
 
+	/** {@inheritDoc} */
+	@Override
+	public List<WfWorkflow> readWorkflowInstancesByIds(final List<Long> wfwIds) {
+		if (wfwIds.isEmpty()) {
+			return Collections.emptyList();
+		}
+		// The ids are carried by workflows holding only their id, like the reserved ids
+		final DtList<WfWorkflow> wfWorkflowIds = new DtList<>(WfWorkflow.class);
+		for (final Long wfwId : wfwIds) {
+			final WfWorkflow wfWorkflowId = new WfWorkflow();
+			wfWorkflowId.setWfwId(wfwId);
+			wfWorkflowIds.add(wfWorkflowId);
+		}
+		return wfWorkflowDAO.findWorkflowsByIds(wfWorkflowIds);
+	}
+
 	/** {@inheritDoc} */
 	@Override
 	public void updateWorkflowInstance(final WfWorkflow workflow) {
 		wfWorkflowDAO.save(workflow);
 	}
 
+	/** {@inheritDoc} */
+	@Override
+	public void updateWorkflowInstances(final List<WfWorkflow> workflows) {
+		if (workflows.isEmpty()) {
+			return;
+		}
+		wfWorkflowDAO.updateWorkflows(workflows.stream().collect(VCollectors.toDtList(WfWorkflow.class)));
+	}
+
 	/** {@inheritDoc} */
 	@Override
 	public WfActivity readActivity(final Long wfadId) {
@@ -114,6 +185,23 @@ public class SQLWorkflowStorePlugin implements WorkflowStorePlugin {
 		wfActivityDAO.save(wfActivity);
 	}
 
+	/** {@inheritDoc} */
+	@Override
+	public void createActivities(final List<WfActivity> wfActivities) {
+		if (!reserveIds) {
+			wfActivities.forEach(wfActivityDAO::save);
+			return;
+		}
+		if (wfActivities.isEmpty()) {
+			return;
+		}
+		final DtList<WfActivity> reservedIds = wfActivityDAO.reserveActivityIds(wfActivities.size());
+		for (int i = 0; i < wfActivities.size(); i++) {
+			wfActivities.get(i).setWfaId(reservedIds.get(i).getWfaId());
+		}
+		wfActivityDAO.insertActivities(wfActivities.stream().collect(VCollectors.toDtList(WfActivity.class)));
+	}
+
 	/** {@inheritDoc} */
 	@Override
 	public void updateActivity(final WfActivity wfActivity) {
@@ -126,12 +214,64 @@ public class SQLWorkflowStorePlugin implements WorkflowStorePlugin {
 		wfDecisionDAO.save(wfDecision);
 	}
 
+	/** {@inheritDoc} */
+	@Override
+	public void createDecisions(final List<WfDecision> wfDecisions) {
+		if (!reserveIds) {
+			wfDecisions.forEach(wfDecisionDAO::save);
+			return;
+		}
+		if (wfDecisions.isEmpty()) {
+			return;
+		}
+		final DtList<WfDecision> reservedIds = wfDecisionDAO.reserveDecisionIds(wfDecisions.size());
+		for (int i = 0; i < wfDecisions.size(); i++) {
+			wfDecisions.get(i).setWfeId(reservedIds.get(i).getWfeId());
+		}
+		wfDecisionDAO.insertDecisions(wfDecisions.stream().collect(VCollectors.toDtList(WfDecision.class)));
+	}
+
 	/** {@inheritDoc} */
 	@Override
 	public List<WfDecision> findAllDecisionByActivity(final WfActivity wfActivity) {
 		return wfDecisionDAO.getListByDtFieldName(WfDecisionFields.WFA_ID, wfActivity.getWfaId(), Integer.MAX_VALUE);
 	}
 
+	/** {@inheritDoc} */
+	@Override
+	public void createApprovers(final List<WfApprover> wfApprovers) {
+		if (!reserveIds) {
+			wfApprovers.forEach(wfApproverDAO::save);
+			return;
+		}
+		if (wfApprovers.isEmpty()) {
+			return;
+		}
+		final DtList<WfApprover> reservedIds = wfApproverDAO.reserveApproverIds(wfApprovers.size());
+		for (int i = 0; i < wfApprovers.size(); i++) {
+			wfApprovers.get(i).setWfapId(reservedIds.get(i).getWfapId());
+		}
+		wfApproverDAO.insertApprovers(wfApprovers.stream().collect(VCollectors.toDtList(WfApprover.class)));
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public Optional<WfApprover> readApprover(final Long wfaId, final String username) {
+		return wfApproverDAO.readApprover(wfaId, username);
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public void updateApprover(final WfApprover wfApprover) {
+		wfApproverDAO.update(wfApprover);
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public void deleteApprovers(final Long wfaId) {
+		wfApproverDAO.deleteApprovers(wfaId);
+	}
+
 	/** {@inheritDoc} */
 	@Override
 	public boolean hasNextActivity(final WfActivity activity) {
@@ -206,6 +346,18 @@ public class SQLWorkflowStorePlugin implements WorkflowStorePlugin {
 				WfCodeTransition.DEFAULT.getTransitionName());
 	}
 
+	/** {@inheritDoc} */
+	@Override
+	public List<WfActivityDefinition> findAllActivityDefinitionsByWorkflowDefinitionId(final long wfwdId) {
+		return wfActivityDefinitionDAO.getListByDtFieldName(WfActivityDefinitionFields.WFWD_ID, wfwdId, Integer.MAX_VALUE);
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public List<WfTransitionDefinition> findAllTransitionsByWorkflowDefinitionId(final long wfwdId) {
+		return wfTransitionDefinitionDAO.getListByDtFieldName(WfTransitionDefinitionFields.WFWD_ID, wfwdId, Integer.MAX_VALUE);
+	}
+
 	/** {@inheritDoc} */
 	@Override
 	public void addTransition(final WfTransitionDefinition transition) {
@@ -232,6 +384,24 @@ public class SQLWorkflowStorePlugin implements WorkflowStorePlugin {
 		return wfDecisionDAO.findDecisionsByWorkflowId(wfWorkflow.getWfwId());
 	}
 
+	/** {@inheritDoc} */
+	@Override
+	public List<WfActivity> findActivitiesByWorkflows(final List<WfWorkflow> wfWorkflows) {
+		if (wfWorkflows.isEmpty()) {
+			return Collections.emptyList();
+		}
+		return wfActivityDAO.findActivitiesByWorkflowIds(wfWorkflows.stream().collect(VCollectors.toDtList(WfWorkflow.class)));
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public List<WfDecision> findDecisionsByWorkflows(final List<WfWorkflow> wfWorkflows) {
+		if (wfWorkflows.isEmpty()) {
+			return Collections.emptyList();
+		}
+		return wfDecisionDAO.findDecisionsByWorkflowIds(wfWorkflows.stream().collect(VCollectors.toDtList(WfWorkflow.class)));
+	}
+
 	/** {@inheritDoc} */
 	@Override
 	public WfActivityDefinition findNextActivity(final Long wfadId) {
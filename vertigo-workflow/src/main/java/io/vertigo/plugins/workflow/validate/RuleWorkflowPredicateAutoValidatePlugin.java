@@ -25,6 +25,7 @@ import io.vertigo.impl.workflow.WorkflowPredicateAutoValidatePlugin;
 import io.vertigo.rules.services.RuleConstants;
 import io.vertigo.rules.services.RuleContext;
 import io.vertigo.rules.services.RuleServices;
+import io.vertigo.rules.services.RuleSet;
 import io.vertigo.workflow.domain.model.WfActivityDefinition;
 
 /**
@@ -41,7 +42,20 @@ public final class RuleWorkflowPredicateAutoValidatePlugin implements WorkflowPr
 	public boolean canAutoValidateActivity(final WfActivityDefinition activityDefinition, final DtObject object) {
 
 		final RuleConstants ruleConstants = ruleServices.getConstants(activityDefinition.getWfwdId());
-		final RuleContext ruleContext = new RuleContext(object, ruleConstants);
+		return canAutoValidateActivity(activityDefinition, object, ruleConstants);
+	}
+
+	@Override
+	public boolean canAutoValidateActivity(final WfActivityDefinition activityDefinition, final DtObject object,
+			final RuleConstants ruleConstants) {
+		final RuleContext ruleContext = RuleContext.lazyOf(object, ruleConstants);
 		return !ruleServices.isRuleValid(activityDefinition.getWfadId(), ruleContext);
 	}
+
+	@Override
+	public boolean canAutoValidateActivity(final WfActivityDefinition activityDefinition, final DtObject object,
+			final RuleConstants ruleConstants, final RuleSet ruleSet) {
+		final RuleContext ruleContext = RuleContext.lazyOf(object, ruleConstants);
+		return !ruleServices.isRuleValid(activityDefinition.getWfadId(), ruleContext, ruleSet);
+	}
 }
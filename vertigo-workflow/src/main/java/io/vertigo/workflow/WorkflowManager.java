@@ -60,6 +60,17 @@ public interface WorkflowManager extends Manager {
 	 */
 	WfWorkflow createWorkflowInstance(final String definitionName, final String user, final boolean userLogic, final Long item);
 
+	/**
+	 * Instantiate new workflow instances, one for each item, sharing the same definition
+	 *
+	 * @param wfwdId wfwdId
+	 * @param username username
+	 * @param userLogic userLogic
+	 * @param items items
+	 * @return the new workflow instances, in the order of the items
+	 */
+	List<WfWorkflow> createWorkflowInstances(Long wfwdId, String username, boolean userLogic, List<Long> items);
+
 	/**
 	 * Get a workflow instance by its Id
 	 *
@@ -86,6 +97,14 @@ public interface WorkflowManager extends Manager {
 	 */
 	void startInstance(WfWorkflow wfWorkflow);
 
+	/**
+	 * Start workflow instances sharing the same definition.
+	 * The definition, the rule constants and the items are read once for all the instances.
+	 *
+	 * @param wfWorkflows
+	 */
+	void startInstances(List<WfWorkflow> wfWorkflows);
+
 	/**
 	 * Stop a workflow instance
 	 *
@@ -226,6 +245,15 @@ public interface WorkflowManager extends Manager {
 	 */
 	List<WfWorkflowDecision> getWorkflowDecision(long wfwId);
 
+	/**
+	 * Get several workflows with all the associated elements.
+	 * The definitions, items, activities and decisions are loaded once for all the workflows.
+	 *
+	 * @param wfwIds
+	 * @return for each workflow, in the same order, all the WorkflowDecision where activities are manual
+	 */
+	List<WfListWorkflowDecision> getWorkflowDecisions(List<Long> wfwIds);
+
 	/**
 	 * Find the workflowDefinition by name
 	 *
@@ -234,4 +262,13 @@ public interface WorkflowManager extends Manager {
 	 * @return the matching workflowDefinition
 	 */
 	WfWorkflowDefinition getWorkflowDefinitionByName(String definitionName);
+
+	/**
+	 * Find the activities of the default path having a rule matching all the criteria
+	 *
+	 * @param wfWorkflowDefinition the workflow definition
+	 * @param criteria the condition criteria (at least one)
+	 * @return the matching activity definitions, in the order of the default path
+	 */
+	List<WfActivityDefinition> findActivitiesByCriteria(WfWorkflowDefinition wfWorkflowDefinition, WfActivityCriteria criteria);
 }
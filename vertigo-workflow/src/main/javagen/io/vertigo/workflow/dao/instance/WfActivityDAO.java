@@ -76,4 +76,43 @@ public final class WfActivityDAO extends DAO<WfActivity, java.lang.Long> impleme
 				.getResult());
 	}
 
+	/**
+	 * Execute la tache TK_INSERT_ACTIVITIES.
+	 * @param wfActivityList io.vertigo.dynamo.domain.model.DtList<io.vertigo.workflow.domain.instance.WfActivity> 
+	*/
+	public void insertActivities(final io.vertigo.dynamo.domain.model.DtList<io.vertigo.workflow.domain.instance.WfActivity> wfActivityList) {
+		final Task task = createTaskBuilder("TK_INSERT_ACTIVITIES")
+				.addValue("WF_ACTIVITY_LIST", wfActivityList)
+				.build();
+		getTaskManager().execute(task);
+	}
+
+	/**
+	 * Execute la tache TK_RESERVE_ACTIVITY_IDS.
+	 * @param count Integer 
+	 * @return io.vertigo.dynamo.domain.model.DtList<io.vertigo.workflow.domain.instance.WfActivity> wfActivityList
+	*/
+	public io.vertigo.dynamo.domain.model.DtList<io.vertigo.workflow.domain.instance.WfActivity> reserveActivityIds(final Integer count) {
+		final Task task = createTaskBuilder("TK_RESERVE_ACTIVITY_IDS")
+				.addValue("COUNT", count)
+				.build();
+		return getTaskManager()
+				.execute(task)
+				.getResult();
+	}
+
+	/**
+	 * Execute la tache TK_FIND_ACTIVITIES_BY_WORKFLOW_IDS.
+	 * @param wfWorkflowIds io.vertigo.dynamo.domain.model.DtList<io.vertigo.workflow.domain.instance.WfWorkflow> 
+	 * @return io.vertigo.dynamo.domain.model.DtList<io.vertigo.workflow.domain.instance.WfActivity> wfActivityList
+	*/
+	public io.vertigo.dynamo.domain.model.DtList<io.vertigo.workflow.domain.instance.WfActivity> findActivitiesByWorkflowIds(final io.vertigo.dynamo.domain.model.DtList<io.vertigo.workflow.domain.instance.WfWorkflow> wfWorkflowIds) {
+		final Task task = createTaskBuilder("TK_FIND_ACTIVITIES_BY_WORKFLOW_IDS")
+				.addValue("WF_WORKFLOW_IDS", wfWorkflowIds)
+				.build();
+		return getTaskManager()
+				.execute(task)
+				.getResult();
+	}
+
 }
@@ -0,0 +1,115 @@
+/**
+ * vertigo - simple java starter
+ *
+ * Copyright (C) 2013-2019, KleeGroup, direction.technique@kleegroup.com (http://www.kleegroup.com)
+ * KleeGroup, Centre d'affaire la Boursidiere - BP 159 - 92357 Le Plessis Robinson Cedex - France
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.vertigo.workflow.dao.instance;
+
+import javax.inject.Inject;
+
+import java.util.Optional;
+import io.vertigo.app.Home;
+import io.vertigo.dynamo.task.metamodel.TaskDefinition;
+import io.vertigo.dynamo.task.model.Task;
+import io.vertigo.dynamo.task.model.TaskBuilder;
+import io.vertigo.dynamo.impl.store.util.DAO;
+import io.vertigo.dynamo.store.StoreManager;
+import io.vertigo.dynamo.store.StoreServices;
+import io.vertigo.dynamo.task.TaskManager;
+import io.vertigo.workflow.domain.instance.WfApprover;
+import io.vertigo.lang.Generated;
+
+/**
+ * This class is automatically generated.
+ * DO NOT EDIT THIS FILE DIRECTLY.
+ */
+ @Generated
+public final class WfApproverDAO extends DAO<WfApprover, java.lang.Long> implements StoreServices {
+
+	/**
+	 * Contructeur.
+	 * @param storeManager Manager de persistance
+	 * @param taskManager Manager de Task
+	 */
+	@Inject
+	public WfApproverDAO(final StoreManager storeManager, final TaskManager taskManager) {
+		super(WfApprover.class, storeManager, taskManager);
+	}
+
+
+	/**
+	 * Creates a taskBuilder.
+	 * @param name  the name of the task
+	 * @return the builder 
+	 */
+	private static TaskBuilder createTaskBuilder(final String name) {
+		final TaskDefinition taskDefinition = Home.getApp().getDefinitionSpace().resolve(name, TaskDefinition.class);
+		return Task.builder(taskDefinition);
+	}
+
+	/**
+	 * Execute la tache TK_DELETE_APPROVERS.
+	 * @param wfaId Long 
+	*/
+	public void deleteApprovers(final Long wfaId) {
+		final Task task = createTaskBuilder("TK_DELETE_APPROVERS")
+				.addValue("WFA_ID", wfaId)
+				.build();
+		getTaskManager().execute(task);
+	}
+
+	/**
+	 * Execute la tache TK_INSERT_APPROVERS.
+	 * @param wfApproverList io.vertigo.dynamo.domain.model.DtList<io.vertigo.workflow.domain.instance.WfApprover> 
+	*/
+	public void insertApprovers(final io.vertigo.dynamo.domain.model.DtList<io.vertigo.workflow.domain.instance.WfApprover> wfApproverList) {
+		final Task task = createTaskBuilder("TK_INSERT_APPROVERS")
+				.addValue("WF_APPROVER_LIST", wfApproverList)
+				.build();
+		getTaskManager().execute(task);
+	}
+
+	/**
+	 * Execute la tache TK_READ_APPROVER.
+	 * @param wfaId Long 
+	 * @param username String 
+	 * @return Option de io.vertigo.workflow.domain.instance.WfApprover wfApprover
+	*/
+	public Optional<io.vertigo.workflow.domain.instance.WfApprover> readApprover(final Long wfaId, final String username) {
+		final Task task = createTaskBuilder("TK_READ_APPROVER")
+				.addValue("WFA_ID", wfaId)
+				.addValue("USERNAME", username)
+				.build();
+		return Optional.ofNullable((io.vertigo.workflow.domain.instance.WfApprover) getTaskManager()
+				.execute(task)
+				.getResult());
+	}
+
+	/**
+	 * Execute la tache TK_RESERVE_APPROVER_IDS.
+	 * @param count Integer 
+	 * @return io.vertigo.dynamo.domain.model.DtList<io.vertigo.workflow.domain.instance.WfApprover> wfApproverList
+	*/
+	public io.vertigo.dynamo.domain.model.DtList<io.vertigo.workflow.domain.instance.WfApprover> reserveApproverIds(final Integer count) {
+		final Task task = createTaskBuilder("TK_RESERVE_APPROVER_IDS")
+				.addValue("COUNT", count)
+				.build();
+		return getTaskManager()
+				.execute(task)
+				.getResult();
+	}
+
+}
@@ -73,4 +73,43 @@ public final class WfDecisionDAO extends DAO<WfDecision, java.lang.Long> impleme
 				.getResult();
 	}
 
+	/**
+	 * Execute la tache TK_INSERT_DECISIONS.
+	 * @param wfDecisionList io.vertigo.dynamo.domain.model.DtList<io.vertigo.workflow.domain.instance.WfDecision> 
+	*/
+	public void insertDecisions(final io.vertigo.dynamo.domain.model.DtList<io.vertigo.workflow.domain.instance.WfDecision> wfDecisionList) {
+		final Task task = createTaskBuilder("TK_INSERT_DECISIONS")
+				.addValue("WF_DECISION_LIST", wfDecisionList)
+				.build();
+		getTaskManager().execute(task);
+	}
+
+	/**
+	 * Execute la tache TK_RESERVE_DECISION_IDS.
+	 * @param count Integer 
+	 * @return io.vertigo.dynamo.domain.model.DtList<io.vertigo.workflow.domain.instance.WfDecision> wfDecisionList
+	*/
+	public io.vertigo.dynamo.domain.model.DtList<io.vertigo.workflow.domain.instance.WfDecision> reserveDecisionIds(final Integer count) {
+		final Task task = createTaskBuilder("TK_RESERVE_DECISION_IDS")
+				.addValue("COUNT", count)
+				.build();
+		return getTaskManager()
+				.execute(task)
+				.getResult();
+	}
+
+	/**
+	 * Execute la tache TK_FIND_DECISIONS_BY_WORKFLOW_IDS.
+	 * @param wfWorkflowIds io.vertigo.dynamo.domain.model.DtList<io.vertigo.workflow.domain.instance.WfWorkflow> 
+	 * @return io.vertigo.dynamo.domain.model.DtList<io.vertigo.workflow.domain.instance.WfDecision> wfDecisionList
+	*/
+	public io.vertigo.dynamo.domain.model.DtList<io.vertigo.workflow.domain.instance.WfDecision> findDecisionsByWorkflowIds(final io.vertigo.dynamo.domain.model.DtList<io.vertigo.workflow.domain.instance.WfWorkflow> wfWorkflowIds) {
+		final Task task = createTaskBuilder("TK_FIND_DECISIONS_BY_WORKFLOW_IDS")
+				.addValue("WF_WORKFLOW_IDS", wfWorkflowIds)
+				.build();
+		return getTaskManager()
+				.execute(task)
+				.getResult();
+	}
+
 }
@@ -89,4 +89,54 @@ public final class WfWorkflowDAO extends DAO<WfWorkflow, java.lang.Long> impleme
 				.getResult();
 	}
 
+	/**
+	 * Execute la tache TK_INSERT_WORKFLOWS.
+	 * @param wfWorkflowList io.vertigo.dynamo.domain.model.DtList<io.vertigo.workflow.domain.instance.WfWorkflow> 
+	*/
+	public void insertWorkflows(final io.vertigo.dynamo.domain.model.DtList<io.vertigo.workflow.domain.instance.WfWorkflow> wfWorkflowList) {
+		final Task task = createTaskBuilder("TK_INSERT_WORKFLOWS")
+				.addValue("WF_WORKFLOW_LIST", wfWorkflowList)
+				.build();
+		getTaskManager().execute(task);
+	}
+
+	/**
+	 * Execute la tache TK_RESERVE_WORKFLOW_IDS.
+	 * @param count Integer 
+	 * @return io.vertigo.dynamo.domain.model.DtList<io.vertigo.workflow.domain.instance.WfWorkflow> wfWorkflowList
+	*/
+	public io.vertigo.dynamo.domain.model.DtList<io.vertigo.workflow.domain.instance.WfWorkflow> reserveWorkflowIds(final Integer count) {
+		final Task task = createTaskBuilder("TK_RESERVE_WORKFLOW_IDS")
+				.addValue("COUNT", count)
+				.build();
+		return getTaskManager()
+				.execute(task)
+				.getResult();
+	}
+
+	/**
+	 * Execute la tache TK_FIND_WORKFLOWS_BY_IDS.
+	 * @param wfWorkflowIds io.vertigo.dynamo.domain.model.DtList<io.vertigo.workflow.domain.instance.WfWorkflow> 
+	 * @return io.vertigo.dynamo.domain.model.DtList<io.vertigo.workflow.domain.instance.WfWorkflow> wfWorkflowList
+	*/
+	public io.vertigo.dynamo.domain.model.DtList<io.vertigo.workflow.domain.instance.WfWorkflow> findWorkflowsByIds(final io.vertigo.dynamo.domain.model.DtList<io.vertigo.workflow.domain.instance.WfWorkflow> wfWorkflowIds) {
+		final Task task = createTaskBuilder("TK_FIND_WORKFLOWS_BY_IDS")
+				.addValue("WF_WORKFLOW_IDS", wfWorkflowIds)
+				.build();
+		return getTaskManager()
+				.execute(task)
+				.getResult();
+	}
+
+	/**
+	 * Execute la tache TK_UPDATE_WORKFLOWS.
+	 * @param wfWorkflowList io.vertigo.dynamo.domain.model.DtList<io.vertigo.workflow.domain.instance.WfWorkflow> 
+	*/
+	public void updateWorkflows(final io.vertigo.dynamo.domain.model.DtList<io.vertigo.workflow.domain.instance.WfWorkflow> wfWorkflowList) {
+		final Task task = createTaskBuilder("TK_UPDATE_WORKFLOWS")
+				.addValue("WF_WORKFLOW_LIST", wfWorkflowList)
+				.build();
+		getTaskManager().execute(task);
+	}
+
 }
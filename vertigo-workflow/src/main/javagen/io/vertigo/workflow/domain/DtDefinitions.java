@@ -39,6 +39,8 @@ public final class DtDefinitions implements Iterable<Class<?>> {
 		WfActivity(io.vertigo.workflow.domain.instance.WfActivity.class),
 		/** Objet de données WfActivityDefinition. */
 		WfActivityDefinition(io.vertigo.workflow.domain.model.WfActivityDefinition.class),
+		/** Objet de données WfApprover. */
+		WfApprover(io.vertigo.workflow.domain.instance.WfApprover.class),
 		/** Objet de données WfDecision. */
 		WfDecision(io.vertigo.workflow.domain.instance.WfDecision.class),
 		/** Objet de données WfMultiplicityDefinition. */
@@ -75,6 +77,10 @@ public final class DtDefinitions implements Iterable<Class<?>> {
 		WFA_ID,
 		/** Propriété 'creation date'. */
 		CREATION_DATE,
+		/** Propriété 'expected decisions'. */
+		EXPECTED_DECISIONS,
+		/** Propriété 'received decisions'. */
+		RECEIVED_DECISIONS,
 		/** Propriété 'WfWorkflow'. */
 		WFW_ID,
 		/** Propriété 'WfActivityDefinition'. */
@@ -95,6 +101,19 @@ public final class DtDefinitions implements Iterable<Class<?>> {
 		/** Propriété 'WfWorkflowDefinition'. */
 		WFWD_ID	}
 
+	/**
+	 * Enumération des champs de WfApprover.
+	 */
+	public enum WfApproverFields implements DtFieldName<io.vertigo.workflow.domain.instance.WfApprover> {
+		/** Propriété 'Id Approver'. */
+		WFAP_ID,
+		/** Propriété 'username'. */
+		USERNAME,
+		/** Propriété 'decision'. */
+		WFE_ID,
+		/** Propriété 'WfActivity'. */
+		WFA_ID	}
+
 	/**
 	 * Enumération des champs de WfDecision.
 	 */
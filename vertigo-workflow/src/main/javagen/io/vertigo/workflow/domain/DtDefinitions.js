@@ -12,6 +12,14 @@ module.exports = {
             domain: "DO_WF_DATE",
             required: false
         },
+        expectedDecisions: {
+            domain: "DO_WF_ENTIER",
+            required: false
+        },
+        receivedDecisions: {
+            domain: "DO_WF_ENTIER",
+            required: false
+        },
         wfwId: {
             domain: "DO_WF_ID",
             required: true
@@ -43,6 +51,24 @@ module.exports = {
             required: true
         }
     },
+    wfApprover: {
+        wfapId: {
+            domain: "DO_WF_ID",
+            required: true
+        },
+        username: {
+            domain: "DO_WF_USER",
+            required: true
+        },
+        wfeId: {
+            domain: "DO_WF_WEAK_ID",
+            required: false
+        },
+        wfaId: {
+            domain: "DO_WF_ID",
+            required: true
+        }
+    },
     wfDecision: {
         wfeId: {
             domain: "DO_WF_ID",
@@ -7,6 +7,8 @@ module.exports = {
     wfActivity: {
         wfaId: "Id activity",
         creationDate: "creation date",
+        expectedDecisions: "expected decisions",
+        receivedDecisions: "received decisions",
         wfwId: "WfWorkflow",
         wfadId: "WfActivityDefinition"
     },
@@ -17,6 +19,12 @@ module.exports = {
         wfmdCode: "WfMultiplicityDefinition",
         wfwdId: "WfWorkflowDefinition"
     },
+    wfApprover: {
+        wfapId: "Id Approver",
+        username: "username",
+        wfeId: "decision",
+        wfaId: "WfActivity"
+    },
     wfDecision: {
         wfeId: "Id Decision",
         username: "username",
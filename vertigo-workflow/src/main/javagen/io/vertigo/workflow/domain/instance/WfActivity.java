@@ -36,6 +36,8 @@ public final class WfActivity implements Entity {
 
 	private Long wfaId;
 	private java.util.Date creationDate;
+	private Integer expectedDecisions;
+	private Integer receivedDecisions;
 
 	@io.vertigo.dynamo.domain.stereotype.Association(
 			name = "A_WFW_WFA",
@@ -126,6 +128,44 @@ public final class WfActivity implements Entity {
 		this.creationDate = creationDate;
 	}
 	
+	/**
+	 * Champ : DATA.
+	 * Récupère la valeur de la propriété 'expected decisions'.
+	 * @return Integer expectedDecisions
+	 */
+	@Field(domain = "DO_WF_ENTIER", label = "expected decisions")
+	public Integer getExpectedDecisions() {
+		return expectedDecisions;
+	}
+
+	/**
+	 * Champ : DATA.
+	 * Définit la valeur de la propriété 'expected decisions'.
+	 * @param expectedDecisions Integer
+	 */
+	public void setExpectedDecisions(final Integer expectedDecisions) {
+		this.expectedDecisions = expectedDecisions;
+	}
+	
+	/**
+	 * Champ : DATA.
+	 * Récupère la valeur de la propriété 'received decisions'.
+	 * @return Integer receivedDecisions
+	 */
+	@Field(domain = "DO_WF_ENTIER", label = "received decisions")
+	public Integer getReceivedDecisions() {
+		return receivedDecisions;
+	}
+
+	/**
+	 * Champ : DATA.
+	 * Définit la valeur de la propriété 'received decisions'.
+	 * @param receivedDecisions Integer
+	 */
+	public void setReceivedDecisions(final Integer receivedDecisions) {
+		this.receivedDecisions = receivedDecisions;
+	}
+	
 	/**
 	 * Champ : FOREIGN_KEY.
 	 * Récupère la valeur de la propriété 'WfWorkflow'.
@@ -0,0 +1,150 @@
+/**
+ * vertigo - simple java starter
+ *
+ * Copyright (C) 2013-2019, KleeGroup, direction.technique@kleegroup.com (http://www.kleegroup.com)
+ * KleeGroup, Centre d'affaire la Boursidiere - BP 159 - 92357 Le Plessis Robinson Cedex - France
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.vertigo.workflow.domain.instance;
+
+import io.vertigo.dynamo.domain.model.Entity;
+import io.vertigo.dynamo.domain.model.URI;
+import io.vertigo.dynamo.domain.model.VAccessor;
+import io.vertigo.dynamo.domain.stereotype.Field;
+import io.vertigo.dynamo.domain.util.DtObjectUtil;
+import io.vertigo.lang.Generated;
+
+/**
+ * This class is automatically generated.
+ * DO NOT EDIT THIS FILE DIRECTLY.
+ */
+@Generated
+public final class WfApprover implements Entity {
+	private static final long serialVersionUID = 1L;
+
+	private Long wfapId;
+	private String username;
+	private Long wfeId;
+
+	@io.vertigo.dynamo.domain.stereotype.Association(
+			name = "A_WFAP_WFA",
+			fkFieldName = "WFA_ID",
+			primaryDtDefinitionName = "DT_WF_ACTIVITY",
+			primaryIsNavigable = true,
+			primaryRole = "WfActivity",
+			primaryLabel = "WfActivity",
+			primaryMultiplicity = "1..1",
+			foreignDtDefinitionName = "DT_WF_APPROVER",
+			foreignIsNavigable = false,
+			foreignRole = "WfApprover",
+			foreignLabel = "WfApprover",
+			foreignMultiplicity = "0..*")
+	private final VAccessor<io.vertigo.workflow.domain.instance.WfActivity> wfaIdAccessor = new VAccessor<>(io.vertigo.workflow.domain.instance.WfActivity.class, "WfActivity");
+
+	/** {@inheritDoc} */
+	@Override
+	public URI<WfApprover> getURI() {
+		return DtObjectUtil.createURI(this);
+	}
+	
+	/**
+	 * Champ : ID.
+	 * Récupère la valeur de la propriété 'Id Approver'.
+	 * @return Long wfapId <b>Obligatoire</b>
+	 */
+	@Field(domain = "DO_WF_ID", type = "ID", required = true, label = "Id Approver")
+	public Long getWfapId() {
+		return wfapId;
+	}
+
+	/**
+	 * Champ : ID.
+	 * Définit la valeur de la propriété 'Id Approver'.
+	 * @param wfapId Long <b>Obligatoire</b>
+	 */
+	public void setWfapId(final Long wfapId) {
+		this.wfapId = wfapId;
+	}
+	
+	/**
+	 * Champ : DATA.
+	 * Récupère la valeur de la propriété 'username'.
+	 * @return String username <b>Obligatoire</b>
+	 */
+	@Field(domain = "DO_WF_USER", required = true, label = "username")
+	public String getUsername() {
+		return username;
+	}
+
+	/**
+	 * Champ : DATA.
+	 * Définit la valeur de la propriété 'username'.
+	 * @param username String <b>Obligatoire</b>
+	 */
+	public void setUsername(final String username) {
+		this.username = username;
+	}
+	
+	/**
+	 * Champ : DATA.
+	 * Récupère la valeur de la propriété 'decision'.
+	 * @return Long wfeId
+	 */
+	@Field(domain = "DO_WF_WEAK_ID", label = "decision")
+	public Long getWfeId() {
+		return wfeId;
+	}
+
+	/**
+	 * Champ : DATA.
+	 * Définit la valeur de la propriété 'decision'.
+	 * @param wfeId Long
+	 */
+	public void setWfeId(final Long wfeId) {
+		this.wfeId = wfeId;
+	}
+	
+	/**
+	 * Champ : FOREIGN_KEY.
+	 * Récupère la valeur de la propriété 'WfActivity'.
+	 * @return Long wfaId <b>Obligatoire</b>
+	 */
+	@Field(domain = "DO_WF_ID", type = "FOREIGN_KEY", required = true, label = "WfActivity")
+	public Long getWfaId() {
+		return (Long)  wfaIdAccessor.getId();
+	}
+
+	/**
+	 * Champ : FOREIGN_KEY.
+	 * Définit la valeur de la propriété 'WfActivity'.
+	 * @param wfaId Long <b>Obligatoire</b>
+	 */
+	public void setWfaId(final Long wfaId) {
+		wfaIdAccessor.setId(wfaId);
+	}
+
+ 	/**
+	 * Association : WfActivity.
+	 * @return l'accesseur vers la propriété 'WfActivity'
+	 */
+	public VAccessor<io.vertigo.workflow.domain.instance.WfActivity> wfActivity() {
+		return wfaIdAccessor;
+	}
+	
+	/** {@inheritDoc} */
+	@Override
+	public String toString() {
+		return DtObjectUtil.toString(this);
+	}
+}
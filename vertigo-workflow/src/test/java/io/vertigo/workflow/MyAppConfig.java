@@ -18,6 +18,16 @@
  */
 package io.vertigo.workflow;
 
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+
+import org.h2.tools.RunScript;
+
 import io.vertigo.account.AccountFeatures;
 import io.vertigo.account.plugins.account.store.loader.LoaderAccountStorePlugin;
 import io.vertigo.app.config.AppConfig;
@@ -27,11 +37,13 @@ import io.vertigo.commons.impl.CommonsFeatures;
 import io.vertigo.core.param.Param;
 import io.vertigo.core.plugins.resource.classpath.ClassPathResourceResolverPlugin;
 import io.vertigo.database.DatabaseFeatures;
+import io.vertigo.database.impl.sql.vendor.h2.H2DataBase;
 import io.vertigo.database.impl.sql.vendor.postgresql.PostgreSqlDataBase;
 import io.vertigo.database.plugins.sql.connection.c3p0.C3p0ConnectionProviderPlugin;
 import io.vertigo.dynamo.impl.DynamoFeatures;
 import io.vertigo.dynamo.plugins.store.datastore.sql.SqlDataStorePlugin;
 import io.vertigo.impl.workflow.WorkflowFeatures;
+import io.vertigo.lang.WrappedException;
 import io.vertigo.persona.impl.security.PersonaFeatures;
 import io.vertigo.plugins.workflow.memory.MemoryWorkflowStorePlugin;
 import io.vertigo.plugins.workflow.validate.RuleWorkflowPredicateAutoValidatePlugin;
@@ -53,12 +65,75 @@ import io.vertigo.workflow.plugin.MemoryItemStorePlugin;
  */
 public class MyAppConfig {
 
+	private static final String H2_JDBC_URL = "jdbc:h2:mem:workflow;DB_CLOSE_DELAY=-1";
+	private static final String H2_SCHEMA = "io/vertigo/workflow/h2-workflow.sql";
+
 	/**
 	 * Configuration de l'application pour Junit
 	 *
 	 * @return AppConfig for Junit
 	 */
 	public static AppConfig config() {
+		return config(false);
+	}
+
+	/**
+	 * Configuration de l'application pour Junit
+	 *
+	 * @param definitionCache true to cache the workflow definitions
+	 * @return AppConfig for Junit
+	 */
+	public static AppConfig config(final boolean definitionCache) {
+		return config(definitionCache, 0);
+	}
+
+	/**
+	 * Configuration de l'application pour Junit
+	 *
+	 * @param definitionCache true to cache the workflow definitions
+	 * @param parallelism number of threads evaluating the bulk methods, 0 for a sequential evaluation
+	 * @return AppConfig for Junit
+	 */
+	public static AppConfig config(final boolean definitionCache, final int parallelism) {
+		final RulesFeatures rulesFeatures = new RulesFeatures()
+				.withRuleStorePlugin(MemoryRuleStorePlugin.class);
+		final WorkflowFeatures workflowFeatures = new WorkflowFeatures()
+				.withWorkflowStorePlugin(MemoryWorkflowStorePlugin.class)
+				.withWorkflowPredicateAutoValidatePlugin(RuleWorkflowPredicateAutoValidatePlugin.class);
+		return config(rulesFeatures, workflowFeatures, definitionCache, parallelism,
+				Param.of("dataBaseClass", PostgreSqlDataBase.class.getName()),
+				Param.of("jdbcDriver", org.postgresql.Driver.class.getName()),
+				Param.of("jdbcUrl",
+						"jdbc:postgresql://laura.dev.klee.lan.net:5432/dgac_blanche?user=blanche&password=blanche"));
+	}
+
+	/**
+	 * Configuration de l'application pour Junit, avec les stores SQL sur une base H2 embarquée
+	 *
+	 * @return AppConfig for Junit
+	 */
+	public static AppConfig configWithSqlStores() {
+		createH2Schema();
+		final RulesFeatures rulesFeatures = new RulesFeatures()
+				.withDAOSupportRuleStorePlugin();
+		final WorkflowFeatures workflowFeatures = new WorkflowFeatures()
+				.withDAOSupportWorkflowStorePlugin();
+		return config(rulesFeatures, workflowFeatures, false, 0,
+				Param.of("dataBaseClass", H2DataBase.class.getName()),
+				Param.of("jdbcDriver", org.h2.Driver.class.getName()),
+				Param.of("jdbcUrl", H2_JDBC_URL));
+	}
+
+	private static AppConfig config(final RulesFeatures rulesFeatures, final WorkflowFeatures workflowFeatures,
+			final boolean definitionCache, final int parallelism, final Param... connectionParams) {
+		workflowFeatures.withItemStorePlugin(MemoryItemStorePlugin.class);
+		if (definitionCache) {
+			workflowFeatures.withDefinitionCache();
+		}
+		if (parallelism > 0) {
+			workflowFeatures.withParallelEvaluation(parallelism);
+		}
+
 		final AppConfigBuilder appConfigBuilder = AppConfig.builder()
 				.beginBoot()
 				.withLocales("fr")
@@ -71,11 +146,7 @@ public class MyAppConfig {
 						.build())
 				.addModule(new DatabaseFeatures()
 						.withSqlDataBase()
-						.addSqlConnectionProviderPlugin(C3p0ConnectionProviderPlugin.class,
-								Param.of("dataBaseClass", PostgreSqlDataBase.class.getName()),
-								Param.of("jdbcDriver", org.postgresql.Driver.class.getName()),
-								Param.of("jdbcUrl",
-										"jdbc:postgresql://laura.dev.klee.lan.net:5432/dgac_blanche?user=blanche&password=blanche"))
+						.addSqlConnectionProviderPlugin(C3p0ConnectionProviderPlugin.class, connectionParams)
 						.build())
 				.addModule(new DynamoFeatures()
 						.withStore()
@@ -86,15 +157,11 @@ public class MyAppConfig {
 								Param.of("accountLoaderName", "MockIdentities"),
 								Param.of("groupLoaderName", "MockIdentities"))
 						.build())
-				.addModule(new RulesFeatures()
-						.withRuleStorePlugin(MemoryRuleStorePlugin.class)
+				.addModule(rulesFeatures
 						.withRuleConstantsStorePlugin(MemoryRuleConstantsStorePlugin.class)
 						.withRuleSelectorPlugin(SimpleRuleSelectorPlugin.class)
 						.withRuleValidatorPlugin(SimpleRuleValidatorPlugin.class).build())
-				.addModule(new WorkflowFeatures()
-						.withWorkflowStorePlugin(MemoryWorkflowStorePlugin.class)
-						.withWorkflowPredicateAutoValidatePlugin(RuleWorkflowPredicateAutoValidatePlugin.class)
-						.withItemStorePlugin(MemoryItemStorePlugin.class).build())
+				.addModule(workflowFeatures.build())
 				.addModule(ModuleConfig.builder("dummy")
 						.addDefinitionProvider(MyDummyDtObjectProvider.class)
 						.addComponent(MockIdentities.class)
@@ -103,4 +170,14 @@ public class MyAppConfig {
 		return appConfigBuilder.build();
 	}
 
+	private static void createH2Schema() {
+		try (final Connection connection = DriverManager.getConnection(H2_JDBC_URL);
+				final Reader schema = new InputStreamReader(
+						MyAppConfig.class.getClassLoader().getResourceAsStream(H2_SCHEMA), StandardCharsets.UTF_8)) {
+			RunScript.execute(connection, schema);
+		} catch (final SQLException | IOException e) {
+			throw WrappedException.wrap(e);
+		}
+	}
+
 }
@@ -22,6 +22,9 @@ import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
 import org.junit.runners.Suite.SuiteClasses;
 
+import io.vertigo.workflow.services.CachedWorkflowManagerTest;
+import io.vertigo.workflow.services.ParallelWorkflowManagerTest;
+import io.vertigo.workflow.services.SQLWorkflowStorePluginTest;
 import io.vertigo.workflow.services.WorkflowManagerTest;
 
 /**
@@ -30,7 +33,10 @@ import io.vertigo.workflow.services.WorkflowManagerTest;
  */
 @RunWith(Suite.class)
 @SuiteClasses({
-		WorkflowManagerTest.class
+		WorkflowManagerTest.class,
+		CachedWorkflowManagerTest.class,
+		ParallelWorkflowManagerTest.class,
+		SQLWorkflowStorePluginTest.class
 })
 public final class WorkflowTestSuite {
 	//
@@ -0,0 +1,175 @@
+/**
+ * vertigo - simple java starter
+ *
+ * Copyright (C) 2013-2019, KleeGroup, direction.technique@kleegroup.com (http://www.kleegroup.com)
+ * KleeGroup, Centre d'affaire la Boursidiere - BP 159 - 92357 Le Plessis Robinson Cedex - France
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.vertigo.workflow.services;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import javax.inject.Inject;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.vertigo.app.AutoCloseableApp;
+import io.vertigo.core.component.di.injector.DIInjector;
+import io.vertigo.impl.workflow.ItemStorePlugin;
+import io.vertigo.rules.domain.RuleConditionDefinition;
+import io.vertigo.rules.domain.RuleDefinition;
+import io.vertigo.workflow.MyAppConfig;
+import io.vertigo.workflow.WfActivityDefinitionBuilder;
+import io.vertigo.workflow.WfWorkflowDefinitionBuilder;
+import io.vertigo.workflow.WorkflowManager;
+import io.vertigo.workflow.data.MyDummyDtObject;
+import io.vertigo.workflow.domain.instance.WfWorkflow;
+import io.vertigo.workflow.domain.model.WfActivityDefinition;
+import io.vertigo.workflow.domain.model.WfWorkflowDefinition;
+
+/**
+ * Junit for the definition cache of the workflow manager
+ *
+ * @author xdurand
+ *
+ */
+public final class CachedWorkflowManagerTest extends DbTest {
+
+	private AutoCloseableApp app;
+
+	@Inject
+	private WorkflowManager workflowManager;
+
+	@Inject
+	private ItemStorePlugin itemStorePlugin;
+
+	/**
+	 * Setup
+	 */
+	@Before
+	public void setUp() {
+		app = new AutoCloseableApp(MyAppConfig.config(true));
+		DIInjector.injectMembers(this, app.getComponentSpace());
+		doSetUp();
+	}
+
+	/**
+	 * Teardown
+	 */
+	@After
+	public void tearDown() {
+		if (app != null) {
+			app.close();
+		}
+		doTearDown();
+	}
+
+	/**
+	 * Read outside of the transaction of the test, which has written definitions and reads the store directly
+	 */
+	private static <T> T readOutsideTransaction(final Supplier<T> read) {
+		return CompletableFuture.supplyAsync(read).join();
+	}
+
+	/**
+	 * The cached definitions are never shared with the callers
+	 */
+	@Test
+	public void testCachedDefinitionsAreCopies() {
+		final WfWorkflowDefinition wfWorkflowDefinition = new WfWorkflowDefinitionBuilder("WorkflowCopies").build();
+		workflowManager.createWorkflowDefinition(wfWorkflowDefinition);
+
+		final WfWorkflowDefinition read1 = readOutsideTransaction(() -> workflowManager.getWorkflowDefinitionByName("WorkflowCopies"));
+		read1.setName("Changed by the caller");
+		final WfWorkflowDefinition read2 = readOutsideTransaction(() -> workflowManager.getWorkflowDefinitionByName("WorkflowCopies"));
+
+		assertThat(read2, is(not(sameInstance(read1))));
+		assertThat(read2.getName(), is("WorkflowCopies"));
+		assertThat(read2.getWfwdId(), is(wfWorkflowDefinition.getWfwdId()));
+	}
+
+	/**
+	 * A cached definition is reloaded after a change
+	 */
+	@Test
+	public void testInvalidationAfterDefinitionChange() {
+		final WfWorkflowDefinition wfWorkflowDefinition = new WfWorkflowDefinitionBuilder("WorkflowInvalidation").build();
+		workflowManager.createWorkflowDefinition(wfWorkflowDefinition);
+		// Cached without start activity
+		assertThat(readOutsideTransaction(() -> workflowManager.getWorkflowDefinitionByName("WorkflowInvalidation")).getWfadId(),
+				is(nullValue()));
+
+		final WfActivityDefinition firstActivity = new WfActivityDefinitionBuilder("Step 1", wfWorkflowDefinition.getWfwdId()).build();
+		workflowManager.addActivity(wfWorkflowDefinition, firstActivity, 1);
+
+		// The transaction having written the definition reads it from the store
+		assertThat(workflowManager.getWorkflowDefinitionByName("WorkflowInvalidation").getWfadId(), is(firstActivity.getWfadId()));
+		// The other readers reload it
+		assertThat(readOutsideTransaction(() -> workflowManager.getWorkflowDefinitionByName("WorkflowInvalidation")).getWfadId(),
+				is(firstActivity.getWfadId()));
+	}
+
+	/**
+	 * The navigation graph of a definition is rebuilt after an activity is added
+	 */
+	@Test
+	public void testGraphRebuiltAfterAddActivity() {
+		final WfWorkflowDefinition wfWorkflowDefinition = new WfWorkflowDefinitionBuilder("WorkflowGraph").build();
+		workflowManager.createWorkflowDefinition(wfWorkflowDefinition);
+		final WfActivityDefinition firstActivity = new WfActivityDefinitionBuilder("Step 1", wfWorkflowDefinition.getWfwdId()).build();
+		workflowManager.addActivity(wfWorkflowDefinition, firstActivity, 1);
+		addRule(firstActivity);
+
+		final MyDummyDtObject myDummyDtObject = new MyDummyDtObject();
+		myDummyDtObject.setId(1L);
+		myDummyDtObject.setDivision("DIV");
+		itemStorePlugin.addItem(myDummyDtObject.getId(), myDummyDtObject);
+		final WfWorkflow wfWorkflow = workflowManager.createWorkflowInstance(wfWorkflowDefinition.getWfwdId(), "JUnit", false, myDummyDtObject.getId());
+
+		final List<WfActivityDefinition> activities1 = readOutsideTransaction(() -> workflowManager.getActivityDefinitions(wfWorkflow));
+		assertThat(activities1.size(), is(1));
+		// The activity definitions of the cached graph are not shared
+		activities1.get(0).setName("Changed by the caller");
+
+		final WfActivityDefinition secondActivity = new WfActivityDefinitionBuilder("Step 2", wfWorkflowDefinition.getWfwdId()).build();
+		workflowManager.addActivity(wfWorkflowDefinition, secondActivity, 2);
+		addRule(secondActivity);
+
+		final List<WfActivityDefinition> activities2 = readOutsideTransaction(() -> workflowManager.getActivityDefinitions(wfWorkflow));
+		assertThat(activities2.size(), is(2));
+		assertThat(activities2.get(0).getName(), is("Step 1"));
+		assertThat(activities2.get(1).getWfadId(), is(secondActivity.getWfadId()));
+	}
+
+	private void addRule(final WfActivityDefinition wfActivityDefinition) {
+		final RuleDefinition rule = new RuleDefinition();
+		final RuleConditionDefinition condition = new RuleConditionDefinition();
+		condition.setField("DIVISION");
+		condition.setOperator("=");
+		condition.setExpression("DIV");
+		workflowManager.addRule(wfActivityDefinition, rule, Arrays.asList(condition));
+	}
+
+}
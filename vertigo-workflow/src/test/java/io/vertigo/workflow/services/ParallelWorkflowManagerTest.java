@@ -0,0 +1,210 @@
+/**
+ * vertigo - simple java starter
+ *
+ * Copyright (C) 2013-2019, KleeGroup, direction.technique@kleegroup.com (http://www.kleegroup.com)
+ * KleeGroup, Centre d'affaire la Boursidiere - BP 159 - 92357 Le Plessis Robinson Cedex - France
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.vertigo.workflow.services;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.inject.Inject;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.vertigo.account.account.AccountGroup;
+import io.vertigo.app.AutoCloseableApp;
+import io.vertigo.core.component.di.injector.DIInjector;
+import io.vertigo.impl.workflow.ItemStorePlugin;
+import io.vertigo.rules.domain.RuleConditionDefinition;
+import io.vertigo.rules.domain.RuleDefinition;
+import io.vertigo.rules.domain.RuleFilterDefinition;
+import io.vertigo.rules.domain.SelectorDefinition;
+import io.vertigo.workflow.MyAppConfig;
+import io.vertigo.workflow.WfActivityDefinitionBuilder;
+import io.vertigo.workflow.WfListWorkflowDecision;
+import io.vertigo.workflow.WfWorkflowDecision;
+import io.vertigo.workflow.WfWorkflowDefinitionBuilder;
+import io.vertigo.workflow.WorkflowManager;
+import io.vertigo.workflow.data.MockIdentities;
+import io.vertigo.workflow.data.MyDummyDtObject;
+import io.vertigo.workflow.domain.instance.WfStatusEnum;
+import io.vertigo.workflow.domain.instance.WfWorkflow;
+import io.vertigo.workflow.domain.model.WfActivityDefinition;
+import io.vertigo.workflow.domain.model.WfWorkflowDefinition;
+
+/**
+ * Junit for the parallel evaluation of the bulk methods of the workflow manager
+ *
+ * @author xdurand
+ *
+ */
+public final class ParallelWorkflowManagerTest extends DbTest {
+
+	private static final int PARALLELISM = 4;
+	private static final int INSTANCES = 10;
+
+	private AutoCloseableApp app;
+
+	@Inject
+	private WorkflowManager workflowManager;
+
+	@Inject
+	private MockIdentities mockIdentities;
+
+	@Inject
+	private ItemStorePlugin itemStorePlugin;
+
+	/**
+	 * Setup
+	 */
+	@Before
+	public void setUp() {
+		app = new AutoCloseableApp(MyAppConfig.config(false, PARALLELISM));
+		DIInjector.injectMembers(this, app.getComponentSpace());
+		doSetUp();
+	}
+
+	/**
+	 * Teardown
+	 */
+	@After
+	public void tearDown() {
+		if (app != null) {
+			app.close();
+		}
+		doTearDown();
+	}
+
+	/**
+	 * The instances of the even items are in the division DIV, the other ones in the division ABC
+	 */
+	private List<Long> createItems() {
+		final List<Long> itemIds = new ArrayList<>(INSTANCES);
+		for (long itemId = 1; itemId <= INSTANCES; itemId++) {
+			final MyDummyDtObject myDummyDtObject = new MyDummyDtObject();
+			myDummyDtObject.setId(itemId);
+			myDummyDtObject.setDivision(itemId % 2 == 0 ? "DIV" : "ABC");
+			myDummyDtObject.setEntity("ENT");
+			itemStorePlugin.addItem(myDummyDtObject.getId(), myDummyDtObject);
+			itemIds.add(itemId);
+		}
+		return itemIds;
+	}
+
+	private void addRule(final WfActivityDefinition activity, final String field, final String expression) {
+		final RuleDefinition rule = new RuleDefinition();
+		rule.setItemId(activity.getWfadId());
+		final RuleConditionDefinition condition = new RuleConditionDefinition();
+		condition.setField(field);
+		condition.setOperator("=");
+		condition.setExpression(expression);
+		workflowManager.addRule(activity, rule, Arrays.asList(condition));
+	}
+
+	private void addSelector(final WfActivityDefinition activity, final AccountGroup accountGroup, final String division) {
+		final SelectorDefinition selector = new SelectorDefinition();
+		selector.setItemId(activity.getWfadId());
+		selector.setGroupId(accountGroup.getId());
+		final RuleFilterDefinition filter = new RuleFilterDefinition();
+		filter.setField("DIVISION");
+		filter.setOperator("=");
+		filter.setExpression(division);
+		workflowManager.addSelector(activity, selector, Arrays.asList(filter));
+	}
+
+	/**
+	 * Each instance stops at its own activity, whatever the thread evaluating it
+	 */
+	@Test
+	public void testStartInstances() {
+		final WfWorkflowDefinition wfWorkflowDefinition = new WfWorkflowDefinitionBuilder("WorkflowParallelStart").build();
+		workflowManager.createWorkflowDefinition(wfWorkflowDefinition);
+
+		// Step 1 and Step 3 : no rule, Step 2 : only for the items of the division DIV
+		final WfActivityDefinition firstActivity = new WfActivityDefinitionBuilder("Step 1", wfWorkflowDefinition.getWfwdId()).build();
+		workflowManager.addActivity(wfWorkflowDefinition, firstActivity, 1);
+		final WfActivityDefinition secondActivity = new WfActivityDefinitionBuilder("Step 2", wfWorkflowDefinition.getWfwdId()).build();
+		workflowManager.addActivity(wfWorkflowDefinition, secondActivity, 2);
+		addRule(secondActivity, "DIVISION", "DIV");
+		final WfActivityDefinition thirdActivity = new WfActivityDefinitionBuilder("Step 3", wfWorkflowDefinition.getWfwdId()).build();
+		workflowManager.addActivity(wfWorkflowDefinition, thirdActivity, 3);
+
+		final List<WfWorkflow> wfWorkflows = workflowManager.createWorkflowInstances(wfWorkflowDefinition.getWfwdId(),
+				"JUnit", false, createItems());
+		workflowManager.startInstances(wfWorkflows);
+
+		for (final WfWorkflow wfWorkflow : wfWorkflows) {
+			final WfWorkflow wfWorkflowFetched = workflowManager.getWorkflowInstance(wfWorkflow.getWfwId());
+			assertThat(wfWorkflowFetched.wfStatus().getEnumValue(), is(WfStatusEnum.STA));
+			final Long expectedActivityId = wfWorkflow.getItemId() % 2 == 0 ? secondActivity.getWfadId() : thirdActivity.getWfadId();
+			assertThat(workflowManager.getActivity(wfWorkflowFetched.getWfaId2()).getWfadId(), is(expectedActivityId));
+		}
+	}
+
+	/**
+	 * The groups of the decisions built in parallel are the groups of the matching selectors, in the requested order
+	 */
+	@Test
+	public void testGetWorkflowDecisions() {
+		final WfWorkflowDefinition wfWorkflowDefinition = new WfWorkflowDefinitionBuilder("WorkflowParallelDecisions").build();
+		workflowManager.createWorkflowDefinition(wfWorkflowDefinition);
+
+		final AccountGroup divGroup = new AccountGroup("PDIV", "division DIV group");
+		final AccountGroup abcGroup = new AccountGroup("PABC", "division ABC group");
+		mockIdentities.saveGroup(divGroup);
+		mockIdentities.saveGroup(abcGroup);
+
+		// Step 1 : for all the items of the entity ENT, with one group for each division
+		final WfActivityDefinition firstActivity = new WfActivityDefinitionBuilder("Step 1", wfWorkflowDefinition.getWfwdId()).build();
+		workflowManager.addActivity(wfWorkflowDefinition, firstActivity, 1);
+		addRule(firstActivity, "ENTITY", "ENT");
+		addSelector(firstActivity, divGroup, "DIV");
+		addSelector(firstActivity, abcGroup, "ABC");
+
+		final List<WfWorkflow> wfWorkflows = workflowManager.createWorkflowInstances(wfWorkflowDefinition.getWfwdId(),
+				"JUnit", false, createItems());
+		workflowManager.startInstances(wfWorkflows);
+
+		final List<Long> wfwIds = new ArrayList<>();
+		for (final WfWorkflow wfWorkflow : wfWorkflows) {
+			wfwIds.add(wfWorkflow.getWfwId());
+		}
+		Collections.reverse(wfwIds);
+		final List<WfListWorkflowDecision> listWorkflowDecisions = workflowManager.getWorkflowDecisions(wfwIds);
+		assertThat(listWorkflowDecisions.size(), is(INSTANCES));
+
+		for (int i = 0; i < wfwIds.size(); i++) {
+			final WfListWorkflowDecision listWorkflowDecision = listWorkflowDecisions.get(i);
+			final WfWorkflow wfWorkflow = listWorkflowDecision.getWfWorkflow();
+			assertThat(wfWorkflow.getWfwId(), is(wfwIds.get(i)));
+
+			final List<WfWorkflowDecision> workflowDecisions = listWorkflowDecision.getWorkflowDecisions();
+			assertThat(workflowDecisions.size(), is(1));
+			final List<AccountGroup> groups = workflowDecisions.get(0).getGroups();
+			assertThat(groups.size(), is(1));
+			assertThat(groups.get(0).getId(), is(wfWorkflow.getItemId() % 2 == 0 ? divGroup.getId() : abcGroup.getId()));
+		}
+	}
+
+}
@@ -0,0 +1,149 @@
+/**
+ * vertigo - simple java starter
+ *
+ * Copyright (C) 2013-2019, KleeGroup, direction.technique@kleegroup.com (http://www.kleegroup.com)
+ * KleeGroup, Centre d'affaire la Boursidiere - BP 159 - 92357 Le Plessis Robinson Cedex - France
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.vertigo.workflow.services;
+
+import static org.hamcrest.CoreMatchers.hasItems;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import javax.inject.Inject;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.vertigo.app.AutoCloseableApp;
+import io.vertigo.core.component.di.injector.DIInjector;
+import io.vertigo.impl.workflow.WorkflowStorePlugin;
+import io.vertigo.workflow.MyAppConfig;
+import io.vertigo.workflow.WfActivityDefinitionBuilder;
+import io.vertigo.workflow.WfWorkflowDefinitionBuilder;
+import io.vertigo.workflow.WorkflowManager;
+import io.vertigo.workflow.domain.instance.WfActivity;
+import io.vertigo.workflow.domain.instance.WfDecision;
+import io.vertigo.workflow.domain.instance.WfWorkflow;
+import io.vertigo.workflow.domain.model.WfActivityDefinition;
+import io.vertigo.workflow.domain.model.WfWorkflowDefinition;
+
+/**
+ * Junit for the SQL workflow store on an embedded H2 database : bulk creations, made row by row outside PostgreSQL
+ *
+ * @author xdurand
+ *
+ */
+public final class SQLWorkflowStorePluginTest extends DbTest {
+
+	private AutoCloseableApp app;
+
+	@Inject
+	private WorkflowManager workflowManager;
+
+	@Inject
+	private WorkflowStorePlugin workflowStorePlugin;
+
+	/**
+	 * Setup
+	 */
+	@Before
+	public void setUp() {
+		app = new AutoCloseableApp(MyAppConfig.configWithSqlStores());
+		DIInjector.injectMembers(this, app.getComponentSpace());
+		doSetUp();
+	}
+
+	/**
+	 * Teardown
+	 */
+	@After
+	public void tearDown() {
+		doTearDown();
+		if (app != null) {
+			app.close();
+		}
+	}
+
+	/**
+	 * Workflows, activities and decisions created in bulk are inserted with their ids, and workflows are updated in bulk
+	 */
+	@Test
+	public void testBulkCreations() {
+		final WfWorkflowDefinition wfWorkflowDefinition = new WfWorkflowDefinitionBuilder("WorkflowBatch").build();
+		workflowManager.createWorkflowDefinition(wfWorkflowDefinition);
+		final WfActivityDefinition wfActivityDefinition = new WfActivityDefinitionBuilder("Step 1", wfWorkflowDefinition.getWfwdId()).build();
+		workflowManager.addActivity(wfWorkflowDefinition, wfActivityDefinition, 1);
+
+		// Workflows
+		final List<Long> items = Arrays.asList(1L, 2L, 3L);
+		final List<WfWorkflow> wfWorkflows = workflowManager.createWorkflowInstances(wfWorkflowDefinition.getWfwdId(), "JUnit", false, items);
+		final List<Long> wfwIds = wfWorkflows.stream().map(WfWorkflow::getWfwId).collect(Collectors.toList());
+		assertThat(new HashSet<>(wfwIds).size(), is(3));
+
+		final List<WfWorkflow> readWorkflows = workflowStorePlugin.readWorkflowInstancesByIds(wfwIds);
+		assertThat(readWorkflows.size(), is(3));
+		assertThat(readWorkflows.stream().map(WfWorkflow::getItemId).collect(Collectors.toList()), hasItems(1L, 2L, 3L));
+
+		// Activities
+		final List<WfActivity> wfActivities = new ArrayList<>();
+		for (final WfWorkflow wfWorkflow : wfWorkflows) {
+			final WfActivity wfActivity = new WfActivity();
+			wfActivity.setCreationDate(new Date());
+			wfActivity.setWfadId(wfActivityDefinition.getWfadId());
+			wfActivity.setWfwId(wfWorkflow.getWfwId());
+			wfActivities.add(wfActivity);
+		}
+		workflowStorePlugin.createActivities(wfActivities);
+		final List<Long> wfaIds = wfActivities.stream().map(WfActivity::getWfaId).collect(Collectors.toList());
+		assertThat(new HashSet<>(wfaIds).size(), is(3));
+		assertThat(workflowStorePlugin.findActivitiesByWorkflows(wfWorkflows).stream().map(WfActivity::getWfaId).collect(Collectors.toList()),
+				hasItems(wfaIds.toArray(new Long[wfaIds.size()])));
+
+		// Decisions
+		final List<WfDecision> wfDecisions = new ArrayList<>();
+		for (final WfActivity wfActivity : wfActivities) {
+			final WfDecision wfDecision = new WfDecision();
+			wfDecision.setUsername("JUnit");
+			wfDecision.setChoice(1);
+			wfDecision.setDecisionDate(new Date());
+			wfDecision.setWfaId(wfActivity.getWfaId());
+			wfDecisions.add(wfDecision);
+		}
+		workflowStorePlugin.createDecisions(wfDecisions);
+		final List<Long> wfeIds = wfDecisions.stream().map(WfDecision::getWfeId).collect(Collectors.toList());
+		assertThat(new HashSet<>(wfeIds).size(), is(3));
+		assertThat(workflowStorePlugin.findDecisionsByWorkflows(wfWorkflows).stream().map(WfDecision::getWfeId).collect(Collectors.toList()),
+				hasItems(wfeIds.toArray(new Long[wfeIds.size()])));
+
+		// Workflows updated in one batch
+		for (int i = 0; i < wfWorkflows.size(); i++) {
+			wfWorkflows.get(i).setWfaId2(wfaIds.get(i));
+		}
+		workflowStorePlugin.updateWorkflowInstances(wfWorkflows);
+		for (int i = 0; i < wfWorkflows.size(); i++) {
+			assertThat(workflowStorePlugin.readWorkflowInstanceById(wfwIds.get(i)).getWfaId2(), is(wfaIds.get(i)));
+		}
+	}
+
+}
@@ -47,13 +47,16 @@ import io.vertigo.core.component.di.injector.DIInjector;
 import io.vertigo.dynamo.domain.model.URI;
 import io.vertigo.dynamo.domain.util.DtObjectUtil;
 import io.vertigo.impl.workflow.ItemStorePlugin;
+import io.vertigo.rules.RuleConditionCriteria;
 import io.vertigo.rules.domain.RuleConditionDefinition;
 import io.vertigo.rules.domain.RuleDefinition;
 import io.vertigo.rules.domain.RuleFilterDefinition;
 import io.vertigo.rules.domain.SelectorDefinition;
 import io.vertigo.workflow.MyAppConfig;
+import io.vertigo.workflow.WfActivityCriteria;
 import io.vertigo.workflow.WfActivityDefinitionBuilder;
 import io.vertigo.workflow.WfCodeTransition;
+import io.vertigo.workflow.WfListWorkflowDecision;
 import io.vertigo.workflow.WfWorkflowDecision;
 import io.vertigo.workflow.WfWorkflowDefinitionBuilder;
 import io.vertigo.workflow.WorkflowManager;
@@ -64,6 +67,7 @@ import io.vertigo.workflow.domain.instance.WfDecision;
 import io.vertigo.workflow.domain.instance.WfStatusEnum;
 import io.vertigo.workflow.domain.instance.WfWorkflow;
 import io.vertigo.workflow.domain.model.WfActivityDefinition;
+import io.vertigo.workflow.domain.model.WfMultiplicityDefinitionEnum;
 import io.vertigo.workflow.domain.model.WfWorkflowDefinition;
 
 /**
@@ -674,4 +678,298 @@ public class WorkflowManagerTest extends DbTest {
 		assertThat(currentActivityFetched.getWfadId(), is(firstActivity.getWfadId()));
 
 	}
+
+	/**
+	 *
+	 */
+	@Test
+	public void testStartInstances() {
+
+		final WfWorkflowDefinition wfWorkflowDefinition = new WfWorkflowDefinitionBuilder("WorkflowRules").build();
+		workflowManager.createWorkflowDefinition(wfWorkflowDefinition);
+
+		// Step 1 : No rules/condition (NO Selector)
+		final WfActivityDefinition firstActivity = new WfActivityDefinitionBuilder("Step 1",
+				wfWorkflowDefinition.getWfwdId()).build();
+		workflowManager.addActivity(wfWorkflowDefinition, firstActivity, 1);
+
+		// Step 2 : 1 rule, 1 condition (NO Selector)
+		final WfActivityDefinition secondActivity = new WfActivityDefinitionBuilder("Step 2",
+				wfWorkflowDefinition.getWfwdId()).build();
+		workflowManager.addActivity(wfWorkflowDefinition, secondActivity, 2);
+
+		final RuleDefinition rule1Act2 = new RuleDefinition();
+		rule1Act2.setItemId(secondActivity.getWfadId());
+
+		final RuleConditionDefinition condition1Rule1Act2 = new RuleConditionDefinition();
+		condition1Rule1Act2.setField("DIVISION");
+		condition1Rule1Act2.setOperator("=");
+		condition1Rule1Act2.setExpression("DIV");
+
+		workflowManager.addRule(secondActivity, rule1Act2, Arrays.asList(condition1Rule1Act2));
+
+		// Step 3 : No rules/condition (NO Selector)
+		final WfActivityDefinition thirdActivity = new WfActivityDefinitionBuilder("Step 3",
+				wfWorkflowDefinition.getWfwdId()).build();
+		workflowManager.addActivity(wfWorkflowDefinition, thirdActivity, 3);
+
+		// Creating the objects : the second one does not match the rule of Step 2
+		final MyDummyDtObject myDummyDtObject1 = createDummyDtObject(1);
+		final MyDummyDtObject myDummyDtObject2 = new MyDummyDtObject();
+		myDummyDtObject2.setId(2L);
+		myDummyDtObject2.setDivision("ABC");
+		myDummyDtObject2.setEntity("ENT");
+		itemStorePlugin.addItem(myDummyDtObject2.getId(), myDummyDtObject2);
+
+		final List<WfWorkflow> wfWorkflows = workflowManager.createWorkflowInstances(wfWorkflowDefinition.getWfwdId(),
+				"JUnit", false, Arrays.asList(myDummyDtObject1.getId(), myDummyDtObject2.getId()));
+		assertThat(wfWorkflows.size(), is(2));
+
+		// Starting the workflows
+		workflowManager.startInstances(wfWorkflows);
+
+		final WfWorkflow wfWorkflow1Fetched = workflowManager.getWorkflowInstance(wfWorkflows.get(0).getWfwId());
+		assertThat(wfWorkflow1Fetched.wfStatus().getEnumValue(), is(WfStatusEnum.STA));
+		assertThat(wfWorkflow1Fetched.getItemId(), is(myDummyDtObject1.getId()));
+		final WfActivity currentActivity1 = workflowManager.getActivity(wfWorkflow1Fetched.getWfaId2());
+		assertThat(currentActivity1.getWfadId(), is(secondActivity.getWfadId()));
+
+		final WfWorkflow wfWorkflow2Fetched = workflowManager.getWorkflowInstance(wfWorkflows.get(1).getWfwId());
+		assertThat(wfWorkflow2Fetched.wfStatus().getEnumValue(), is(WfStatusEnum.STA));
+		assertThat(wfWorkflow2Fetched.getItemId(), is(myDummyDtObject2.getId()));
+		final WfActivity currentActivity2 = workflowManager.getActivity(wfWorkflow2Fetched.getWfaId2());
+		assertThat(currentActivity2.getWfadId(), is(thirdActivity.getWfadId()));
+		assertThat(workflowManager.getDecision(currentActivity2).isPresent(), is(true));
+	}
+
+	/**
+	 * A multiple activity moves on once every selected account has decided, whatever the other decisions.
+	 */
+	@Test
+	public void testMultipleDecisionsQuorum() {
+		final WfWorkflowDefinition wfWorkflowDefinition = new WfWorkflowDefinitionBuilder("WorkflowQuorum").build();
+		workflowManager.createWorkflowDefinition(wfWorkflowDefinition);
+
+		final AccountGroup accountGroup = new AccountGroup("Q", "quorum group");
+		final Account account1 = Account.builder("AccQ1").build();
+		final Account account2 = Account.builder("AccQ2").build();
+		mockIdentities.saveGroup(accountGroup);
+		mockIdentities.saveAccounts(Arrays.asList(account1, account2));
+		final URI<AccountGroup> accountGroupUri = DtObjectUtil.createURI(AccountGroup.class, accountGroup.getId());
+		mockIdentities.attach(DtObjectUtil.createURI(Account.class, account1.getId()), accountGroupUri);
+		mockIdentities.attach(DtObjectUtil.createURI(Account.class, account2.getId()), accountGroupUri);
+
+		// Step 1 : multiple decisions, Step 2 : single decision
+		final WfActivityDefinition firstActivity = new WfActivityDefinitionBuilder("Step 1", wfWorkflowDefinition.getWfwdId())
+				.withMultiplicity(WfMultiplicityDefinitionEnum.MUL)
+				.build();
+		workflowManager.addActivity(wfWorkflowDefinition, firstActivity, 1);
+		final WfActivityDefinition secondActivity = new WfActivityDefinitionBuilder("Step 2", wfWorkflowDefinition.getWfwdId())
+				.build();
+		workflowManager.addActivity(wfWorkflowDefinition, secondActivity, 2);
+
+		for (final WfActivityDefinition activity : Arrays.asList(firstActivity, secondActivity)) {
+			final RuleDefinition rule = new RuleDefinition();
+			rule.setItemId(activity.getWfadId());
+			final RuleConditionDefinition condition = new RuleConditionDefinition();
+			condition.setField("DIVISION");
+			condition.setOperator("=");
+			condition.setExpression("DIV");
+			workflowManager.addRule(activity, rule, Arrays.asList(condition));
+
+			final SelectorDefinition selector = new SelectorDefinition();
+			selector.setItemId(activity.getWfadId());
+			selector.setGroupId(accountGroup.getId());
+			workflowManager.addSelector(activity, selector, Collections.emptyList());
+		}
+
+		final MyDummyDtObject myDummyDtObject = createDummyDtObject(1);
+		final WfWorkflow wfWorkflow = workflowManager.createWorkflowInstance(wfWorkflowDefinition.getWfwdId(), "JUnit", false,
+				myDummyDtObject.getId());
+		workflowManager.startInstance(wfWorkflow);
+		final Long firstActivityId = wfWorkflow.getWfaId2();
+		assertThat(workflowManager.getActivity(firstActivityId).getWfadId(), is(firstActivity.getWfadId()));
+
+		// First approver, twice : the quorum is not reached
+		workflowManager.saveDecisionAndGoToNextActivity(wfWorkflow, WfCodeTransition.DEFAULT.getTransitionName(), createDecision(account1));
+		workflowManager.saveDecisionAndGoToNextActivity(wfWorkflow, WfCodeTransition.DEFAULT.getTransitionName(), createDecision(account1));
+		// Someone outside the group : not counted
+		workflowManager.saveDecisionAndGoToNextActivity(wfWorkflow, WfCodeTransition.DEFAULT.getTransitionName(), createDecision(Account.builder("Other").build()));
+		assertThat(wfWorkflow.getWfaId2(), is(firstActivityId));
+		assertFalse(workflowManager.canGoToNextActivity(wfWorkflow));
+
+		WfActivity multipleActivity = workflowManager.getActivity(firstActivityId);
+		assertThat(multipleActivity.getExpectedDecisions(), is(2));
+		assertThat(multipleActivity.getReceivedDecisions(), is(1));
+
+		// Second approver : the workflow moves to Step 2
+		workflowManager.saveDecisionAndGoToNextActivity(wfWorkflow, WfCodeTransition.DEFAULT.getTransitionName(), createDecision(account2));
+		multipleActivity = workflowManager.getActivity(firstActivityId);
+		assertThat(multipleActivity.getReceivedDecisions(), is(2));
+		assertThat(workflowManager.getDecisions(multipleActivity).size(), is(4));
+		assertThat(workflowManager.getActivity(wfWorkflow.getWfaId2()).getWfadId(), is(secondActivity.getWfadId()));
+	}
+
+	/**
+	 * The bulk read gives the same decisions as the read of each workflow, in the requested order.
+	 */
+	@Test
+	public void testGetWorkflowDecisions() {
+		final WfWorkflowDefinition wfWorkflowDefinition = new WfWorkflowDefinitionBuilder("WorkflowDecisions").build();
+		workflowManager.createWorkflowDefinition(wfWorkflowDefinition);
+
+		final AccountGroup accountGroup = new AccountGroup("D", "decisions group");
+		final Account account = Account.builder("AccD").build();
+		mockIdentities.saveGroup(accountGroup);
+		mockIdentities.saveAccounts(Arrays.asList(account));
+		mockIdentities.attach(DtObjectUtil.createURI(Account.class, account.getId()), DtObjectUtil.createURI(AccountGroup.class, accountGroup.getId()));
+
+		// Step 1 : only for the items of the division DIV
+		final WfActivityDefinition firstActivity = new WfActivityDefinitionBuilder("Step 1", wfWorkflowDefinition.getWfwdId()).build();
+		workflowManager.addActivity(wfWorkflowDefinition, firstActivity, 1);
+		final RuleDefinition rule = new RuleDefinition();
+		rule.setItemId(firstActivity.getWfadId());
+		final RuleConditionDefinition condition = new RuleConditionDefinition();
+		condition.setField("DIVISION");
+		condition.setOperator("=");
+		condition.setExpression("DIV");
+		workflowManager.addRule(firstActivity, rule, Arrays.asList(condition));
+		final SelectorDefinition selector = new SelectorDefinition();
+		selector.setItemId(firstActivity.getWfadId());
+		selector.setGroupId(accountGroup.getId());
+		workflowManager.addSelector(firstActivity, selector, Collections.emptyList());
+
+		// Step 2 : for the items of the entity ENT
+		final WfActivityDefinition secondActivity = new WfActivityDefinitionBuilder("Step 2", wfWorkflowDefinition.getWfwdId()).build();
+		workflowManager.addActivity(wfWorkflowDefinition, secondActivity, 2);
+		final RuleDefinition rule2 = new RuleDefinition();
+		rule2.setItemId(secondActivity.getWfadId());
+		final RuleConditionDefinition condition2 = new RuleConditionDefinition();
+		condition2.setField("ENTITY");
+		condition2.setOperator("=");
+		condition2.setExpression("ENT");
+		workflowManager.addRule(secondActivity, rule2, Arrays.asList(condition2));
+		final SelectorDefinition selector2 = new SelectorDefinition();
+		selector2.setItemId(secondActivity.getWfadId());
+		selector2.setGroupId(accountGroup.getId());
+		workflowManager.addSelector(secondActivity, selector2, Collections.emptyList());
+
+		final MyDummyDtObject myDummyDtObject1 = createDummyDtObject(1);
+		final MyDummyDtObject myDummyDtObject2 = new MyDummyDtObject();
+		myDummyDtObject2.setId(2L);
+		myDummyDtObject2.setDivision("ABC");
+		myDummyDtObject2.setEntity("ENT");
+		itemStorePlugin.addItem(myDummyDtObject2.getId(), myDummyDtObject2);
+
+		final List<WfWorkflow> wfWorkflows = workflowManager.createWorkflowInstances(wfWorkflowDefinition.getWfwdId(),
+				"JUnit", false, Arrays.asList(myDummyDtObject1.getId(), myDummyDtObject2.getId()));
+		workflowManager.startInstances(wfWorkflows);
+
+		final WfDecision decision = createDecision(account);
+		workflowManager.saveDecision(wfWorkflows.get(0), decision);
+
+		final List<Long> wfwIds = Arrays.asList(wfWorkflows.get(1).getWfwId(), wfWorkflows.get(0).getWfwId());
+		final List<WfListWorkflowDecision> listWorkflowDecisions = workflowManager.getWorkflowDecisions(wfwIds);
+		assertThat(listWorkflowDecisions.size(), is(2));
+
+		for (int i = 0; i < wfwIds.size(); i++) {
+			final WfListWorkflowDecision listWorkflowDecision = listWorkflowDecisions.get(i);
+			assertThat(listWorkflowDecision.getWfWorkflow().getWfwId(), is(wfwIds.get(i)));
+
+			final List<WfWorkflowDecision> expected = workflowManager.getWorkflowDecision(wfwIds.get(i));
+			final List<WfWorkflowDecision> actual = listWorkflowDecision.getWorkflowDecisions();
+			assertThat(actual.size(), is(expected.size()));
+			for (int j = 0; j < expected.size(); j++) {
+				assertThat(actual.get(j).getActivityDefinition().getWfadId(), is(expected.get(j).getActivityDefinition().getWfadId()));
+				assertThat(actual.get(j).getActivity() == null, is(expected.get(j).getActivity() == null));
+				assertThat(actual.get(j).getDecisions() == null, is(expected.get(j).getDecisions() == null));
+				assertThat(actual.get(j).getGroups().size(), is(expected.get(j).getGroups().size()));
+			}
+		}
+
+		// The second item is not in the division DIV : only Step 2
+		assertThat(listWorkflowDecisions.get(0).getWorkflowDecisions().size(), is(1));
+		assertActivityExist(secondActivity, listWorkflowDecisions.get(0).getWorkflowDecisions().get(0));
+		// The first one has Step 1, with its decision, and Step 2
+		assertThat(listWorkflowDecisions.get(1).getWorkflowDecisions().size(), is(2));
+		assertFirstDecisionEquals(decision, listWorkflowDecisions.get(1).getWorkflowDecisions().get(0));
+	}
+
+	/**
+	 * Search of the activities having a rule matching any number of criteria.
+	 */
+	@Test
+	public void testFindActivitiesByCriteria() {
+		final WfWorkflowDefinition wfWorkflowDefinition = new WfWorkflowDefinitionBuilder("WorkflowCriteria").build();
+		workflowManager.createWorkflowDefinition(wfWorkflowDefinition);
+
+		final WfActivityDefinition firstActivity = new WfActivityDefinitionBuilder("Step 1", wfWorkflowDefinition.getWfwdId()).build();
+		workflowManager.addActivity(wfWorkflowDefinition, firstActivity, 1);
+		workflowManager.addRule(firstActivity, createRule(firstActivity),
+				Arrays.asList(createCondition("DIVISION", "DIV"), createCondition("ENTITY", "ENT")));
+
+		final WfActivityDefinition secondActivity = new WfActivityDefinitionBuilder("Step 2", wfWorkflowDefinition.getWfwdId()).build();
+		workflowManager.addActivity(wfWorkflowDefinition, secondActivity, 2);
+		workflowManager.addRule(secondActivity, createRule(secondActivity), Arrays.asList(createCondition("DIVISION", "DIV")));
+
+		final WfActivityDefinition thirdActivity = new WfActivityDefinitionBuilder("Step 3", wfWorkflowDefinition.getWfwdId()).build();
+		workflowManager.addActivity(wfWorkflowDefinition, thirdActivity, 3);
+		workflowManager.addRule(thirdActivity, createRule(thirdActivity),
+				Arrays.asList(createCondition("ENTITY", "ENT"), createCondition("NOM", "X"), createCondition("DIVISION", "DIV")));
+
+		final WfActivityCriteria criteria = new WfActivityCriteria();
+		criteria.setConditionCriteria(Arrays.asList(createConditionCriteria("DIVISION", "DIV")));
+		assertThat(getActivityIds(workflowManager.findActivitiesByCriteria(wfWorkflowDefinition, criteria)),
+				is(Arrays.asList(firstActivity.getWfadId(), secondActivity.getWfadId(), thirdActivity.getWfadId())));
+
+		criteria.setConditionCriteria(Arrays.asList(createConditionCriteria("DIVISION", "DIV"), createConditionCriteria("ENTITY", "ENT")));
+		assertThat(getActivityIds(workflowManager.findActivitiesByCriteria(wfWorkflowDefinition, criteria)),
+				is(Arrays.asList(firstActivity.getWfadId(), thirdActivity.getWfadId())));
+
+		// A criteria given twice is counted once
+		criteria.setConditionCriteria(Arrays.asList(createConditionCriteria("NOM", "X"), createConditionCriteria("DIVISION", "DIV"),
+				createConditionCriteria("ENTITY", "ENT"), createConditionCriteria("NOM", "X")));
+		assertThat(getActivityIds(workflowManager.findActivitiesByCriteria(wfWorkflowDefinition, criteria)),
+				is(Arrays.asList(thirdActivity.getWfadId())));
+
+		criteria.setConditionCriteria(Arrays.asList(createConditionCriteria("DIVISION", "DIV"), createConditionCriteria("ENTITY", "OTHER")));
+		assertThat(workflowManager.findActivitiesByCriteria(wfWorkflowDefinition, criteria).isEmpty(), is(true));
+	}
+
+	private static RuleDefinition createRule(final WfActivityDefinition activityDefinition) {
+		final RuleDefinition rule = new RuleDefinition();
+		rule.setItemId(activityDefinition.getWfadId());
+		return rule;
+	}
+
+	private static RuleConditionDefinition createCondition(final String field, final String expression) {
+		final RuleConditionDefinition condition = new RuleConditionDefinition();
+		condition.setField(field);
+		condition.setOperator("=");
+		condition.setExpression(expression);
+		return condition;
+	}
+
+	private static RuleConditionCriteria createConditionCriteria(final String field, final String value) {
+		final RuleConditionCriteria conditionCriteria = new RuleConditionCriteria();
+		conditionCriteria.setField(field);
+		conditionCriteria.setValue(value);
+		return conditionCriteria;
+	}
+
+	private static List<Long> getActivityIds(final List<WfActivityDefinition> activityDefinitions) {
+		final List<Long> activityIds = new ArrayList<>();
+		for (final WfActivityDefinition activityDefinition : activityDefinitions) {
+			activityIds.add(activityDefinition.getWfadId());
+		}
+		return activityIds;
+	}
+
+	private static WfDecision createDecision(final Account account) {
+		final WfDecision wfDecision = new WfDecision();
+		wfDecision.setChoice(1);
+		wfDecision.setUsername(account.getId());
+		wfDecision.setDecisionDate(new Date());
+		return wfDecision;
+	}
 }
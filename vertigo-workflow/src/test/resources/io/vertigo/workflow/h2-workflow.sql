@@ -0,0 +1,222 @@
+-- ============================================================
+--   Rules and workflow schema for the embedded H2 database of the tests and of the benchmarks
+--   Ids are generated by the SQL data store from the SEQ_ sequences
+--   The script can be run again in the same JVM
+-- ============================================================
+
+create sequence if not exists SEQ_RULE_DEFINITION start with 1000 cache 20;
+create sequence if not exists SEQ_RULE_CONDITION_DEFINITION start with 1000 cache 20;
+create sequence if not exists SEQ_SELECTOR_DEFINITION start with 1000 cache 20;
+create sequence if not exists SEQ_RULE_FILTER_DEFINITION start with 1000 cache 20;
+create sequence if not exists SEQ_WF_ACTIVITY start with 1000 cache 20;
+create sequence if not exists SEQ_WF_ACTIVITY_DEFINITION start with 1000 cache 20;
+create sequence if not exists SEQ_WF_APPROVER start with 1000 cache 20;
+create sequence if not exists SEQ_WF_DECISION start with 1000 cache 20;
+create sequence if not exists SEQ_WF_TRANSITION_DEFINITION start with 1000 cache 20;
+create sequence if not exists SEQ_WF_WORKFLOW start with 1000 cache 20;
+create sequence if not exists SEQ_WF_WORKFLOW_DEFINITION start with 1000 cache 20;
+
+create table if not exists RULE_DEFINITION
+(
+    ID          	 NUMERIC     	not null,
+    CREATION_DATE	 DATE        	,
+    ITEM_ID     	 NUMERIC     	,
+    LABEL       	 VARCHAR(100)	,
+    constraint PK_RULE_DEFINITION primary key (ID)
+);
+
+create table if not exists RULE_CONDITION_DEFINITION
+(
+    ID          	 NUMERIC     	not null,
+    FIELD       	 VARCHAR(100)	,
+    OPERATOR    	 VARCHAR(120)	,
+    EXPRESSION  	 VARCHAR(100)	,
+    RUD_ID      	 NUMERIC     	,
+    constraint PK_RULE_CONDITION_DEFINITION primary key (ID)
+);
+
+create table if not exists SELECTOR_DEFINITION
+(
+    ID          	 NUMERIC     	not null,
+    CREATION_DATE	 DATE        	,
+    ITEM_ID     	 NUMERIC     	,
+    GROUP_ID    	 VARCHAR(100)	,
+    constraint PK_SELECTOR_DEFINITION primary key (ID)
+);
+
+create table if not exists RULE_FILTER_DEFINITION
+(
+    ID          	 NUMERIC     	not null,
+    FIELD       	 VARCHAR(100)	,
+    OPERATOR    	 VARCHAR(120)	,
+    EXPRESSION  	 VARCHAR(100)	,
+    SEL_ID      	 NUMERIC     	,
+    constraint PK_RULE_FILTER_DEFINITION primary key (ID)
+);
+
+alter table RULE_CONDITION_DEFINITION
+	add constraint if not exists FK_RUD_COD_RULE_DEFINITION foreign key (RUD_ID)
+	references RULE_DEFINITION (ID);
+
+create index if not exists RUD_COD_RULE_DEFINITION_FK on RULE_CONDITION_DEFINITION (RUD_ID asc);
+
+create index if not exists RCD_FIELD_EXPRESSION on RULE_CONDITION_DEFINITION (FIELD asc, EXPRESSION asc, RUD_ID asc);
+
+create index if not exists RUD_ITEM_ID on RULE_DEFINITION (ITEM_ID asc, ID asc);
+
+alter table RULE_FILTER_DEFINITION
+	add constraint if not exists FK_SEL_FID_SELECTOR_DEFINITION foreign key (SEL_ID)
+	references SELECTOR_DEFINITION (ID);
+
+create index if not exists SEL_FID_SELECTOR_DEFINITION_FK on RULE_FILTER_DEFINITION (SEL_ID asc);
+
+create index if not exists SEL_ITEM_ID on SELECTOR_DEFINITION (ITEM_ID asc);
+
+create table if not exists WF_MULTIPLICITY_DEFINITION
+(
+    WFMD_CODE   	 VARCHAR(100)	not null,
+    LABEL       	 VARCHAR(100)	,
+    constraint PK_WF_MULTIPLICITY_DEFINITION primary key (WFMD_CODE)
+);
+
+create table if not exists WF_STATUS
+(
+    WFS_CODE    	 VARCHAR(100)	not null,
+    LABEL       	 VARCHAR(100)	,
+    constraint PK_WF_STATUS primary key (WFS_CODE)
+);
+
+create table if not exists WF_WORKFLOW_DEFINITION
+(
+    WFWD_ID     	 NUMERIC     	not null,
+    NAME        	 VARCHAR(100)	,
+    DATE        	 DATE        	,
+    WFAD_ID     	 NUMERIC     	,
+    constraint PK_WF_WORKFLOW_DEFINITION primary key (WFWD_ID)
+);
+
+create table if not exists WF_ACTIVITY_DEFINITION
+(
+    WFAD_ID     	 NUMERIC     	not null,
+    NAME        	 VARCHAR(100)	,
+    LEVEL       	 NUMERIC     	,
+    WFMD_CODE   	 VARCHAR(100)	,
+    WFWD_ID     	 NUMERIC     	not null,
+    constraint PK_WF_ACTIVITY_DEFINITION primary key (WFAD_ID)
+);
+
+create table if not exists WF_TRANSITION_DEFINITION
+(
+    WFTD_ID     	 NUMERIC     	not null,
+    NAME        	 VARCHAR(100)	not null,
+    WFWD_ID     	 NUMERIC     	,
+    WFAD_ID_FROM	 NUMERIC     	not null,
+    WFAD_ID_TO  	 NUMERIC     	not null,
+    constraint PK_WF_TRANSITION_DEFINITION primary key (WFTD_ID)
+);
+
+create table if not exists WF_WORKFLOW
+(
+    WFW_ID      	 NUMERIC     	not null,
+    CREATION_DATE	 DATE        	,
+    ITEM_ID     	 NUMERIC     	,
+    USERNAME    	 VARCHAR(100)	,
+    USER_LOGIC  	 BOOLEAN     	not null,
+    WFWD_ID     	 NUMERIC     	not null,
+    WFS_CODE    	 VARCHAR(100)	not null,
+    WFA_ID_2    	 NUMERIC     	,
+    constraint PK_WF_WORKFLOW primary key (WFW_ID)
+);
+
+create table if not exists WF_ACTIVITY
+(
+    WFA_ID      	 NUMERIC     	not null,
+    CREATION_DATE	 DATE        	,
+    EXPECTED_DECISIONS	 NUMERIC     	,
+    RECEIVED_DECISIONS	 NUMERIC     	,
+    WFW_ID      	 NUMERIC     	not null,
+    WFAD_ID     	 NUMERIC     	not null,
+    constraint PK_WF_ACTIVITY primary key (WFA_ID)
+);
+
+create table if not exists WF_APPROVER
+(
+    WFAP_ID     	 NUMERIC     	not null,
+    USERNAME    	 VARCHAR(100)	not null,
+    WFE_ID      	 NUMERIC     	,
+    WFA_ID      	 NUMERIC     	not null,
+    constraint PK_WF_APPROVER primary key (WFAP_ID)
+);
+
+create table if not exists WF_DECISION
+(
+    WFE_ID      	 NUMERIC     	not null,
+    USERNAME    	 VARCHAR(100)	,
+    CHOICE      	 NUMERIC     	,
+    DECISION_DATE	 DATE        	,
+    COMMENTS    	 VARCHAR(3000)	,
+    WFA_ID      	 NUMERIC     	,
+    constraint PK_WF_DECISION primary key (WFE_ID)
+);
+
+merge into WF_MULTIPLICITY_DEFINITION (WFMD_CODE, LABEL) key (WFMD_CODE) values ('SIN', 'Single');
+merge into WF_MULTIPLICITY_DEFINITION (WFMD_CODE, LABEL) key (WFMD_CODE) values ('MUL', 'Multiple');
+
+merge into WF_STATUS (WFS_CODE, LABEL) key (WFS_CODE) values ('CRE', 'Created');
+merge into WF_STATUS (WFS_CODE, LABEL) key (WFS_CODE) values ('STA', 'Started');
+merge into WF_STATUS (WFS_CODE, LABEL) key (WFS_CODE) values ('PAU', 'Paused');
+merge into WF_STATUS (WFS_CODE, LABEL) key (WFS_CODE) values ('END', 'Ended');
+
+alter table WF_ACTIVITY_DEFINITION
+	add constraint if not exists FK_WFAD_WFMD_WF_MULTIPLICITY_DEFINITION foreign key (WFMD_CODE)
+	references WF_MULTIPLICITY_DEFINITION (WFMD_CODE);
+
+alter table WF_ACTIVITY_DEFINITION
+	add constraint if not exists FK_WFWD_WFAD_CURRENT_WF_WORKFLOW_DEFINITION foreign key (WFWD_ID)
+	references WF_WORKFLOW_DEFINITION (WFWD_ID);
+
+create index if not exists WFWD_WFAD_CURRENT_WF_WORKFLOW_DEFINITION_FK on WF_ACTIVITY_DEFINITION (WFWD_ID asc);
+
+alter table WF_TRANSITION_DEFINITION
+	add constraint if not exists FK_WFT_WFA_FROM_WF_ACTIVITY_DEFINITION foreign key (WFAD_ID_FROM)
+	references WF_ACTIVITY_DEFINITION (WFAD_ID);
+
+alter table WF_TRANSITION_DEFINITION
+	add constraint if not exists FK_WFT_WFA_TO_WF_ACTIVITY_DEFINITION foreign key (WFAD_ID_TO)
+	references WF_ACTIVITY_DEFINITION (WFAD_ID);
+
+create index if not exists WFT_WFA_FROM_WF_ACTIVITY_DEFINITION_FK on WF_TRANSITION_DEFINITION (WFAD_ID_FROM asc);
+
+create index if not exists WFWD_WFTD_WF_WORKFLOW_DEFINITION_FK on WF_TRANSITION_DEFINITION (WFWD_ID asc);
+
+alter table WF_WORKFLOW
+	add constraint if not exists FK_WFWD_WFW_WF_WORKFLOW_DEFINITION foreign key (WFWD_ID)
+	references WF_WORKFLOW_DEFINITION (WFWD_ID);
+
+alter table WF_WORKFLOW
+	add constraint if not exists FK_WFW_WFS_WF_STATUS foreign key (WFS_CODE)
+	references WF_STATUS (WFS_CODE);
+
+create index if not exists WFW_ITEM_ID on WF_WORKFLOW (WFWD_ID asc, ITEM_ID asc);
+
+alter table WF_ACTIVITY
+	add constraint if not exists FK_WFW_WFA_WF_WORKFLOW foreign key (WFW_ID)
+	references WF_WORKFLOW (WFW_ID);
+
+alter table WF_ACTIVITY
+	add constraint if not exists FK_WFAD_WFA_WF_ACTIVITY_DEFINITION foreign key (WFAD_ID)
+	references WF_ACTIVITY_DEFINITION (WFAD_ID);
+
+create index if not exists WFW_WFA_WF_WORKFLOW_FK on WF_ACTIVITY (WFW_ID asc);
+
+alter table WF_DECISION
+	add constraint if not exists FK_WFE_WFA_WF_ACTIVITY foreign key (WFA_ID)
+	references WF_ACTIVITY (WFA_ID);
+
+create index if not exists WFE_WFA_WF_ACTIVITY_FK on WF_DECISION (WFA_ID asc);
+
+alter table WF_APPROVER
+	add constraint if not exists FK_WFAP_WFA_WF_ACTIVITY foreign key (WFA_ID)
+	references WF_ACTIVITY (WFA_ID);
+
+create index if not exists WFAP_WFA_WF_ACTIVITY_FK on WF_APPROVER (WFA_ID asc, USERNAME asc);